@@ -0,0 +1,163 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.grizzly.nativetls.benchmarks;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLEngineResult;
+import javax.net.ssl.SSLException;
+import org.glassfish.grizzly.benchmarks.SSLEngines;
+import org.glassfish.grizzly.nativetls.NativeSSLContextConfigurator;
+import org.glassfish.grizzly.nativetls.NativeTlsProvider;
+import org.glassfish.grizzly.ssl.SSLContextConfigurator;
+import org.glassfish.grizzly.ssl.SSLEngineConfigurator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link SSLEngine} wrap/unwrap throughput of the JDK provider compared to
+ * the native {@link NativeTlsProvider}s, on heap or direct
+ * {@link ByteBuffer}s. The native providers have to be added to the
+ * classpath, the benchmark fails to set up if the <tt>provider</tt> isn't
+ * available.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SSLEngineBenchmark {
+
+    @Param({"jdk", "openssl", "conscrypt"})
+    public String provider;
+
+    @Param({"1024", "16384"})
+    public int messageSize;
+
+    @Param({"false", "true"})
+    public boolean direct;
+
+    private SSLEngine clientEngine;
+    private SSLEngine serverEngine;
+    private ByteBuffer plaintext;
+    private ByteBuffer netBuffer;
+    private ByteBuffer appBuffer;
+
+    @Setup
+    public void setUp() throws Exception {
+        final SSLContextConfigurator sslContextConfigurator;
+        if ("jdk".equals(provider)) {
+            sslContextConfigurator = new SSLContextConfigurator(false);
+        } else {
+            final NativeSSLContextConfigurator nativeConfigurator =
+                    new NativeSSLContextConfigurator(false);
+            nativeConfigurator.setProviders("openssl".equals(provider)
+                    ? NativeTlsProvider.OPENSSL
+                    : NativeTlsProvider.CONSCRYPT);
+            sslContextConfigurator = nativeConfigurator;
+        }
+
+        SSLEngines.setTestStores(sslContextConfigurator);
+
+        final SSLContext sslContext = sslContextConfigurator.createSSLContext(true);
+        clientEngine = new SSLEngineConfigurator(sslContext, true, false, false)
+                .createSSLEngine();
+        serverEngine = new SSLEngineConfigurator(sslContext, false, false, false)
+                .createSSLEngine();
+
+        if (sslContextConfigurator instanceof NativeSSLContextConfigurator
+                && !((NativeSSLContextConfigurator) sslContextConfigurator).isNative()) {
+            throw new IllegalStateException("The " + provider
+                    + " native TLS provider is not available");
+        }
+
+        SSLEngines.handshake(clientEngine, serverEngine);
+
+        plaintext = allocate(messageSize);
+        netBuffer = allocate(clientEngine.getSession().getPacketBufferSize());
+        appBuffer = allocate(serverEngine.getSession().getApplicationBufferSize());
+    }
+
+    @Benchmark
+    public int wrap() throws SSLException {
+        return encrypt().bytesProduced();
+    }
+
+    @Benchmark
+    public int roundTrip() throws SSLException {
+        encrypt();
+        netBuffer.flip();
+        appBuffer.clear();
+        final SSLEngineResult result = serverEngine.unwrap(netBuffer, appBuffer);
+        if (result.getStatus() != SSLEngineResult.Status.OK) {
+            throw new SSLException("Unexpected unwrap status " + result);
+        }
+
+        return result.bytesProduced();
+    }
+
+    private SSLEngineResult encrypt() throws SSLException {
+        plaintext.clear();
+        netBuffer.clear();
+        final SSLEngineResult result = clientEngine.wrap(plaintext, netBuffer);
+        if (result.getStatus() != SSLEngineResult.Status.OK) {
+            throw new SSLException("Unexpected wrap status " + result);
+        }
+
+        return result;
+    }
+
+    private ByteBuffer allocate(final int size) {
+        return direct ? ByteBuffer.allocateDirect(size) : ByteBuffer.allocate(size);
+    }
+}
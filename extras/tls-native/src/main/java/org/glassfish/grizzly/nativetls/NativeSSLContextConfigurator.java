@@ -0,0 +1,160 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.grizzly.nativetls;
+
+import java.security.KeyManagementException;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.net.ssl.KeyManager;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManager;
+import org.glassfish.grizzly.Grizzly;
+import org.glassfish.grizzly.ssl.SSLContextConfigurator;
+
+/**
+ * {@link SSLContextConfigurator}, which creates the {@link SSLContext} using
+ * the first available {@link NativeTlsProvider}, so the {@link
+ * javax.net.ssl.SSLEngine}s created by the {@link
+ * org.glassfish.grizzly.ssl.SSLEngineConfigurator} (the {@link
+ * org.glassfish.grizzly.ssl.SSLEngineFactory}) based on this configurator
+ * wrap and unwrap the data by the native TLS library. If none of the native
+ * providers is available, the default JDK provider is used.
+ *
+ * <pre>
+ * final NativeSSLContextConfigurator sslContextConfigurator =
+ *         new NativeSSLContextConfigurator();
+ * sslContextConfigurator.setKeyStoreFile(...);
+ * ...
+ * final SSLEngineConfigurator serverConfig = new SSLEngineConfigurator(
+ *         sslContextConfigurator.createSSLContext(true), false, false, false);
+ * </pre>
+ *
+ * The native engines work best on direct {@link java.nio.ByteBuffer}s, which
+ * they don't have to copy, so it's recommended to use a direct
+ * {@link org.glassfish.grizzly.memory.PooledMemoryManager} on the transport,
+ * the SSL records are read and unwrapped into the buffers it allocates.
+ */
+public class NativeSSLContextConfigurator extends SSLContextConfigurator {
+    private static final Logger LOGGER =
+            Grizzly.logger(NativeSSLContextConfigurator.class);
+
+    private volatile NativeTlsProvider[] providers = {
+        NativeTlsProvider.OPENSSL, NativeTlsProvider.CONSCRYPT
+    };
+
+    private volatile NativeTlsProvider nativeProvider;
+
+    /**
+     * Default constructor. Reads configuration properties from
+     * {@link System#getProperties()}. Calls {@link #NativeSSLContextConfigurator(boolean)} with
+     * <code>true</code>.
+     */
+    public NativeSSLContextConfigurator() {
+        super();
+    }
+
+    /**
+     * Constructor that allows you creating empty configuration.
+     *
+     * @param readSystemProperties If <code>true</code> populates configuration from
+     *                      {@link System#getProperties()}, else you have empty
+     *                      configuration.
+     */
+    public NativeSSLContextConfigurator(final boolean readSystemProperties) {
+        super(readSystemProperties);
+    }
+
+    /**
+     * @return the {@link NativeTlsProvider}s in the order they are tried.
+     */
+    public NativeTlsProvider[] getProviders() {
+        return Arrays.copyOf(providers, providers.length);
+    }
+
+    /**
+     * Sets the {@link NativeTlsProvider}s to try, in order, when creating
+     * the {@link SSLContext}.
+     */
+    public void setProviders(final NativeTlsProvider... providers) {
+        this.providers = Arrays.copyOf(providers, providers.length);
+    }
+
+    /**
+     * @return the {@link NativeTlsProvider} used by the last created
+     * {@link SSLContext}, or <code>null</code> if the JDK provider was used.
+     */
+    public NativeTlsProvider getNativeProvider() {
+        return nativeProvider;
+    }
+
+    /**
+     * @return <code>true</code>, if the last created {@link SSLContext} is
+     * backed by a native TLS library.
+     */
+    public boolean isNative() {
+        return nativeProvider != null;
+    }
+
+    @Override
+    protected SSLContext newSSLContext(final String protocol,
+            final KeyManager[] keyManagers, final TrustManager[] trustManagers)
+            throws NoSuchAlgorithmException, KeyManagementException {
+        for (NativeTlsProvider provider : providers) {
+            try {
+                final SSLContext sslContext = provider.newSSLContext(
+                        protocol, keyManagers, trustManagers);
+                nativeProvider = provider;
+                LOGGER.log(Level.CONFIG, "Using the native TLS provider {0}",
+                        provider);
+                return sslContext;
+            } catch (Exception | LinkageError e) {
+                LOGGER.log(Level.FINE, "The native TLS provider " + provider
+                        + " is not available", e);
+            }
+        }
+
+        nativeProvider = null;
+        LOGGER.log(Level.CONFIG, "No native TLS provider is available, using the JDK one");
+        return super.newSSLContext(protocol, keyManagers, trustManagers);
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.grizzly.nativetls;
+
+import java.security.GeneralSecurityException;
+import java.security.Provider;
+import javax.net.ssl.KeyManager;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManager;
+
+/**
+ * A JCA {@link Provider}, which implements the {@link SSLContext} on top of
+ * a native TLS library. The provider is looked up by its class name, so
+ * it's used only if its jar is present on the classpath and its native
+ * library can be loaded on the host.
+ */
+public final class NativeTlsProvider {
+
+    /**
+     * The OpenSSL library installed on the host, loaded by the wildfly-openssl
+     * provider (the <tt>org.wildfly.openssl.path</tt> system property may
+     * point to the library location).
+     */
+    public static final NativeTlsProvider OPENSSL =
+            new NativeTlsProvider("org.wildfly.openssl.OpenSSLProvider", "openssl.");
+
+    /**
+     * The BoringSSL library bundled with the Conscrypt provider.
+     */
+    public static final NativeTlsProvider CONSCRYPT =
+            new NativeTlsProvider("org.conscrypt.OpenSSLProvider", "");
+
+    private final String providerClassName;
+    private final String protocolPrefix;
+
+    private Provider provider;
+
+    /**
+     * @param providerClassName the {@link Provider} class name.
+     * @param protocolPrefix the prefix the provider adds to the names of the
+     *  security protocols it implements, like <tt>openssl.</tt> for
+     *  <tt>openssl.TLSv1.2</tt>.
+     */
+    public NativeTlsProvider(final String providerClassName,
+            final String protocolPrefix) {
+        if (providerClassName == null) {
+            throw new IllegalArgumentException("providerClassName can not be null");
+        }
+
+        this.providerClassName = providerClassName;
+        this.protocolPrefix = protocolPrefix != null ? protocolPrefix : "";
+    }
+
+    public String getProviderClassName() {
+        return providerClassName;
+    }
+
+    public String getProtocolPrefix() {
+        return protocolPrefix;
+    }
+
+    /**
+     * Creates and initializes the provider's {@link SSLContext}.
+     *
+     * @throws ClassNotFoundException if the provider is not on the classpath.
+     * @throws LinkageError if the native library can't be loaded.
+     */
+    SSLContext newSSLContext(final String protocol,
+            final KeyManager[] keyManagers, final TrustManager[] trustManagers)
+            throws ReflectiveOperationException, GeneralSecurityException {
+        final SSLContext sslContext = SSLContext.getInstance(
+                protocolPrefix + protocol, getProvider());
+        sslContext.init(keyManagers, trustManagers, null);
+        return sslContext;
+    }
+
+    private synchronized Provider getProvider()
+            throws ReflectiveOperationException {
+        if (provider == null) {
+            final Class<?> providerClass = Class.forName(providerClassName,
+                    true, NativeTlsProvider.class.getClassLoader());
+            provider = (Provider) providerClass.newInstance();
+        }
+
+        return provider;
+    }
+
+    @Override
+    public String toString() {
+        return providerClassName;
+    }
+}
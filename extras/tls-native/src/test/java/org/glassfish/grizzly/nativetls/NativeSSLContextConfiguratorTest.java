@@ -0,0 +1,110 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.grizzly.nativetls;
+
+import java.net.URL;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import org.glassfish.grizzly.ssl.SSLEngineConfigurator;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test the {@link NativeSSLContextConfigurator} provider selection.
+ */
+public class NativeSSLContextConfiguratorTest {
+
+    @Test
+    public void testFallbackToJdkProvider() throws Exception {
+        final NativeSSLContextConfigurator sslContextConfigurator =
+                createConfigurator();
+        sslContextConfigurator.setProviders(
+                new NativeTlsProvider("org.example.MissingProvider", "missing."));
+
+        final SSLContext sslContext = sslContextConfigurator.createSSLContext(true);
+        assertNotNull(sslContext);
+        assertFalse(sslContextConfigurator.isNative());
+        assertNull(sslContextConfigurator.getNativeProvider());
+
+        final SSLEngine sslEngine = new SSLEngineConfigurator(
+                sslContext, false, false, false).createSSLEngine();
+        assertTrue(sslEngine.getEnabledCipherSuites().length > 0);
+    }
+
+    @Test
+    public void testProviderSelection() throws Exception {
+        // the JDK's own JSSE provider stands in for a native one
+        final NativeTlsProvider provider = new NativeTlsProvider(
+                "com.sun.net.ssl.internal.ssl.Provider", "");
+
+        final NativeSSLContextConfigurator sslContextConfigurator =
+                createConfigurator();
+        sslContextConfigurator.setProviders(
+                new NativeTlsProvider("org.example.MissingProvider", ""),
+                provider);
+
+        final SSLContext sslContext = sslContextConfigurator.createSSLContext(true);
+        assertNotNull(sslContext);
+        assertTrue(sslContextConfigurator.isNative());
+        assertSame(provider, sslContextConfigurator.getNativeProvider());
+    }
+
+    private static NativeSSLContextConfigurator createConfigurator() {
+        final NativeSSLContextConfigurator sslContextConfigurator =
+                new NativeSSLContextConfigurator(false);
+        final ClassLoader cl = NativeSSLContextConfiguratorTest.class.getClassLoader();
+
+        final URL cacertsUrl = cl.getResource("ssltest-cacerts.jks");
+        if (cacertsUrl != null) {
+            sslContextConfigurator.setTrustStoreFile(cacertsUrl.getFile());
+            sslContextConfigurator.setTrustStorePass("changeit");
+        }
+
+        final URL keystoreUrl = cl.getResource("ssltest-keystore.jks");
+        if (keystoreUrl != null) {
+            sslContextConfigurator.setKeyStoreFile(keystoreUrl.getFile());
+            sslContextConfigurator.setKeyStorePass("changeit");
+        }
+
+        return sslContextConfigurator;
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.grizzly.benchmarks;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import org.glassfish.grizzly.memory.Buffers;
+import org.glassfish.grizzly.memory.BuffersBuffer;
+import org.glassfish.grizzly.memory.HeapMemoryManager;
+import org.glassfish.grizzly.memory.MemoryManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link BuffersBuffer} composite operations: composing, single byte and
+ * multi-byte reads, which cross the underlying buffers' boundaries, bulk reads
+ * and conversion to a {@link ByteBuffer}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BuffersBufferBenchmark {
+
+    @Param({"4", "32"})
+    public int buffersCount;
+
+    @Param({"1000"})
+    public int bufferSize;
+
+    private MemoryManager mm;
+    private byte[][] chunks;
+    private BuffersBuffer composite;
+    private byte[] bulk;
+
+    @Setup
+    public void setUp() {
+        mm = new HeapMemoryManager();
+        chunks = new byte[buffersCount][bufferSize];
+        for (int i = 0; i < buffersCount; i++) {
+            for (int j = 0; j < bufferSize; j++) {
+                chunks[i][j] = (byte) (i + j);
+            }
+        }
+
+        composite = compose();
+        bulk = new byte[composite.remaining()];
+    }
+
+    @Benchmark
+    public BuffersBuffer compose() {
+        final BuffersBuffer buffer = BuffersBuffer.create(mm);
+        for (byte[] chunk : chunks) {
+            buffer.append(Buffers.wrap(mm, chunk));
+        }
+
+        return buffer;
+    }
+
+    @Benchmark
+    public long getBytes() {
+        long sum = 0;
+        final int limit = composite.limit();
+        for (int i = 0; i < limit; i++) {
+            sum += composite.get(i);
+        }
+
+        return sum;
+    }
+
+    @Benchmark
+    public long getLongs() {
+        long sum = 0;
+        final int limit = composite.limit() - 8;
+        for (int i = 0; i <= limit; i += 8) {
+            sum += composite.getLong(i);
+        }
+
+        return sum;
+    }
+
+    @Benchmark
+    public byte[] bulkGet() {
+        composite.position(0);
+        composite.get(bulk);
+        return bulk;
+    }
+
+    @Benchmark
+    public ByteBuffer toByteBuffer() {
+        composite.position(0);
+        return composite.toByteBuffer();
+    }
+}
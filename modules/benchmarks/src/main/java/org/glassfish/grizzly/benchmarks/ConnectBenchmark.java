@@ -0,0 +1,123 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.grizzly.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.glassfish.grizzly.Connection;
+import org.glassfish.grizzly.filterchain.FilterChainBuilder;
+import org.glassfish.grizzly.filterchain.TransportFilter;
+import org.glassfish.grizzly.nio.transport.TCPNIOTransport;
+import org.glassfish.grizzly.nio.transport.TCPNIOTransportBuilder;
+import org.glassfish.grizzly.utils.EchoFilter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Loopback connection rate: each operation connects, exchanges a byte with
+ * the server, so the connection is accepted and served, and closes the
+ * connection. Compares a single server socket with the
+ * SO_REUSEPORT acceptors.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class ConnectBenchmark {
+
+    @Param({"false", "true"})
+    public boolean reusePortAcceptors;
+
+    private TCPNIOTransport serverTransport;
+    private TCPNIOTransport clientTransport;
+    private int port;
+    private final byte[] message = new byte[1];
+
+    @Setup
+    public void setUp() throws IOException {
+        final FilterChainBuilder serverChain = FilterChainBuilder.stateless();
+        serverChain.add(new TransportFilter());
+        serverChain.add(new EchoFilter());
+
+        serverTransport = TCPNIOTransportBuilder.newInstance()
+                .setReusePortAcceptors(reusePortAcceptors)
+                .build();
+        serverTransport.setProcessor(serverChain.build());
+        port = Loopback.start(serverTransport);
+
+        // close with RST to not run out of ephemeral ports because of TIME_WAIT
+        clientTransport = TCPNIOTransportBuilder.newInstance()
+                .setLinger(0)
+                .build();
+        clientTransport.setProcessor(Loopback.clientFilterChain());
+        clientTransport.start();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        clientTransport.shutdownNow();
+        serverTransport.shutdownNow();
+    }
+
+    @Benchmark
+    public void connect() throws Exception {
+        final Connection connection = Loopback.connect(clientTransport, port);
+        try {
+            Loopback.echo(connection, message);
+        } finally {
+            connection.closeSilently();
+        }
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.grizzly.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.glassfish.grizzly.Buffer;
+import org.glassfish.grizzly.filterchain.BaseFilter;
+import org.glassfish.grizzly.filterchain.DefaultFilterChain;
+import org.glassfish.grizzly.filterchain.FilterChain;
+import org.glassfish.grizzly.filterchain.FilterChainBuilder;
+import org.glassfish.grizzly.filterchain.FilterChainContext;
+import org.glassfish.grizzly.filterchain.NextAction;
+import org.glassfish.grizzly.memory.Buffers;
+import org.glassfish.grizzly.nio.transport.TCPNIOTransport;
+import org.glassfish.grizzly.nio.transport.TCPNIOTransportBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link DefaultFilterChain} traversal: a read event passed upstream through
+ * the pass-through filters, and a read event echoed back downstream.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FilterChainBenchmark {
+
+    @Param({"2", "8", "16"})
+    public int filtersCount;
+
+    private MemoryConnection connection;
+    private MemoryTransportFilter transportFilter;
+    private FilterChain upstreamChain;
+    private FilterChain echoChain;
+    private Buffer message;
+
+    @Setup
+    public void setUp() {
+        // the transport is never started, it's used by the in-memory connection
+        final TCPNIOTransport transport = TCPNIOTransportBuilder.newInstance().build();
+        connection = new MemoryConnection(transport);
+        transportFilter = new MemoryTransportFilter();
+        message = Buffers.wrap(transport.getMemoryManager(), new byte[128]);
+
+        upstreamChain = buildChain(new BaseFilter() {
+
+            @Override
+            public NextAction handleRead(final FilterChainContext ctx)
+                    throws IOException {
+                return ctx.getStopAction();
+            }
+        });
+
+        echoChain = buildChain(new BaseFilter() {
+
+            @Override
+            public NextAction handleRead(final FilterChainContext ctx)
+                    throws IOException {
+                ctx.write(ctx.getMessage());
+                return ctx.getStopAction();
+            }
+        });
+    }
+
+    @Benchmark
+    public long upstream() {
+        return transportFilter.read(upstreamChain, connection, message);
+    }
+
+    @Benchmark
+    public long echo() {
+        return transportFilter.read(echoChain, connection, message);
+    }
+
+    private FilterChain buildChain(final BaseFilter lastFilter) {
+        final FilterChainBuilder builder = FilterChainBuilder.stateless();
+        builder.add(transportFilter);
+        for (int i = 0; i < filtersCount; i++) {
+            builder.add(new PassThroughFilter());
+        }
+        builder.add(lastFilter);
+
+        return builder.build();
+    }
+
+    private static final class PassThroughFilter extends BaseFilter {
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.grizzly.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.glassfish.grizzly.filterchain.FilterChainContext;
+import org.glassfish.grizzly.http.HttpContent;
+import org.glassfish.grizzly.http.HttpServerFilter;
+import org.glassfish.grizzly.memory.Buffers;
+import org.glassfish.grizzly.memory.MemoryManager;
+import org.glassfish.grizzly.nio.transport.TCPNIOTransport;
+import org.glassfish.grizzly.nio.transport.TCPNIOTransportBuilder;
+import org.glassfish.grizzly.utils.Charsets;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Request-line and header parsing by the {@link HttpServerFilter}.
+ *
+ * Each request is parsed in a new in-memory connection, so the parsed request
+ * isn't treated as a request in process by the next invocation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HttpCodecBenchmark {
+
+    static final String SIMPLE_REQUEST =
+            "GET /index.html HTTP/1.1\r\n"
+            + "Host: localhost\r\n"
+            + "\r\n";
+
+    static final String BROWSER_REQUEST =
+            "GET /app/images/logo.png?size=large&theme=dark HTTP/1.1\r\n"
+            + "Host: www.example.com\r\n"
+            + "Connection: keep-alive\r\n"
+            + "Cache-Control: max-age=0\r\n"
+            + "User-Agent: Mozilla/5.0 (X11; Linux x86_64) AppleWebKit/537.36"
+            + " (KHTML, like Gecko) Chrome/60.0.3112.113 Safari/537.36\r\n"
+            + "Accept: text/html,application/xhtml+xml,application/xml;q=0.9,"
+            + "image/webp,image/apng,*/*;q=0.8\r\n"
+            + "Referer: http://www.example.com/app/index.html\r\n"
+            + "Accept-Encoding: gzip, deflate\r\n"
+            + "Accept-Language: en-US,en;q=0.8\r\n"
+            + "Cookie: JSESSIONID=5E1E3C1D1B0A9F8E7D6C5B4A39281706; theme=dark;"
+            + " _ga=GA1.2.1234567890.1500000000\r\n"
+            + "If-Modified-Since: Mon, 04 Sep 2017 10:00:00 GMT\r\n"
+            + "\r\n";
+
+    @Param({"simple", "browser"})
+    public String request;
+
+    private TCPNIOTransport transport;
+    private MemoryManager memoryManager;
+    private HttpServerFilter httpServerFilter;
+    private byte[] requestBytes;
+
+    @Setup
+    public void setUp() {
+        // the transport is never started, it's used by the in-memory connections
+        transport = TCPNIOTransportBuilder.newInstance().build();
+        memoryManager = transport.getMemoryManager();
+        httpServerFilter = new HttpServerFilter();
+        requestBytes = ("simple".equals(request) ? SIMPLE_REQUEST : BROWSER_REQUEST)
+                .getBytes(Charsets.ASCII_CHARSET);
+    }
+
+    @Benchmark
+    public Object parse() throws IOException {
+        final FilterChainContext ctx =
+                FilterChainContext.create(new MemoryConnection(transport));
+        ctx.setMessage(Buffers.wrap(memoryManager, requestBytes));
+        httpServerFilter.handleRead(ctx);
+
+        final HttpContent content = ctx.getMessage();
+        return content.getHttpHeader();
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.grizzly.benchmarks;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.glassfish.grizzly.filterchain.FilterChain;
+import org.glassfish.grizzly.filterchain.FilterChainBuilder;
+import org.glassfish.grizzly.http.HttpCodecFilter;
+import org.glassfish.grizzly.http.KeepAlive;
+import org.glassfish.grizzly.http.server.HttpHandler;
+import org.glassfish.grizzly.http.server.HttpServerFilter;
+import org.glassfish.grizzly.http.server.Request;
+import org.glassfish.grizzly.http.server.Response;
+import org.glassfish.grizzly.http.server.ServerFilterConfiguration;
+import org.glassfish.grizzly.memory.MemoryManager;
+import org.glassfish.grizzly.nio.transport.TCPNIOTransport;
+import org.glassfish.grizzly.nio.transport.TCPNIOTransportBuilder;
+import org.glassfish.grizzly.utils.Charsets;
+import org.glassfish.grizzly.utils.DelayedExecutor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * End-to-end request processing by the HTTP codec and the
+ * {@link HttpServerFilter} with an {@link HttpHandler}, which writes a
+ * fixed-size response. The requests are passed through the
+ * {@link FilterChain} in-memory over a single keep-alive connection.
+ * Every response carries a few static headers, which are either added one by
+ * one or as a single pre-encoded block.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HttpServerBenchmark {
+
+    @Param({"simple", "browser"})
+    public String request;
+
+    @Param({"0", "1024", "16384"})
+    public int responseSize;
+
+    @Param({"false", "true"})
+    public boolean encodedHeaders;
+
+    private static final String[][] STATIC_HEADERS = {
+        {"Server", "grizzly"},
+        {"Cache-Control", "no-cache"},
+        {"Vary", "Accept-Encoding"},
+        {"Access-Control-Allow-Origin", "*"}
+    };
+
+    private ExecutorService delayedExecutorThreads;
+    private DelayedExecutor delayedExecutor;
+    private MemoryManager memoryManager;
+    private MemoryTransportFilter transportFilter;
+    private FilterChain filterChain;
+    private MemoryConnection connection;
+    private byte[] requestBytes;
+
+    @Setup
+    public void setUp() {
+        // the transport is never started, it's used by the in-memory connection
+        final TCPNIOTransport transport = TCPNIOTransportBuilder.newInstance().build();
+        memoryManager = transport.getMemoryManager();
+
+        delayedExecutorThreads = Executors.newSingleThreadExecutor();
+        delayedExecutor = new DelayedExecutor(delayedExecutorThreads);
+        delayedExecutor.start();
+
+        final KeepAlive keepAlive = new KeepAlive();
+        keepAlive.setMaxRequestsCount(-1);
+
+        final byte[] body = new byte[responseSize];
+        Arrays.fill(body, (byte) 'A');
+
+        final StringBuilder sb = new StringBuilder();
+        for (String[] header : STATIC_HEADERS) {
+            sb.append(header[0]).append(": ").append(header[1]).append("\r\n");
+        }
+        final byte[] staticHeaders = sb.toString().getBytes(Charsets.ASCII_CHARSET);
+
+        final HttpServerFilter httpServerFilter = new HttpServerFilter(
+                new ServerFilterConfiguration(), delayedExecutor);
+        httpServerFilter.setHttpHandler(new HttpHandler() {
+
+            @Override
+            public void service(final Request request, final Response response)
+                    throws Exception {
+                response.setContentType("text/plain");
+                if (encodedHeaders) {
+                    response.addEncodedHeaders(staticHeaders);
+                } else {
+                    for (String[] header : STATIC_HEADERS) {
+                        response.addHeader(header[0], header[1]);
+                    }
+                }
+                response.setContentLength(body.length);
+                response.getOutputStream().write(body);
+            }
+        });
+
+        transportFilter = new MemoryTransportFilter();
+        filterChain = FilterChainBuilder.stateless()
+                .add(transportFilter)
+                .add(new org.glassfish.grizzly.http.HttpServerFilter(true,
+                        HttpCodecFilter.DEFAULT_MAX_HTTP_PACKET_HEADER_SIZE,
+                        keepAlive, delayedExecutor))
+                .add(httpServerFilter)
+                .build();
+
+        connection = new MemoryConnection(transport);
+        requestBytes = ("simple".equals(request)
+                ? HttpCodecBenchmark.SIMPLE_REQUEST
+                : HttpCodecBenchmark.BROWSER_REQUEST).getBytes(Charsets.ASCII_CHARSET);
+    }
+
+    @TearDown
+    public void tearDown() {
+        delayedExecutor.destroy();
+        delayedExecutorThreads.shutdownNow();
+    }
+
+    /**
+     * @return the number of response bytes
+     */
+    @Benchmark
+    public long request() {
+        return transportFilter.read(filterChain, connection, memoryManager,
+                requestBytes);
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.grizzly.benchmarks;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
+import org.glassfish.grizzly.Buffer;
+import org.glassfish.grizzly.Connection;
+import org.glassfish.grizzly.Grizzly;
+import org.glassfish.grizzly.attributes.Attribute;
+import org.glassfish.grizzly.filterchain.BaseFilter;
+import org.glassfish.grizzly.filterchain.Filter;
+import org.glassfish.grizzly.filterchain.FilterChain;
+import org.glassfish.grizzly.filterchain.FilterChainBuilder;
+import org.glassfish.grizzly.filterchain.FilterChainContext;
+import org.glassfish.grizzly.filterchain.NextAction;
+import org.glassfish.grizzly.filterchain.TransportFilter;
+import org.glassfish.grizzly.impl.FutureImpl;
+import org.glassfish.grizzly.memory.Buffers;
+import org.glassfish.grizzly.nio.transport.TCPNIOServerConnection;
+import org.glassfish.grizzly.nio.transport.TCPNIOTransport;
+import org.glassfish.grizzly.utils.Futures;
+
+/**
+ * Utilities to run client/server benchmarks over the loopback interface,
+ * so the results don't depend on the network.
+ */
+final class Loopback {
+
+    static final long TIMEOUT_SECONDS = 10;
+
+    private static final Attribute<Reply> REPLY_ATTR =
+            Grizzly.DEFAULT_ATTRIBUTE_BUILDER.createAttribute(
+            Loopback.class.getName() + ".reply");
+
+    private Loopback() {
+    }
+
+    /**
+     * Binds the server {@link TCPNIOTransport} to an ephemeral loopback port
+     * and starts it.
+     *
+     * @return the port the transport is bound to
+     */
+    static int start(final TCPNIOTransport transport) throws IOException {
+        final TCPNIOServerConnection serverConnection =
+                transport.bind("127.0.0.1", 0);
+        transport.start();
+
+        return ((InetSocketAddress) serverConnection.getLocalAddress()).getPort();
+    }
+
+    /**
+     * @return the client {@link FilterChain}, which consists of the
+     *  {@link TransportFilter}, the passed filters and the filter, which
+     *  collects the replies for {@link #echo(Connection, byte[])}
+     */
+    static FilterChain clientFilterChain(final Filter... filters) {
+        final FilterChainBuilder builder = FilterChainBuilder.stateless();
+        builder.add(new TransportFilter());
+        for (Filter filter : filters) {
+            builder.add(filter);
+        }
+        builder.add(new ReplyFilter());
+
+        return builder.build();
+    }
+
+    static Connection connect(final TCPNIOTransport clientTransport,
+            final int port) throws Exception {
+        return clientTransport.connect("127.0.0.1", port)
+                .get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Writes the message and waits until the same number of bytes is
+     * received back.
+     */
+    static void echo(final Connection connection, final byte[] message)
+            throws Exception {
+        Reply reply = REPLY_ATTR.get(connection);
+        if (reply == null) {
+            reply = new Reply();
+            REPLY_ATTR.set(connection, reply);
+        }
+
+        final FutureImpl<Boolean> future = reply.expect(message.length);
+        connection.write(Buffers.wrap(
+                connection.getTransport().getMemoryManager(), message));
+        future.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    private static final class ReplyFilter extends BaseFilter {
+
+        @Override
+        public NextAction handleRead(final FilterChainContext ctx)
+                throws IOException {
+            final Buffer buffer = ctx.getMessage();
+            final Reply reply = REPLY_ATTR.get(ctx.getConnection());
+            if (reply != null) {
+                reply.received(buffer.remaining());
+            }
+
+            buffer.tryDispose();
+            return ctx.getStopAction();
+        }
+    }
+
+    private static final class Reply {
+        private int remaining;
+        private FutureImpl<Boolean> future;
+
+        synchronized FutureImpl<Boolean> expect(final int size) {
+            remaining = size;
+            future = Futures.createSafeFuture();
+            return future;
+        }
+
+        synchronized void received(final int size) {
+            remaining -= size;
+            if (remaining <= 0 && future != null) {
+                future.result(Boolean.TRUE);
+                future = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.grizzly.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.glassfish.grizzly.http.server.util.Mapper;
+import org.glassfish.grizzly.http.server.util.MappingData;
+import org.glassfish.grizzly.http.util.DataChunk;
+import org.glassfish.grizzly.utils.Charsets;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link Mapper} lookup of exact, prefix, extension and default mappings in a
+ * context with the given number of prefix routes, with and without the
+ * mapping cache.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+
+    private static final String HOST = "localhost";
+
+    @Param({"10", "100", "1500"})
+    public int routesCount;
+
+    @Param({"0", "1024"})
+    public int cacheSize;
+
+    @Param({"/app/status", "/app/route7/items/42", "/app/pages/index.jsp", "/app/unmapped/path"})
+    public String uri;
+
+    private Mapper mapper;
+    private byte[] hostBytes;
+    private byte[] uriBytes;
+    private final DataChunk hostChunk = DataChunk.newInstance();
+    private final DataChunk uriChunk = DataChunk.newInstance();
+    private final MappingData mappingData = new MappingData();
+
+    @Setup
+    public void setUp() {
+        mapper = new Mapper();
+        mapper.setCacheSize(cacheSize);
+        mapper.setDefaultHostName(HOST);
+        mapper.addHost(HOST, new String[0], HOST);
+        mapper.addContext(HOST, "/app", "app", new String[0], null);
+        mapper.addWrapper(HOST, "/app", "/status", "status");
+        mapper.addWrapper(HOST, "/app", "*.jsp", "jsp");
+        mapper.addWrapper(HOST, "/app", "/", "default");
+        for (int i = 0; i < routesCount; i++) {
+            mapper.addWrapper(HOST, "/app", "/route" + i + "/*", "route" + i);
+        }
+
+        hostBytes = HOST.getBytes(Charsets.ASCII_CHARSET);
+        uriBytes = uri.getBytes(Charsets.ASCII_CHARSET);
+    }
+
+    @Benchmark
+    public Object map() throws Exception {
+        hostChunk.setBytes(hostBytes);
+        uriChunk.setBytes(uriBytes);
+        mappingData.recycle();
+        mapper.map(hostChunk, uriChunk, mappingData);
+
+        return mappingData.wrapper;
+    }
+}
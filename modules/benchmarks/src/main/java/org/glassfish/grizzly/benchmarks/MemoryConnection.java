@@ -0,0 +1,134 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.grizzly.benchmarks;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import org.glassfish.grizzly.CloseReason;
+import org.glassfish.grizzly.WriteHandler;
+import org.glassfish.grizzly.nio.NIOConnection;
+import org.glassfish.grizzly.nio.NIOTransport;
+
+/**
+ * {@link org.glassfish.grizzly.Connection}, which is not backed by a channel,
+ * so {@link org.glassfish.grizzly.filterchain.FilterChain}s could be
+ * benchmarked in-memory together with the {@link MemoryTransportFilter}.
+ */
+final class MemoryConnection extends NIOConnection {
+
+    private final SocketAddress localAddress =
+            new InetSocketAddress("127.0.0.1", 8080);
+    private final SocketAddress peerAddress =
+            new InetSocketAddress("127.0.0.1", 50000);
+
+    MemoryConnection(final NIOTransport transport) {
+        super(transport);
+    }
+
+    @Override
+    protected void preClose() {
+    }
+
+    /**
+     * The connection has no channel, so it's always open.
+     */
+    @Override
+    public boolean isOpen() {
+        return true;
+    }
+
+    @Override
+    public CloseReason getCloseReason() {
+        return null;
+    }
+
+    @Override
+    public SocketAddress getPeerAddress() {
+        return peerAddress;
+    }
+
+    @Override
+    public SocketAddress getLocalAddress() {
+        return localAddress;
+    }
+
+    @Override
+    public int getReadBufferSize() {
+        return 65536;
+    }
+
+    @Override
+    public void setReadBufferSize(final int readBufferSize) {
+    }
+
+    @Override
+    public int getWriteBufferSize() {
+        return 65536;
+    }
+
+    @Override
+    public void setWriteBufferSize(final int writeBufferSize) {
+    }
+
+    @Override
+    public void notifyCanWrite(final WriteHandler handler) {
+        try {
+            handler.onWritePossible();
+        } catch (Throwable t) {
+            handler.onError(t);
+        }
+    }
+
+    @Override
+    public void notifyCanWrite(final WriteHandler handler, final int length) {
+        notifyCanWrite(handler);
+    }
+
+    @Override
+    public boolean canWrite() {
+        return true;
+    }
+
+    @Override
+    public boolean canWrite(final int length) {
+        return true;
+    }
+}
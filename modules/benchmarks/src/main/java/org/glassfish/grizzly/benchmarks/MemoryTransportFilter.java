@@ -0,0 +1,119 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.grizzly.benchmarks;
+
+import java.io.IOException;
+import org.glassfish.grizzly.Buffer;
+import org.glassfish.grizzly.CompletionHandler;
+import org.glassfish.grizzly.IOEvent;
+import org.glassfish.grizzly.ProcessorExecutor;
+import org.glassfish.grizzly.WriteResult;
+import org.glassfish.grizzly.filterchain.BaseFilter;
+import org.glassfish.grizzly.filterchain.FilterChain;
+import org.glassfish.grizzly.filterchain.FilterChainContext;
+import org.glassfish.grizzly.filterchain.NextAction;
+import org.glassfish.grizzly.memory.Buffers;
+import org.glassfish.grizzly.memory.MemoryManager;
+import org.glassfish.grizzly.nio.NIOConnection;
+
+/**
+ * The first {@link org.glassfish.grizzly.filterchain.Filter} of an in-memory
+ * {@link FilterChain}: instead of writing to a channel it counts and disposes
+ * the written {@link Buffer}s.
+ */
+final class MemoryTransportFilter extends BaseFilter {
+
+    private long writtenBytes;
+
+    /**
+     * Passes the message upstream through the {@link FilterChain} as if it
+     * was read from the {@link NIOConnection}.
+     *
+     * @return the number of bytes written back by the {@link FilterChain}
+     *  while processing the message
+     */
+    long read(final FilterChain filterChain, final NIOConnection connection,
+            final Object message) {
+        final long writtenBefore = writtenBytes;
+
+        final FilterChainContext ctx =
+                filterChain.obtainFilterChainContext(connection);
+        ctx.getInternalContext().setIoEvent(IOEvent.READ);
+        ctx.setMessage(message);
+        ProcessorExecutor.execute(ctx.getInternalContext());
+
+        return writtenBytes - writtenBefore;
+    }
+
+    /**
+     * Wraps the bytes into a {@link Buffer} and passes it upstream.
+     *
+     * @see #read(FilterChain, NIOConnection, Object)
+     */
+    long read(final FilterChain filterChain, final NIOConnection connection,
+            final MemoryManager memoryManager, final byte[] bytes) {
+        return read(filterChain, connection, Buffers.wrap(memoryManager, bytes));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public NextAction handleWrite(final FilterChainContext ctx)
+            throws IOException {
+        final Object message = ctx.getMessage();
+        int size = 0;
+        if (message instanceof Buffer) {
+            final Buffer buffer = (Buffer) message;
+            size = buffer.remaining();
+            buffer.tryDispose();
+        }
+
+        writtenBytes += size;
+
+        final CompletionHandler<WriteResult> completionHandler =
+                ctx.getTransportContext().getCompletionHandler();
+        if (completionHandler != null) {
+            completionHandler.completed(WriteResult.create(
+                    ctx.getConnection(), message, null, size));
+        }
+
+        return ctx.getStopAction();
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.grizzly.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import javax.net.ssl.SSLContext;
+import org.glassfish.grizzly.Connection;
+import org.glassfish.grizzly.filterchain.FilterChainBuilder;
+import org.glassfish.grizzly.filterchain.TransportFilter;
+import org.glassfish.grizzly.nio.transport.TCPNIOTransport;
+import org.glassfish.grizzly.nio.transport.TCPNIOTransportBuilder;
+import org.glassfish.grizzly.ssl.SSLBaseFilter;
+import org.glassfish.grizzly.ssl.SSLContextConfigurator;
+import org.glassfish.grizzly.ssl.SSLEngineConfigurator;
+import org.glassfish.grizzly.ssl.SSLFilter;
+import org.glassfish.grizzly.utils.EchoFilter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Loopback echo over the {@link SSLFilter}, so each message is wrapped and
+ * unwrapped by the {@link SSLBaseFilter} on both the client and the server
+ * side. The <tt>secure=false</tt> case shows the plain TCP echo cost.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SSLBenchmark {
+
+    @Param({"true", "false"})
+    public boolean secure;
+
+    @Param({"1024", "16384"})
+    public int messageSize;
+
+    private TCPNIOTransport serverTransport;
+    private TCPNIOTransport clientTransport;
+    private Connection connection;
+    private byte[] message;
+
+    @Setup
+    public void setUp() throws Exception {
+        final FilterChainBuilder serverChain = FilterChainBuilder.stateless();
+        serverChain.add(new TransportFilter());
+        if (secure) {
+            serverChain.add(new SSLFilter(createSSLEngineConfigurator(false), null));
+        }
+        serverChain.add(new EchoFilter());
+
+        serverTransport = TCPNIOTransportBuilder.newInstance().build();
+        serverTransport.setProcessor(serverChain.build());
+        final int port = Loopback.start(serverTransport);
+
+        clientTransport = TCPNIOTransportBuilder.newInstance().build();
+        clientTransport.setProcessor(secure
+                ? Loopback.clientFilterChain(
+                        new SSLFilter(null, createSSLEngineConfigurator(true)))
+                : Loopback.clientFilterChain());
+        clientTransport.start();
+
+        message = new byte[messageSize];
+        connection = Loopback.connect(clientTransport, port);
+        // complete the handshake
+        Loopback.echo(connection, message);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        connection.closeSilently();
+        clientTransport.shutdownNow();
+        serverTransport.shutdownNow();
+    }
+
+    @Benchmark
+    public void echo() throws Exception {
+        Loopback.echo(connection, message);
+    }
+
+    static SSLEngineConfigurator createSSLEngineConfigurator(
+            final boolean clientMode) throws IOException {
+        final SSLContextConfigurator sslContextConfigurator =
+                new SSLContextConfigurator(false);
+        SSLEngines.setTestStores(sslContextConfigurator);
+
+        final SSLContext sslContext = sslContextConfigurator.createSSLContext(true);
+        return new SSLEngineConfigurator(sslContext, clientMode, false, false);
+    }
+}
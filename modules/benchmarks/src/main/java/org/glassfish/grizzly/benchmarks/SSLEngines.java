@@ -0,0 +1,139 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.grizzly.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLEngineResult.HandshakeStatus;
+import javax.net.ssl.SSLException;
+import org.glassfish.grizzly.memory.Buffers;
+import org.glassfish.grizzly.ssl.SSLContextConfigurator;
+import org.glassfish.grizzly.ssl.SSLUtils;
+
+/**
+ * Utilities to set up {@link SSLEngine}s for the SSL benchmarks, also used
+ * by the benchmarks of the extras modules.
+ */
+public final class SSLEngines {
+
+    private SSLEngines() {
+    }
+
+    /**
+     * Sets the test trust and key stores, shipped with the benchmarks, to
+     * the {@link SSLContextConfigurator}.
+     */
+    public static void setTestStores(
+            final SSLContextConfigurator sslContextConfigurator)
+            throws IOException {
+        sslContextConfigurator.setTrustStoreBytes(readResource("ssltest-cacerts.jks"));
+        sslContextConfigurator.setTrustStorePass("changeit");
+        sslContextConfigurator.setKeyStoreBytes(readResource("ssltest-keystore.jks"));
+        sslContextConfigurator.setKeyStorePass("changeit");
+    }
+
+    /**
+     * Completes the handshake of the client and server {@link SSLEngine}s
+     * in memory, without a transport.
+     */
+    public static void handshake(final SSLEngine client, final SSLEngine server)
+            throws SSLException {
+        final ByteBuffer clientToServer = ByteBuffer.allocate(
+                client.getSession().getPacketBufferSize());
+        final ByteBuffer serverToClient = ByteBuffer.allocate(
+                server.getSession().getPacketBufferSize());
+        final ByteBuffer appBuffer = ByteBuffer.allocate(
+                Math.max(client.getSession().getApplicationBufferSize(),
+                        server.getSession().getApplicationBufferSize()));
+
+        client.beginHandshake();
+        server.beginHandshake();
+
+        for (int i = 0; SSLUtils.isHandshaking(client) || SSLUtils.isHandshaking(server); i++) {
+            if (i == 1000) {
+                throw new SSLException("Handshake doesn't progress");
+            }
+
+            handshakeStep(client, serverToClient, clientToServer, appBuffer);
+            handshakeStep(server, clientToServer, serverToClient, appBuffer);
+        }
+    }
+
+    private static void handshakeStep(final SSLEngine engine,
+            final ByteBuffer in, final ByteBuffer out, final ByteBuffer appBuffer)
+            throws SSLException {
+        final HandshakeStatus status = engine.getHandshakeStatus();
+        if (status == HandshakeStatus.NEED_TASK) {
+            SSLUtils.executeDelegatedTask(engine);
+        } else if (status == HandshakeStatus.NEED_WRAP) {
+            engine.wrap(Buffers.EMPTY_BYTE_BUFFER, out);
+        } else if (status == HandshakeStatus.NEED_UNWRAP) {
+            in.flip();
+            appBuffer.clear();
+            engine.unwrap(in, appBuffer);
+            in.compact();
+        }
+    }
+
+    private static byte[] readResource(final String name) throws IOException {
+        final InputStream in = SSLEngines.class.getClassLoader()
+                .getResourceAsStream(name);
+        if (in == null) {
+            throw new IOException("Resource " + name + " is not found");
+        }
+
+        try {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final byte[] buf = new byte[4096];
+            int len;
+            while ((len = in.read(buf)) != -1) {
+                out.write(buf, 0, len);
+            }
+
+            return out.toByteArray();
+        } finally {
+            in.close();
+        }
+    }
+}
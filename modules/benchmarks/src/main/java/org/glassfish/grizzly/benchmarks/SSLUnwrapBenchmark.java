@@ -0,0 +1,190 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.grizzly.benchmarks;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLException;
+import org.glassfish.grizzly.Buffer;
+import org.glassfish.grizzly.filterchain.BaseFilter;
+import org.glassfish.grizzly.filterchain.FilterChain;
+import org.glassfish.grizzly.filterchain.FilterChainBuilder;
+import org.glassfish.grizzly.filterchain.FilterChainContext;
+import org.glassfish.grizzly.filterchain.NextAction;
+import org.glassfish.grizzly.memory.CompositeBuffer;
+import org.glassfish.grizzly.memory.HeapMemoryManager;
+import org.glassfish.grizzly.memory.MemoryManager;
+import org.glassfish.grizzly.memory.PooledMemoryManager;
+import org.glassfish.grizzly.nio.transport.TCPNIOTransport;
+import org.glassfish.grizzly.nio.transport.TCPNIOTransportBuilder;
+import org.glassfish.grizzly.ssl.SSLBaseFilter;
+import org.glassfish.grizzly.ssl.SSLFilter;
+import org.glassfish.grizzly.ssl.SSLUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * In-memory {@link SSLBaseFilter} unwrap of a read event carrying
+ * <tt>records</tt> SSL records, optionally split between two
+ * {@link Buffer}s of a {@link CompositeBuffer}, like a record remainder
+ * followed by the next read. Each operation also encrypts the records by the
+ * peer {@link SSLEngine}, which costs the same on every revision.
+ *
+ * Run it with <tt>-prof gc</tt>, the <tt>gc.alloc.rate.norm</tt> shows the
+ * bytes allocated per read event.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SSLUnwrapBenchmark {
+
+    @Param({"heap", "pooled"})
+    public String memoryManager;
+
+    @Param({"256", "4096"})
+    public int messageSize;
+
+    @Param({"1", "4"})
+    public int records;
+
+    @Param({"false", "true"})
+    public boolean split;
+
+    private MemoryManager mm;
+    private MemoryConnection connection;
+    private MemoryTransportFilter transportFilter;
+    private FilterChain filterChain;
+    private SSLEngine clientEngine;
+    private ByteBuffer plaintext;
+    private ByteBuffer netBuffer;
+    private long unwrappedBytes;
+
+    @Setup
+    public void setUp() throws Exception {
+        mm = "pooled".equals(memoryManager)
+                ? new PooledMemoryManager()
+                : new HeapMemoryManager();
+
+        // the transport is never started, it's used by the in-memory connection
+        final TCPNIOTransport transport = TCPNIOTransportBuilder.newInstance().build();
+        transport.setMemoryManager(mm);
+        connection = new MemoryConnection(transport);
+        transportFilter = new MemoryTransportFilter();
+
+        clientEngine = SSLBenchmark.createSSLEngineConfigurator(true).createSSLEngine();
+        final SSLEngine serverEngine =
+                SSLBenchmark.createSSLEngineConfigurator(false).createSSLEngine();
+        SSLEngines.handshake(clientEngine, serverEngine);
+        SSLUtils.setSSLEngine(connection, serverEngine);
+
+        final FilterChainBuilder builder = FilterChainBuilder.stateless();
+        builder.add(transportFilter);
+        builder.add(new SSLFilter(SSLBenchmark.createSSLEngineConfigurator(false), null));
+        builder.add(new BaseFilter() {
+
+            @Override
+            public NextAction handleRead(final FilterChainContext ctx)
+                    throws IOException {
+                final Buffer buffer = ctx.getMessage();
+                unwrappedBytes += buffer.remaining();
+                buffer.tryDispose();
+                return ctx.getStopAction();
+            }
+        });
+        filterChain = builder.build();
+
+        plaintext = ByteBuffer.allocate(messageSize);
+        netBuffer = ByteBuffer.allocate(
+                records * clientEngine.getSession().getPacketBufferSize());
+    }
+
+    @Benchmark
+    public long unwrap() throws SSLException {
+        transportFilter.read(filterChain, connection, encrypt());
+        return unwrappedBytes;
+    }
+
+    /**
+     * Encrypts the records and copies them into the {@link Buffer}(s)
+     * allocated by the {@link MemoryManager}, as if they were read.
+     */
+    private Buffer encrypt() throws SSLException {
+        netBuffer.clear();
+        for (int i = 0; i < records; i++) {
+            plaintext.clear();
+            clientEngine.wrap(plaintext, netBuffer);
+        }
+        netBuffer.flip();
+
+        if (!split) {
+            return read(netBuffer.remaining());
+        }
+
+        final CompositeBuffer composite = CompositeBuffer.newBuffer(mm);
+        composite.allowBufferDispose(true);
+        composite.append(read(netBuffer.remaining() / 2));
+        composite.append(read(netBuffer.remaining()));
+        return composite;
+    }
+
+    private Buffer read(final int size) {
+        final Buffer buffer = mm.allocate(size);
+        final int limit = netBuffer.limit();
+        netBuffer.limit(netBuffer.position() + size);
+        buffer.put(netBuffer);
+        netBuffer.limit(limit);
+        return buffer.flip();
+    }
+}
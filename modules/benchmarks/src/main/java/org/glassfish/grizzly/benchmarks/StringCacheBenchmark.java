@@ -0,0 +1,118 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.grizzly.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.glassfish.grizzly.http.util.ByteChunk;
+import org.glassfish.grizzly.http.util.StringCache;
+import org.glassfish.grizzly.utils.Charsets;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * {@link StringCache} conversion of typical header values, with the trained
+ * cache and with the cache disabled.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StringCacheBenchmark {
+
+    private static final String[] VALUES = {
+        "localhost", "keep-alive", "close", "gzip, deflate", "en-US,en;q=0.8",
+        "text/html", "application/json", "no-cache", "max-age=0", "*/*",
+        "text/plain; charset=UTF-8", "chunked"
+    };
+
+    @Param({"true", "false"})
+    public boolean cacheEnabled;
+
+    private ByteChunk[] chunks;
+
+    @Setup
+    public void setUp() {
+        chunks = new ByteChunk[VALUES.length];
+        for (int i = 0; i < VALUES.length; i++) {
+            final byte[] bytes = VALUES[i].getBytes(Charsets.ASCII_CHARSET);
+            chunks[i] = new ByteChunk();
+            chunks[i].setBytes(bytes, 0, bytes.length);
+        }
+
+        StringCache.reset();
+        StringCache.setByteEnabled(cacheEnabled);
+        if (cacheEnabled) {
+            // train the cache, it's built once the train threshold is exceeded
+            final int threshold = StringCache.getTrainThreshold();
+            for (int i = 0; i <= threshold + 1; i++) {
+                StringCache.toString(chunks[i % chunks.length]);
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        StringCache.setByteEnabled(false);
+        StringCache.reset();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(12)
+    public void toStringValues(final Blackhole blackhole) {
+        for (ByteChunk chunk : chunks) {
+            blackhole.consume(StringCache.toString(chunk));
+        }
+    }
+}
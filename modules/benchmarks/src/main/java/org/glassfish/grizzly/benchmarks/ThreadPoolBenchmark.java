@@ -0,0 +1,154 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.grizzly.benchmarks;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.glassfish.grizzly.threadpool.GrizzlyExecutorService;
+import org.glassfish.grizzly.threadpool.ThreadPoolConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Task submission and execution by the {@link GrizzlyExecutorService} thread
+ * pool implementations. The tasks are submitted by one or several non-pool
+ * threads, like selector threads submit tasks to the worker thread pool.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ThreadPoolBenchmark {
+
+    private static final int BATCH_SIZE = 100;
+
+    @Param({"fixed", "sync", "work-stealing", "virtual"})
+    public String pool;
+
+    /**
+     * The amount of CPU work each task does, in {@link Blackhole#consumeCPU(long)} tokens.
+     */
+    @Param({"0", "1000"})
+    public long work;
+
+    private GrizzlyExecutorService executor;
+
+    @Setup
+    public void setUp() {
+        executor = GrizzlyExecutorService.createInstance(createConfig(pool,
+                Runtime.getRuntime().availableProcessors()));
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void execute() throws InterruptedException {
+        executeBatch();
+    }
+
+    @Benchmark
+    @Threads(4)
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void executeContended() throws InterruptedException {
+        executeBatch();
+    }
+
+    private void executeBatch() throws InterruptedException {
+        final CountDownLatch latch = new CountDownLatch(BATCH_SIZE);
+        final Runnable task = new Runnable() {
+
+            @Override
+            public void run() {
+                Blackhole.consumeCPU(work);
+                latch.countDown();
+            }
+        };
+
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            executor.execute(task);
+        }
+
+        latch.await();
+    }
+
+    /**
+     * @return the {@link ThreadPoolConfig} for the given pool type:
+     *  <tt>fixed</tt>, <tt>sync</tt>, <tt>work-stealing</tt> or <tt>virtual</tt>
+     */
+    static ThreadPoolConfig createConfig(final String pool, final int poolSize) {
+        final ThreadPoolConfig config = ThreadPoolConfig.defaultConfig()
+                .setPoolName("benchmark-" + pool)
+                .setCorePoolSize(poolSize)
+                .setMaxPoolSize(poolSize);
+
+        if ("fixed".equals(pool)) {
+            return config;
+        } else if ("sync".equals(pool)) {
+            return config.setCorePoolSize(1);
+        } else if ("work-stealing".equals(pool)) {
+            return config.setWorkStealing(true);
+        } else if ("virtual".equals(pool)) {
+            // falls back to the fixed pool, if virtual threads are not supported
+            return config.setVirtualThreads(true);
+        }
+
+        throw new IllegalArgumentException("Unknown thread pool: " + pool);
+    }
+}
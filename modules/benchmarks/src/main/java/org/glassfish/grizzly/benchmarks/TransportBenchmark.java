@@ -0,0 +1,181 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.grizzly.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.glassfish.grizzly.Connection;
+import org.glassfish.grizzly.IOStrategy;
+import org.glassfish.grizzly.filterchain.FilterChainBuilder;
+import org.glassfish.grizzly.filterchain.TransportFilter;
+import org.glassfish.grizzly.nio.DefaultSelectorHandler;
+import org.glassfish.grizzly.nio.transport.TCPNIOTransport;
+import org.glassfish.grizzly.nio.transport.TCPNIOTransportBuilder;
+import org.glassfish.grizzly.strategies.AdaptiveIOStrategy;
+import org.glassfish.grizzly.strategies.SameThreadIOStrategy;
+import org.glassfish.grizzly.strategies.WorkerThreadIOStrategy;
+import org.glassfish.grizzly.utils.EchoFilter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Loopback TCP echo throughput and latency for the different
+ * {@link IOStrategy}s, worker thread pools and selector busy-poll settings.
+ *
+ * The latency is measured in {@link Mode#SampleTime} mode, which reports the
+ * p50/p99/p999 percentiles. Run with several threads (<tt>-t</tt>) to measure
+ * the throughput with concurrent connections. The array-based selected-key set
+ * can be compared with the JDK one by running with
+ * <tt>-jvmArgsAppend -Dorg.glassfish.grizzly.nio.Selectors.optimize-selected-keys=true</tt>
+ * (plus <tt>--add-opens java.base/sun.nio.ch=ALL-UNNAMED</tt> on JDK 9+).
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransportBenchmark {
+
+    @Param({"worker", "same-thread", "adaptive"})
+    public String ioStrategy;
+
+    @Param({"fixed", "work-stealing"})
+    public String workerPool;
+
+    @Param({"0", "50"})
+    public long busyPollMicros;
+
+    @Param({"128"})
+    public int messageSize;
+
+    private TCPNIOTransport serverTransport;
+    private TCPNIOTransport clientTransport;
+    private int port;
+
+    @Setup
+    public void setUp() throws IOException {
+        final FilterChainBuilder serverChain = FilterChainBuilder.stateless();
+        serverChain.add(new TransportFilter());
+        serverChain.add(new EchoFilter());
+
+        serverTransport = TCPNIOTransportBuilder.newInstance()
+                .setIOStrategy(createIOStrategy())
+                .setWorkerThreadPoolConfig(ThreadPoolBenchmark.createConfig(
+                        workerPool, Runtime.getRuntime().availableProcessors() * 2))
+                .setSelectorHandler(createSelectorHandler())
+                .build();
+        serverTransport.setProcessor(serverChain.build());
+        port = Loopback.start(serverTransport);
+
+        clientTransport = TCPNIOTransportBuilder.newInstance()
+                .setIOStrategy(SameThreadIOStrategy.getInstance())
+                .setSelectorHandler(createSelectorHandler())
+                .build();
+        clientTransport.setProcessor(Loopback.clientFilterChain());
+        clientTransport.start();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        clientTransport.shutdownNow();
+        serverTransport.shutdownNow();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public void throughput(final Client client) throws Exception {
+        Loopback.echo(client.connection, client.message);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void latency(final Client client) throws Exception {
+        Loopback.echo(client.connection, client.message);
+    }
+
+    private IOStrategy createIOStrategy() {
+        if ("worker".equals(ioStrategy)) {
+            return WorkerThreadIOStrategy.getInstance();
+        } else if ("same-thread".equals(ioStrategy)) {
+            return SameThreadIOStrategy.getInstance();
+        } else if ("adaptive".equals(ioStrategy)) {
+            return AdaptiveIOStrategy.getInstance();
+        }
+
+        throw new IllegalArgumentException("Unknown IOStrategy: " + ioStrategy);
+    }
+
+    private DefaultSelectorHandler createSelectorHandler() {
+        return new DefaultSelectorHandler(30, TimeUnit.SECONDS,
+                busyPollMicros, TimeUnit.MICROSECONDS);
+    }
+
+    /**
+     * The client connection of a benchmark thread.
+     */
+    @State(Scope.Thread)
+    public static class Client {
+        private Connection connection;
+        private byte[] message;
+
+        @Setup
+        public void setUp(final TransportBenchmark benchmark) throws Exception {
+            connection = Loopback.connect(benchmark.clientTransport, benchmark.port);
+            message = new byte[benchmark.messageSize];
+        }
+
+        @TearDown
+        public void tearDown() {
+            connection.closeSilently();
+        }
+    }
+}
@@ -41,9 +41,12 @@
 package org.glassfish.grizzly;
 
 import org.glassfish.grizzly.threadpool.DefaultWorkerThread;
+import org.glassfish.grizzly.threadpool.Threads;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 
 /**
  *
@@ -60,6 +63,15 @@ public final class ThreadCache {
     private static final ThreadLocal<ObjectCache> genericCacheAttr =
             new ThreadLocal<ObjectCache>();
 
+    /**
+     * Virtual threads usually live for a single task, so their
+     * {@link ObjectCache}s are pooled and handed over to the next virtual
+     * thread, see {@link #releaseVirtualThreadCache()}.
+     */
+    private static final BlockingQueue<ObjectCache> virtualThreadCaches =
+            new ArrayBlockingQueue<ObjectCache>(Integer.getInteger(
+                    ThreadCache.class.getName() + ".virtual-thread-caches", 256));
+
     public static synchronized <E> CachedTypeIndex<E> obtainIndex(
             Class<E> clazz, int size) {
         return obtainIndex(clazz.getName(), clazz, size);
@@ -88,7 +100,7 @@ public final class ThreadCache {
         if (currentThread instanceof DefaultWorkerThread) {
             return ((DefaultWorkerThread) currentThread).putToCache(index, o);
         } else {
-            ObjectCache genericCache = genericCacheAttr.get();
+            ObjectCache genericCache = obtainGenericCache(currentThread);
             if (genericCache == null) {
                 genericCache = new ObjectCache();
                 genericCacheAttr.set(genericCache);
@@ -128,7 +140,7 @@ public final class ThreadCache {
         if (currentThread instanceof DefaultWorkerThread) {
             return ((DefaultWorkerThread) currentThread).getFromCache(index);
         } else {
-            final ObjectCache genericCache = genericCacheAttr.get();
+            final ObjectCache genericCache = obtainGenericCache(currentThread);
             if (genericCache != null) {
                 return genericCache.get(index);
             }
@@ -165,7 +177,7 @@ public final class ThreadCache {
         if (currentThread instanceof DefaultWorkerThread) {
             return ((DefaultWorkerThread) currentThread).takeFromCache(index);
         } else {
-            final ObjectCache genericCache = genericCacheAttr.get();
+            final ObjectCache genericCache = obtainGenericCache(currentThread);
             if (genericCache != null) {
                 return genericCache.take(index);
             }
@@ -174,6 +186,41 @@ public final class ThreadCache {
         }
     }
 
+    /**
+     * Returns the current virtual thread's cached objects to the pool shared
+     * by virtual threads, so they are reused by the next virtual thread
+     * instead of being garbage collected with this one. The method is called
+     * by the {@link org.glassfish.grizzly.threadpool.VirtualThreadPool}, when
+     * a task completes, and does nothing on platform threads.
+     */
+    public static void releaseVirtualThreadCache() {
+        if (!Threads.isVirtual(Thread.currentThread())) {
+            return;
+        }
+
+        final ObjectCache genericCache = genericCacheAttr.get();
+        if (genericCache != null) {
+            genericCacheAttr.remove();
+            virtualThreadCaches.offer(genericCache);
+        }
+    }
+
+    /**
+     * Returns the current thread's generic {@link ObjectCache}. The first
+     * access on a virtual thread takes over a pooled cache, if any.
+     */
+    private static ObjectCache obtainGenericCache(final Thread currentThread) {
+        ObjectCache genericCache = genericCacheAttr.get();
+        if (genericCache == null && Threads.isVirtual(currentThread)) {
+            genericCache = virtualThreadCaches.poll();
+            if (genericCache != null) {
+                genericCacheAttr.set(genericCache);
+            }
+        }
+
+        return genericCache;
+    }
+
     public static final class ObjectCache {
         private ObjectCacheElement[] objectCacheElements;
 
@@ -81,6 +81,16 @@ import org.glassfish.grizzly.monitoring.MonitoringUtils;
  *     <li>Heap based {@link Buffer}s will be allocated</li>
  * </ul>
  *
+ * Alternatively the pools could be backed by off-heap slabs (see
+ * {@link #PooledMemoryManager(int, int, int, int, long)}), in which case
+ * every pool slice reserves a single direct {@link ByteBuffer} up front and
+ * carves all its buffers out of it, so the off-heap memory used by the manager
+ * is bounded by an explicit byte budget rather than a percentage of the heap,
+ * and pooled buffers don't carry their own <code>Cleaner</code>s.
+ * Once a slice runs out of slab buffers, requests are served by
+ * heap buffers, which are reported to {@link MemoryProbe#onBufferAllocateEvent(int)}
+ * and are never returned to the pool.
+ *
  * The main advantage of this manager over {@link org.glassfish.grizzly.memory.HeapMemoryManager} or
  * {@link org.glassfish.grizzly.memory.ByteBufferManager} is that this implementation doesn't use ThreadLocal pools
  * and as such, doesn't suffer from the memory fragmentation/reallocation cycle that can impact the ThreadLocal versions.
@@ -122,6 +132,9 @@ public class PooledMemoryManager implements MemoryManager<Buffer>, WrapperAware
     // the max buffer size pooled by this memory manager
     private final int maxPooledBufferSize;
 
+    // the off-heap slabs budget, or -1 if the pools are not slab based
+    private final long offHeapBudget;
+
 
     // ------------------------------------------------------------ Constructors
 
@@ -182,25 +195,8 @@ public class PooledMemoryManager implements MemoryManager<Buffer>, WrapperAware
             final float percentOfHeap,
             final float percentPreallocated,
             final boolean isDirect) {
-        if (baseBufferSize <= 0) {
-            throw new IllegalArgumentException("baseBufferSize must be greater than zero");
-        }
-        if (numberOfPools <= 0) {
-            throw new IllegalArgumentException("numberOfPools must be greater than zero");
-        }
-        if (growthFactor == 0 && numberOfPools > 1) {
-            throw new IllegalArgumentException("if numberOfPools is greater than 0 - growthFactor must be greater than zero");
-        }
-        if (growthFactor < 0) {
-            throw new IllegalArgumentException("growthFactor must be greater or equal to zero");
-        }
-        if (numberOfPoolSlices <= 0) {
-            throw new IllegalArgumentException("numberOfPoolSlices must be greater than zero");
-        }
-
-        if (!isPowerOfTwo(baseBufferSize) || !isPowerOfTwo(growthFactor)) {
-            throw new IllegalArgumentException("minBufferSize and growthFactor must be a power of two");
-        }
+        checkPoolsConfig(baseBufferSize, numberOfPools, growthFactor,
+                numberOfPoolSlices);
 
         if (percentOfHeap <= 0.0f || percentOfHeap >= 1.0f) {
             throw new IllegalArgumentException("percentOfHeap must be greater than zero and less than 1");
@@ -217,12 +213,79 @@ public class PooledMemoryManager implements MemoryManager<Buffer>, WrapperAware
         for (int i = 0, bufferSize = baseBufferSize; i < numberOfPools; i++, bufferSize <<= growthFactor) {
             pools[i] = new Pool(bufferSize, memoryPerSubPool,
                     numberOfPoolSlices, percentPreallocated, isDirect,
-                    monitoringConfig);
+                    false, monitoringConfig);
         }
         maxPooledBufferSize = pools[numberOfPools - 1].bufferSize;
+        offHeapBudget = -1;
+    }
+
+    /**
+     * Creates a new <code>PooledMemoryManager</code>, whose pools are backed
+     * by off-heap slabs.
+     * The <tt>offHeapBudget</tt> is split evenly across the pools and their
+     * slices, every slice reserves a single direct slab and carves its
+     * buffers out of it during initialization.
+     *
+     * @param baseBufferSize the base size of the buffer for the 1st pool, every next pool n will have buffer size equal to bufferSize(n-1) * 2^growthFactor
+     * @param numberOfPools the number of pools, responsible for allocation of buffers of a pool-specific size
+     * @param growthFactor the buffer size growth factor, that defines 2^x multiplier, used to calculate buffer size for next allocated pool
+     * @param numberOfPoolSlices the number of pool slices that every pool will stripe allocation requests across
+     * @param offHeapBudget the number of off-heap bytes the slabs of all the pools may occupy
+     */
+    public PooledMemoryManager(
+            final int baseBufferSize,
+            final int numberOfPools,
+            final int growthFactor,
+            final int numberOfPoolSlices,
+            final long offHeapBudget) {
+        checkPoolsConfig(baseBufferSize, numberOfPools, growthFactor,
+                numberOfPoolSlices);
+
+        final long memoryPerSubPool = offHeapBudget / numberOfPools;
+        final long maxBufferSize = (long) baseBufferSize <<
+                (growthFactor * (numberOfPools - 1));
+        if (memoryPerSubPool / numberOfPoolSlices < maxBufferSize * PoolSlice.STRIDE) {
+            throw new IllegalArgumentException("offHeapBudget must be at least "
+                    + (maxBufferSize * PoolSlice.STRIDE * numberOfPoolSlices * numberOfPools)
+                    + " bytes to fit the configured pools");
+        }
+
+        pools = new Pool[numberOfPools];
+        for (int i = 0, bufferSize = baseBufferSize; i < numberOfPools; i++, bufferSize <<= growthFactor) {
+            pools[i] = new Pool(bufferSize, memoryPerSubPool,
+                    numberOfPoolSlices, 1.0f, true, true, monitoringConfig);
+        }
+        maxPooledBufferSize = pools[numberOfPools - 1].bufferSize;
+        this.offHeapBudget = offHeapBudget;
     }
 
     
+    // ---------------------------------------------------------- Public Methods
+
+
+    /**
+     * @return the number of off-heap bytes the pools' slabs may occupy,
+     * or <tt>-1</tt> if the pools are not backed by off-heap slabs
+     */
+    public long getOffHeapBudget() {
+        return offHeapBudget;
+    }
+
+    /**
+     * @return the number of off-heap bytes actually reserved by the pools' slabs
+     */
+    public long getSlabsSize() {
+        long size = 0;
+        for (Pool pool : pools) {
+            for (PoolSlice slice : pool.slices) {
+                size += slice.getSlabSize();
+            }
+        }
+
+        return size;
+    }
+
+
     // ---------------------------------------------- Methods from MemoryManager
 
 
@@ -456,6 +519,30 @@ public class PooledMemoryManager implements MemoryManager<Buffer>, WrapperAware
         return cb;
     }
 
+    private static void checkPoolsConfig(final int baseBufferSize,
+            final int numberOfPools, final int growthFactor,
+            final int numberOfPoolSlices) {
+        if (baseBufferSize <= 0) {
+            throw new IllegalArgumentException("baseBufferSize must be greater than zero");
+        }
+        if (numberOfPools <= 0) {
+            throw new IllegalArgumentException("numberOfPools must be greater than zero");
+        }
+        if (growthFactor == 0 && numberOfPools > 1) {
+            throw new IllegalArgumentException("if numberOfPools is greater than 0 - growthFactor must be greater than zero");
+        }
+        if (growthFactor < 0) {
+            throw new IllegalArgumentException("growthFactor must be greater or equal to zero");
+        }
+        if (numberOfPoolSlices <= 0) {
+            throw new IllegalArgumentException("numberOfPoolSlices must be greater than zero");
+        }
+
+        if (!isPowerOfTwo(baseBufferSize) || !isPowerOfTwo(growthFactor)) {
+            throw new IllegalArgumentException("minBufferSize and growthFactor must be a power of two");
+        }
+    }
+
     private static boolean isPowerOfTwo(final int valueToCheck) {
         return ((valueToCheck & (valueToCheck - 1)) == 0);
     }
@@ -487,18 +574,20 @@ public class PooledMemoryManager implements MemoryManager<Buffer>, WrapperAware
     static final class Pool {
         private final PoolSlice[] slices;
         private final int bufferSize;
+        private final boolean isSlab;
 
         public Pool(final int bufferSize, final long memoryPerSubPool,
                 final int numberOfPoolSlices, final float percentPreallocated,
-                final boolean isDirect,
+                final boolean isDirect, final boolean isSlab,
                 final DefaultMonitoringConfig<MemoryProbe> monitoringConfig) {
             this.bufferSize = bufferSize;
+            this.isSlab = isSlab;
             slices = new PoolSlice[numberOfPoolSlices];
             final long memoryPerSlice = memoryPerSubPool / numberOfPoolSlices;
             
             for (int i = 0; i < numberOfPoolSlices; i++) {
                 slices[i] = new PoolSlice(this, memoryPerSlice, bufferSize,
-                        percentPreallocated, isDirect, monitoringConfig);
+                        percentPreallocated, isDirect, isSlab, monitoringConfig);
             }
         }
 
@@ -527,7 +616,15 @@ public class PooledMemoryManager implements MemoryManager<Buffer>, WrapperAware
             final PoolSlice slice = getSlice();
             PoolBuffer b = slice.poll();
             if (b == null) {
-                b = slice.allocate();
+                if (isSlab) {
+                    // slabs can't grow, so look for a spare buffer in the
+                    // neighbour slices before going over the budget
+                    b = pollOtherSlices(slice);
+                }
+                
+                if (b == null) {
+                    b = slice.allocate();
+                }
             }
             
             return b.prepare();
@@ -557,6 +654,20 @@ public class PooledMemoryManager implements MemoryManager<Buffer>, WrapperAware
         private PoolSlice getSlice() {
             return slices[ThreadLocalRandom.current().nextInt(slices.length)];
         }
+
+        private PoolBuffer pollOtherSlices(final PoolSlice exclude) {
+            for (int i = 0; i < slices.length; i++) {
+                final PoolSlice slice = slices[i];
+                if (slice != exclude) {
+                    final PoolBuffer b = slice.poll();
+                    if (b != null) {
+                        return b;
+                    }
+                }
+            }
+            
+            return null;
+        }
     }
 
     /*
@@ -610,6 +721,10 @@ public class PooledMemoryManager implements MemoryManager<Buffer>, WrapperAware
         // flag, indicating if heap or direct Buffers will be allocated
         private final boolean isDirect;
 
+        // the off-heap slab the pooled buffers are carved from,
+        // null if the slice is not slab based
+        private final ByteBuffer slab;
+
         // MemoryProbe configuration.
         private final DefaultMonitoringConfig<MemoryProbe> monitoringConfig;
 
@@ -622,19 +737,25 @@ public class PooledMemoryManager implements MemoryManager<Buffer>, WrapperAware
                    final int bufferSize,
                    final float percentPreallocated,
                    final boolean isDirect,
+                   final boolean isSlab,
                    final DefaultMonitoringConfig<MemoryProbe> monitoringConfig) {
 
             this.owner = owner;
             this.bufferSize = bufferSize;
             this.isDirect = isDirect;
             this.monitoringConfig = monitoringConfig;
-            int initialSize = (int) (totalPoolSize / ((long) bufferSize));
+            int initialSize = (int) Math.min(Integer.MAX_VALUE,
+                    totalPoolSize / ((long) bufferSize));
 
             // Round up to the nearest multiple of 16 (STRIDE).  This is
             // done as elements will be accessed at (offset + index + STRIDE).
             // Offset is calculated each time we overflow the array.
             // This access scheme should help us avoid false sharing.
-            maxPoolSize = ((initialSize + (STRIDE - 1)) & ~(STRIDE - 1));
+            // The slab is sized to the pool, so round down there
+            // to stay within the budget.
+            maxPoolSize = isSlab
+                    ? initialSize & ~(STRIDE - 1)
+                    : ((initialSize + (STRIDE - 1)) & ~(STRIDE - 1));
             stridesInPool = maxPoolSize >> LOG2_STRIDE; // maxPoolSize / STRIDE
             
             // poolSize must be less than or equal to 2^30 - 1.
@@ -643,6 +764,12 @@ public class PooledMemoryManager implements MemoryManager<Buffer>, WrapperAware
                         "Cannot manage a pool larger than 2^30-1");
             }
 
+            if (isSlab && (long) maxPoolSize * bufferSize > Integer.MAX_VALUE) {
+                throw new IllegalStateException(
+                        "Cannot allocate a slab larger than 2^31-1 bytes,"
+                                + " consider increasing the number of pool slices");
+            }
+
             pool1 = new PaddedAtomicReferenceArray<>(maxPoolSize);
             
             final int preallocatedBufs = Math.min(maxPoolSize,
@@ -650,8 +777,21 @@ public class PooledMemoryManager implements MemoryManager<Buffer>, WrapperAware
             
             int idx = 0;
             
-            for (int i = 0; i < preallocatedBufs; i++, idx = nextIndex(idx)) {
-                pool1.lazySet(idx, allocate().free(true));
+            if (isSlab) {
+                // one Cleaner for the whole slab, the carved buffers are
+                // plain views on it
+                slab = ByteBuffer.allocateDirect(maxPoolSize * bufferSize);
+                for (int i = 0; i < preallocatedBufs; i++, idx = nextIndex(idx)) {
+                    slab.limit((i + 1) * bufferSize).position(i * bufferSize);
+                    pool1.lazySet(idx,
+                            new PoolByteBufferWrapper(slab.slice(), this).free(true));
+                }
+                slab.clear();
+            } else {
+                slab = null;
+                for (int i = 0; i < preallocatedBufs; i++, idx = nextIndex(idx)) {
+                    pool1.lazySet(idx, allocate().free(true));
+                }
             }
             pool2 = new PaddedAtomicReferenceArray<>(maxPoolSize);
             
@@ -699,6 +839,11 @@ public class PooledMemoryManager implements MemoryManager<Buffer>, WrapperAware
         }
 
         public final boolean offer(final PoolBuffer b) {
+            if (slab != null && b instanceof PoolHeapBuffer) {
+                // over-budget heap buffer, let the GC take care of it
+                return false;
+            }
+            
             int offerIdx;
             for (;;) {
                 offerIdx = this.offerIdx.get();
@@ -767,6 +912,15 @@ public class PooledMemoryManager implements MemoryManager<Buffer>, WrapperAware
         public final long size() {
             return (long) elementsCount() * (long) bufferSize;
         }
+
+        /**
+         * @return the size of the off-heap slab this <tt>PoolSlice</tt>
+         * carves its {@link Buffer}s from, or <tt>0</tt> if the slice is not
+         * slab based
+         */
+        public long getSlabSize() {
+            return slab != null ? slab.capacity() : 0;
+        }
         
         public void clear() {
             //noinspection StatementWithEmptyBody
@@ -775,6 +929,11 @@ public class PooledMemoryManager implements MemoryManager<Buffer>, WrapperAware
 
         public PoolBuffer allocate() {
             final PoolBuffer buffer =
+                    slab != null ?
+                    
+                    // the slab is exhausted - fall back to the heap
+                    new PoolHeapBuffer(new byte[bufferSize], this) :
+                    
                     (isDirect || FORCE_BYTE_BUFFER_BASED_BUFFERS) ?
 
                     // if isDirect || FORCE_BYTE_BUFFER - allocate ByteBufferWrapper
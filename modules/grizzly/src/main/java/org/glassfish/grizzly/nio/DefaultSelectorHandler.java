@@ -58,6 +58,13 @@ import org.glassfish.grizzly.utils.JdkVersion;
 
 /**
  * Default implementation of NIO <code>SelectorHandler</code>
+ *
+ * If the busy-poll time is set, the handler spins on
+ * {@link Selector#selectNow()} for up to the busy-poll time before blocking
+ * on {@link Selector#select(long)}, which lowers the event latency for the
+ * cost of CPU. While the {@link SelectorRunner} is spinning or processing
+ * events, the tasks added by other threads don't wake the {@link Selector}
+ * up, the runner checks for them before blocking.
  * 
  * @author Alexey Stashok
  */
@@ -71,6 +78,8 @@ public class DefaultSelectorHandler implements SelectorHandler {
             (System.getProperty("os.name").equalsIgnoreCase("linux"));
     
     protected final long selectTimeout;
+    
+    protected final long busyPollNanos;
 
     // Selector spin workaround artifacts
 
@@ -87,7 +96,25 @@ public class DefaultSelectorHandler implements SelectorHandler {
     }
 
     public DefaultSelectorHandler(final long selectTimeout, final TimeUnit timeunit) {
+        this(selectTimeout, timeunit, 0, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @param selectTimeout the blocking select timeout.
+     * @param timeunit the select timeout {@link TimeUnit}.
+     * @param busyPollTime the time to spin on {@link Selector#selectNow()}
+     *  before blocking on {@link Selector#select(long)}, <tt>0</tt> disables
+     *  spinning.
+     * @param busyPollTimeUnit the busy-poll time {@link TimeUnit}.
+     */
+    public DefaultSelectorHandler(final long selectTimeout, final TimeUnit timeunit,
+            final long busyPollTime, final TimeUnit busyPollTimeUnit) {
+        if (busyPollTime < 0) {
+            throw new IllegalArgumentException("busy-poll time can't be negative");
+        }
+        
         this.selectTimeout = TimeUnit.MILLISECONDS.convert(selectTimeout, timeunit);
+        this.busyPollNanos = busyPollTimeUnit.toNanos(busyPollTime);
     }
 
     @Override
@@ -95,6 +122,23 @@ public class DefaultSelectorHandler implements SelectorHandler {
         return selectTimeout;
     }
 
+    /**
+     * @param timeunit the {@link TimeUnit} to return the time in.
+     * @return the time to spin on {@link Selector#selectNow()} before blocking
+     *  on {@link Selector#select(long)}, <tt>0</tt> if spinning is disabled.
+     */
+    public long getBusyPollTime(final TimeUnit timeunit) {
+        return timeunit.convert(busyPollNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @return <tt>true</tt>, if the {@link SelectorRunner} doesn't have to
+     *  be woken up, when it's not blocked in {@link #select(SelectorRunner)}.
+     */
+    boolean isWakeupSuppressed() {
+        return busyPollNanos > 0;
+    }
+
     @Override
     public boolean preSelect(final SelectorRunner selectorRunner) throws IOException {
         return processPendingTasks(selectorRunner);
@@ -107,11 +151,15 @@ public class DefaultSelectorHandler implements SelectorHandler {
         final boolean hasPostponedTasks =
                 !selectorRunner.getPostponedTasks().isEmpty();
         
+        if (busyPollNanos > 0) {
+            return busyPollSelect(selectorRunner, selector, hasPostponedTasks);
+        }
+        
         // The selector.select(...) returns the *new* SelectionKey count,
         // so it may return 0 even in the case, when there are unprocessed, but
         // ready SelectionKeys in the Selector's selected key set.
         if (!hasPostponedTasks) {
-            selector.select(selectTimeout);
+            selector.select(selectorRunner.adjustSelectTimeout(selectTimeout));
         } else {
             selector.selectNow();
         }
@@ -127,6 +175,43 @@ public class DefaultSelectorHandler implements SelectorHandler {
         return selectedKeys;
     }
 
+    private Set<SelectionKey> busyPollSelect(final SelectorRunner selectorRunner,
+            final Selector selector, final boolean hasPostponedTasks)
+            throws IOException {
+        final Set<SelectionKey> selectedKeys = selector.selectedKeys();
+        
+        selector.selectNow();
+        if (hasPostponedTasks || !selectedKeys.isEmpty()) {
+            return selectedKeys;
+        }
+        
+        final long deadline = System.nanoTime() + busyPollNanos;
+        do {
+            if (selectorRunner.hasPendingTasks || selectorRunner.isStop()) {
+                return selectedKeys;
+            }
+            
+            selector.selectNow();
+            if (!selectedKeys.isEmpty()) {
+                return selectedKeys;
+            }
+        } while (System.nanoTime() - deadline < 0);
+
+        if (selectorRunner.prepareBlockingSelect()) {
+            selector.select(selectorRunner.adjustSelectTimeout(selectTimeout));
+        } else {
+            selector.selectNow();
+        }
+
+        if (IS_WORKAROUND_SELECTOR_SPIN) {
+            selectorRunner.checkSelectorSpin(
+                    !selectedKeys.isEmpty() || selectorRunner.hasPendingTasks,
+                    SPIN_RATE_THRESHOLD);
+        }
+        
+        return selectedKeys;
+    }
+
     @Override
     public void postSelect(final SelectorRunner selectorRunner) throws IOException {
     }
@@ -55,6 +55,7 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -121,6 +122,7 @@ public abstract class NIOConnection implements Connection<SocketAddress> {
     protected final AttributeHolder attributes;
 
     private volatile TaskQueue<AsyncReadQueueRecord> asyncReadQueue;
+    private volatile ReentrantLock blockingWriteLock;
     private final TaskQueue<AsyncWriteQueueRecord> asyncWriteQueue;
 
     // Semaphore responsible for connect/close notification
@@ -381,6 +383,25 @@ public abstract class NIOConnection implements Connection<SocketAddress> {
         return asyncReadQueue;
     }
 
+    /**
+     * Returns the {@link ReentrantLock}, which serializes blocking writes on
+     * this connection. Unlike a monitor, the lock doesn't pin the carrier
+     * thread, when a virtual thread blocks holding it.
+     * 
+     * @return the {@link ReentrantLock}, which serializes blocking writes
+     */
+    public ReentrantLock getBlockingWriteLock() {
+        if (blockingWriteLock == null) {
+            synchronized (this) {
+                if (blockingWriteLock == null) {
+                    blockingWriteLock = new ReentrantLock();
+                }
+            }
+        }
+
+        return blockingWriteLock;
+    }
+
     public TaskQueue<AsyncWriteQueueRecord> getAsyncWriteQueue() {
         return asyncWriteQueue;
     }
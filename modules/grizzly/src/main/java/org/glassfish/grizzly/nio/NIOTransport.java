@@ -633,6 +633,13 @@ public abstract class NIOTransport extends AbstractTransport
             kernelPool.shutdownNow();
             kernelPool = null;
         }
+
+        final TemporarySelectorPool selectorPool =
+                temporarySelectorIO.getSelectorPool();
+        if (selectorPool != null) {
+            selectorPool.close();
+        }
+
         state.setState(State.STOPPED);
         notifyProbesStop(this);
         
@@ -67,6 +67,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import org.glassfish.grizzly.localization.LogMessages;
 import org.glassfish.grizzly.threadpool.Threads;
+import org.glassfish.grizzly.utils.DelayedExecutor;
 import org.glassfish.grizzly.utils.StateHolder;
 
 /**
@@ -78,6 +79,9 @@ public final class SelectorRunner implements Runnable {
     private final static Logger LOGGER = Grizzly.logger(SelectorRunner.class);
     
     private final static String THREAD_MARKER = " SelectorRunner";
+
+    private final static long TIMEOUT_CHECK_INTERVAL_MILLIS = Long.getLong(
+            SelectorRunner.class.getName() + ".timeout-check-interval", 1000);
     
     private final NIOTransport transport;
     private final AtomicReference<State> stateHolder;
@@ -104,10 +108,14 @@ public final class SelectorRunner implements Runnable {
     private final AtomicBoolean selectorWakeupFlag = new AtomicBoolean();
     private final AtomicInteger runnerThreadActivityCounter = new AtomicInteger();
 
+    // the timeouts, which are checked by this runner's thread
+    private volatile DelayedExecutor delayedExecutor;
+    private long nextTimeoutCheckMillis;
+
     public static SelectorRunner create(final NIOTransport transport)
             throws IOException {
         return new SelectorRunner(transport,
-                Selectors.newSelector(transport.getSelectorProvider()));
+                Selectors.newOptimizedSelector(transport.getSelectorProvider()));
     }
     
     volatile boolean hasPendingTasks;
@@ -131,6 +139,18 @@ public final class SelectorRunner implements Runnable {
         wakeupSelector();
     }
 
+    /**
+     * Is called by the {@link SelectorHandler}, which suppresses wakeups
+     * while the runner is not blocked, right before the blocking select.
+     *
+     * @return <tt>true</tt> if it's ok to block, or <tt>false</tt> if there
+     *  are pending tasks, which have been added w/o waking the selector up.
+     */
+    boolean prepareBlockingSelect() {
+        selectorWakeupFlag.set(false);
+        return !hasPendingTasks;
+    }
+
     private void wakeupSelector() {
         final Selector localSelector = getSelector();
         if (localSelector != null &&
@@ -182,6 +202,64 @@ public final class SelectorRunner implements Runnable {
     public State getState() {
         return stateHolder.get();
     }
+
+    /**
+     * Returns the {@link DelayedExecutor}, whose {@link DelayedExecutor.DelayQueue}s
+     * are processed by this <tt>SelectorRunner</tt>'s thread within the
+     * select loop, so no extra thread is involved and the queues aren't
+     * shared with other <tt>SelectorRunner</tt>s. The returned executor works
+     * in timing-wheel mode and must not be started.
+     *
+     * @return the {@link DelayedExecutor} driven by this <tt>SelectorRunner</tt>.
+     */
+    public DelayedExecutor getDelayedExecutor() {
+        DelayedExecutor executor = delayedExecutor;
+        if (executor == null) {
+            synchronized (this) {
+                executor = delayedExecutor;
+                if (executor == null) {
+                    executor = new DelayedExecutor(
+                            TIMEOUT_CHECK_INTERVAL_MILLIS,
+                            TimeUnit.MILLISECONDS, true);
+                    delayedExecutor = executor;
+                    // make sure the select timeout gets adjusted
+                    wakeupSelector();
+                }
+            }
+        }
+        
+        return executor;
+    }
+
+    /**
+     * Returns the select timeout, adjusted to not miss the next
+     * {@link #getDelayedExecutor()} check.
+     */
+    long adjustSelectTimeout(final long selectTimeout) {
+        if (delayedExecutor == null) {
+            return selectTimeout;
+        }
+
+        final long timeToCheck = nextTimeoutCheckMillis - System.currentTimeMillis();
+        if (timeToCheck <= 0) {
+            return 1;
+        }
+        
+        return selectTimeout > 0
+                ? Math.min(selectTimeout, timeToCheck)
+                : timeToCheck;
+    }
+
+    private void processTimeouts() {
+        final DelayedExecutor executor = delayedExecutor;
+        if (executor != null) {
+            final long currentTimeMillis = System.currentTimeMillis();
+            if (currentTimeMillis - nextTimeoutCheckMillis >= 0) {
+                nextTimeoutCheckMillis = currentTimeMillis + TIMEOUT_CHECK_INTERVAL_MILLIS;
+                executor.processQueues(currentTimeMillis);
+            }
+        }
+    }
     
     public void postpone() {
         assert selectorRunnerThread != null;
@@ -249,6 +327,12 @@ public final class SelectorRunner implements Runnable {
         abortTasksInQueue(pendingTasks);
         abortTasksInQueue(evenPostponedTasks);
         abortTasksInQueue(oddPostponedTasks);
+
+        final DelayedExecutor executor = delayedExecutor;
+        if (executor != null) {
+            // release the queues, so their elements don't outlive the runner
+            executor.destroy();
+        }
     }
 
     @Override
@@ -312,6 +396,9 @@ public final class SelectorRunner implements Runnable {
      */
     protected boolean doSelect() {
         final SelectorHandler selectorHandler = transport.getSelectorHandler();
+        // true, if the processing has been suspended and will be resumed
+        // with the current readyKeySet
+        boolean isSuspended = true;
         
         try {
             
@@ -337,9 +424,16 @@ public final class SelectorRunner implements Runnable {
             }
 
             readyKeySet = selectorHandler.select(this);
-            selectorWakeupFlag.set(false);
-
-            if (stateHolder.get() == State.STOPPING) return true;
+            // if wakeups are suppressed - the flag stays set until the runner
+            // is about to block again (see prepareBlockingSelect())
+            selectorWakeupFlag.set(
+                    selectorHandler instanceof DefaultSelectorHandler &&
+                    ((DefaultSelectorHandler) selectorHandler).isWakeupSuppressed());
+
+            if (stateHolder.get() == State.STOPPING) {
+                isSuspended = false;
+                return true;
+            }
             
             lastSelectedKeysCount = readyKeySet.size();
             
@@ -351,8 +445,12 @@ public final class SelectorRunner implements Runnable {
 
             readyKeySet = null;
             iterator = null;
+            isSuspended = false;
             selectorHandler.postSelect(this);
+            
+            processTimeouts();
         } catch (ClosedSelectorException e) {
+            isSuspended = false;
             if (isRunning()) {
                 if (selectorHandler.onSelectorClosed(this)) {
                     return true;
@@ -363,12 +461,23 @@ public final class SelectorRunner implements Runnable {
                     "Selector was unexpectedly closed", e,
                     Level.SEVERE, Level.FINE);
         } catch (Exception e) {
+            isSuspended = false;
             dropConnectionDueToException(key,
                     "doSelect exception", e,
                     Level.SEVERE, Level.FINE);
         } catch (Throwable t) {
+            isSuspended = false;
             LOGGER.log(Level.SEVERE,"doSelect exception", t);
             transport.notifyTransportError(t);
+        } finally {
+            if (!isSuspended && readyKeySet != null) {
+                // the keys left in the set would be added once again by the
+                // next select, because the array-based SelectedKeySet
+                // doesn't detect duplicates
+                readyKeySet.clear();
+                readyKeySet = null;
+                iterator = null;
+            }
         }
 
         return true;
@@ -500,7 +609,7 @@ public final class SelectorRunner implements Runnable {
 
     protected final void switchToNewSelector() throws IOException {
         final Selector oldSelector = selector;
-        final Selector newSelector = Selectors.newSelector(transport.getSelectorProvider());
+        final Selector newSelector = Selectors.newOptimizedSelector(transport.getSelectorProvider());
 
         final Set<SelectionKey> keys = oldSelector.keys();
         final SelectionKeyHandler selectionKeyHandler =
@@ -40,14 +40,80 @@
 package org.glassfish.grizzly.nio;
 
 import java.io.IOException;
+import java.lang.reflect.Field;
 import java.nio.channels.Selector;
 import java.nio.channels.spi.SelectorProvider;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.glassfish.grizzly.Grizzly;
 
 /**
  * Utility class for {@link Selector} related operations.
  * @author Alexey Stashok
  */
 public final class Selectors {
+    private static final Logger LOGGER = Grizzly.logger(Selectors.class);
+
+    private static final String OPTIMIZE_SELECTED_KEYS_PROPERTY =
+            Selectors.class.getName() + ".optimize-selected-keys";
+    
+    /**
+     * <tt>true</tt>, if the JDK {@link Selector}s used by {@link SelectorRunner}s
+     * should get the array-based selected-key set. The replacement relies on
+     * the JDK internals, so it's disabled by default. JDK 9+ additionally
+     * doesn't allow it unless the JVM is started with
+     * <tt>--add-opens java.base/sun.nio.ch=ALL-UNNAMED</tt>:
+     * <pre>
+     * java --add-opens java.base/sun.nio.ch=ALL-UNNAMED \
+     *      -Dorg.glassfish.grizzly.nio.Selectors.optimize-selected-keys=true ...
+     * </pre>
+     */
+    private static final boolean OPTIMIZE_SELECTED_KEYS =
+            Boolean.getBoolean(OPTIMIZE_SELECTED_KEYS_PROPERTY);
+
+    private static final Field SELECTED_KEYS_FIELD;
+    private static final Field PUBLIC_SELECTED_KEYS_FIELD;
+
+    static {
+        Field selectedKeysField = null;
+        Field publicSelectedKeysField = null;
+        
+        if (OPTIMIZE_SELECTED_KEYS) {
+            try {
+                final Class<?> selectorImplClass = Class.forName(
+                        "sun.nio.ch.SelectorImpl", false,
+                        Selectors.class.getClassLoader());
+                
+                final Field f1 = selectorImplClass.getDeclaredField("selectedKeys");
+                final Field f2 = selectorImplClass.getDeclaredField("publicSelectedKeys");
+                f1.setAccessible(true);
+                f2.setAccessible(true);
+                
+                selectedKeysField = f1;
+                publicSelectedKeysField = f2;
+            } catch (Throwable t) {
+                if (LOGGER.isLoggable(Level.INFO)) {
+                    LOGGER.log(Level.INFO,
+                            "Selected-key set optimization is not available: {0}."
+                            + " On JDK 9+ the JVM has to be started with"
+                            + " --add-opens java.base/sun.nio.ch=ALL-UNNAMED",
+                            t.toString());
+                }
+                LOGGER.log(Level.FINE,
+                        "Selected-key set optimization is not available", t);
+            }
+        } else if (LOGGER.isLoggable(Level.FINE)) {
+            LOGGER.log(Level.FINE,
+                    "Selected-key set optimization is disabled. To enable it"
+                    + " set the {0} system property to true and, on JDK 9+,"
+                    + " start the JVM with"
+                    + " --add-opens java.base/sun.nio.ch=ALL-UNNAMED",
+                    OPTIMIZE_SELECTED_KEYS_PROPERTY);
+        }
+        
+        SELECTED_KEYS_FIELD = selectedKeysField;
+        PUBLIC_SELECTED_KEYS_FIELD = publicSelectedKeysField;
+    }
 
     /**
      * Creates new {@link Selector} using passed {@link SelectorProvider}.
@@ -73,4 +139,43 @@ public final class Selectors {
             throw new IOException("Can not open Selector due to NPE");
         }
     }
+
+    /**
+     * Creates new {@link Selector} using passed {@link SelectorProvider} and,
+     * if the JDK allows that, replaces its selected-key <tt>HashSet</tt> with
+     * array-based set, so selected keys are collected and iterated w/o
+     * hashing and garbage. Otherwise the {@link Selector} is returned as it is.
+     * On JDK 9+ the replacement requires
+     * <tt>--add-opens java.base/sun.nio.ch=ALL-UNNAMED</tt>, see
+     * {@link #OPTIMIZE_SELECTED_KEYS}.
+     *
+     * Selected keys of the returned {@link Selector} have to be iterated and
+     * cleared after each select.
+     *
+     * @param provider {@link SelectorProvider}
+     * @return {@link Selector}
+     * @throws IOException 
+     */
+    static Selector newOptimizedSelector(final SelectorProvider provider)
+            throws IOException {
+        final Selector selector = newSelector(provider);
+        
+        if (SELECTED_KEYS_FIELD != null &&
+                SELECTED_KEYS_FIELD.getDeclaringClass().isInstance(selector)) {
+            try {
+                final SelectedKeySet selectedKeySet = new SelectedKeySet();
+                SELECTED_KEYS_FIELD.set(selector, selectedKeySet);
+                PUBLIC_SELECTED_KEYS_FIELD.set(selector, selectedKeySet);
+            } catch (Exception e) {
+                LOGGER.log(Level.FINE,
+                        "Can't replace the Selector's selected-key set", e);
+            }
+        } else if (SELECTED_KEYS_FIELD != null && LOGGER.isLoggable(Level.FINE)) {
+            LOGGER.log(Level.FINE,
+                    "Selected-key set optimization is not supported by {0}",
+                    selector.getClass().getName());
+        }
+        
+        return selector;
+    }
 }
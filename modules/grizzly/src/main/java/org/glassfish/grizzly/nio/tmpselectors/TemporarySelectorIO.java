@@ -42,7 +42,9 @@ package org.glassfish.grizzly.nio.tmpselectors;
 
 import org.glassfish.grizzly.Grizzly;
 
+import java.io.IOException;
 import java.net.SocketAddress;
+import java.nio.channels.SelectableChannel;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
 import java.util.logging.Level;
@@ -92,6 +94,24 @@ public class TemporarySelectorIO {
         return writer;
     }
 
+    /**
+     * Parks the current thread until the channel is ready for the operation
+     * or the timeout expires. Unlike the temporary {@link Selector}, it doesn't
+     * pin the carrier thread, when called by a virtual thread.
+     *
+     * @param channel {@link SelectableChannel}
+     * @param op {@link SelectionKey#OP_READ} or {@link SelectionKey#OP_WRITE}
+     * @param timeoutMillis the timeout in milliseconds, the value &lt;= 0
+     *  means no timeout
+     * @return <tt>true</tt>, if the channel is ready, or <tt>false</tt> otherwise
+     * @throws IOException
+     */
+    protected boolean awaitReady(final SelectableChannel channel,
+            final int op, final long timeoutMillis) throws IOException {
+        return selectorPool.getVirtualThreadPoller().await(
+                channel, op, timeoutMillis);
+    }
+
     protected void recycleTemporaryArtifacts(Selector selector,
             SelectionKey selectionKey) {
         
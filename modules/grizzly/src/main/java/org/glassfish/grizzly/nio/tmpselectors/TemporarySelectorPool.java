@@ -87,6 +87,8 @@ public class TemporarySelectorPool {
     private final AtomicInteger missesCounter;
     
     private final SelectorProvider selectorProvider;
+
+    private volatile VirtualThreadPoller virtualThreadPoller;
     
     public TemporarySelectorPool(final SelectorProvider selectorProvider) {
         this(selectorProvider, DEFAULT_SELECTORS_COUNT);
@@ -180,7 +182,35 @@ public class TemporarySelectorPool {
             while ((selector = selectors.poll()) != null) {
                 closeSelector(selector);
             }
+
+            if (virtualThreadPoller != null) {
+                virtualThreadPoller.close();
+                virtualThreadPoller = null;
+            }
+        }
+    }
+
+    /**
+     * Returns the {@link VirtualThreadPoller}, which is used instead of
+     * temporary {@link Selector}s by virtual threads.
+     */
+    VirtualThreadPoller getVirtualThreadPoller() throws IOException {
+        VirtualThreadPoller poller = virtualThreadPoller;
+        if (poller == null) {
+            synchronized (this) {
+                if (isClosed.get()) {
+                    throw new IOException("TemporarySelectorPool is closed");
+                }
+
+                poller = virtualThreadPoller;
+                if (poller == null) {
+                    poller = new VirtualThreadPoller(selectorProvider);
+                    virtualThreadPoller = poller;
+                }
+            }
         }
+
+        return poller;
     }
 
     private void closeSelector(Selector selector) {
@@ -51,6 +51,7 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import org.glassfish.grizzly.*;
 import org.glassfish.grizzly.nio.NIOConnection;
+import org.glassfish.grizzly.threadpool.Threads;
 
 /**
  *
@@ -171,21 +172,28 @@ public abstract class TemporarySelectorReader
             bytesRead = readNow0(connection, buffer, currentResult);
 
             if (bytesRead == 0) {
-                readSelector = transport.getTemporarySelectorIO().
-                        getSelectorPool().poll();
-
-                if (readSelector == null) {
-                    return bytesRead;
-                }
-
-                key = channel.register(readSelector, SelectionKey.OP_READ);
-                key.interestOps(key.interestOps() | SelectionKey.OP_READ);
-                int code = readSelector.select(readTimeout);
-                key.interestOps(
-                        key.interestOps() & (~SelectionKey.OP_READ));
-
-                if (code == 0) {
-                    return bytesRead; // Return on the main Selector and try again.
+                if (Threads.isVirtual(Thread.currentThread())) {
+                    if (!transport.getTemporarySelectorIO().awaitReady(
+                            channel, SelectionKey.OP_READ, readTimeout)) {
+                        return bytesRead;
+                    }
+                } else {
+                    readSelector = transport.getTemporarySelectorIO().
+                            getSelectorPool().poll();
+
+                    if (readSelector == null) {
+                        return bytesRead;
+                    }
+
+                    key = channel.register(readSelector, SelectionKey.OP_READ);
+                    key.interestOps(key.interestOps() | SelectionKey.OP_READ);
+                    int code = readSelector.select(readTimeout);
+                    key.interestOps(
+                            key.interestOps() & (~SelectionKey.OP_READ));
+
+                    if (code == 0) {
+                        return bytesRead; // Return on the main Selector and try again.
+                    }
                 }
 
                 bytesRead = readNow0(connection, buffer, currentResult);
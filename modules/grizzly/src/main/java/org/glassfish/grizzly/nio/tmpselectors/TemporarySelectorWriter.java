@@ -46,10 +46,12 @@ import java.nio.channels.SelectableChannel;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
 import org.glassfish.grizzly.*;
 import org.glassfish.grizzly.asyncqueue.MessageCloner;
 import org.glassfish.grizzly.asyncqueue.WritableMessage;
 import org.glassfish.grizzly.nio.NIOConnection;
+import org.glassfish.grizzly.threadpool.Threads;
 
 /**
  *
@@ -196,41 +198,52 @@ public abstract class TemporarySelectorWriter
         int attempts = 0;
         int bytesWritten = 0;
 
+        final boolean isVirtualThread = Threads.isVirtual(Thread.currentThread());
+        final Lock lock = connection.getBlockingWriteLock();
+        lock.lock();
         try {
-            //noinspection SynchronizationOnLocalVariableOrMethodParameter
-            synchronized (connection) {
-                while (message.hasRemaining()) {
-                    long len = writeNow0(connection, dstAddress, message,
-                            currentResult);
+            while (message.hasRemaining()) {
+                long len = writeNow0(connection, dstAddress, message,
+                        currentResult);
 
-                    if (len > 0) {
-                        attempts = 0;
-                        bytesWritten += len;
-                    } else {
-                        attempts++;
-                        if (writeSelector == null) {
-                            writeSelector = transport.getTemporarySelectorIO().
-                                    getSelectorPool().poll();
+                if (len > 0) {
+                    attempts = 0;
+                    bytesWritten += len;
+                } else {
+                    attempts++;
+                    if (isVirtualThread) {
+                        if (!transport.getTemporarySelectorIO().awaitReady(
+                                channel, SelectionKey.OP_WRITE, writeTimeout)
+                                && attempts > 2) {
+                            throw new IOException("Client disconnected");
+                        }
+
+                        continue;
+                    }
 
-                            if (writeSelector == null) {
-                                // Continue using the main one.
-                                continue;
-                            }
-                            key = channel.register(writeSelector,
-                                    SelectionKey.OP_WRITE);
-                        } else {
-                            writeSelector.selectedKeys().clear();
+                    if (writeSelector == null) {
+                        writeSelector = transport.getTemporarySelectorIO().
+                                getSelectorPool().poll();
+
+                        if (writeSelector == null) {
+                            // Continue using the main one.
+                            continue;
                         }
+                        key = channel.register(writeSelector,
+                                SelectionKey.OP_WRITE);
+                    } else {
+                        writeSelector.selectedKeys().clear();
+                    }
 
-                        if (writeSelector.select(writeTimeout) == 0) {
-                            if (attempts > 2) {
-                                throw new IOException("Client disconnected");
-                            }
+                    if (writeSelector.select(writeTimeout) == 0) {
+                        if (attempts > 2) {
+                            throw new IOException("Client disconnected");
                         }
                     }
                 }
             }
         } finally {
+            lock.unlock();
             transport.getTemporarySelectorIO().recycleTemporaryArtifacts(
                     writeSelector, key);
         }
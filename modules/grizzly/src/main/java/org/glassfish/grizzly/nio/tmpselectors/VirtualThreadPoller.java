@@ -0,0 +1,257 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.grizzly.nio.tmpselectors;
+
+import java.io.IOException;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.spi.SelectorProvider;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.glassfish.grizzly.Grizzly;
+import org.glassfish.grizzly.nio.Selectors;
+
+/**
+ * Shared {@link Selector}, which lets virtual threads wait for a channel
+ * readiness by parking instead of blocking in a temporary
+ * {@link Selector#select(long)} call, which would pin the carrier thread.
+ *
+ * A channel is registered with the poller's {@link Selector} on the first
+ * wait and stays registered until it's closed, only the interest set is
+ * changed on each wait.
+ */
+final class VirtualThreadPoller implements Runnable {
+    private static final Logger LOGGER = Grizzly.logger(VirtualThreadPoller.class);
+
+    // the max time a thread stays parked without checking the channel state
+    private static final long MAX_PARK_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final Selector selector;
+    private final ReentrantLock registrationLock = new ReentrantLock();
+    private volatile boolean isClosed;
+
+    VirtualThreadPoller(final SelectorProvider selectorProvider)
+            throws IOException {
+        selector = Selectors.newSelector(selectorProvider);
+
+        final Thread pollerThread = new Thread(this, "grizzly-virtual-thread-poller");
+        pollerThread.setDaemon(true);
+        pollerThread.start();
+    }
+
+    /**
+     * Parks the current thread until the channel is ready for the operation
+     * or the timeout expires.
+     *
+     * @param channel {@link SelectableChannel}
+     * @param op {@link SelectionKey#OP_READ} or {@link SelectionKey#OP_WRITE}
+     * @param timeoutMillis the timeout in milliseconds, the value &lt;= 0
+     *  means no timeout
+     * @return <tt>true</tt>, if the channel is ready, or <tt>false</tt> if the
+     *  timeout expired, the thread was interrupted or the channel was closed
+     * @throws IOException
+     */
+    boolean await(final SelectableChannel channel, final int op,
+            final long timeoutMillis) throws IOException {
+        if (isClosed) {
+            throw new IOException("Poller is closed");
+        }
+
+        final Thread currentThread = Thread.currentThread();
+        final SelectionKey key = register(channel);
+        final Waiters waiters = (Waiters) key.attachment();
+
+        try {
+            waiters.add(key, op, currentThread);
+        } catch (CancelledKeyException e) {
+            throw new IOException("Channel is closed");
+        }
+
+        selector.wakeup();
+
+        final long deadline = System.nanoTime()
+                + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+
+        while (waiters.get(op) == currentThread) {
+            if (!key.isValid() || isClosed || currentThread.isInterrupted()) {
+                break;
+            }
+
+            if (timeoutMillis > 0) {
+                final long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    break;
+                }
+
+                LockSupport.parkNanos(this, Math.min(remaining, MAX_PARK_NANOS));
+            } else {
+                LockSupport.parkNanos(this, MAX_PARK_NANOS);
+            }
+        }
+
+        // if the waiter is still registered - the channel is not ready
+        return !waiters.remove(key, op, currentThread);
+    }
+
+    void close() {
+        isClosed = true;
+        try {
+            selector.close();
+        } catch (IOException e) {
+            LOGGER.log(Level.FINE, "Error closing the poller selector", e);
+        }
+    }
+
+    @Override
+    public void run() {
+        while (!isClosed) {
+            try {
+                selector.select();
+
+                final Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+                while (it.hasNext()) {
+                    final SelectionKey key = it.next();
+                    it.remove();
+
+                    ((Waiters) key.attachment()).fire(key);
+                }
+            } catch (ClosedSelectorException e) {
+                return;
+            } catch (Exception e) {
+                if (!isClosed) {
+                    LOGGER.log(Level.WARNING, "Unexpected virtual thread poller error", e);
+                }
+            }
+        }
+    }
+
+    private SelectionKey register(final SelectableChannel channel)
+            throws IOException {
+        SelectionKey key = channel.keyFor(selector);
+        if (key == null) {
+            registrationLock.lock();
+            try {
+                key = channel.keyFor(selector);
+                if (key == null) {
+                    key = channel.register(selector, 0, new Waiters());
+                }
+            } finally {
+                registrationLock.unlock();
+            }
+        }
+
+        return key;
+    }
+
+    /**
+     * The threads waiting for a channel readiness.
+     */
+    private static final class Waiters {
+        private volatile Thread reader;
+        private volatile Thread writer;
+
+        Thread get(final int op) {
+            return op == SelectionKey.OP_READ ? reader : writer;
+        }
+
+        synchronized void add(final SelectionKey key, final int op,
+                final Thread thread) {
+            if (op == SelectionKey.OP_READ) {
+                reader = thread;
+            } else {
+                writer = thread;
+            }
+
+            key.interestOps(key.interestOps() | op);
+        }
+
+        synchronized boolean remove(final SelectionKey key, final int op,
+                final Thread thread) {
+            if (get(op) != thread) {
+                return false;
+            }
+
+            if (op == SelectionKey.OP_READ) {
+                reader = null;
+            } else {
+                writer = null;
+            }
+
+            if (key.isValid()) {
+                try {
+                    key.interestOps(key.interestOps() & ~op);
+                } catch (CancelledKeyException ignored) {
+                }
+            }
+
+            return true;
+        }
+
+        synchronized void fire(final SelectionKey key) {
+            if (!key.isValid()) {
+                return;
+            }
+
+            final int readyOps = key.readyOps();
+            if ((readyOps & SelectionKey.OP_READ) != 0 && reader != null) {
+                LockSupport.unpark(reader);
+                reader = null;
+            }
+
+            if ((readyOps & SelectionKey.OP_WRITE) != 0 && writer != null) {
+                LockSupport.unpark(writer);
+                writer = null;
+            }
+
+            try {
+                key.interestOps(key.interestOps() & ~readyOps);
+            } catch (CancelledKeyException ignored) {
+            }
+        }
+    }
+}
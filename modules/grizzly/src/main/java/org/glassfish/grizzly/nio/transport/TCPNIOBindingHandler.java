@@ -47,8 +47,14 @@ import org.glassfish.grizzly.utils.Exceptions;
 import java.io.IOException;
 import java.net.ServerSocket;
 import java.net.SocketAddress;
+import java.net.SocketOption;
+import java.net.StandardSocketOptions;
 import java.nio.channels.ServerSocketChannel;
+import java.util.ArrayList;
 import java.util.concurrent.locks.Lock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.glassfish.grizzly.Grizzly;
 
 /**
  * This class may be used to apply a custom {@link org.glassfish.grizzly.Processor} and/or {@link org.glassfish.grizzly.ProcessorSelector}
@@ -63,6 +69,13 @@ import java.util.concurrent.locks.Lock;
  * @since 2.2.19
  */
 public class TCPNIOBindingHandler extends AbstractBindingHandler {
+    private static final Logger LOGGER = Grizzly.logger(TCPNIOBindingHandler.class);
+
+    /**
+     * <tt>SO_REUSEPORT</tt> socket option, which is available since JDK 9,
+     * or <tt>null</tt>.
+     */
+    private static final SocketOption<Boolean> SO_REUSEPORT = lookupReusePortOption();
 
     private final TCPNIOTransport tcpTransport;
 
@@ -85,10 +98,20 @@ public class TCPNIOBindingHandler extends AbstractBindingHandler {
 
     @Override
     public TCPNIOServerConnection bind(SocketAddress socketAddress, int backlog) throws IOException {
+        if (tcpTransport.isReusePortAcceptors()) {
+            if (isReusePortSupported()) {
+                return bindReusePort(socketAddress, backlog);
+            }
+            
+            LOGGER.log(Level.WARNING, "SO_REUSEPORT is not supported, "
+                    + "{0} will be bound to a single server socket",
+                    socketAddress);
+        }
+        
         return bindToChannelAndAddress(
                 tcpTransport.getSelectorProvider().openServerSocketChannel(),
                 socketAddress,
-                backlog);
+                backlog, -1);
     }
 
     @Override
@@ -96,7 +119,7 @@ public class TCPNIOBindingHandler extends AbstractBindingHandler {
         return bindToChannelAndAddress(
                 this.<ServerSocketChannel>getSystemInheritedChannel(ServerSocketChannel.class),
                 null,
-                -1);
+                -1, -1);
     }
 
     @Override
@@ -112,9 +135,90 @@ public class TCPNIOBindingHandler extends AbstractBindingHandler {
     // --------------------------------------------------------- Private Methods
 
 
+    /**
+     * Binds one server socket per {@link org.glassfish.grizzly.nio.SelectorRunner}
+     * to the same address using <tt>SO_REUSEPORT</tt>, so the kernel balances
+     * the incoming connections between the sockets and each accepted
+     * connection stays on the accepting {@link org.glassfish.grizzly.nio.SelectorRunner}.
+     * The first {@link TCPNIOServerConnection} is returned, unbinding it
+     * unbinds the rest.
+     */
+    private TCPNIOServerConnection bindReusePort(final SocketAddress socketAddress,
+                                                 final int backlog)
+    throws IOException {
+        final int acceptorsCount = tcpTransport.getSelectorRunnersCount();
+        
+        final TCPNIOServerConnection primary = bindToChannelAndAddress(
+                openReusePortChannel(), socketAddress, backlog, 0);
+        
+        // if the port was ephemeral - bind the rest to the same port
+        final SocketAddress boundAddress = primary.getLocalAddress();
+        
+        final ArrayList<TCPNIOServerConnection> siblings =
+                new ArrayList<TCPNIOServerConnection>(acceptorsCount - 1);
+        try {
+            for (int i = 1; i < acceptorsCount; i++) {
+                siblings.add(bindToChannelAndAddress(
+                        openReusePortChannel(), boundAddress, backlog, i));
+            }
+        } catch (IOException e) {
+            for (TCPNIOServerConnection sibling : siblings) {
+                tcpTransport.unbind(sibling);
+            }
+            tcpTransport.unbind(primary);
+            
+            throw e;
+        }
+        
+        primary.reusePortSiblings = siblings;
+        return primary;
+    }
+
+    private ServerSocketChannel openReusePortChannel() throws IOException {
+        final ServerSocketChannel serverSocketChannel =
+                tcpTransport.getSelectorProvider().openServerSocketChannel();
+        try {
+            serverSocketChannel.setOption(SO_REUSEPORT, true);
+        } catch (IOException e) {
+            serverSocketChannel.close();
+            throw e;
+        }
+
+        return serverSocketChannel;
+    }
+
+    private boolean isReusePortSupported() {
+        if (SO_REUSEPORT == null) {
+            return false;
+        }
+
+        try {
+            final ServerSocketChannel channel =
+                    tcpTransport.getSelectorProvider().openServerSocketChannel();
+            try {
+                return channel.supportedOptions().contains(SO_REUSEPORT);
+            } finally {
+                channel.close();
+            }
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static SocketOption<Boolean> lookupReusePortOption() {
+        try {
+            return (SocketOption<Boolean>) StandardSocketOptions.class
+                    .getField("SO_REUSEPORT").get(null);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
     private TCPNIOServerConnection bindToChannelAndAddress(final ServerSocketChannel serverSocketChannel,
                                                            final SocketAddress socketAddress,
-                                                           final int backlog)
+                                                           final int backlog,
+                                                           final int acceptorIndex)
     throws IOException {
         TCPNIOServerConnection serverConnection = null;
 
@@ -135,6 +239,7 @@ public class TCPNIOBindingHandler extends AbstractBindingHandler {
                     serverSocketChannel);
 
             serverConnection = tcpTransport.obtainServerNIOConnection(serverSocketChannel);
+            serverConnection.acceptorIndex = acceptorIndex;
             serverConnection.setProcessor(getProcessor());
             serverConnection.setProcessorSelector(getProcessorSelector());
             tcpTransport.serverConnections.add(serverConnection);
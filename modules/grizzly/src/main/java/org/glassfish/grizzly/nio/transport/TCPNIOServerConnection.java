@@ -45,6 +45,7 @@ import java.net.SocketAddress;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.ServerSocketChannel;
 import java.nio.channels.SocketChannel;
+import java.util.Collection;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
@@ -75,6 +76,18 @@ public final class TCPNIOServerConnection extends TCPNIOConnection {
     private final RegisterAcceptedChannelCompletionHandler defaultCompletionHandler;
     private final Object acceptSync = new Object();
 
+    /**
+     * The index of the {@link org.glassfish.grizzly.nio.SelectorRunner}, which exclusively serves
+     * this server connection and the connections it accepts, or <tt>-1</tt>
+     * if the connection is registered via {@link org.glassfish.grizzly.nio.NIOChannelDistributor}.
+     */
+    int acceptorIndex = -1;
+    
+    /**
+     * Server connections bound to the same address using <tt>SO_REUSEPORT</tt>.
+     */
+    Collection<TCPNIOServerConnection> reusePortSiblings;
+
     public TCPNIOServerConnection(TCPNIOTransport transport,
             ServerSocketChannel serverSocketChannel) {
         super(transport, serverSocketChannel);
@@ -88,11 +101,19 @@ public final class TCPNIOServerConnection extends TCPNIOConnection {
 
         final FutureImpl<RegisterChannelResult> future =
                 SafeFutureImpl.create();
-        
-        transport.getNIOChannelDistributor().registerServiceChannelAsync(
-                channel, SelectionKey.OP_ACCEPT, this,
+        final CompletionHandler<RegisterChannelResult> completionHandler =
                 new CompletionHandlerAdapter<RegisterChannelResult, RegisterChannelResult>(
-                future, registerCompletionHandler));
+                future, registerCompletionHandler);
+        
+        if (acceptorIndex < 0) {
+            transport.getNIOChannelDistributor().registerServiceChannelAsync(
+                    channel, SelectionKey.OP_ACCEPT, this, completionHandler);
+        } else {
+            transport.getSelectorHandler().registerChannelAsync(
+                    ((TCPNIOTransport) transport).getAcceptorSelectorRunner(acceptorIndex),
+                    channel, SelectionKey.OP_ACCEPT, this, completionHandler);
+        }
+        
         try {
             future.get(10, TimeUnit.SECONDS);
         } catch (ExecutionException e) {
@@ -210,9 +231,18 @@ public final class TCPNIOServerConnection extends TCPNIOConnection {
 
         final TCPNIOTransport tcpNIOTransport = (TCPNIOTransport) transport;
 
-        tcpNIOTransport.getNIOChannelDistributor().registerChannelAsync(
-                acceptedConnection.getChannel(), initialSelectionKeyInterest,
-                acceptedConnection, completionHandler);
+        if (acceptorIndex < 0) {
+            tcpNIOTransport.getNIOChannelDistributor().registerChannelAsync(
+                    acceptedConnection.getChannel(), initialSelectionKeyInterest,
+                    acceptedConnection, completionHandler);
+        } else {
+            // keep the accepted connection on the accepting SelectorRunner,
+            // the registration is done in place, if we're on its thread
+            tcpNIOTransport.getSelectorHandler().registerChannelAsync(
+                    getSelectorRunner(), acceptedConnection.getChannel(),
+                    initialSelectionKeyInterest, acceptedConnection,
+                    completionHandler);
+        }
     }
 
     @Override
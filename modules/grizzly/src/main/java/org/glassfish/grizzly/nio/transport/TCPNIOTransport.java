@@ -129,6 +129,11 @@ public final class TCPNIOTransport extends NIOTransport implements
      * The socket keepAlive mode.
      */
     boolean isKeepAlive = DEFAULT_KEEP_ALIVE;
+    /**
+     * <tt>true</tt>, if each {@link SelectorRunner} has to get its own
+     * server socket bound using <tt>SO_REUSEPORT</tt>.
+     */
+    boolean reusePortAcceptors;
 
     private final Filter defaultTransportFilter;
     final RegisterChannelCompletionHandler selectorRegistrationHandler;
@@ -189,6 +194,11 @@ public final class TCPNIOTransport extends NIOTransport implements
         return Runtime.getRuntime().availableProcessors() + 1;
     }
     
+    SelectorRunner getAcceptorSelectorRunner(final int acceptorIndex) {
+        final SelectorRunner[] runners = getSelectorRunners();
+        return runners[acceptorIndex % runners.length];
+    }
+
     void listenServerConnection(TCPNIOServerConnection serverConnection)
             throws IOException {
         serverConnection.listen();
@@ -282,6 +292,14 @@ public final class TCPNIOTransport extends NIOTransport implements
                             LogMessages.WARNING_GRIZZLY_TRANSPORT_UNBINDING_CONNECTION_EXCEPTION(connection),
                             e);
                 }
+                
+                final Collection<TCPNIOServerConnection> siblings =
+                        ((TCPNIOServerConnection) connection).reusePortSiblings;
+                if (siblings != null) {
+                    for (TCPNIOServerConnection sibling : siblings) {
+                        unbind(sibling);
+                    }
+                }
             }
         } finally {
             lock.unlock();
@@ -469,6 +487,32 @@ public final class TCPNIOTransport extends NIOTransport implements
         return tcpNoDelay;
     }
 
+    /**
+     * @return <tt>true</tt>, if server addresses are bound to one server
+     *  socket per {@link SelectorRunner} using <tt>SO_REUSEPORT</tt>,
+     *  or <tt>false</tt> otherwise.
+     */
+    public boolean isReusePortAcceptors() {
+        return reusePortAcceptors;
+    }
+
+    /**
+     * Enables/disables binding of server addresses to one server socket per
+     * {@link SelectorRunner} using <tt>SO_REUSEPORT</tt>. In this mode the
+     * kernel balances incoming connections between the server sockets and
+     * accepted connections are served by the accepting {@link SelectorRunner},
+     * so there is no hand-off via the {@link org.glassfish.grizzly.nio.NIOChannelDistributor}.
+     * If <tt>SO_REUSEPORT</tt> is not supported by the JDK or OS, single
+     * server socket is bound.
+     * The setting affects the addresses bound after the change.
+     *
+     * @param reusePortAcceptors
+     */
+    public void setReusePortAcceptors(final boolean reusePortAcceptors) {
+        this.reusePortAcceptors = reusePortAcceptors;
+        notifyProbesConfigChanged(this);
+    }
+
     public void setTcpNoDelay(final boolean tcpNoDelay) {
         this.tcpNoDelay = tcpNoDelay;
         notifyProbesConfigChanged(this);
@@ -56,6 +56,7 @@ public class TCPNIOTransportBuilder extends NIOTransportBuilder<TCPNIOTransportB
     protected int serverConnectionBackLog = TCPNIOTransport.DEFAULT_SERVER_CONNECTION_BACKLOG;
     protected int serverSocketSoTimeout = TCPNIOTransport.DEFAULT_SERVER_SOCKET_SO_TIMEOUT;
     protected boolean tcpNoDelay = TCPNIOTransport.DEFAULT_TCP_NO_DELAY;
+    protected boolean reusePortAcceptors;
 
     // ------------------------------------------------------------ Constructors
 
@@ -157,6 +158,23 @@ public class TCPNIOTransportBuilder extends NIOTransportBuilder<TCPNIOTransportB
         return getThis();
     }
 
+    /**
+     * @see TCPNIOTransport#isReusePortAcceptors()
+     */
+    public boolean isReusePortAcceptors() {
+        return reusePortAcceptors;
+    }
+
+    /**
+     * @see TCPNIOTransport#setReusePortAcceptors(boolean)
+     *
+     * @return this <code>TCPNIOTransportBuilder</code>
+     */
+    public TCPNIOTransportBuilder setReusePortAcceptors(boolean reusePortAcceptors) {
+        this.reusePortAcceptors = reusePortAcceptors;
+        return getThis();
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -168,6 +186,7 @@ public class TCPNIOTransportBuilder extends NIOTransportBuilder<TCPNIOTransportB
         transport.setServerConnectionBackLog(serverConnectionBackLog);
         transport.setTcpNoDelay(tcpNoDelay);
         transport.setServerSocketSoTimeout(serverSocketSoTimeout);
+        transport.setReusePortAcceptors(reusePortAcceptors);
         return transport;
     }
 
@@ -63,14 +63,28 @@ import org.glassfish.grizzly.utils.Exceptions;
 public class TCPNIOUtils {
     static final Logger LOGGER = TCPNIOTransport.LOGGER;
     
+    /**
+     * Writes the {@link CompositeBuffer} content using a gathering
+     * {@link SocketChannel#write(java.nio.ByteBuffer[], int, int)}.
+     * 
+     * Direct segments are passed to the channel as they are, only heap segments
+     * are copied into the thread's {@link DirectByteBufferRecord}, so the write
+     * size limit, based on the connection's write buffer size, applies to the
+     * heap bytes only. This way large direct or mapped payloads go to the socket
+     * with no intermediate copy.
+     * 
+     * @param connection {@link TCPNIOConnection}
+     * @param buffer {@link CompositeBuffer} to write
+     * @return the number of bytes written
+     * @throws IOException 
+     */
     public static int writeCompositeBuffer(final TCPNIOConnection connection,
             final CompositeBuffer buffer) throws IOException {
         
-        final int bufferSize = calcWriteBufferSize(connection, buffer.remaining());
-        
         final int oldPos = buffer.position();
         final int oldLim = buffer.limit();
-        buffer.limit(oldPos + bufferSize);
+        buffer.limit(oldPos + Math.min(TCPNIOTransport.MAX_SEND_BUFFER_SIZE,
+                buffer.remaining()));
         
         final SocketChannel socketChannel = (SocketChannel) connection.getChannel();
         
@@ -79,7 +93,8 @@ public class TCPNIOUtils {
         final DirectByteBufferRecord ioRecord = DirectByteBufferRecord.get();
         
         try {
-            fill(bufferArray, bufferSize, ioRecord);
+            gather(bufferArray, calcWriteBufferSize(connection,
+                    heapRemaining(bufferArray)), ioRecord);
             ioRecord.finishBufferSlice();
 
             final int arraySize = ioRecord.getArraySize();
@@ -208,6 +223,79 @@ public class TCPNIOUtils {
 
     }
 
+    /**
+     * Adds the {@link BufferArray} segments to the {@link DirectByteBufferRecord}
+     * array: direct segments are added as they are, heap segments are copied
+     * into the record's direct buffer until <tt>heapBufferSize</tt> bytes are
+     * copied. The segments following a heap segment, which didn't fit,
+     * are not added.
+     */
+    static void gather(final BufferArray bufferArray,
+            final int heapBufferSize, final DirectByteBufferRecord ioRecord) {
+        
+        final Buffer buffers[] = bufferArray.getArray();
+        final int size = bufferArray.size();
+        
+        int heapRemaining = heapBufferSize;
+        
+        for (int i = 0; i < size; i++) {
+            
+            final Buffer buffer = buffers[i];
+            assert !buffer.isComposite();
+            
+            final int bufferSize = buffer.remaining();
+            if (bufferSize == 0) {
+                continue;
+            }
+            
+            if (buffer.isDirect()) {
+                ioRecord.finishBufferSlice();
+                ioRecord.putToArray(buffer.toByteBuffer());
+                continue;
+            }
+            
+            if (heapRemaining == 0) {
+                break;
+            }
+            
+            ByteBuffer currentDirectBufferSlice = ioRecord.getDirectBufferSlice();
+
+            if (currentDirectBufferSlice == null) {
+                if (ioRecord.getDirectBuffer() == null) {
+                    ioRecord.allocate(heapRemaining);
+                }
+
+                currentDirectBufferSlice = ioRecord.sliceBuffer();
+            }
+
+            final int copySize = Math.min(bufferSize, heapRemaining);
+            final int oldLim = currentDirectBufferSlice.limit();
+            currentDirectBufferSlice.limit(currentDirectBufferSlice.position() + copySize);
+            buffer.get(currentDirectBufferSlice);
+            currentDirectBufferSlice.limit(oldLim);
+            
+            heapRemaining -= copySize;
+            
+            if (copySize < bufferSize) {
+                break;
+            }
+        }
+    }
+
+    private static int heapRemaining(final BufferArray bufferArray) {
+        final Buffer buffers[] = bufferArray.getArray();
+        final int size = bufferArray.size();
+        
+        int heapRemaining = 0;
+        for (int i = 0; i < size; i++) {
+            if (!buffers[i].isDirect()) {
+                heapRemaining += buffers[i].remaining();
+            }
+        }
+        
+        return heapRemaining;
+    }
+
     private static int calcWriteBufferSize(final TCPNIOConnection connection,
             final int bufferSize) {
         return Math.min(TCPNIOTransport.MAX_SEND_BUFFER_SIZE,
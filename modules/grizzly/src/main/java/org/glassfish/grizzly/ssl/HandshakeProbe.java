@@ -0,0 +1,146 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.grizzly.ssl;
+
+import org.glassfish.grizzly.Connection;
+
+/**
+ * Monitoring probe providing callbacks that may be invoked by the
+ * {@link SSLBaseFilter} during SSL handshakes.
+ */
+public interface HandshakeProbe {
+
+    /**
+     * Method will be called, when the SSL handshake gets completed.
+     *
+     * @param connection {@link Connection}, the event belongs to.
+     * @param durationNanos the time, in nanoseconds, passed since the
+     *        handshake start.
+     */
+    void onHandshakeCompleteEvent(Connection connection, long durationNanos);
+
+    /**
+     * Method will be called, when the SSL handshake resumes a cached session,
+     * just before the handshake completion event.
+     *
+     * @param connection {@link Connection}, the event belongs to.
+     */
+    void onSessionResumedEvent(Connection connection);
+
+    /**
+     * Method will be called, when the {@link javax.net.ssl.SSLEngine}
+     * delegated tasks get queued to the handshake executor.
+     *
+     * @param connection {@link Connection}, the event belongs to.
+     * @param queueSize the number of connections, which delegated tasks are
+     *        waiting for the execution, including this one.
+     */
+    void onDelegatedTasksQueuedEvent(Connection connection, int queueSize);
+
+    /**
+     * Method will be called, when the queued {@link javax.net.ssl.SSLEngine}
+     * delegated tasks have been executed.
+     *
+     * @param connection {@link Connection}, the event belongs to.
+     * @param waitNanos the time, in nanoseconds, the tasks were waiting in
+     *        the queue.
+     * @param executionNanos the tasks execution time, in nanoseconds.
+     */
+    void onDelegatedTasksExecutedEvent(Connection connection, long waitNanos,
+            long executionNanos);
+
+    /**
+     * Method will be called, when the handshake executor rejects the
+     * {@link javax.net.ssl.SSLEngine} delegated tasks, so they are executed
+     * by the current thread.
+     *
+     * @param connection {@link Connection}, the event belongs to.
+     */
+    void onDelegatedTasksRejectedEvent(Connection connection);
+
+
+    // ---------------------------------------------------------- Nested Classes
+
+    /**
+     * {@link HandshakeProbe} adapter that provides no-op implementations for
+     * all interface methods allowing easy extension by the developer.
+     */
+    @SuppressWarnings("UnusedDeclaration")
+    class Adapter implements HandshakeProbe {
+
+
+        // ----------------------------------------- Methods from HandshakeProbe
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void onHandshakeCompleteEvent(Connection connection,
+                long durationNanos) {}
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void onSessionResumedEvent(Connection connection) {}
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void onDelegatedTasksQueuedEvent(Connection connection,
+                int queueSize) {}
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void onDelegatedTasksExecutedEvent(Connection connection,
+                long waitNanos, long executionNanos) {}
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void onDelegatedTasksRejectedEvent(Connection connection) {}
+
+    } // END Adapter
+}
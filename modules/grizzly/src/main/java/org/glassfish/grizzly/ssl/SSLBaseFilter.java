@@ -61,8 +61,12 @@ import java.security.cert.CertificateFactory;
 import java.security.cert.X509Certificate;
 import java.util.Collections;
 import java.util.Set;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Filter;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -99,6 +103,9 @@ import org.glassfish.grizzly.impl.FutureImpl;
 import org.glassfish.grizzly.memory.Buffers;
 import org.glassfish.grizzly.memory.CompositeBuffer;
 import org.glassfish.grizzly.memory.MemoryManager;
+import org.glassfish.grizzly.monitoring.DefaultMonitoringConfig;
+import org.glassfish.grizzly.monitoring.MonitoringAware;
+import org.glassfish.grizzly.monitoring.MonitoringConfig;
 import org.glassfish.grizzly.ssl.SSLConnectionContext.Allocator;
 import org.glassfish.grizzly.ssl.SSLConnectionContext.SslResult;
 import org.glassfish.grizzly.utils.DataStructures;
@@ -109,7 +116,8 @@ import org.glassfish.grizzly.utils.Futures;
  *
  * @author Alexey Stashok
  */
-public class SSLBaseFilter extends BaseFilter {
+public class SSLBaseFilter extends BaseFilter
+        implements MonitoringAware<HandshakeProbe> {
     private static final Logger LOGGER = Grizzly.logger(SSLBaseFilter.class);
     protected static final MessageCloner<Buffer> COPY_CLONER = new OnWriteCopyCloner();
 
@@ -145,8 +153,22 @@ public class SSLBaseFilter extends BaseFilter {
             DataStructures.<HandshakeListener, Boolean>getConcurrentMap(2));
     
     private long handshakeTimeoutMillis = -1;
+
+    private volatile Executor handshakeExecutor;
+    // The number of connections waiting for their delegated tasks execution
+    private final AtomicInteger queuedHandshakeTasks = new AtomicInteger();
+
+    // Handshake counters, used to calculate the session resumption rate
+    private final AtomicLong fullHandshakesCount = new AtomicLong();
+    private final AtomicLong resumedHandshakesCount = new AtomicLong();
         
     private SSLTransportFilterWrapper optimizedTransportFilter;
+
+    /**
+     * Handshake probes
+     */
+    protected final DefaultMonitoringConfig<HandshakeProbe> monitoringConfig =
+            new DefaultMonitoringConfig<HandshakeProbe>(HandshakeProbe.class);
     
     // ------------------------------------------------------------ Constructors
 
@@ -248,6 +270,49 @@ public class SSLBaseFilter extends BaseFilter {
         }
     }
 
+    /**
+     * @return the {@link Executor} running the {@link SSLEngine} delegated
+     * tasks of the non-blocking handshakes, or <code>null</code> if the
+     * tasks are run by the thread processing the read (default).
+     */
+    public Executor getHandshakeExecutor() {
+        return handshakeExecutor;
+    }
+
+    /**
+     * Sets the {@link Executor} to run the {@link SSLEngine} delegated tasks,
+     * like the key exchange computations, of the non-blocking handshakes.
+     * The connection processing gets suspended while its tasks are queued
+     * or running, and resumed by the executor thread once they are done,
+     * so the selector threads aren't stalled by expensive handshakes.
+     *
+     * The executor is expected to be dedicated and bounded, if it rejects the
+     * tasks, they are run by the thread processing the read.
+     *
+     * @param handshakeExecutor the {@link Executor}, or <code>null</code> to
+     * run the tasks by the thread processing the read.
+     */
+    public void setHandshakeExecutor(final Executor handshakeExecutor) {
+        this.handshakeExecutor = handshakeExecutor;
+    }
+
+    /**
+     * @return the number of completed full handshakes, which established
+     * new sessions.
+     */
+    public long getFullHandshakesCount() {
+        return fullHandshakesCount.get();
+    }
+
+    /**
+     * @return the number of completed abbreviated handshakes, which resumed
+     * sessions found in the {@link SSLEngine} session cache.
+     * @see SSLEngineConfigurator#setSessionCacheSize(int)
+     */
+    public long getResumedHandshakesCount() {
+        return resumedHandshakesCount.get();
+    }
+
     /**
      * Completely disables renegotiation.
      *
@@ -300,6 +365,14 @@ public class SSLBaseFilter extends BaseFilter {
         }
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public MonitoringConfig<HandshakeProbe> getMonitoringConfig() {
+        return monitoringConfig;
+    }
+
     // ----------------------------------------------------- Methods from Filter
 
 
@@ -338,6 +411,10 @@ public class SSLBaseFilter extends BaseFilter {
                 notifyHandshakeStart(connection);
             }
 
+            final Executor executor = handshakeExecutor;
+            final boolean offloadTasks =
+                    executor != null && handshakeTimeoutMillis < 0;
+
             final Buffer buffer;
             buffer = ((handshakeTimeoutMillis >= 0)
                          ? doHandshakeSync(sslCtx,
@@ -348,7 +425,14 @@ public class SSLBaseFilter extends BaseFilter {
                                               ctx,
                                               doHandshakeStep(sslCtx,
                                                               ctx,
-                                                              (Buffer) ctx.getMessage())));
+                                                              (Buffer) ctx.getMessage(),
+                                                              null,
+                                                              offloadTasks)));
+
+            if (offloadTasks
+                    && sslEngine.getHandshakeStatus() == HandshakeStatus.NEED_TASK) {
+                return executeDelegatedTasks(ctx, sslCtx, buffer, executor);
+            }
         
             final boolean hasRemaining = buffer != null && buffer.hasRemaining();
             
@@ -421,6 +505,7 @@ public class SSLBaseFilter extends BaseFilter {
     protected NextAction unwrapAll(final FilterChainContext ctx,
             final SSLConnectionContext sslCtx) throws SSLException {
         Buffer input = ctx.getMessage();
+        final MemoryManager memoryManager = ctx.getMemoryManager();
         
         Buffer output = null;
         
@@ -434,16 +519,22 @@ public class SSLBaseFilter extends BaseFilter {
                 break;
             }
 
+            // each record is unwrapped into its own buffer sized by the
+            // record length, and the plaintexts are aggregated without
+            // copying into a composite output
             final SslResult result =
-                    sslCtx.unwrap(len, input, output, MM_ALLOCATOR);
-
-            output = result.getOutput();
+                    sslCtx.unwrapRecord(len, input, MM_ALLOCATOR);
 
             if (result.isError()) {
-                output.dispose();
+                result.getOutput().dispose();
+                if (output != null) {
+                    output.dispose();
+                }
                 throw result.getError();
             }
 
+            output = appendPlaintext(memoryManager, output, result.getOutput());
+
             if (isHandshaking(sslCtx.getSslEngine())) {
                 // is it re-handshake or graceful ssl termination
                 if (result.getSslEngineResult().getStatus() != Status.CLOSED) {
@@ -476,13 +567,39 @@ public class SSLBaseFilter extends BaseFilter {
         } while (true);
 
         if (output != null) {
-            output.trim();
             ctx.setMessage(output);
         }
         
         return resolveNextAction(ctx, sslCtx, input, output, isClosed);
     }
 
+    /**
+     * Appends the just unwrapped record plaintext to the one, unwrapped
+     * during the current read event. The unused part of the record buffer
+     * is released right away, as well as the buffers of the records with no
+     * plaintext, like the post-handshake messages.
+     */
+    private static Buffer appendPlaintext(final MemoryManager memoryManager,
+            final Buffer output, final Buffer recordOutput) {
+        recordOutput.trim();
+
+        if (output == null) {
+            return recordOutput;
+        }
+
+        if (!recordOutput.hasRemaining()) {
+            recordOutput.dispose();
+            return output;
+        }
+
+        if (!output.hasRemaining()) {
+            output.dispose();
+            return recordOutput;
+        }
+
+        return Buffers.appendBuffers(memoryManager, output, recordOutput, true);
+    }
+
 	protected NextAction resolveNextAction(final FilterChainContext ctx, final SSLConnectionContext sslCtx,
 			Buffer input, Buffer output, boolean isClosed) {
 		if (output != null && shouldContinueFilter(output, isClosed)) {
@@ -655,6 +772,22 @@ public class SSLBaseFilter extends BaseFilter {
                                      Buffer inputBuffer,
                                      final Buffer tmpAppBuffer0)
             throws IOException {
+        return doHandshakeStep(sslCtx, ctx, inputBuffer, tmpAppBuffer0, false);
+    }
+
+    /**
+     * Performs the handshake operations possible with the available input.
+     *
+     * @param offloadTasks if <tt>true</tt>, the step stops, once the
+     *  {@link SSLEngine} needs its delegated tasks to be run, so the caller
+     *  could run them asynchronously.
+     */
+    protected Buffer doHandshakeStep(final SSLConnectionContext sslCtx,
+                                     final FilterChainContext ctx,
+                                     Buffer inputBuffer,
+                                     final Buffer tmpAppBuffer0,
+                                     final boolean offloadTasks)
+            throws IOException {
 
         final Connection connection = ctx.getConnection();
         
@@ -732,6 +865,9 @@ public class SSLBaseFilter extends BaseFilter {
                         if (isLoggingFinest) {
                             LOGGER.log(Level.FINEST, "NEED_TASK Engine: {0}", sslCtx.getSslEngine());
                         }
+                        if (offloadTasks) {
+                            break _exitWhile;
+                        }
                         executeDelegatedTask(sslCtx.getSslEngine());
                         handshakeStatus = sslCtx.getSslEngine().getHandshakeStatus();
                         break;
@@ -774,6 +910,53 @@ public class SSLBaseFilter extends BaseFilter {
         return inputBuffer;
     }
     
+    /**
+     * Suspends the connection processing and hands the {@link SSLEngine}
+     * delegated tasks over to the handshake {@link Executor}. Once the tasks
+     * are done, the processing is resumed by the executor thread, starting
+     * with this filter, which continues the handshake with the remaining
+     * input.
+     */
+    private NextAction executeDelegatedTasks(final FilterChainContext ctx,
+            final SSLConnectionContext sslCtx, final Buffer remainder,
+            final Executor executor) {
+        final Connection connection = ctx.getConnection();
+        final NextAction suspendAction = ctx.getSuspendAction();
+        ctx.setMessage(remainder);
+        ctx.suspend();
+
+        final long queuedNanos = System.nanoTime();
+        final int queueSize = queuedHandshakeTasks.incrementAndGet();
+        notifyProbesDelegatedTasksQueued(connection, queueSize);
+
+        final Runnable tasksRunner = new Runnable() {
+            @Override
+            public void run() {
+                queuedHandshakeTasks.decrementAndGet();
+                final long startNanos = System.nanoTime();
+                try {
+                    executeDelegatedTask(sslCtx.getSslEngine());
+                } catch (Throwable t) {
+                    // the SSLEngine reports the failure on the next operation
+                    LOGGER.log(Level.FINE, "Error executing SSLEngine delegated task", t);
+                }
+                notifyProbesDelegatedTasksExecuted(connection,
+                        startNanos - queuedNanos, System.nanoTime() - startNanos);
+
+                ctx.resume();
+            }
+        };
+
+        try {
+            executor.execute(tasksRunner);
+        } catch (RejectedExecutionException e) {
+            notifyProbesDelegatedTasksRejected(connection);
+            tasksRunner.run();
+        }
+
+        return suspendAction;
+    }
+
     /**
      * Performs an SSL renegotiation.
      *
@@ -1034,6 +1217,12 @@ public class SSLBaseFilter extends BaseFilter {
     }
 
     protected void notifyHandshakeStart(final Connection connection) {
+        final SSLConnectionContext sslCtx = SSL_CTX_ATTR.get(connection);
+        if (sslCtx != null) {
+            sslCtx.handshakeStartNanos = System.nanoTime();
+            sslCtx.handshakeStartMillis = System.currentTimeMillis();
+        }
+
         if (!handshakeListeners.isEmpty()) {
             for (final HandshakeListener listener : handshakeListeners) {
                 listener.onStart(connection);
@@ -1049,6 +1238,30 @@ public class SSLBaseFilter extends BaseFilter {
                 listener.onComplete(connection);
             }
         }
+
+        final SSLConnectionContext sslCtx = SSL_CTX_ATTR.get(connection);
+
+        // a resumed session has been created before the handshake start
+        final boolean isResumed = sslCtx != null
+                && sslEngine.getSession().getCreationTime() < sslCtx.handshakeStartMillis;
+        if (isResumed) {
+            resumedHandshakesCount.incrementAndGet();
+        } else {
+            fullHandshakesCount.incrementAndGet();
+        }
+
+        final HandshakeProbe[] probes = monitoringConfig.getProbesUnsafe();
+        if (probes != null) {
+            final long durationNanos = sslCtx != null
+                    ? System.nanoTime() - sslCtx.handshakeStartNanos
+                    : -1;
+            for (HandshakeProbe probe : probes) {
+                if (isResumed) {
+                    probe.onSessionResumedEvent(connection);
+                }
+                probe.onHandshakeCompleteEvent(connection, durationNanos);
+            }
+        }
     }
 
     protected void notifyHandshakeFailed(final Connection connection,
@@ -1060,6 +1273,48 @@ public class SSLBaseFilter extends BaseFilter {
         }
     }
     
+    /**
+     * Notify registered {@link HandshakeProbe}s about the "delegated tasks
+     * queued" event.
+     */
+    protected void notifyProbesDelegatedTasksQueued(final Connection connection,
+            final int queueSize) {
+        final HandshakeProbe[] probes = monitoringConfig.getProbesUnsafe();
+        if (probes != null) {
+            for (HandshakeProbe probe : probes) {
+                probe.onDelegatedTasksQueuedEvent(connection, queueSize);
+            }
+        }
+    }
+
+    /**
+     * Notify registered {@link HandshakeProbe}s about the "delegated tasks
+     * executed" event.
+     */
+    protected void notifyProbesDelegatedTasksExecuted(final Connection connection,
+            final long waitNanos, final long executionNanos) {
+        final HandshakeProbe[] probes = monitoringConfig.getProbesUnsafe();
+        if (probes != null) {
+            for (HandshakeProbe probe : probes) {
+                probe.onDelegatedTasksExecutedEvent(connection, waitNanos,
+                        executionNanos);
+            }
+        }
+    }
+
+    /**
+     * Notify registered {@link HandshakeProbe}s about the "delegated tasks
+     * rejected" event.
+     */
+    protected void notifyProbesDelegatedTasksRejected(final Connection connection) {
+        final HandshakeProbe[] probes = monitoringConfig.getProbesUnsafe();
+        if (probes != null) {
+            for (HandshakeProbe probe : probes) {
+                probe.onDelegatedTasksRejectedEvent(connection);
+            }
+        }
+    }
+    
     // ----------------------------------------------------------- Inner Classes
 
     public static class CertificateEvent implements FilterChainEvent {
@@ -50,6 +50,7 @@ import javax.net.ssl.SSLSession;
 import org.glassfish.grizzly.Buffer;
 import org.glassfish.grizzly.Connection;
 import org.glassfish.grizzly.Grizzly;
+import org.glassfish.grizzly.ThreadCache;
 import org.glassfish.grizzly.filterchain.FilterChain;
 import org.glassfish.grizzly.memory.Buffers;
 import org.glassfish.grizzly.memory.ByteBufferArray;
@@ -79,6 +80,12 @@ public class SSLConnectionContext {
         
         BUFFER_SIZE_COEF = coeff;
     }
+
+    // The buffer, which gathers the SSL records split among several Buffers
+    // of a composite input
+    private static final ThreadCache.CachedTypeIndex<ByteBuffer> GATHER_BUFFER_IDX =
+            ThreadCache.obtainIndex(SSLConnectionContext.class.getName() + ".gather-buffer",
+            ByteBuffer.class, 1);
     
     final ByteBufferArray outputByteBufferArray =
             ByteBufferArray.create();
@@ -95,10 +102,19 @@ public class SSLConnectionContext {
 
     private volatile int appBufferSize;
     private volatile int netBufferSize;
+
+    // false, if the SSLEngine doesn't accept the output buffers sized by the
+    // SSL record, so the application buffer size has to be used
+    private boolean isRecordSizedUnwrap = true;
     
     private final Connection connection;
     private FilterChain newConnectionFilterChain;
 
+    // The System.nanoTime() of the current handshake start
+    volatile long handshakeStartNanos;
+    // The System.currentTimeMillis() of the current handshake start
+    volatile long handshakeStartMillis;
+
     public SSLConnectionContext(Connection connection) {
         this.connection = connection;
     }    
@@ -175,6 +191,37 @@ public class SSLConnectionContext {
             
         output = ensureBufferSize(output, appBufferSize, allocator);
 
+        return unwrapTo(len, input, output, allocator);
+    }
+
+    /**
+     * Unwraps a single SSL record into a newly allocated {@link Buffer}.
+     * The plaintext can't be larger than its SSL record, so the output
+     * {@link Buffer} is sized by the record length rather than by the session
+     * application buffer size, which lets the small records be decrypted into
+     * small (pooled) buffers.
+     */
+    SslResult unwrapRecord(final int len, final Buffer input,
+            final Allocator allocator) {
+        if (!isRecordSizedUnwrap) {
+            return unwrap(len, input, null, allocator);
+        }
+
+        final Buffer output = allocator.grow(this, null, len);
+        final int capacity = output.capacity();
+        final SslResult result = unwrapTo(len, input, output, allocator);
+        if (result.getOutput().capacity() != capacity) {
+            // the SSLEngine wanted more room for the output, than the record
+            // length, so don't try it anymore
+            isRecordSizedUnwrap = false;
+        }
+
+        return result;
+    }
+
+    private SslResult unwrapTo(final int len, final Buffer input, Buffer output,
+            final Allocator allocator) {
+
         if (LOGGER.isLoggable(Level.FINE)) {
             LOGGER.log(Level.FINE, "unwrap engine: {0} input: {1} output: {2}",
                     new Object[] {sslEngine, input, output});
@@ -183,9 +230,29 @@ public class SSLConnectionContext {
         final int inPos = input.position();
         final int outPos = output.position();
         
-        final ByteBuffer inputByteBuffer =
-                input.toByteBuffer(input.position(), input.position() + len);
+        ByteBufferArray inputArray = null;
+        ByteBuffer gatherBuffer = null;
+        final ByteBuffer inputByteBuffer;
+        if (!input.isComposite()) {
+            inputByteBuffer = input.toByteBuffer(inPos, inPos + len);
+        } else {
+            // CompositeBuffer.toByteBuffer() allocates a new ByteBuffer for
+            // the records split among several Buffers, gather them into the
+            // thread-local one instead
+            inputArray = input.toByteBufferArray(
+                    ByteBufferArray.create(), inPos, inPos + len);
+            if (inputArray.size() == 1) {
+                inputByteBuffer = inputArray.getArray()[0];
+            } else {
+                gatherBuffer = gather(inputArray, len);
+                inputArray.restore();
+                inputArray.recycle();
+                inputArray = null;
+                inputByteBuffer = gatherBuffer;
+            }
+        }
         final int initPosition = inputByteBuffer.position();
+        final int consumed;
         final SSLEngineResult sslEngineResult;
         
         try {
@@ -206,8 +273,18 @@ public class SSLConnectionContext {
                     bba.reset();
                 }
             }
+
+            consumed = inputByteBuffer.position() - initPosition;
         } catch (SSLException e) {
             return new SslResult(output, e);
+        } finally {
+            if (inputArray != null) {
+                inputArray.restore();
+                inputArray.recycle();
+            } else if (gatherBuffer != null) {
+                gatherBuffer.clear();
+                ThreadCache.putToCache(GATHER_BUFFER_IDX, gatherBuffer);
+            }
         }
         
         final Status status = sslEngineResult.getStatus();
@@ -216,12 +293,12 @@ public class SSLConnectionContext {
         if (allocator != null && isOverflow) {
             updateBufferSizes();
             output = ensureBufferSize(output, appBufferSize, allocator);
-            return unwrap(len, input, output, null);
+            return unwrapTo(len, input, output, null);
         } else if (isOverflow || status == Status.BUFFER_UNDERFLOW) {
             return new SslResult(output, new SSLException("SSL unwrap error: " + status));
         }
         
-        input.position(inPos + inputByteBuffer.position() - initPosition); // GRIZZLY-1827 input.position(inPos + sslEngineResult.bytesConsumed());
+        input.position(inPos + consumed); // GRIZZLY-1827 input.position(inPos + sslEngineResult.bytesConsumed());
         output.position(outPos + sslEngineResult.bytesProduced());
 
         if (LOGGER.isLoggable(Level.FINE)) {
@@ -403,6 +480,23 @@ public class SSLConnectionContext {
         return new SslResult(output, sslEngineResult);
     }
     
+    /**
+     * Copies the SSL record parts into the thread-local {@link ByteBuffer}.
+     */
+    private ByteBuffer gather(final ByteBufferArray inputArray, final int len) {
+        ByteBuffer gatherBuffer = ThreadCache.takeFromCache(GATHER_BUFFER_IDX);
+        if (gatherBuffer == null || gatherBuffer.capacity() < len) {
+            gatherBuffer = ByteBuffer.allocate(Math.max(len, netBufferSize));
+        }
+
+        final ByteBuffer[] array = inputArray.getArray();
+        for (int i = 0; i < inputArray.size(); i++) {
+            gatherBuffer.put(array[i]);
+        }
+
+        return (ByteBuffer) gatherBuffer.flip();
+    }
+
     private Buffer ensureBufferSize(Buffer output,
             final int size, final Allocator allocator) {
         final int sz = (int) ((float) size * BUFFER_SIZE_COEF);
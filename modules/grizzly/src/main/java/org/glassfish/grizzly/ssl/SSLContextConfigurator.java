@@ -55,8 +55,10 @@ import java.security.cert.CertificateException;
 import java.util.Properties;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import javax.net.ssl.KeyManager;
 import javax.net.ssl.KeyManagerFactory;
 import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManager;
 import javax.net.ssl.TrustManagerFactory;
 import org.glassfish.grizzly.Grizzly;
 
@@ -606,11 +608,11 @@ public class SSLContextConfigurator {
             if (securityProtocol != null) {
                 secProtocol = securityProtocol;
             }
-            sslContext = SSLContext.getInstance(secProtocol);
-            sslContext.init(keyManagerFactory != null ? keyManagerFactory
+            sslContext = newSSLContext(secProtocol,
+                    keyManagerFactory != null ? keyManagerFactory
                     .getKeyManagers() : null,
                     trustManagerFactory != null ? trustManagerFactory
-                            .getTrustManagers() : null, null);
+                            .getTrustManagers() : null);
         } catch (KeyManagementException e) {
             LOGGER.log(Level.FINE, "Key management error.", e);
             if (throwException) {
@@ -626,6 +628,25 @@ public class SSLContextConfigurator {
         return sslContext;
     }
 
+    /**
+     * Creates and initializes the {@link SSLContext} for the security
+     * protocol, using the default {@link java.security.Provider}.
+     * May be overridden to use a different {@link SSLContext} implementation.
+     *
+     * @param protocol the security protocol.
+     * @param keyManagers the key managers, or <code>null</code>.
+     * @param trustManagers the trust managers, or <code>null</code>.
+     *
+     * @return the initialized {@link SSLContext}.
+     */
+    protected SSLContext newSSLContext(final String protocol,
+            final KeyManager[] keyManagers, final TrustManager[] trustManagers)
+            throws NoSuchAlgorithmException, KeyManagementException {
+        final SSLContext sslContext = SSLContext.getInstance(protocol);
+        sslContext.init(keyManagers, trustManagers, null);
+        return sslContext;
+    }
+
     public void retrieve(Properties props) {
         trustStoreProvider = props.getProperty(TRUST_STORE_PROVIDER);
         keyStoreProvider = props.getProperty(KEY_STORE_PROVIDER);
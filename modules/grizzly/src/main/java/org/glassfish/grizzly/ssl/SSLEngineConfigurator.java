@@ -45,6 +45,7 @@ import java.util.Arrays;
 import java.util.logging.Logger;
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLSessionContext;
 import org.glassfish.grizzly.Grizzly;
 
 /**
@@ -89,6 +90,20 @@ public class SSLEngineConfigurator implements SSLEngineFactory {
      * Has the enabled Cipher configured.
      */
     private boolean isCipherConfigured = false;
+    /**
+     * The maximum number of sessions kept in the {@link SSLContext} session
+     * cache, or <tt>-1</tt> to keep the JSSE default.
+     */
+    private int sessionCacheSize = -1;
+    /**
+     * The timeout, in seconds, of the sessions kept in the {@link SSLContext}
+     * session cache, or <tt>-1</tt> to keep the JSSE default.
+     */
+    private int sessionTimeout = -1;
+    /**
+     * Has the {@link SSLContext} session cache configured.
+     */
+    private volatile boolean isSessionContextConfigured = false;
     
     /**
      * Create SSL Engine configuration basing on passed {@link SSLContext}.
@@ -172,6 +187,9 @@ public class SSLEngineConfigurator implements SSLEngineFactory {
 
         this.isCipherConfigured = pattern.isCipherConfigured;
         this.isProtocolConfigured = pattern.isProtocolConfigured;
+
+        this.sessionCacheSize = pattern.sessionCacheSize;
+        this.sessionTimeout = pattern.sessionTimeout;
     }
 
     protected SSLEngineConfigurator() {
@@ -203,13 +221,7 @@ public class SSLEngineConfigurator implements SSLEngineFactory {
      */
     @Override
     public SSLEngine createSSLEngine(final String peerHost, final int peerPort) {
-        if (sslContext == null) {
-            synchronized(sync) {
-                if (sslContext == null) {
-                    sslContext = sslContextConfiguration.createSSLContext(true);
-                }
-            }
-        }
+        final SSLContext sslContext = getSslContext();
         
         final SSLEngine sslEngine = sslContext.createSSLEngine(peerHost, peerPort);
         configure(sslEngine);
@@ -374,6 +386,60 @@ public class SSLEngineConfigurator implements SSLEngineFactory {
         return this;
     }
 
+    /**
+     * @return the maximum number of sessions kept in the {@link SSLContext}
+     * session cache, or <tt>-1</tt> if the JSSE default is used.
+     */
+    public int getSessionCacheSize() {
+        return sessionCacheSize;
+    }
+
+    /**
+     * Sets the maximum number of sessions kept in the {@link SSLContext}
+     * session cache, the server one in server mode, or the client one in
+     * client mode. Sessions found in the cache are resumed by the abbreviated
+     * handshake, which is a lot cheaper than the full one.
+     *
+     * The cache belongs to the {@link SSLContext}, so it is shared by all the
+     * listeners using the same {@link SSLContext} (or the same
+     * SSLEngineConfigurator).
+     *
+     * @param sessionCacheSize the maximum number of cached sessions,
+     * <tt>0</tt> means no limit, <tt>-1</tt> to keep the JSSE default.
+     * @return this SSLEngineConfigurator
+     * @see SSLSessionContext#setSessionCacheSize(int)
+     */
+    public SSLEngineConfigurator setSessionCacheSize(final int sessionCacheSize) {
+        this.sessionCacheSize = sessionCacheSize;
+        isSessionContextConfigured = false;
+        return this;
+    }
+
+    /**
+     * @return the timeout, in seconds, of the sessions kept in the
+     * {@link SSLContext} session cache, or <tt>-1</tt> if the JSSE default is
+     * used.
+     */
+    public int getSessionTimeout() {
+        return sessionTimeout;
+    }
+
+    /**
+     * Sets the timeout, in seconds, of the sessions kept in the
+     * {@link SSLContext} session cache, after which they can't be resumed
+     * anymore.
+     *
+     * @param sessionTimeout the session timeout in seconds, <tt>0</tt> means
+     * no limit, <tt>-1</tt> to keep the JSSE default.
+     * @return this SSLEngineConfigurator
+     * @see SSLSessionContext#setSessionTimeout(int)
+     */
+    public SSLEngineConfigurator setSessionTimeout(final int sessionTimeout) {
+        this.sessionTimeout = sessionTimeout;
+        isSessionContextConfigured = false;
+        return this;
+    }
+
     public SSLContext getSslContext() {
         if (sslContext == null) {
             synchronized(sync) {
@@ -383,9 +449,38 @@ public class SSLEngineConfigurator implements SSLEngineFactory {
             }
         }
 
+        if (!isSessionContextConfigured) {
+            configureSessionContext(sslContext);
+        }
+
         return sslContext;
     }
 
+    /**
+     * Applies the session cache settings to the {@link SSLContext}.
+     */
+    private void configureSessionContext(final SSLContext sslContext) {
+        synchronized (sync) {
+            if (isSessionContextConfigured) {
+                return;
+            }
+
+            final SSLSessionContext sessionContext = clientMode
+                    ? sslContext.getClientSessionContext()
+                    : sslContext.getServerSessionContext();
+            if (sessionContext != null) {
+                if (sessionCacheSize >= 0) {
+                    sessionContext.setSessionCacheSize(sessionCacheSize);
+                }
+                if (sessionTimeout >= 0) {
+                    sessionContext.setSessionTimeout(sessionTimeout);
+                }
+            }
+
+            isSessionContextConfigured = true;
+        }
+    }
+
     /**
      * Return the list of allowed protocol.
      * @return String[] an array of supported protocols.
@@ -469,6 +564,8 @@ public class SSLEngineConfigurator implements SSLEngineFactory {
         sb.append(", wantClientAuth=").append(wantClientAuth);
         sb.append(", isProtocolConfigured=").append(isProtocolConfigured);
         sb.append(", isCipherConfigured=").append(isCipherConfigured);
+        sb.append(", sessionCacheSize=").append(sessionCacheSize);
+        sb.append(", sessionTimeout=").append(sessionTimeout);
         sb.append('}');
         return sb.toString();
     }
@@ -359,7 +359,8 @@ public class SSLFilter extends SSLBaseFilter {
 
         return IS_JDK7_OR_HIGHER
                 ? sslEngineConfigurator.createSSLEngine(
-                        HostNameResolver.getPeerHostName(sslCtx.getConnection()), -1)
+                        HostNameResolver.getPeerHostName(sslCtx.getConnection()),
+                        HostNameResolver.getPeerPort(sslCtx.getConnection()))
                 : sslEngineConfigurator.createSSLEngine();
     }
 
@@ -510,5 +511,13 @@ public class SSLFilter extends SSLBaseFilter {
                     ? ((InetSocketAddress) addr).getHostString() : //supported in 1.7+
                     null;
         }
+
+        public static int getPeerPort(final Connection<?> connection) {
+            // the client session cache skips the sessions with unknown port
+            final Object addr = connection.getPeerAddress();
+            return (addr instanceof InetSocketAddress)
+                    ? ((InetSocketAddress) addr).getPort() :
+                    -1;
+        }
     }
 }
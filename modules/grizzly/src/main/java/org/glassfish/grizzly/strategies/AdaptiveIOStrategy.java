@@ -0,0 +1,415 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.grizzly.strategies;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.glassfish.grizzly.Connection;
+import org.glassfish.grizzly.Grizzly;
+import org.glassfish.grizzly.IOEvent;
+import org.glassfish.grizzly.IOEventLifeCycleListener;
+import org.glassfish.grizzly.Processor;
+import org.glassfish.grizzly.attributes.Attribute;
+
+/**
+ * {@link org.glassfish.grizzly.IOStrategy}, which decides per {@link Processor}
+ * whether an {@link IOEvent} should be processed in the current (selector)
+ * thread or handed off to the worker thread pool.
+ *
+ * The decision is based on the observed service time of the {@link Processor}
+ * (usually the {@link org.glassfish.grizzly.filterchain.FilterChain}), which
+ * processes the {@link Connection}'s events: a moving average of the time
+ * spent processing each event is kept per {@link Processor} and shared by all
+ * the {@link Connection}s it serves, so a new connection to a slow
+ * {@link Processor} is handed off from its very first event. The average rises
+ * immediately on a slow event and decays exponentially on faster ones. Events,
+ * whose {@link Processor}'s average stays below the <tt>slow event threshold</tt>,
+ * are processed the same way {@link SameThreadIOStrategy} does, otherwise they
+ * are processed the same way {@link WorkerThreadIOStrategy} does. Events
+ * processed in a worker thread keep being measured, so the {@link Processor}
+ * returns to in-thread processing once it becomes fast again.
+ * If no {@link Processor} is interested in an event, the average is kept per
+ * {@link Connection}.
+ *
+ * If a single event, processed in the selector thread, takes longer than the
+ * <tt>blocked threshold</tt>, the selector thread is considered blocked and
+ * all the events it dispatches during the <tt>blocked back-off</tt> period
+ * are handed off to the worker thread pool.
+ *
+ * If the {@link org.glassfish.grizzly.Transport} has no worker thread pool,
+ * all the events are processed in the current thread.
+ */
+public final class AdaptiveIOStrategy extends AbstractIOStrategy {
+
+    private static final Logger logger = Grizzly.logger(AdaptiveIOStrategy.class);
+
+    /**
+     * The default slow event threshold in microseconds.
+     */
+    public static final long DEFAULT_SLOW_EVENT_THRESHOLD_MICROS = Long.getLong(
+            AdaptiveIOStrategy.class.getName() + ".slow-event-threshold", 100);
+
+    /**
+     * The default blocked selector thread threshold in microseconds.
+     */
+    public static final long DEFAULT_BLOCKED_THRESHOLD_MICROS = Long.getLong(
+            AdaptiveIOStrategy.class.getName() + ".blocked-threshold", 10000);
+
+    /**
+     * The default blocked selector thread back-off period in milliseconds.
+     */
+    public static final long DEFAULT_BLOCKED_BACKOFF_MILLIS = Long.getLong(
+            AdaptiveIOStrategy.class.getName() + ".blocked-backoff", 1000);
+
+    private static final AdaptiveIOStrategy INSTANCE = new AdaptiveIOStrategy(
+            TimeUnit.MICROSECONDS.toNanos(DEFAULT_SLOW_EVENT_THRESHOLD_MICROS),
+            TimeUnit.MICROSECONDS.toNanos(DEFAULT_BLOCKED_THRESHOLD_MICROS),
+            TimeUnit.MILLISECONDS.toNanos(DEFAULT_BLOCKED_BACKOFF_MILLIS),
+            TimeUnit.NANOSECONDS);
+
+    // the average decays over the last ~2^AVERAGE_SHIFT samples
+    private static final int AVERAGE_SHIFT = 3;
+
+    private static final Attribute<ConnectionServiceTime> SERVICE_TIME_ATTR =
+            Grizzly.DEFAULT_ATTRIBUTE_BUILDER.createAttribute(
+            AdaptiveIOStrategy.class.getName() + ".service-time");
+
+    private final long slowEventThresholdNanos;
+    private final long blockedThresholdNanos;
+    private final long blockedBackoffNanos;
+
+    // Processors are weakly referenced, so the ones of stopped transports
+    // could be collected. The map is accessed once per Connection, the
+    // ServiceTime found is cached in the Connection's attribute
+    private final Map<Processor, ServiceTime> processorServiceTimes =
+            new WeakHashMap<Processor, ServiceTime>();
+
+    private final ThreadLocal<SelectorThreadState> selectorThreadState =
+            new ThreadLocal<SelectorThreadState>() {
+
+        @Override
+        protected SelectorThreadState initialValue() {
+            return new SelectorThreadState();
+        }
+    };
+
+
+    // ------------------------------------------------------------ Constructors
+
+
+    /**
+     * Constructs <tt>AdaptiveIOStrategy</tt>.
+     *
+     * @param slowEventThreshold the average service time, above which a
+     *  {@link Processor}'s events are handed off to the worker thread pool
+     * @param blockedThreshold the single event service time, above which the
+     *  selector thread is considered blocked
+     * @param blockedBackoff the period, during which a blocked selector thread
+     *  hands off all the events to the worker thread pool
+     * @param timeUnit the {@link TimeUnit} of the passed values
+     */
+    public AdaptiveIOStrategy(final long slowEventThreshold,
+            final long blockedThreshold, final long blockedBackoff,
+            final TimeUnit timeUnit) {
+        if (slowEventThreshold < 0 || blockedThreshold < 0 || blockedBackoff < 0) {
+            throw new IllegalArgumentException("Negative values are not allowed");
+        }
+
+        this.slowEventThresholdNanos = timeUnit.toNanos(slowEventThreshold);
+        this.blockedThresholdNanos = timeUnit.toNanos(blockedThreshold);
+        this.blockedBackoffNanos = timeUnit.toNanos(blockedBackoff);
+    }
+
+
+    // ---------------------------------------------------------- Public Methods
+
+
+    public static AdaptiveIOStrategy getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * @param timeUnit the {@link TimeUnit} of the returned value
+     * @return the average service time, above which a {@link Processor}'s
+     *  events are handed off to the worker thread pool
+     */
+    public long getSlowEventThreshold(final TimeUnit timeUnit) {
+        return timeUnit.convert(slowEventThresholdNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @param timeUnit the {@link TimeUnit} of the returned value
+     * @return the single event service time, above which the selector thread
+     *  is considered blocked
+     */
+    public long getBlockedThreshold(final TimeUnit timeUnit) {
+        return timeUnit.convert(blockedThresholdNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @param timeUnit the {@link TimeUnit} of the returned value
+     * @return the period, during which a blocked selector thread hands off all
+     *  the events to the worker thread pool
+     */
+    public long getBlockedBackoff(final TimeUnit timeUnit) {
+        return timeUnit.convert(blockedBackoffNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Returns the average {@link IOEvent} service time observed for the
+     * {@link Processor}.
+     *
+     * @param processor {@link Processor}
+     * @param timeUnit the {@link TimeUnit} of the returned value
+     * @return the average {@link IOEvent} service time, or <tt>0</tt> if no
+     *  events were processed by the {@link Processor} yet
+     */
+    public long getAverageServiceTime(final Processor processor,
+            final TimeUnit timeUnit) {
+        final ServiceTime serviceTime;
+        synchronized (processorServiceTimes) {
+            serviceTime = processorServiceTimes.get(processor);
+        }
+
+        return serviceTime != null
+                ? timeUnit.convert(serviceTime.average, TimeUnit.NANOSECONDS)
+                : 0;
+    }
+
+
+    // ------------------------------------------------- Methods from IOStrategy
+
+
+    @Override
+    public boolean executeIoEvent(final Connection connection,
+            final IOEvent ioEvent, final boolean isIoEventEnabled)
+            throws IOException {
+
+        final Executor threadPool = super.getThreadPoolFor(connection, ioEvent);
+        if (threadPool == null) {
+            return SameThreadIOStrategy.getInstance().executeIoEvent(
+                    connection, ioEvent, isIoEventEnabled);
+        }
+
+        final ServiceTime serviceTime = obtainServiceTime(connection, ioEvent);
+        final SelectorThreadState threadState = selectorThreadState.get();
+        final long start = System.nanoTime();
+
+        if (isSlow(serviceTime, threadState, start)) {
+            final IOEventLifeCycleListener listener;
+            if (isReadWrite(ioEvent)) {
+                if (isIoEventEnabled) {
+                    connection.disableIOEvent(ioEvent);
+                }
+
+                listener = ENABLE_INTEREST_LIFECYCLE_LISTENER;
+            } else {
+                listener = null;
+            }
+
+            threadPool.execute(new WorkerThreadRunnable(
+                    connection, ioEvent, listener, serviceTime));
+        } else {
+            try {
+                SameThreadIOStrategy.getInstance().executeIoEvent(
+                        connection, ioEvent, isIoEventEnabled);
+            } finally {
+                final long elapsed = System.nanoTime() - start;
+                serviceTime.update(elapsed);
+
+                if (elapsed > blockedThresholdNanos) {
+                    threadState.blockedUntil = start + elapsed + blockedBackoffNanos;
+                    threadState.isBlocked = true;
+
+                    if (logger.isLoggable(Level.FINE)) {
+                        logger.log(Level.FINE, "Selector thread {0} was blocked for {1}ms"
+                                + " processing {2} on {3}. Handing off events to the worker thread pool",
+                                new Object[]{Thread.currentThread().getName(),
+                                    TimeUnit.NANOSECONDS.toMillis(elapsed),
+                                    ioEvent, connection});
+                    }
+                }
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public Executor getThreadPoolFor(final Connection connection,
+            final IOEvent ioEvent) {
+        final Executor threadPool = super.getThreadPoolFor(connection, ioEvent);
+        if (threadPool == null) {
+            return null;
+        }
+
+        return isSlow(obtainServiceTime(connection, ioEvent),
+                selectorThreadState.get(), System.nanoTime())
+                ? threadPool
+                : null;
+    }
+
+
+    // --------------------------------------------------------- Private Methods
+
+
+    private ServiceTime obtainServiceTime(final Connection connection,
+            final IOEvent ioEvent) {
+        final Processor processor = connection.obtainProcessor(ioEvent);
+        ConnectionServiceTime connectionServiceTime =
+                SERVICE_TIME_ATTR.get(connection);
+
+        if (connectionServiceTime == null
+                || connectionServiceTime.processor != processor) {
+            final ServiceTime serviceTime;
+            if (processor != null) {
+                synchronized (processorServiceTimes) {
+                    ServiceTime processorServiceTime =
+                            processorServiceTimes.get(processor);
+                    if (processorServiceTime == null) {
+                        processorServiceTime = new ServiceTime();
+                        processorServiceTimes.put(processor, processorServiceTime);
+                    }
+
+                    serviceTime = processorServiceTime;
+                }
+            } else {
+                serviceTime = new ServiceTime();
+            }
+
+            connectionServiceTime = new ConnectionServiceTime(processor, serviceTime);
+            SERVICE_TIME_ATTR.set(connection, connectionServiceTime);
+        }
+
+        return connectionServiceTime.serviceTime;
+    }
+
+    private boolean isSlow(final ServiceTime serviceTime,
+            final SelectorThreadState threadState, final long now) {
+        if (serviceTime.average > slowEventThresholdNanos) {
+            return true;
+        }
+
+        if (threadState.isBlocked) {
+            if (now - threadState.blockedUntil < 0) {
+                return true;
+            }
+
+            threadState.isBlocked = false;
+        }
+
+        return false;
+    }
+
+    private static void run0(final Connection connection,
+                             final IOEvent ioEvent,
+                             final IOEventLifeCycleListener lifeCycleListener) {
+
+        fireIOEvent(connection, ioEvent, lifeCycleListener, logger);
+
+    }
+
+
+    // ---------------------------------------------------------- Nested Classes
+
+
+    private static final class ServiceTime {
+        private volatile long average;
+
+        private void update(final long sample) {
+            final long currentAverage = average;
+            // a slow event is taken into account immediately, to protect the
+            // selector thread, but the average decays gradually.
+            // lost updates from concurrent worker threads are tolerable
+            average = sample >= currentAverage
+                    ? sample
+                    : currentAverage + ((sample - currentAverage) >> AVERAGE_SHIFT);
+        }
+    }
+
+    private static final class ConnectionServiceTime {
+        private final Processor processor;
+        private final ServiceTime serviceTime;
+
+        private ConnectionServiceTime(final Processor processor,
+                final ServiceTime serviceTime) {
+            this.processor = processor;
+            this.serviceTime = serviceTime;
+        }
+    }
+
+    private static final class SelectorThreadState {
+        private boolean isBlocked;
+        private long blockedUntil;
+    }
+
+    private static final class WorkerThreadRunnable implements Runnable {
+        final Connection connection;
+        final IOEvent ioEvent;
+        final IOEventLifeCycleListener lifeCycleListener;
+        final ServiceTime serviceTime;
+
+        private WorkerThreadRunnable(final Connection connection,
+                final IOEvent ioEvent,
+                final IOEventLifeCycleListener lifeCycleListener,
+                final ServiceTime serviceTime) {
+            this.connection = connection;
+            this.ioEvent = ioEvent;
+            this.lifeCycleListener = lifeCycleListener;
+            this.serviceTime = serviceTime;
+        }
+
+        @Override
+        public void run() {
+            final long start = System.nanoTime();
+            try {
+                run0(connection, ioEvent, lifeCycleListener);
+            } finally {
+                serviceTime.update(System.nanoTime() - start);
+            }
+        }
+    }
+}
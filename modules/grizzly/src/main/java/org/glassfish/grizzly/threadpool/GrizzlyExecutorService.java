@@ -47,6 +47,9 @@ import java.util.Queue;
 import java.util.concurrent.AbstractExecutorService;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.glassfish.grizzly.Grizzly;
 import org.glassfish.grizzly.monitoring.MonitoringAware;
 import org.glassfish.grizzly.monitoring.MonitoringConfig;
 
@@ -57,6 +60,8 @@ import org.glassfish.grizzly.monitoring.MonitoringConfig;
 public class GrizzlyExecutorService extends AbstractExecutorService
         implements MonitoringAware<ThreadPoolProbe> {
 
+    private static final Logger LOGGER = Grizzly.logger(GrizzlyExecutorService.class);
+
     private final Object statelock = new Object();
     private volatile AbstractThreadPool pool;
     protected volatile ThreadPoolConfig config;
@@ -94,7 +99,18 @@ public class GrizzlyExecutorService extends AbstractExecutorService
         }
         
         final Queue<Runnable> queue = cfg.getQueue();
-        if ((queue == null || queue instanceof BlockingQueue) &&
+        final boolean isVirtualThreads = cfg.isVirtualThreads()
+                && Threads.isVirtualThreadsSupported();
+        if (cfg.isVirtualThreads() && !isVirtualThreads) {
+            LOGGER.log(Level.INFO, "Virtual threads are not supported by the JVM,"
+                    + " thread pool {0} will use platform threads", cfg.getPoolName());
+        }
+
+        if (isVirtualThreads) {
+            this.pool = new VirtualThreadPool(cfg);
+        } else if (cfg.isWorkStealing()) {
+            this.pool = new WorkStealingThreadPool(cfg);
+        } else if ((queue == null || queue instanceof BlockingQueue) &&
                 (cfg.getCorePoolSize() < 0 || cfg.getCorePoolSize() == cfg.getMaxPoolSize())) {
 
             this.pool = cfg.getQueueLimit() < 0
@@ -97,6 +97,8 @@ public final class ThreadPoolConfig {
     protected DelayedExecutor transactionMonitor;
     protected long transactionTimeoutMillis;
     protected ClassLoader initialClassLoader;
+    protected boolean isVirtualThreads;
+    protected boolean isWorkStealing;
 
     /**
      * Thread pool probes
@@ -155,6 +157,8 @@ public final class ThreadPoolConfig {
         this.keepAliveTimeMillis   = cfg.keepAliveTimeMillis;
         this.mm              = cfg.mm;
         this.initialClassLoader = cfg.initialClassLoader;
+        this.isVirtualThreads = cfg.isVirtualThreads;
+        this.isWorkStealing = cfg.isWorkStealing;
         
         this.threadPoolMonitoringConfig =
                 new DefaultMonitoringConfig<ThreadPoolProbe>(ThreadPoolProbe.class);
@@ -420,6 +424,76 @@ public final class ThreadPoolConfig {
         return this;
     }
 
+    /**
+     * @return <tt>true</tt>, if the thread pool is going to run each task in
+     *  a new virtual thread (if supported by the JVM)
+     *
+     * @see #setVirtualThreads(boolean)
+     */
+    public boolean isVirtualThreads() {
+        return isVirtualThreads;
+    }
+
+    /**
+     * Specifies whether the thread pool should run each task in a new virtual
+     * thread instead of using a fixed set of platform threads.
+     * Virtual threads let blocking code (like blocking HTTP handlers) scale
+     * without large {@link #setMaxPoolSize(int)} values.
+     *
+     * If the JVM doesn't support virtual threads, the setting is ignored and
+     * a regular thread pool is created.
+     * If enabled, the {@link #getCorePoolSize()}, {@link #getMaxPoolSize()},
+     * {@link #getPriority()} and {@link #isDaemon()} settings are not used and
+     * the {@link #getQueueLimit()} limits the number of not yet completed tasks.
+     *
+     * @param isVirtualThreads <tt>true</tt>, if the thread pool should use
+     *  virtual threads
+     *
+     * @return the {@link ThreadPoolConfig}
+     *
+     * @see VirtualThreadPool
+     */
+    public ThreadPoolConfig setVirtualThreads(final boolean isVirtualThreads) {
+        this.isVirtualThreads = isVirtualThreads;
+        return this;
+    }
+
+    /**
+     * @return <tt>true</tt>, if the thread pool is going to use per-thread
+     *  task queues with work stealing
+     *
+     * @see #setWorkStealing(boolean)
+     */
+    public boolean isWorkStealing() {
+        return isWorkStealing;
+    }
+
+    /**
+     * Specifies whether the thread pool should use a separate task queue per
+     * worker thread instead of a single task queue shared by all the workers.
+     * A task submitted by a pool thread is queued to its own queue, a task
+     * submitted by any other thread (for example a selector thread) is queued
+     * to the queue the submitting thread is affine to. Idle workers steal
+     * tasks from the queues of busy ones.
+     *
+     * If enabled, the pool starts {@link #getMaxPoolSize()} threads (or
+     * {@link #getCorePoolSize()} threads, if the max pool size is unbounded)
+     * and the {@link #getQueue()} setting is not used.
+     * The {@link #setVirtualThreads(boolean)} setting takes precedence over
+     * this one.
+     *
+     * @param isWorkStealing <tt>true</tt>, if the thread pool should use
+     *  work stealing
+     *
+     * @return the {@link ThreadPoolConfig}
+     *
+     * @see WorkStealingThreadPool
+     */
+    public ThreadPoolConfig setWorkStealing(final boolean isWorkStealing) {
+        this.isWorkStealing = isWorkStealing;
+        return this;
+    }
+
     @Override
     public String toString() {
         return ThreadPoolConfig.class.getSimpleName() + " :\r\n"
@@ -434,6 +508,8 @@ public final class ThreadPoolConfig {
                 + "  transactionTimeoutMillis: " + transactionTimeoutMillis + "\r\n"
                 + "  priority: " + priority + "\r\n"
                 + "  isDaemon: " + isDaemon + "\r\n"
+                + "  isVirtualThreads: " + isVirtualThreads + "\r\n"
+                + "  isWorkStealing: " + isWorkStealing + "\r\n"
                 + "  initialClassLoader: " + initialClassLoader;
     }
 }
@@ -39,14 +39,66 @@
  */
 package org.glassfish.grizzly.threadpool;
 
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.glassfish.grizzly.Grizzly;
+
 /**
  * Set of {@link Thread} utilities.
  * 
  * @author Alexey Stashok
  */
 public class Threads {
+    private static final Logger LOGGER = Grizzly.logger(Threads.class);
+
     private static final ThreadLocal<Boolean> SERVICE_THREAD =
             new ThreadLocal<Boolean>();
+
+    // the common super class of JDK virtual thread implementations,
+    // null if virtual threads are not supported by the JVM
+    private static final Class<?> VIRTUAL_THREAD_CLASS;
+    // Thread.ofVirtual()
+    private static final Method OF_VIRTUAL_METHOD;
+    // Thread.Builder.factory()
+    private static final Method BUILDER_FACTORY_METHOD;
+
+    static {
+        Class<?> virtualThreadClass = null;
+        Method ofVirtualMethod = null;
+        Method builderFactoryMethod = null;
+
+        try {
+            virtualThreadClass = Class.forName("java.lang.BaseVirtualThread");
+        } catch (Throwable t) {
+            try {
+                virtualThreadClass = Class.forName("java.lang.VirtualThread");
+            } catch (Throwable ignored) {
+            }
+        }
+
+        if (virtualThreadClass != null) {
+            try {
+                ofVirtualMethod = Thread.class.getMethod("ofVirtual");
+                builderFactoryMethod = Class.forName("java.lang.Thread$Builder")
+                        .getMethod("factory");
+                // the classes are present on JDK 19/20 too, but unless
+                // --enable-preview is set, ofVirtual() throws
+                builderFactoryMethod.invoke(ofVirtualMethod.invoke(null));
+            } catch (Throwable t) {
+                LOGGER.log(Level.FINE, "Virtual threads are not available", t);
+                virtualThreadClass = null;
+                ofVirtualMethod = null;
+                builderFactoryMethod = null;
+            }
+        }
+
+        VIRTUAL_THREAD_CLASS = virtualThreadClass;
+        OF_VIRTUAL_METHOD = ofVirtualMethod;
+        BUILDER_FACTORY_METHOD = builderFactoryMethod;
+    }
     
     public static boolean isService() {
         return Boolean.TRUE.equals(SERVICE_THREAD.get());
@@ -59,5 +111,54 @@ public class Threads {
             SERVICE_THREAD.remove();
         }
     }
-    
+
+    /**
+     * @return <tt>true</tt>, if the JVM supports virtual threads, or
+     *  <tt>false</tt> otherwise
+     */
+    public static boolean isVirtualThreadsSupported() {
+        return VIRTUAL_THREAD_CLASS != null;
+    }
+
+    /**
+     * @param thread {@link Thread}
+     * @return <tt>true</tt>, if the passed {@link Thread} is a virtual thread
+     */
+    public static boolean isVirtual(final Thread thread) {
+        return VIRTUAL_THREAD_CLASS != null && VIRTUAL_THREAD_CLASS.isInstance(thread);
+    }
+
+    /**
+     * Creates a {@link ThreadFactory}, which creates virtual threads named
+     * <tt>namePrefix(N)</tt>.
+     *
+     * @param namePrefix thread name prefix
+     * @return {@link ThreadFactory}, or <tt>null</tt>, if the JVM doesn't
+     *  support virtual threads
+     */
+    public static ThreadFactory newVirtualThreadFactory(final String namePrefix) {
+        if (VIRTUAL_THREAD_CLASS == null) {
+            return null;
+        }
+
+        final ThreadFactory virtualThreadFactory;
+        try {
+            virtualThreadFactory = (ThreadFactory) BUILDER_FACTORY_METHOD.invoke(
+                    OF_VIRTUAL_METHOD.invoke(null));
+        } catch (Exception e) {
+            LOGGER.log(Level.WARNING, "Can not create virtual thread factory", e);
+            return null;
+        }
+
+        final AtomicInteger counter = new AtomicInteger();
+        return new ThreadFactory() {
+
+            @Override
+            public Thread newThread(final Runnable r) {
+                final Thread thread = virtualThreadFactory.newThread(r);
+                thread.setName(namePrefix + '(' + counter.incrementAndGet() + ')');
+                return thread;
+            }
+        };
+    }
 }
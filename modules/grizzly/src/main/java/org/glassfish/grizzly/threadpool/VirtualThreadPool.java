@@ -0,0 +1,205 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.grizzly.threadpool;
+
+import java.util.AbstractQueue;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.glassfish.grizzly.ThreadCache;
+
+/**
+ * Thread pool, which runs each task in a new virtual thread.
+ *
+ * The pool doesn't have a task queue, so the {@link #getQueue()} returns a
+ * {@link Queue} view, which passes offered tasks to
+ * {@link #execute(java.lang.Runnable)}. If the {@link ThreadPoolConfig}'s
+ * queue limit is set, it limits the number of not yet completed tasks.
+ *
+ * Virtual threads are not {@link DefaultWorkerThread}s, so thread-local
+ * memory pools are not used by tasks running in this pool. The objects a task
+ * puts to the {@link org.glassfish.grizzly.ThreadCache} are passed to the
+ * next tasks, see {@link org.glassfish.grizzly.ThreadCache#releaseVirtualThreadCache()}.
+ *
+ * @see ThreadPoolConfig#setVirtualThreads(boolean)
+ */
+public class VirtualThreadPool extends AbstractThreadPool {
+
+    private final AtomicInteger pendingTasksCount = new AtomicInteger();
+    private final int pendingTasksLimit;
+
+    private final TaskQueue taskQueue = new TaskQueue();
+
+    public VirtualThreadPool(final ThreadPoolConfig config) {
+        super(initThreadFactory(config));
+
+        pendingTasksLimit = config.getQueueLimit();
+
+        ProbeNotifier.notifyThreadPoolStarted(this);
+    }
+
+    @Override
+    public void execute(final Runnable command) {
+        if (command == null) {
+            throw new NullPointerException("Task can not be null");
+        }
+
+        if (!running) {
+            throw new RejectedExecutionException("ThreadPool is not running");
+        }
+
+        if (pendingTasksLimit >= 0
+                && pendingTasksCount.incrementAndGet() > pendingTasksLimit) {
+            pendingTasksCount.decrementAndGet();
+            onTaskQueueOverflow();
+        }
+
+        onTaskQueued(command);
+
+        synchronized (stateLock) {
+            if (running) {
+                startWorker(new TaskWorker(command));
+                return;
+            }
+        }
+
+        onTaskDequeued(command);
+        onTaskCancelled(command);
+        onTaskFinished();
+        throw new RejectedExecutionException("ThreadPool is not running");
+    }
+
+    @Override
+    public Queue<Runnable> getQueue() {
+        return taskQueue;
+    }
+
+    @Override
+    protected void afterExecute(final Worker worker, final Thread thread,
+            final Runnable r, final Throwable t) {
+        super.afterExecute(worker, thread, r, t);
+        ThreadCache.releaseVirtualThreadCache();
+        onTaskFinished();
+    }
+
+    @Override
+    protected void poisonAll() {
+        // each worker runs a single task, so there is nothing to poison
+    }
+
+    private void onTaskFinished() {
+        if (pendingTasksLimit >= 0) {
+            pendingTasksCount.decrementAndGet();
+        }
+    }
+
+    private static ThreadPoolConfig initThreadFactory(final ThreadPoolConfig config) {
+        if (config.getThreadFactory() != null) {
+            return config;
+        }
+
+        final ThreadFactory threadFactory =
+                Threads.newVirtualThreadFactory(config.getPoolName());
+        if (threadFactory == null) {
+            throw new IllegalStateException(
+                    "Virtual threads are not supported by the JVM");
+        }
+
+        // don't change the caller's config
+        final ThreadPoolConfig virtualConfig = config.copy();
+        virtualConfig.setThreadFactory(threadFactory);
+        return virtualConfig;
+    }
+
+    private final class TaskWorker extends Worker {
+        private Runnable task;
+
+        private TaskWorker(final Runnable task) {
+            this.task = task;
+        }
+
+        @Override
+        protected Runnable getTask() {
+            final Runnable r = task;
+            task = null;
+            return r;
+        }
+    }
+
+    /**
+     * Always empty {@link Queue}, which executes the offered tasks.
+     */
+    private final class TaskQueue extends AbstractQueue<Runnable> {
+
+        @Override
+        public Iterator<Runnable> iterator() {
+            return Collections.<Runnable>emptyList().iterator();
+        }
+
+        @Override
+        public int size() {
+            return 0;
+        }
+
+        @Override
+        public boolean offer(final Runnable task) {
+            try {
+                execute(task);
+                return true;
+            } catch (RejectedExecutionException e) {
+                return false;
+            }
+        }
+
+        @Override
+        public Runnable poll() {
+            return null;
+        }
+
+        @Override
+        public Runnable peek() {
+            return null;
+        }
+    }
+}
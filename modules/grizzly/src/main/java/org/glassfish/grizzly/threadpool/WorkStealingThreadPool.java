@@ -0,0 +1,359 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.grizzly.threadpool;
+
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Fixed thread pool, where each worker thread has its own task deque.
+ *
+ * A task submitted by a pool thread is added to the thread's own deque, a
+ * task submitted by any other thread (for example a selector thread) is added
+ * to the deque the submitting thread is affine to, so the submitting threads
+ * don't contend on a single queue. A worker takes tasks from the head of its
+ * deque and, once it's empty, steals tasks from the tail of the other workers'
+ * deques. Idle workers are parked and woken up on demand.
+ *
+ * The pool starts {@link ThreadPoolConfig#getMaxPoolSize()} threads (or
+ * {@link ThreadPoolConfig#getCorePoolSize()} threads, if the max pool size is
+ * unbounded). If the {@link ThreadPoolConfig}'s queue limit is set, it limits
+ * the number of tasks waiting in all the deques, no matter whether they were
+ * submitted via {@link #execute(Runnable)} or offered to {@link #getQueue()}.
+ *
+ * @see ThreadPoolConfig#setWorkStealing(boolean)
+ */
+public class WorkStealingThreadPool extends AbstractThreadPool {
+
+    private final StealingWorker[] stealingWorkers;
+    private final Semaphore queuePermits;
+
+    private final AtomicInteger idleWorkersCount = new AtomicInteger();
+    private final AtomicInteger affinityCounter = new AtomicInteger();
+
+    /**
+     * The worker, whose deque the current thread submits tasks to.
+     */
+    private final ThreadLocal<StealingWorker> affinity =
+            new ThreadLocal<StealingWorker>() {
+
+        @Override
+        protected StealingWorker initialValue() {
+            final int idx = (affinityCounter.getAndIncrement() & Integer.MAX_VALUE)
+                    % stealingWorkers.length;
+            return stealingWorkers[idx];
+        }
+    };
+
+    private final TaskQueue taskQueue = new TaskQueue();
+
+    public WorkStealingThreadPool(final ThreadPoolConfig config) {
+        super(config);
+
+        final int poolSize = config.getMaxPoolSize() == Integer.MAX_VALUE
+                ? config.getCorePoolSize()
+                : config.getMaxPoolSize();
+        if (poolSize < 1) {
+            throw new IllegalArgumentException("poolsize < 1");
+        }
+
+        queuePermits = config.getQueueLimit() >= 0
+                ? new Semaphore(config.getQueueLimit())
+                : null;
+
+        stealingWorkers = new StealingWorker[poolSize];
+        for (int i = 0; i < poolSize; i++) {
+            stealingWorkers[i] = new StealingWorker(i);
+        }
+
+        synchronized (stateLock) {
+            for (StealingWorker worker : stealingWorkers) {
+                startWorker(worker);
+            }
+        }
+
+        ProbeNotifier.notifyThreadPoolStarted(this);
+        super.onMaxNumberOfThreadsReached();
+    }
+
+    @Override
+    public void execute(final Runnable command) {
+        if (command == null) { // must nullcheck to ensure queuesize is valid
+            throw new IllegalArgumentException("Runnable task is null");
+        }
+
+        if (!running) {
+            throw new RejectedExecutionException("ThreadPool is not running");
+        }
+
+        if (queuePermits != null && !queuePermits.tryAcquire()) {
+            onTaskQueueOverflow();
+        }
+
+        final StealingWorker worker = affinity.get();
+        worker.tasks.offerLast(command);
+
+        // doublecheck the pool is still running
+        if (!running && worker.tasks.removeLastOccurrence(command)) {
+            releasePermit();
+            throw new RejectedExecutionException("ThreadPool is not running");
+        }
+
+        onTaskQueued(command);
+        signal(worker);
+    }
+
+    /**
+     * Returns the {@link Queue} view of all the workers' deques.
+     * Tasks offered to the view are subject to the queue limit, the offer
+     * fails, if the limit is reached.
+     */
+    @Override
+    public Queue<Runnable> getQueue() {
+        return taskQueue;
+    }
+
+    @Override
+    protected void onWorkerStarted(final Worker worker) {
+        affinity.set((StealingWorker) worker);
+        super.onWorkerStarted(worker);
+    }
+
+    @Override
+    protected void poisonAll() {
+        // the workers exit, once the pool is stopped and there are no tasks left
+        for (StealingWorker worker : stealingWorkers) {
+            LockSupport.unpark(worker.t);
+        }
+    }
+
+    /**
+     * Releases the queue limit permit of a task, which has just been removed
+     * from a deque. Every task in the deques holds exactly one permit.
+     */
+    private void releasePermit() {
+        if (queuePermits != null) {
+            queuePermits.release();
+        }
+    }
+
+    /**
+     * Makes sure the task, just added to the worker's deque, is going to be
+     * processed: wakes up the worker, if it's parked, or any other idle
+     * worker, which can steal the task.
+     */
+    private void signal(final StealingWorker worker) {
+        if (worker.unpark()) {
+            return;
+        }
+
+        if (idleWorkersCount.get() > 0) {
+            final int length = stealingWorkers.length;
+            for (int i = 1; i < length; i++) {
+                if (stealingWorkers[(worker.index + i) % length].unpark()) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private final class StealingWorker extends Worker {
+        private final int index;
+        private final ConcurrentLinkedDeque<Runnable> tasks =
+                new ConcurrentLinkedDeque<Runnable>();
+
+        private final AtomicBoolean isParked = new AtomicBoolean();
+
+        private StealingWorker(final int index) {
+            this.index = index;
+        }
+
+        @Override
+        protected Runnable getTask() {
+            while (true) {
+                Runnable r = poll();
+                if (r != null || !running) {
+                    return r;
+                }
+
+                // announce the worker is going to park and recheck the deques
+                // to not miss a task, which was added meanwhile
+                isParked.set(true);
+                idleWorkersCount.incrementAndGet();
+                try {
+                    r = poll();
+                    if (r != null || !running) {
+                        return r;
+                    }
+
+                    LockSupport.park(this);
+                } finally {
+                    isParked.set(false);
+                    idleWorkersCount.decrementAndGet();
+                }
+            }
+        }
+
+        /**
+         * Wakes up the worker, if it's parked. The parked flag is reset here,
+         * so concurrent signals wake up different workers.
+         */
+        private boolean unpark() {
+            if (isParked.get() && isParked.compareAndSet(true, false)) {
+                LockSupport.unpark(t);
+                return true;
+            }
+
+            return false;
+        }
+
+        private Runnable poll() {
+            Runnable r = tasks.pollFirst();
+            if (r == null) {
+                r = steal();
+            }
+
+            if (r != null) {
+                releasePermit();
+            }
+
+            return r;
+        }
+
+        private Runnable steal() {
+            final int length = stealingWorkers.length;
+            for (int i = 1; i < length; i++) {
+                final Runnable r =
+                        stealingWorkers[(index + i) % length].tasks.pollLast();
+                if (r != null) {
+                    return r;
+                }
+            }
+
+            return null;
+        }
+    }
+
+    private final class TaskQueue extends AbstractQueue<Runnable> {
+
+        @Override
+        public Iterator<Runnable> iterator() {
+            final List<Runnable> snapshot = new ArrayList<Runnable>();
+            for (StealingWorker worker : stealingWorkers) {
+                snapshot.addAll(worker.tasks);
+            }
+
+            return snapshot.iterator();
+        }
+
+        @Override
+        public int size() {
+            int size = 0;
+            for (StealingWorker worker : stealingWorkers) {
+                size += worker.tasks.size();
+            }
+
+            return size;
+        }
+
+        @Override
+        public boolean offer(final Runnable task) {
+            if (!running) {
+                return false;
+            }
+
+            if (queuePermits != null && !queuePermits.tryAcquire()) {
+                return false;
+            }
+
+            final StealingWorker worker = affinity.get();
+            worker.tasks.offerLast(task);
+            signal(worker);
+            return true;
+        }
+
+        @Override
+        public Runnable poll() {
+            for (StealingWorker worker : stealingWorkers) {
+                final Runnable r = worker.tasks.pollFirst();
+                if (r != null) {
+                    releasePermit();
+                    return r;
+                }
+            }
+
+            return null;
+        }
+
+        @Override
+        public boolean remove(final Object task) {
+            for (StealingWorker worker : stealingWorkers) {
+                if (worker.tasks.removeFirstOccurrence(task)) {
+                    releasePermit();
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
+        @Override
+        public Runnable peek() {
+            for (StealingWorker worker : stealingWorkers) {
+                final Runnable r = worker.tasks.peekFirst();
+                if (r != null) {
+                    return r;
+                }
+            }
+
+            return null;
+        }
+    }
+}
@@ -48,6 +48,18 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 
 /**
+ * Executes {@link Worker} tasks, associated with the elements of
+ * {@link DelayQueue}s, once the elements' timeouts expire.
+ *
+ * By default every {@link DelayQueue} element is checked on each tick.
+ * In the timing-wheel mode the elements are hashed into the wheel slots
+ * according to their timeouts, so each tick only processes the elements,
+ * whose timeouts might have expired. The timing-wheel mode could be enabled
+ * per <tt>DelayedExecutor</tt> or globally using the
+ * <tt>org.glassfish.grizzly.utils.DelayedExecutor.timing-wheel</tt>
+ * system property. In this mode the elements with infinite timeout are not
+ * checked, so if such element's timeout is later changed w/o re-adding the
+ * element, {@link DelayQueue#reschedule(Object)} has to be called.
  *
  * @author Alexey Stashok
  */
@@ -56,6 +68,12 @@ public class DelayedExecutor {
     
     private final static boolean PERFORM_NOTIFY_ON_ADD_PROPERTY = Boolean.getBoolean("mule.perform.notify.on.add.property");
 
+    private final static boolean USE_TIMING_WHEEL = Boolean.getBoolean(
+            DelayedExecutor.class.getName() + ".timing-wheel");
+
+    private final static int TIMING_WHEEL_SIZE = Integer.getInteger(
+            DelayedExecutor.class.getName() + ".timing-wheel-size", 512);
+
     private final ExecutorService threadPool;
 
     private final DelayedRunnable runnable = new DelayedRunnable();
@@ -67,21 +85,61 @@ public class DelayedExecutor {
 
     private final long checkIntervalMillis;
 
+    private final boolean useTimingWheel;
+
     public DelayedExecutor(final ExecutorService threadPool) {
         this(threadPool, 1000, TimeUnit.MILLISECONDS);
     }
 
     public DelayedExecutor(final ExecutorService threadPool,
                            final long checkInterval, final TimeUnit timeunit) {
+        this(threadPool, checkInterval, timeunit, USE_TIMING_WHEEL);
+    }
+
+    /**
+     * Creates the <tt>DelayedExecutor</tt>, which has no own check loop and
+     * can't be {@link #start() started}. Its {@link DelayQueue}s are processed
+     * by some other loop, for example by a
+     * {@link org.glassfish.grizzly.nio.SelectorRunner}, calling
+     * {@link #processQueues(long)} every check interval.
+     *
+     * @param checkInterval the check interval (the timing wheel tick duration).
+     * @param timeunit the check interval {@link TimeUnit}.
+     * @param useTimingWheel <tt>true</tt>, if {@link DelayQueue}s created by
+     *  this <tt>DelayedExecutor</tt> have to be backed by a hashed timing wheel,
+     *  or <tt>false</tt> if all the queue elements have to be checked each tick.
+     */
+    public DelayedExecutor(final long checkInterval, final TimeUnit timeunit,
+                           final boolean useTimingWheel) {
+        this(null, checkInterval, timeunit, useTimingWheel);
+    }
+
+    /**
+     * @param threadPool the {@link ExecutorService} to run the check loop on.
+     * @param checkInterval the check interval (the timing wheel tick duration).
+     * @param timeunit the check interval {@link TimeUnit}.
+     * @param useTimingWheel <tt>true</tt>, if {@link DelayQueue}s created by
+     *  this <tt>DelayedExecutor</tt> have to be backed by a hashed timing wheel,
+     *  or <tt>false</tt> if all the queue elements have to be checked each tick.
+     */
+    public DelayedExecutor(final ExecutorService threadPool,
+                           final long checkInterval, final TimeUnit timeunit,
+                           final boolean useTimingWheel) {
         if (checkInterval < 0) {
             throw new IllegalArgumentException("check interval can't be negative");
         }
 
         this.threadPool = threadPool;
         this.checkIntervalMillis = TimeUnit.MILLISECONDS.convert(checkInterval, timeunit);
+        this.useTimingWheel = useTimingWheel;
     }
 
     public void start() {
+        if (threadPool == null) {
+            throw new IllegalStateException("The DelayedExecutor has no thread pool,"
+                    + " its queues have to be processed via processQueues(long)");
+        }
+        
         synchronized(this) {
             if (!isStarted) {
                 isStarted = true;
@@ -102,6 +160,10 @@ public class DelayedExecutor {
 
     private void purgeQueues() {
         for (final DelayQueue delayQueue : queues) {
+            if (delayQueue.wheel != null) {
+                delayQueue.wheel.clear();
+            }
+            
             if (delayQueue.queue.isEmpty()) continue;
 
             Worker worker = delayQueue.worker;
@@ -115,9 +177,14 @@ public class DelayedExecutor {
     }
 
     public void destroy() {
-        stop();
         synchronized(this) {
+            isStarted = false;
+            // purge even if the executor has never been started, like the
+            // one driven by a SelectorRunner, so the queue elements don't
+            // outlive the executor
+            purgeQueues();
             queues.clear();
+            notifyAll();
         }
     }
 
@@ -126,6 +193,14 @@ public class DelayedExecutor {
         return threadPool;
     }
 
+    /**
+     * @return <tt>true</tt>, if {@link DelayQueue}s of this
+     *  <tt>DelayedExecutor</tt> are backed by a hashed timing wheel.
+     */
+    public boolean isTimingWheelEnabled() {
+        return useTimingWheel;
+    }
+
     public <E> DelayQueue<E> createDelayQueue(final Worker<E> worker,
                                               final Resolver<E> resolver) {
 
@@ -140,43 +215,59 @@ public class DelayedExecutor {
         return l1 != l2;
     }
 
-    private class DelayedRunnable implements Runnable {
-
-        @SuppressWarnings("unchecked")
-        @Override
-        public void run() {
-            while(isStarted) {
-                final long currentTimeMillis = System.currentTimeMillis();
+    /**
+     * Processes the {@link DelayQueue}s on the caller thread.
+     *
+     * The method is meant to be used when this <tt>DelayedExecutor</tt> is not
+     * {@link #start() started}, but is driven by some other loop, for example
+     * by a {@link org.glassfish.grizzly.nio.SelectorRunner}.
+     *
+     * @param currentTimeMillis the current time in milliseconds.
+     */
+    @SuppressWarnings("unchecked")
+    public void processQueues(final long currentTimeMillis) {
+        for (final DelayQueue delayQueue : queues) {
+            if (delayQueue.wheel != null) {
+                delayQueue.wheel.expire(currentTimeMillis);
+                continue;
+            }
 
-                for (final DelayQueue delayQueue : queues) {
-                    if (delayQueue.queue.isEmpty()) continue;
+            if (delayQueue.queue.isEmpty()) continue;
 
-                    final Resolver resolver = delayQueue.resolver;
+            final Resolver resolver = delayQueue.resolver;
 
-                    for (Iterator it = delayQueue.queue.keySet().iterator(); it.hasNext(); ) {
-                        final Object element = it.next();
-                        final long timeoutMillis = resolver.getTimeoutMillis(element);
+            for (Iterator it = delayQueue.queue.keySet().iterator(); it.hasNext(); ) {
+                final Object element = it.next();
+                final long timeoutMillis = resolver.getTimeoutMillis(element);
 
-                        if (timeoutMillis == UNSET_TIMEOUT) {
-                            it.remove();
-                            if (wasModified(timeoutMillis, resolver.getTimeoutMillis(element))) {
-                                delayQueue.queue.put(element, delayQueue);
-                            }
-                        } else if (currentTimeMillis - timeoutMillis >= 0) {
-                            it.remove();
-                            if (wasModified(timeoutMillis, resolver.getTimeoutMillis(element))) {
+                if (timeoutMillis == UNSET_TIMEOUT) {
+                    it.remove();
+                    if (wasModified(timeoutMillis, resolver.getTimeoutMillis(element))) {
+                        delayQueue.queue.put(element, delayQueue);
+                    }
+                } else if (currentTimeMillis - timeoutMillis >= 0) {
+                    it.remove();
+                    if (wasModified(timeoutMillis, resolver.getTimeoutMillis(element))) {
+                        delayQueue.queue.put(element, delayQueue);
+                    } else {
+                        try {
+                            if (!delayQueue.worker.doWork(element)) {
                                 delayQueue.queue.put(element, delayQueue);
-                            } else {
-                                try {
-                                    if (!delayQueue.worker.doWork(element)) {
-                                        delayQueue.queue.put(element, delayQueue);
-                                    }
-                                } catch (Exception ignored) {
-                                }
                             }
+                        } catch (Exception ignored) {
                         }
                     }
                 }
+            }
+        }
+    }
+
+    private class DelayedRunnable implements Runnable {
+
+        @Override
+        public void run() {
+            while(isStarted) {
+                processQueues(System.currentTimeMillis());
 
                 synchronized(DelayedExecutor.this) {
                     DelayedExecutor.this.notify();
@@ -198,10 +289,15 @@ public class DelayedExecutor {
 
         final Worker<E> worker;
         final Resolver<E> resolver;
+        
+        final TimingWheel<E> wheel;
 
         public DelayQueue(final Worker<E> worker, final Resolver<E> resolver) {
             this.worker = worker;
             this.resolver = resolver;
+            this.wheel = useTimingWheel
+                    ? new TimingWheel<E>(this, checkIntervalMillis, TIMING_WHEEL_SIZE)
+                    : null;
         }
 
         public void add(final E elem, final long delay, final TimeUnit timeUnit) {
@@ -210,6 +306,10 @@ public class DelayedExecutor {
                         System.currentTimeMillis() + TimeUnit.MILLISECONDS.convert(delay, timeUnit);
                 resolver.setTimeoutMillis(elem, ((delayWithSysTime < 0) ? Long.MAX_VALUE : delayWithSysTime));
                 queue.put(elem, this);
+                
+                if (wheel != null) {
+                    wheel.offer(elem);
+                }
             }
 
             if (PERFORM_NOTIFY_ON_ADD_PROPERTY) {
@@ -221,6 +321,28 @@ public class DelayedExecutor {
 
         public void remove(final E elem) {
             resolver.removeTimeout(elem);
+            
+            if (wheel != null) {
+                queue.remove(elem);
+                wheel.remove(elem);
+            }
+        }
+
+        /**
+         * Notifies the queue, that the element's timeout has been changed via
+         * the element's state, which the {@link Resolver} reads, rather than
+         * by {@link #add(Object, long, TimeUnit)}.
+         *
+         * In the timing-wheel mode elements with infinite timeout are not
+         * checked at all, so the method has to be called once such element
+         * gets a finite timeout. Otherwise the call is a no-op.
+         *
+         * @param elem the queue element.
+         */
+        public void reschedule(final E elem) {
+            if (wheel != null) {
+                wheel.reschedule(elem);
+            }
         }
 
         public void destroy() {
@@ -43,6 +43,9 @@ package org.glassfish.grizzly.utils;
 import static org.glassfish.grizzly.utils.DelayedExecutor.UNSET_TIMEOUT;
 
 import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadFactory;
@@ -55,6 +58,8 @@ import org.glassfish.grizzly.attributes.Attribute;
 import org.glassfish.grizzly.filterchain.BaseFilter;
 import org.glassfish.grizzly.filterchain.FilterChainContext;
 import org.glassfish.grizzly.filterchain.NextAction;
+import org.glassfish.grizzly.nio.NIOConnection;
+import org.glassfish.grizzly.nio.SelectorRunner;
 
 /**
  * The Filter is responsible for tracking {@link Connection} activity and closing
@@ -62,6 +67,14 @@ import org.glassfish.grizzly.filterchain.NextAction;
  * Unlike {@link ActivityCheckFilter}, this Filter assumes {@link Connection}
  * is idle, when no event is being executed on it. But if some event processing
  * was suspended - this Filter still assumes {@link Connection} is active.
+ *
+ * If the Filter is created without a {@link DelayedExecutor}, the timeouts
+ * are tracked per {@link SelectorRunner} and checked by the
+ * {@link SelectorRunner} thread the {@link Connection} is bound to
+ * (see {@link SelectorRunner#getDelayedExecutor()}), so there is neither
+ * extra thread nor a queue shared between the {@link SelectorRunner}s.
+ * The {@link Connection}s, which aren't bound to a {@link SelectorRunner},
+ * are checked by a shared {@link DelayedExecutor} thread.
  * 
  * @see ActivityCheckFilter
  * 
@@ -87,6 +100,14 @@ public class IdleTimeoutFilter extends BaseFilter {
     private final DelayedExecutor.DelayQueue<IdleTimeoutContext> queue;
     private final DelayedExecutor.Resolver<IdleTimeoutContext> resolver;
 
+    // per-SelectorRunner queues, used if no DelayedExecutor was passed.
+    // The keys are weak, so the runners of a stopped transport (which drop
+    // their queues' elements on stop) don't leak
+    private final DelayedExecutor.Worker<IdleTimeoutContext> worker;
+    private final Map<SelectorRunner, DelayedExecutor.DelayQueue<IdleTimeoutContext>> selectorRunnerQueues;
+    // the queue for Connections, which aren't bound to a SelectorRunner
+    private volatile DelayedExecutor.DelayQueue<IdleTimeoutContext> sharedQueue;
+
     private final FilterChainContext.CompletionListener contextCompletionListener =
             new ContextCompletionListener();
 
@@ -94,6 +115,44 @@ public class IdleTimeoutFilter extends BaseFilter {
     // ------------------------------------------------------------ Constructors
 
 
+    /**
+     * Creates the Filter, whose timeouts are checked by the
+     * {@link SelectorRunner}s the {@link Connection}s are bound to.
+     */
+    public IdleTimeoutFilter(final long timeout,
+                             final TimeUnit timeoutUnit) {
+
+        this(timeout, timeoutUnit, null);
+
+    }
+
+
+    /**
+     * Creates the Filter, whose timeouts are checked by the
+     * {@link SelectorRunner}s the {@link Connection}s are bound to.
+     */
+    public IdleTimeoutFilter(final long timeout,
+                             final TimeUnit timeoutUnit,
+                             final TimeoutHandler handler) {
+
+        this(new DefaultWorker(handler),
+                new IdleTimeoutResolver(convertToMillis(timeout, timeoutUnit)));
+
+    }
+
+
+    /**
+     * Creates the Filter, whose timeouts are checked by the
+     * {@link SelectorRunner}s the {@link Connection}s are bound to.
+     */
+    public IdleTimeoutFilter(final TimeoutResolver timeoutResolver,
+                             final TimeoutHandler handler) {
+
+        this(new DefaultWorker(handler), timeoutResolver);
+
+    }
+
+
     public IdleTimeoutFilter(final DelayedExecutor executor,
                              final long timeout,
                              final TimeUnit timeoutUnit) {
@@ -138,8 +197,23 @@ public class IdleTimeoutFilter extends BaseFilter {
         }
 
         this.timeoutResolver = timeoutResolver;
+        this.worker = worker;
         resolver = new Resolver();
         queue = executor.createDelayQueue(worker, resolver);
+        selectorRunnerQueues = null;
+
+    }
+
+
+    protected IdleTimeoutFilter(final DelayedExecutor.Worker<IdleTimeoutContext> worker,
+                                final TimeoutResolver timeoutResolver) {
+
+        this.timeoutResolver = timeoutResolver;
+        this.worker = worker;
+        resolver = new Resolver();
+        queue = null;
+        selectorRunnerQueues = Collections.synchronizedMap(
+                new WeakHashMap<SelectorRunner, DelayedExecutor.DelayQueue<IdleTimeoutContext>>());
 
     }
 
@@ -150,19 +224,14 @@ public class IdleTimeoutFilter extends BaseFilter {
 
     @Override
     public NextAction handleAccept(final FilterChainContext ctx) throws IOException {
-        IdleTimeoutContext idleTimeoutContext = new IdleTimeoutContext(ctx.getConnection());
-        queue.add(idleTimeoutContext, FOREVER, TimeUnit.MILLISECONDS);
-        IDLE_ATTR.get(ctx.getConnection()).setIdleTimeoutContext(idleTimeoutContext);
+        register(ctx.getConnection());
         queueAction(ctx);
         return ctx.getInvokeAction();
     }
 
     @Override
     public NextAction handleConnect(final FilterChainContext ctx) throws IOException {
-    	IdleTimeoutContext idleTimeoutContext = new IdleTimeoutContext(ctx.getConnection());
-    	queue.add(idleTimeoutContext, FOREVER, TimeUnit.MILLISECONDS);
-    	IDLE_ATTR.get(ctx.getConnection()).setIdleTimeoutContext(idleTimeoutContext);
-
+        register(ctx.getConnection());
         queueAction(ctx);
         return ctx.getInvokeAction();
     }
@@ -183,7 +252,7 @@ public class IdleTimeoutFilter extends BaseFilter {
     public NextAction handleClose(final FilterChainContext ctx) throws IOException {
         IdleTimeoutContext idleTimeoutContext = IDLE_ATTR.get(ctx.getConnection()).getIdleTimeoutContext();
         if (idleTimeoutContext != null && idleTimeoutContext.getConnection() != null) {
-          queue.remove(idleTimeoutContext);
+          idleTimeoutContext.queue.remove(idleTimeoutContext);
         }
         return ctx.getInvokeAction();
     }
@@ -258,6 +327,60 @@ public class IdleTimeoutFilter extends BaseFilter {
     }
 
     // ------------------------------------------------------- Private Methods
+
+    private void register(final Connection connection) {
+        final IdleTimeoutContext idleTimeoutContext = new IdleTimeoutContext(connection);
+        final DelayedExecutor.DelayQueue<IdleTimeoutContext> connectionQueue =
+                getQueue(connection);
+        idleTimeoutContext.queue = connectionQueue;
+        connectionQueue.add(idleTimeoutContext, FOREVER, TimeUnit.MILLISECONDS);
+        IDLE_ATTR.get(connection).setIdleTimeoutContext(idleTimeoutContext);
+    }
+
+    private DelayedExecutor.DelayQueue<IdleTimeoutContext> getQueue(
+            final Connection connection) {
+        if (queue != null) {
+            return queue;
+        }
+
+        final SelectorRunner selectorRunner = connection instanceof NIOConnection
+                ? ((NIOConnection) connection).getSelectorRunner()
+                : null;
+        if (selectorRunner == null) {
+            return getSharedQueue();
+        }
+
+        DelayedExecutor.DelayQueue<IdleTimeoutContext> runnerQueue =
+                selectorRunnerQueues.get(selectorRunner);
+        if (runnerQueue == null) {
+            synchronized (selectorRunnerQueues) {
+                runnerQueue = selectorRunnerQueues.get(selectorRunner);
+                if (runnerQueue == null) {
+                    runnerQueue = selectorRunner.getDelayedExecutor()
+                            .createDelayQueue(worker, resolver);
+                    selectorRunnerQueues.put(selectorRunner, runnerQueue);
+                }
+            }
+        }
+
+        return runnerQueue;
+    }
+    
+    private DelayedExecutor.DelayQueue<IdleTimeoutContext> getSharedQueue() {
+        DelayedExecutor.DelayQueue<IdleTimeoutContext> localQueue = sharedQueue;
+        if (localQueue == null) {
+            synchronized (selectorRunnerQueues) {
+                localQueue = sharedQueue;
+                if (localQueue == null) {
+                    localQueue = SharedExecutorHolder.EXECUTOR
+                            .createDelayQueue(worker, resolver);
+                    sharedQueue = localQueue;
+                }
+            }
+        }
+        
+        return localQueue;
+    }
     
     private static long convertToMillis(final long time, final TimeUnit timeUnit) {
         return time >= 0 ? TimeUnit.MILLISECONDS.convert(time, timeUnit) : FOREVER;
@@ -306,8 +429,16 @@ public class IdleTimeoutFilter extends BaseFilter {
                             System.currentTimeMillis() + timeout;
                 }
 
-                IdleRecord.timeoutMillisUpdater.compareAndSet(
-                        idleRecord, FOREVER_SPECIAL, timeoutToSet);
+                if (IdleRecord.timeoutMillisUpdater.compareAndSet(
+                        idleRecord, FOREVER_SPECIAL, timeoutToSet)
+                        && timeoutToSet != FOREVER) {
+                    final IdleTimeoutContext idleTimeoutContext =
+                            idleRecord.getIdleTimeoutContext();
+                    if (idleTimeoutContext != null) {
+                        // the timeout isn't infinite anymore
+                        idleTimeoutContext.queue.reschedule(idleTimeoutContext);
+                    }
+                }
             }
         }
     } // END ContextCompletionListener
@@ -315,6 +446,20 @@ public class IdleTimeoutFilter extends BaseFilter {
 
     // ---------------------------------------------------------- Nested Classes
 
+    /**
+     * The lazily started {@link DelayedExecutor}, which checks the timeouts of
+     * the {@link Connection}s, that aren't bound to a {@link SelectorRunner},
+     * if the Filter has been created without a {@link DelayedExecutor}.
+     */
+    private static final class SharedExecutorHolder {
+        private static final DelayedExecutor EXECUTOR =
+                createDefaultIdleDelayedExecutor();
+        
+        static {
+            EXECUTOR.start();
+        }
+    }
+
     private static final class IdleTimeoutResolver implements TimeoutResolver {
 
         private final long defaultTimeoutMillis;
@@ -363,6 +508,7 @@ public class IdleTimeoutFilter extends BaseFilter {
     public static final class IdleTimeoutContext {
       
       private Connection connection;
+      private DelayedExecutor.DelayQueue<IdleTimeoutContext> queue;
 
       public IdleTimeoutContext(Connection connection) {
         this.connection = connection;
@@ -0,0 +1,316 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.grizzly.utils;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.glassfish.grizzly.utils.DelayedExecutor.UNSET_TIMEOUT;
+
+/**
+ * Hashed timing wheel, which backs a {@link DelayedExecutor.DelayQueue}
+ * when the owning {@link DelayedExecutor} works in timing-wheel mode.
+ *
+ * Added and removed elements are passed to the wheel via a lock-free inbox,
+ * the rest of the wheel state is owned by the {@link DelayedExecutor} thread,
+ * so add/remove are O(1) and each tick only touches the elements hashed into
+ * the expiring slot(s). Removed elements are unlinked from their slots on
+ * the next tick.
+ *
+ * Element timeouts are still obtained via {@link DelayedExecutor.Resolver},
+ * so they may be extended without re-adding an element: once element's slot
+ * expires, the timeout is re-resolved and the element is either processed
+ * or re-hashed. Elements with an (effectively) infinite timeout are not
+ * kept in the wheel at all, they are detached until their owner reports
+ * a finite timeout via {@link DelayedExecutor.DelayQueue#reschedule(Object)}.
+ */
+final class TimingWheel<E> {
+    /**
+     * Timeouts beyond this value are considered infinite.
+     */
+    private static final long INFINITE_TIMEOUT_THRESHOLD = Long.MAX_VALUE / 2;
+    
+    private final DelayedExecutor.DelayQueue<E> delayQueue;
+    
+    private final long tickMillis;
+    private final int mask;
+    private final Set<E>[] slots;
+    
+    // elements, which were added to or removed from the DelayQueue
+    // since the last tick
+    private final Queue<E> inbox = new ConcurrentLinkedQueue<E>();
+    
+    // the tick each element is currently scheduled for
+    private final Map<E, Long> scheduledTicks = new HashMap<E, Long>();
+    
+    // the DelayQueue elements with infinite timeout, which are not
+    // in the wheel
+    private final Set<E> detached = Collections.newSetFromMap(
+            DataStructures.<E, Boolean>getConcurrentMap());
+    
+    private long lastTick = -1;
+    
+    @SuppressWarnings("unchecked")
+    TimingWheel(final DelayedExecutor.DelayQueue<E> delayQueue,
+            final long tickMillis, final int wheelSize) {
+        this.delayQueue = delayQueue;
+        this.tickMillis = tickMillis > 0 ? tickMillis : 1;
+        
+        final int size = roundToPowerOfTwo(wheelSize);
+        mask = size - 1;
+        slots = new Set[size];
+        for (int i = 0; i < size; i++) {
+            slots[i] = new HashSet<E>();
+        }
+    }
+
+    /**
+     * Registers the element, whose timeout has just been (re)set.
+     * Could be called by any thread.
+     */
+    void offer(final E element) {
+        inbox.offer(element);
+    }
+
+    /**
+     * Unregisters the element, which has been removed from the DelayQueue.
+     * Could be called by any thread.
+     */
+    void remove(final E element) {
+        detached.remove(element);
+        inbox.offer(element);
+    }
+
+    /**
+     * Puts the detached element back to the wheel, if its timeout is not
+     * infinite anymore. Could be called by any thread.
+     */
+    void reschedule(final E element) {
+        // pairs with detach(): either we see the element detached,
+        // or detach() sees the new timeout
+        if (detached.remove(element)) {
+            inbox.offer(element);
+        }
+    }
+
+    /**
+     * Processes all the elements, whose timeout has expired since the last
+     * tick. Is called by the {@link DelayedExecutor} thread.
+     */
+    @SuppressWarnings("unchecked")
+    synchronized void expire(final long currentTimeMillis) {
+        final long currentTick = currentTimeMillis / tickMillis;
+        if (lastTick == -1) {
+            lastTick = currentTick - 1;
+        }
+        
+        drainInbox();
+        
+        // if we're late for more than one round - process every slot once
+        final long firstTick = Math.max(lastTick + 1, currentTick - mask);
+        for (long tick = firstTick; tick <= currentTick; tick++) {
+            final Set<E> slot = slots[(int) (tick & mask)];
+            if (slot.isEmpty()) {
+                continue;
+            }
+            
+            // the slot will be refilled with elements scheduled for future ticks
+            final Object[] elements = slot.toArray();
+            slot.clear();
+            
+            lastTick = tick;
+            for (Object element : elements) {
+                expire(tick, (E) element, currentTimeMillis);
+            }
+        }
+        
+        lastTick = Math.max(lastTick, currentTick);
+    }
+
+    /**
+     * Removes all the elements from the wheel.
+     */
+    synchronized void clear() {
+        inbox.clear();
+        scheduledTicks.clear();
+        detached.clear();
+        for (Set<E> slot : slots) {
+            slot.clear();
+        }
+        lastTick = -1;
+    }
+
+    private void drainInbox() {
+        E element;
+        while ((element = inbox.poll()) != null) {
+            if (delayQueue.queue.containsKey(element)) {
+                schedule(element,
+                        delayQueue.resolver.getTimeoutMillis(element));
+            } else {
+                unschedule(element);
+            }
+        }
+    }
+
+    private void expire(final long tick, final E element,
+            final long currentTimeMillis) {
+        final Long scheduledTick = scheduledTicks.get(element);
+        if (scheduledTick == null) {
+            return;
+        }
+
+        if (scheduledTick > tick) {
+            // the element is scheduled for one of the next rounds
+            slots[(int) (tick & mask)].add(element);
+            return;
+        }
+
+        scheduledTicks.remove(element);
+
+        final DelayedExecutor.DelayQueue<E> q = delayQueue;
+        if (!q.queue.containsKey(element)) {
+            return;
+        }
+
+        final DelayedExecutor.Resolver<E> resolver = q.resolver;
+        final long timeoutMillis = resolver.getTimeoutMillis(element);
+
+        if (timeoutMillis == UNSET_TIMEOUT) {
+            q.queue.remove(element);
+            final long newTimeoutMillis = resolver.getTimeoutMillis(element);
+            if (timeoutMillis != newTimeoutMillis) {
+                q.queue.put(element, q);
+                schedule(element, newTimeoutMillis);
+            }
+        } else if (currentTimeMillis - timeoutMillis >= 0) {
+            q.queue.remove(element);
+            final long newTimeoutMillis = resolver.getTimeoutMillis(element);
+            if (timeoutMillis != newTimeoutMillis) {
+                q.queue.put(element, q);
+                schedule(element, newTimeoutMillis);
+            } else {
+                try {
+                    if (!q.worker.doWork(element)) {
+                        q.queue.put(element, q);
+                        schedule(element, resolver.getTimeoutMillis(element));
+                    }
+                } catch (Exception ignored) {
+                }
+            }
+        } else {
+            // timeout has been extended
+            schedule(element, timeoutMillis);
+        }
+    }
+
+    private void schedule(final E element, final long timeoutMillis) {
+        final Long currentlyScheduled = scheduledTicks.get(element);
+
+        if (isInfinite(timeoutMillis)) {
+            if (currentlyScheduled == null) {
+                detach(element);
+            }
+            
+            // otherwise the element will be re-resolved at the scheduled tick
+            return;
+        }
+
+        final long tick;
+        if (timeoutMillis == UNSET_TIMEOUT) {
+            tick = lastTick + 1;
+        } else {
+            // can't schedule for the past ticks or further than one round
+            tick = Math.min(lastTick + 1 + mask,
+                    Math.max(lastTick + 1, timeoutMillis / tickMillis));
+        }
+
+        if (currentlyScheduled != null) {
+            if (currentlyScheduled <= tick) {
+                // the element will be re-resolved at the earlier tick
+                return;
+            }
+            
+            slots[(int) (currentlyScheduled & mask)].remove(element);
+        }
+
+        detached.remove(element);
+        scheduledTicks.put(element, tick);
+        slots[(int) (tick & mask)].add(element);
+    }
+
+    private void unschedule(final E element) {
+        detached.remove(element);
+        
+        final Long scheduledTick = scheduledTicks.remove(element);
+        if (scheduledTick != null) {
+            slots[(int) (scheduledTick & mask)].remove(element);
+        }
+    }
+
+    private void detach(final E element) {
+        detached.add(element);
+        
+        // pairs with reschedule(): the timeout might have been changed
+        // before the element became detached
+        final long timeoutMillis = delayQueue.resolver.getTimeoutMillis(element);
+        if (!isInfinite(timeoutMillis) && detached.remove(element)) {
+            schedule(element, timeoutMillis);
+        }
+    }
+
+    private static boolean isInfinite(final long timeoutMillis) {
+        return timeoutMillis >= INFINITE_TIMEOUT_THRESHOLD;
+    }
+
+    private static int roundToPowerOfTwo(final int value) {
+        int size = 1;
+        while (size < value && size < (1 << 30)) {
+            size <<= 1;
+        }
+
+        return size;
+    }
+}
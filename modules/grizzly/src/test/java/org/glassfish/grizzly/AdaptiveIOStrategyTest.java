@@ -0,0 +1,246 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.grizzly;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedTransferQueue;
+import java.util.concurrent.TimeUnit;
+import org.glassfish.grizzly.filterchain.BaseFilter;
+import org.glassfish.grizzly.filterchain.FilterChainBuilder;
+import org.glassfish.grizzly.filterchain.FilterChainContext;
+import org.glassfish.grizzly.filterchain.NextAction;
+import org.glassfish.grizzly.filterchain.TransportFilter;
+import org.glassfish.grizzly.nio.NIOConnection;
+import org.glassfish.grizzly.nio.transport.TCPNIOConnectorHandler;
+import org.glassfish.grizzly.nio.transport.TCPNIOTransport;
+import org.glassfish.grizzly.nio.transport.TCPNIOTransportBuilder;
+import org.glassfish.grizzly.strategies.AdaptiveIOStrategy;
+import org.glassfish.grizzly.utils.Charsets;
+import org.glassfish.grizzly.utils.StringFilter;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test {@link AdaptiveIOStrategy} in-thread/worker-thread decisions.
+ */
+public class AdaptiveIOStrategyTest {
+    private static final int PORT = 7790;
+
+    private static final String SELECTOR_THREAD = "selector";
+    private static final String WORKER_THREAD = "worker";
+
+    @Test
+    public void testSlowConnectionHandOff() throws Exception {
+        final AdaptiveIOStrategy strategy = new AdaptiveIOStrategy(
+                50, 10000, 10000, TimeUnit.MILLISECONDS);
+
+        final TCPNIOTransport server = createServer(strategy);
+        final TCPNIOTransport client = TCPNIOTransportBuilder.newInstance().build();
+
+        try {
+            server.bind(PORT);
+            server.start();
+            client.start();
+
+            final BlockingQueue<String> responses = new LinkedTransferQueue<String>();
+            final Connection connection = connect(client, responses);
+
+            // the first events might be slow because of class loading etc.
+            assertEquals(SELECTOR_THREAD, requestUntilSelectorThread(connection, responses));
+            // the first slow event is processed in the selector thread...
+            assertEquals(SELECTOR_THREAD, request(connection, responses, "slow"));
+            // ...and makes the following events go to the worker thread pool
+            assertEquals(WORKER_THREAD, request(connection, responses, "fast"));
+
+            // once the processing becomes fast, the connection returns back to
+            // the selector thread
+            assertEquals(SELECTOR_THREAD, requestUntilSelectorThread(connection, responses));
+            assertTrue(strategy.getAverageServiceTime(
+                    server.getProcessor(), TimeUnit.MILLISECONDS) < 50);
+        } finally {
+            client.shutdownNow();
+            server.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testNewConnectionToSlowProcessorHandOff() throws Exception {
+        final AdaptiveIOStrategy strategy = new AdaptiveIOStrategy(
+                50, 10000, 10000, TimeUnit.MILLISECONDS);
+
+        final TCPNIOTransport server = createServer(strategy);
+        final TCPNIOTransport client = TCPNIOTransportBuilder.newInstance().build();
+
+        try {
+            server.bind(PORT);
+            server.start();
+            client.start();
+
+            final BlockingQueue<String> responses1 = new LinkedTransferQueue<String>();
+            final Connection connection1 = connect(client, responses1);
+
+            assertEquals(SELECTOR_THREAD, requestUntilSelectorThread(connection1, responses1));
+            assertEquals(SELECTOR_THREAD, request(connection1, responses1, "slow"));
+            connection1.closeSilently();
+
+            // the service time is shared by all the connections served by the
+            // same processor, so the new connection's first event is handed off
+            final BlockingQueue<String> responses2 = new LinkedTransferQueue<String>();
+            final Connection connection2 = connect(client, responses2);
+            assertEquals(WORKER_THREAD, request(connection2, responses2, "fast"));
+        } finally {
+            client.shutdownNow();
+            server.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testBlockedSelectorBackoff() throws Exception {
+        final AdaptiveIOStrategy strategy = new AdaptiveIOStrategy(
+                10000, 20, 10000, TimeUnit.MILLISECONDS);
+
+        final TCPNIOTransport server = createServer(strategy);
+        final TCPNIOTransport client = TCPNIOTransportBuilder.newInstance().build();
+
+        try {
+            server.bind(PORT);
+            server.start();
+            client.start();
+
+            final BlockingQueue<String> responses1 = new LinkedTransferQueue<String>();
+            final BlockingQueue<String> responses2 = new LinkedTransferQueue<String>();
+            final Connection connection1 = connect(client, responses1);
+            final Connection connection2 = connect(client, responses2);
+
+            assertEquals(SELECTOR_THREAD, requestUntilSelectorThread(connection1, responses1));
+            assertEquals(SELECTOR_THREAD, request(connection2, responses2, "fast"));
+            // slow event blocks the selector thread for longer than 20ms
+            assertEquals(SELECTOR_THREAD, request(connection1, responses1, "slow"));
+            // all the connections served by the selector thread are handed off
+            assertEquals(WORKER_THREAD, request(connection2, responses2, "fast"));
+            assertEquals(WORKER_THREAD, request(connection1, responses1, "fast"));
+        } finally {
+            client.shutdownNow();
+            server.shutdownNow();
+        }
+    }
+
+    private static TCPNIOTransport createServer(final AdaptiveIOStrategy strategy) {
+        final FilterChainBuilder filterChainBuilder = FilterChainBuilder.stateless();
+        filterChainBuilder.add(new TransportFilter());
+        filterChainBuilder.add(new StringFilter(Charsets.UTF8_CHARSET));
+        filterChainBuilder.add(new BaseFilter() {
+
+            @Override
+            public NextAction handleRead(final FilterChainContext ctx)
+                    throws IOException {
+                final String msg = ctx.getMessage();
+                if ("slow".equals(msg)) {
+                    try {
+                        Thread.sleep(200);
+                    } catch (InterruptedException ignored) {
+                    }
+                }
+
+                final boolean isSelectorThread =
+                        ((NIOConnection) ctx.getConnection()).getSelectorRunner()
+                        .getRunnerThread() == Thread.currentThread();
+                ctx.write(isSelectorThread ? SELECTOR_THREAD : WORKER_THREAD);
+
+                return ctx.getStopAction();
+            }
+        });
+
+        final TCPNIOTransport transport = TCPNIOTransportBuilder.newInstance()
+                .setIOStrategy(strategy)
+                .setSelectorRunnersCount(1)
+                .build();
+        transport.setProcessor(filterChainBuilder.build());
+
+        return transport;
+    }
+
+    private static Connection connect(final TCPNIOTransport client,
+            final BlockingQueue<String> responses) throws Exception {
+        final FilterChainBuilder filterChainBuilder = FilterChainBuilder.stateless();
+        filterChainBuilder.add(new TransportFilter());
+        filterChainBuilder.add(new StringFilter(Charsets.UTF8_CHARSET));
+        filterChainBuilder.add(new BaseFilter() {
+
+            @Override
+            public NextAction handleRead(final FilterChainContext ctx)
+                    throws IOException {
+                responses.add((String) ctx.getMessage());
+                return ctx.getStopAction();
+            }
+        });
+
+        return TCPNIOConnectorHandler.builder(client)
+                .processor(filterChainBuilder.build())
+                .build()
+                .connect(new InetSocketAddress("localhost", PORT))
+                .get(10, TimeUnit.SECONDS);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static String request(final Connection connection,
+            final BlockingQueue<String> responses, final String msg)
+            throws Exception {
+        connection.write(msg);
+        final String response = responses.poll(10, TimeUnit.SECONDS);
+        assertNotNull("Timeout waiting for response", response);
+
+        return response;
+    }
+
+    private static String requestUntilSelectorThread(final Connection connection,
+            final BlockingQueue<String> responses) throws Exception {
+        String thread = null;
+        for (int i = 0; i < 100 && !SELECTOR_THREAD.equals(thread); i++) {
+            thread = request(connection, responses, "fast");
+        }
+
+        return thread;
+    }
+}
@@ -0,0 +1,275 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.grizzly;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.glassfish.grizzly.utils.DelayedExecutor;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test {@link DelayedExecutor} in both full-scan and timing-wheel modes.
+ */
+@RunWith(Parameterized.class)
+public class DelayedExecutorTest {
+
+    @Parameterized.Parameters
+    public static Collection<Object[]> getMode() {
+        return Arrays.asList(new Object[][]{
+                    {Boolean.FALSE},
+                    {Boolean.TRUE}
+                });
+    }
+
+    private final boolean useTimingWheel;
+    
+    private ExecutorService threadPool;
+    private DelayedExecutor delayedExecutor;
+
+    public DelayedExecutorTest(final boolean useTimingWheel) {
+        this.useTimingWheel = useTimingWheel;
+    }
+
+    @Before
+    public void before() {
+        threadPool = Executors.newSingleThreadExecutor();
+        delayedExecutor = new DelayedExecutor(threadPool, 10,
+                TimeUnit.MILLISECONDS, useTimingWheel);
+        delayedExecutor.start();
+    }
+
+    @After
+    public void after() {
+        delayedExecutor.destroy();
+        threadPool.shutdownNow();
+    }
+
+    @Test
+    public void testExpire() throws Exception {
+        final int count = 1000;
+        final CountDownLatch latch = new CountDownLatch(count);
+        final DelayedExecutor.DelayQueue<Task> queue =
+                delayedExecutor.createDelayQueue(new LatchWorker(latch),
+                new TaskResolver());
+        
+        for (int i = 0; i < count; i++) {
+            queue.add(new Task(), i % 100, TimeUnit.MILLISECONDS);
+        }
+
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testRemove() throws Exception {
+        final CountDownLatch latch = new CountDownLatch(1);
+        final DelayedExecutor.DelayQueue<Task> queue =
+                delayedExecutor.createDelayQueue(new LatchWorker(latch),
+                new TaskResolver());
+        
+        final Task task = new Task();
+        queue.add(task, 50, TimeUnit.MILLISECONDS);
+        queue.remove(task);
+
+        assertFalse(latch.await(500, TimeUnit.MILLISECONDS));
+        assertEquals(0, task.executed.get());
+    }
+
+    @Test
+    public void testExtendedTimeout() throws Exception {
+        final CountDownLatch latch = new CountDownLatch(1);
+        final DelayedExecutor.DelayQueue<Task> queue =
+                delayedExecutor.createDelayQueue(new LatchWorker(latch),
+                new TaskResolver());
+        
+        final Task task = new Task();
+        final long start = System.currentTimeMillis();
+        queue.add(task, 50, TimeUnit.MILLISECONDS);
+        // extend the timeout w/o re-adding the element
+        task.timeoutMillis = start + 500;
+
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        assertTrue(System.currentTimeMillis() - start >= 500);
+        assertEquals(1, task.executed.get());
+    }
+
+    @Test
+    public void testInfiniteTimeoutBecomesFinite() throws Exception {
+        final CountDownLatch latch = new CountDownLatch(1);
+        final DelayedExecutor.DelayQueue<Task> queue =
+                delayedExecutor.createDelayQueue(new LatchWorker(latch),
+                new TaskResolver());
+        
+        final Task task = new Task();
+        queue.add(task, Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        assertFalse(latch.await(100, TimeUnit.MILLISECONDS));
+
+        // shorten the timeout w/o re-adding the element
+        task.timeoutMillis = System.currentTimeMillis() + 50;
+        queue.reschedule(task);
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testInfiniteTimeoutNotPolled() throws Exception {
+        final CountDownLatch latch = new CountDownLatch(1);
+        final TaskResolver resolver = new TaskResolver();
+        final DelayedExecutor.DelayQueue<Task> queue =
+                delayedExecutor.createDelayQueue(new LatchWorker(latch),
+                resolver);
+        
+        final Task task = new Task();
+        queue.add(task, Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        Thread.sleep(50);
+        final int resolved = resolver.resolved.get();
+        
+        // 20+ ticks
+        assertFalse(latch.await(300, TimeUnit.MILLISECONDS));
+        if (useTimingWheel) {
+            assertEquals(resolved, resolver.resolved.get());
+        } else {
+            assertTrue(resolver.resolved.get() > resolved);
+        }
+    }
+
+    @Test
+    public void testRemovedElementReleased() throws Exception {
+        final CountDownLatch latch = new CountDownLatch(1);
+        final DelayedExecutor.DelayQueue<Task> queue =
+                delayedExecutor.createDelayQueue(new LatchWorker(latch),
+                new TaskResolver());
+        
+        final WeakReference<Task> taskRef = addAndRemove(queue);
+        
+        for (int i = 0; i < 50 && taskRef.get() != null; i++) {
+            Thread.sleep(20);
+            System.gc();
+        }
+        
+        assertNull(taskRef.get());
+        assertEquals(1, latch.getCount());
+    }
+
+    @Test
+    public void testReAdd() throws Exception {
+        final CountDownLatch latch = new CountDownLatch(1);
+        final DelayedExecutor.DelayQueue<Task> queue =
+                delayedExecutor.createDelayQueue(new LatchWorker(latch),
+                new TaskResolver());
+
+        final Task task = new Task();
+        queue.add(task, 1, TimeUnit.HOURS);
+        queue.add(task, 50, TimeUnit.MILLISECONDS);
+        
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        Thread.sleep(100);
+        assertEquals(1, task.executed.get());
+    }
+
+    private static WeakReference<Task> addAndRemove(
+            final DelayedExecutor.DelayQueue<Task> queue)
+            throws InterruptedException {
+        final Task task = new Task();
+        // the wheel slot of the element fires in several seconds
+        queue.add(task, 1, TimeUnit.HOURS);
+        // let the element get scheduled
+        Thread.sleep(50);
+        queue.remove(task);
+        
+        return new WeakReference<Task>(task);
+    }
+    
+    private static final class Task {
+        volatile long timeoutMillis = DelayedExecutor.UNSET_TIMEOUT;
+        final AtomicInteger executed = new AtomicInteger();
+    }
+
+    private static final class LatchWorker
+            implements DelayedExecutor.Worker<Task> {
+        private final CountDownLatch latch;
+
+        LatchWorker(final CountDownLatch latch) {
+            this.latch = latch;
+        }
+
+        @Override
+        public boolean doWork(final Task element) {
+            element.executed.incrementAndGet();
+            latch.countDown();
+            return true;
+        }
+    }
+
+    private static final class TaskResolver
+            implements DelayedExecutor.Resolver<Task> {
+        final AtomicInteger resolved = new AtomicInteger();
+
+        @Override
+        public boolean removeTimeout(final Task element) {
+            element.timeoutMillis = DelayedExecutor.UNSET_TIMEOUT;
+            return true;
+        }
+
+        @Override
+        public long getTimeoutMillis(final Task element) {
+            resolved.incrementAndGet();
+            return element.timeoutMillis;
+        }
+
+        @Override
+        public void setTimeoutMillis(final Task element,
+                final long timeoutMillis) {
+            element.timeoutMillis = timeoutMillis;
+        }
+    }
+}
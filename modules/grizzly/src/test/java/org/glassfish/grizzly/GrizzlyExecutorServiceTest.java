@@ -46,8 +46,16 @@ import org.glassfish.grizzly.threadpool.ThreadPoolConfig;
 import java.util.LinkedList;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.glassfish.grizzly.threadpool.AbstractThreadPool;
 import org.glassfish.grizzly.threadpool.ThreadPoolProbe;
+import org.glassfish.grizzly.threadpool.Threads;
+import org.glassfish.grizzly.threadpool.VirtualThreadPool;
+import org.glassfish.grizzly.threadpool.WorkStealingThreadPool;
 import org.glassfish.grizzly.utils.DelayedExecutor;
 
 /**
@@ -55,6 +63,9 @@ import org.glassfish.grizzly.utils.DelayedExecutor;
  * @author gustav trede
  */
 public class GrizzlyExecutorServiceTest extends GrizzlyTestCase {
+    private static final ThreadCache.CachedTypeIndex<Object> CACHE_IDX =
+            ThreadCache.obtainIndex(GrizzlyExecutorServiceTest.class.getName(),
+            Object.class, 1);
 
     public GrizzlyExecutorServiceTest() {
     }
@@ -173,6 +184,185 @@ public class GrizzlyExecutorServiceTest extends GrizzlyTestCase {
         assertTrue(r.isTerminated());
     }
     
+    public void testVirtualThreads() throws Exception {
+        final ThreadPoolConfig cfg = ThreadPoolConfig.defaultConfig()
+                .setPoolName("virtual")
+                .setVirtualThreads(true);
+
+        GrizzlyExecutorService r = GrizzlyExecutorService.createInstance(cfg);
+        assertTrue(r.getConfiguration().isVirtualThreads());
+
+        final int tasks = 100000;
+        doTest(r, tasks);
+
+        final Object cached = new Object();
+        final AtomicBoolean isVirtual = new AtomicBoolean();
+        final AtomicBoolean isCached = new AtomicBoolean();
+        r.submit(new Runnable() {
+
+            @Override
+            public void run() {
+                isVirtual.set(Threads.isVirtual(Thread.currentThread()));
+                ThreadCache.takeFromCache(CACHE_IDX);
+                isCached.set(ThreadCache.putToCache(CACHE_IDX, cached));
+            }
+        }).get(10, TimeUnit.SECONDS);
+
+        // virtual threads are used, if supported by the JVM
+        assertEquals(Threads.isVirtualThreadsSupported(), isVirtual.get());
+        assertTrue(isCached.get());
+
+        if (isVirtual.get()) {
+            // the next virtual thread gets the cached object
+            final AtomicReference<Object> taken = new AtomicReference<Object>();
+            r.submit(new Runnable() {
+
+                @Override
+                public void run() {
+                    taken.set(ThreadCache.takeFromCache(CACHE_IDX));
+                }
+            }).get(10, TimeUnit.SECONDS);
+            assertSame(cached, taken.get());
+
+            // the pool doesn't change the passed config
+            final ThreadPoolConfig virtualCfg = ThreadPoolConfig.defaultConfig()
+                    .setVirtualThreads(true);
+            new VirtualThreadPool(virtualCfg).shutdownNow();
+            assertNull(virtualCfg.getThreadFactory());
+        }
+
+        // switch back to platform threads
+        doTest(r.reconfigure(r.getConfiguration().setVirtualThreads(false)), tasks);
+        runTasks(r, 100);
+        r.shutdown();
+        assertTrue(r.awaitTermination(10, TimeUnit.SECONDS));
+        assertTrue(r.isTerminated());
+
+        r = GrizzlyExecutorService.createInstance(cfg.setQueueLimit(tasks));
+        runTasks(r, 100);
+        r.shutdown();
+        assertTrue(r.awaitTermination(10, TimeUnit.SECONDS));
+        assertTrue(r.isTerminated());
+    }
+
+    public void testWorkStealing() throws Exception {
+        final AtomicInteger queuedTasks = new AtomicInteger();
+        final AtomicInteger completedTasks = new AtomicInteger();
+        final ThreadPoolConfig cfg = ThreadPoolConfig.defaultConfig()
+                .setPoolName("stealing")
+                .setCorePoolSize(8).setMaxPoolSize(8)
+                .setWorkStealing(true);
+        cfg.getInitialMonitoringConfig().addProbes(new ThreadPoolProbe.Adapter() {
+
+            @Override
+            public void onTaskQueueEvent(AbstractThreadPool threadPool, Runnable task) {
+                queuedTasks.incrementAndGet();
+            }
+
+            @Override
+            public void onTaskCompleteEvent(AbstractThreadPool threadPool, Runnable task) {
+                completedTasks.incrementAndGet();
+            }
+        });
+
+        GrizzlyExecutorService r = GrizzlyExecutorService.createInstance(cfg);
+        assertTrue(r.getConfiguration().isWorkStealing());
+
+        final int tasks = 200000;
+        doTest(r, tasks);
+
+        // tasks submitted by the pool threads go to their own deques and
+        // have to be stolen by the other threads
+        final int subTasks = 100;
+        final CountDownLatch subTasksLatch = new CountDownLatch(subTasks);
+        final GrizzlyExecutorService pool = r;
+        r.execute(new Runnable() {
+
+            @Override
+            public void run() {
+                for (int i = 0; i < subTasks; i++) {
+                    pool.execute(new Runnable() {
+
+                        @Override
+                        public void run() {
+                            try {
+                                Thread.sleep(50);
+                            } catch (Exception ignore) {
+                            }
+                            subTasksLatch.countDown();
+                        }
+                    });
+                }
+            }
+        });
+        // 100 x 50ms tasks should be done by 8 threads much faster than in 5s
+        assertTrue(subTasksLatch.await(2, TimeUnit.SECONDS));
+
+        runTasks(r, 100);
+        r.shutdown();
+        assertTrue(r.awaitTermination(10, TimeUnit.SECONDS));
+        assertTrue(r.isTerminated());
+        assertEquals(tasks + subTasks + 101, queuedTasks.get());
+        assertEquals(queuedTasks.get(), completedTasks.get());
+
+        r = GrizzlyExecutorService.createInstance(cfg.setQueueLimit(tasks));
+        doTest(r, tasks);
+        // switch to the shared queue pool
+        doTest(r.reconfigure(r.getConfiguration().setWorkStealing(false)), tasks);
+        runTasks(r, 100);
+        r.shutdown();
+        assertTrue(r.awaitTermination(10, TimeUnit.SECONDS));
+        assertTrue(r.isTerminated());
+    }
+
+    public void testWorkStealingQueueLimit() throws Exception {
+        final ThreadPoolConfig cfg = ThreadPoolConfig.defaultConfig().copy()
+                .setPoolName("stealing-limit")
+                .setCorePoolSize(1).setMaxPoolSize(1)
+                .setQueueLimit(2)
+                .setWorkStealing(true);
+        final WorkStealingThreadPool pool = new WorkStealingThreadPool(cfg);
+
+        try {
+            for (int i = 0; i < 3; i++) {
+                final CountDownLatch blockLatch = new CountDownLatch(1);
+                final CountDownLatch tasksLatch = new CountDownLatch(3);
+                final Runnable task = new Runnable() {
+
+                    @Override
+                    public void run() {
+                        try {
+                            blockLatch.await();
+                        } catch (InterruptedException ignore) {
+                        }
+                        tasksLatch.countDown();
+                    }
+                };
+
+                pool.execute(task);
+                // wait until the only worker is busy with the first task
+                while (!pool.getQueue().isEmpty()) {
+                    Thread.sleep(5);
+                }
+
+                // the tasks offered to the queue take the permits as well
+                assertTrue(pool.getQueue().offer(task));
+                assertTrue(pool.getQueue().offer(task));
+                assertFalse(pool.getQueue().offer(task));
+                try {
+                    pool.execute(task);
+                    fail("The queue limit has to be reached");
+                } catch (RejectedExecutionException expected) {
+                }
+
+                blockLatch.countDown();
+                assertTrue(tasksLatch.await(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
     public void testMonitoringProbesCopying() {
         final ThreadPoolProbe probe = new ThreadPoolProbe.Adapter();
         
@@ -47,17 +47,24 @@ import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.when;
 
 import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.nio.channels.SocketChannel;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.glassfish.grizzly.filterchain.BaseFilter;
 import org.glassfish.grizzly.filterchain.FilterChainBuilder;
 import org.glassfish.grizzly.filterchain.FilterChainContext;
 import org.glassfish.grizzly.filterchain.NextAction;
 import org.glassfish.grizzly.filterchain.TransportFilter;
+import org.glassfish.grizzly.nio.NIOConnection;
+import org.glassfish.grizzly.nio.SelectorRunner;
+import org.glassfish.grizzly.nio.transport.TCPNIOConnection;
 import org.glassfish.grizzly.nio.transport.TCPNIOTransport;
 import org.glassfish.grizzly.nio.transport.TCPNIOTransportBuilder;
 import org.glassfish.grizzly.utils.DelayedExecutor;
@@ -200,6 +207,136 @@ public class IdleConnectionFilterTest extends GrizzlyTestCase {
         }
     }
     
+    public void testSelectorRunnerIdleTimeout() throws Exception {
+        Connection connection = null;
+
+        final CountDownLatch latch = new CountDownLatch(1);
+        final CountDownLatch handleCloseLatch = new CountDownLatch(2);
+        
+        // timeouts are checked by the SelectorRunner threads
+        IdleTimeoutFilter idleTimeoutFilter =
+                new IdleTimeoutFilter(2, TimeUnit.SECONDS);
+
+        FilterChainBuilder filterChainBuilder = FilterChainBuilder.stateless();
+        filterChainBuilder.add(new TransportFilter());
+        filterChainBuilder.add(idleTimeoutFilter);
+        filterChainBuilder.add(new BaseFilter() {
+                private volatile Connection acceptedConnection;
+                @Override
+                public NextAction handleAccept(FilterChainContext ctx)
+                        throws IOException {
+                    acceptedConnection = ctx.getConnection();
+                    return ctx.getInvokeAction();
+                }
+
+                @Override
+                public NextAction handleClose(FilterChainContext ctx)
+                        throws IOException {
+                    if (ctx.getConnection().equals(acceptedConnection)) {
+                        latch.countDown();
+                    }
+
+                    handleCloseLatch.countDown();
+                    
+                    return ctx.getInvokeAction();
+                }
+
+            });
+
+        TCPNIOTransport transport = TCPNIOTransportBuilder.newInstance().build();
+        transport.setProcessor(filterChainBuilder.build());
+        
+        try {
+            transport.bind(PORT);
+            transport.start();
+
+            Future<Connection> future = transport.connect("localhost", PORT);
+            connection = future.get(10, TimeUnit.SECONDS);
+            assertTrue(connection != null);
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+            assertTrue(handleCloseLatch.await(10, TimeUnit.SECONDS));
+        } finally {
+            if (connection != null) {
+                connection.closeSilently();
+            }
+            transport.shutdownNow();
+        }
+    }
+    
+    public void testSelectorRunnerQueuesRelease() throws Exception {
+        // timeouts are checked by the SelectorRunner threads
+        final IdleTimeoutFilter idleTimeoutFilter =
+                new IdleTimeoutFilter(1, TimeUnit.HOURS);
+
+        final WeakReference<SelectorRunner> runnerRef =
+                connectAndStop(idleTimeoutFilter);
+
+        // the filter must not keep the stopped runners
+        for (int i = 0; i < 50 && runnerRef.get() != null; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        
+        assertNull(runnerRef.get());
+    }
+    
+    public void testSelectorRunnerQueuesPurgedOnStop() throws Exception {
+        final IdleTimeoutFilter idleTimeoutFilter =
+                new IdleTimeoutFilter(1, TimeUnit.HOURS);
+        
+        final AtomicInteger purged = new AtomicInteger();
+        final DelayedExecutor.DelayQueue<AtomicLong>[] queueHolder =
+                new DelayedExecutor.DelayQueue[1];
+        
+        final WeakReference<AtomicLong> elementRef =
+                connectQueueAndStop(idleTimeoutFilter, queueHolder, purged);
+        
+        // the runner's queue is still reachable, but must not keep the element
+        assertNotNull(queueHolder[0]);
+        for (int i = 0; i < 50 && purged.get() == 0; i++) {
+            Thread.sleep(100);
+        }
+        assertEquals(1, purged.get());
+        for (int i = 0; i < 50 && elementRef.get() != null; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        
+        assertNull(elementRef.get());
+    }
+    
+    public void testConnectionWithoutSelectorRunner() throws Exception {
+        final CountDownLatch latch = new CountDownLatch(1);
+        final IdleTimeoutFilter idleTimeoutFilter = new IdleTimeoutFilter(
+                100, TimeUnit.MILLISECONDS,
+                new IdleTimeoutFilter.TimeoutHandler() {
+
+                    @Override
+                    public void onTimeout(final Connection c) {
+                        latch.countDown();
+                    }
+                });
+
+        final TCPNIOTransport transport =
+                TCPNIOTransportBuilder.newInstance().build();
+        final SocketChannel channel = SocketChannel.open();
+        try {
+            // the connection isn't registered, so has no SelectorRunner
+            final TCPNIOConnection connection =
+                    new TCPNIOConnection(transport, channel);
+            assertNull(connection.getSelectorRunner());
+            
+            final FilterChainContext ctx = FilterChainContext.create(connection);
+            idleTimeoutFilter.handleConnect(ctx);
+            ctx.completeAndRecycle();
+            
+            // the timeout is checked by the shared DelayedExecutor
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+        } finally {
+            channel.close();
+        }
+    }
+    
     public void testInfiniteIdleTimeout() throws Exception {
         Connection connection = null;
 
@@ -290,4 +427,94 @@ public class IdleConnectionFilterTest extends GrizzlyTestCase {
 		return spyExecutor;
 	}
     
+
+    @SuppressWarnings("unchecked")
+    private static WeakReference<AtomicLong> connectQueueAndStop(
+            final IdleTimeoutFilter idleTimeoutFilter,
+            final DelayedExecutor.DelayQueue<AtomicLong>[] queueHolder,
+            final AtomicInteger purged) throws Exception {
+        FilterChainBuilder filterChainBuilder = FilterChainBuilder.stateless();
+        filterChainBuilder.add(new TransportFilter());
+        filterChainBuilder.add(idleTimeoutFilter);
+
+        TCPNIOTransport transport = TCPNIOTransportBuilder.newInstance().build();
+        transport.setProcessor(filterChainBuilder.build());
+        
+        try {
+            transport.bind(PORT);
+            transport.start();
+
+            Future<Connection> future = transport.connect("localhost", PORT);
+            final Connection connection = future.get(10, TimeUnit.SECONDS);
+            final SelectorRunner runner =
+                    ((NIOConnection) connection).getSelectorRunner();
+
+            // one more queue next to the IdleTimeoutFilter's one
+            queueHolder[0] = runner.getDelayedExecutor().createDelayQueue(
+                    new DelayedExecutor.Worker<AtomicLong>() {
+
+                        @Override
+                        public boolean doWork(final AtomicLong element) {
+                            purged.incrementAndGet();
+                            return true;
+                        }
+                    },
+                    new DelayedExecutor.Resolver<AtomicLong>() {
+
+                        @Override
+                        public boolean removeTimeout(final AtomicLong element) {
+                            element.set(DelayedExecutor.UNSET_TIMEOUT);
+                            return true;
+                        }
+
+                        @Override
+                        public long getTimeoutMillis(final AtomicLong element) {
+                            return element.get();
+                        }
+
+                        @Override
+                        public void setTimeoutMillis(final AtomicLong element,
+                                final long timeoutMillis) {
+                            element.set(timeoutMillis);
+                        }
+                    });
+            
+            final AtomicLong element = new AtomicLong();
+            queueHolder[0].add(element, 1, TimeUnit.HOURS);
+            
+            return new WeakReference<AtomicLong>(element);
+        } finally {
+            transport.shutdownNow();
+        }
+    }
+
+    private static WeakReference<SelectorRunner> connectAndStop(
+            final IdleTimeoutFilter idleTimeoutFilter) throws Exception {
+        FilterChainBuilder filterChainBuilder = FilterChainBuilder.stateless();
+        filterChainBuilder.add(new TransportFilter());
+        filterChainBuilder.add(idleTimeoutFilter);
+
+        TCPNIOTransport transport = TCPNIOTransportBuilder.newInstance().build();
+        transport.setProcessor(filterChainBuilder.build());
+        
+        try {
+            transport.bind(PORT);
+            transport.start();
+
+            Future<Connection> future = transport.connect("localhost", PORT);
+            final Connection connection = future.get(10, TimeUnit.SECONDS);
+            final SelectorRunner runner =
+                    ((NIOConnection) connection).getSelectorRunner();
+
+            try {
+                runner.getDelayedExecutor().start();
+                fail("SelectorRunner's DelayedExecutor must not be started");
+            } catch (IllegalStateException expected) {
+            }
+            
+            return new WeakReference<SelectorRunner>(runner);
+        } finally {
+            transport.shutdownNow();
+        }
+    }
 }
@@ -76,7 +76,9 @@ import org.glassfish.grizzly.filterchain.TransportFilter;
 import org.glassfish.grizzly.impl.FutureImpl;
 import org.glassfish.grizzly.impl.SafeFutureImpl;
 import org.glassfish.grizzly.memory.MemoryManager;
+import org.glassfish.grizzly.memory.PooledMemoryManager;
 import org.glassfish.grizzly.nio.transport.TCPNIOTransport;
+import org.glassfish.grizzly.ssl.HandshakeProbe;
 import org.glassfish.grizzly.ssl.SSLContextConfigurator;
 import org.glassfish.grizzly.ssl.SSLEngineConfigurator;
 import org.glassfish.grizzly.ssl.SSLFilter;
@@ -89,6 +91,7 @@ import org.glassfish.grizzly.utils.EchoFilter;
 import org.glassfish.grizzly.utils.StringFilter;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.net.ssl.KeyManager;
@@ -158,7 +161,8 @@ public class SSLTest {
                     {Boolean.FALSE, new HeapMemoryManager()},
                     {Boolean.FALSE, new ByteBufferManager()},
                     {Boolean.TRUE, new HeapMemoryManager()},
-                    {Boolean.TRUE, new ByteBufferManager()}
+                    {Boolean.TRUE, new ByteBufferManager()},
+                    {Boolean.FALSE, new PooledMemoryManager()}
                 });
     }
 
@@ -489,6 +493,198 @@ public class SSLTest {
     }
 
 
+    @Test
+    public void testHandshakeExecutor() throws Exception {
+
+        Connection connection = null;
+        SSLContextConfigurator sslContextConfigurator = createSSLContextConfigurator();
+        SSLEngineConfigurator clientSSLEngineConfigurator = null;
+        SSLEngineConfigurator serverSSLEngineConfigurator = null;
+
+        if (sslContextConfigurator.validateConfiguration(true)) {
+            clientSSLEngineConfigurator =
+                    new SSLEngineConfigurator(sslContextConfigurator.createSSLContext(true));
+            serverSSLEngineConfigurator =
+                    new SSLEngineConfigurator(sslContextConfigurator.createSSLContext(true),
+                    false, false, false);
+        } else {
+            fail("Failed to validate SSLContextConfiguration.");
+        }
+
+        final ExecutorService handshakeExecutor = Executors.newFixedThreadPool(2);
+        final AtomicInteger executedCounter = new AtomicInteger();
+        final FutureImpl<Long> handshakeFuture = SafeFutureImpl.create();
+
+        final SSLFilter serverSSLFilter = new SSLFilter(serverSSLEngineConfigurator, null);
+        serverSSLFilter.setHandshakeExecutor(handshakeExecutor);
+        serverSSLFilter.getMonitoringConfig().addProbes(new HandshakeProbe.Adapter() {
+
+            @Override
+            public void onDelegatedTasksExecutedEvent(Connection connection,
+                    long waitNanos, long executionNanos) {
+                executedCounter.incrementAndGet();
+            }
+
+            @Override
+            public void onHandshakeCompleteEvent(Connection connection,
+                    long durationNanos) {
+                handshakeFuture.result(durationNanos);
+            }
+        });
+
+        FilterChainBuilder filterChainBuilder = FilterChainBuilder.stateless();
+        filterChainBuilder.add(new TransportFilter());
+        filterChainBuilder.add(serverSSLFilter);
+        filterChainBuilder.add(new EchoFilter());
+
+        TCPNIOTransport transport =
+                TCPNIOTransportBuilder.newInstance().build();
+        transport.setProcessor(filterChainBuilder.build());
+        transport.setMemoryManager(manager);
+
+        final FutureImpl<String> echoFuture = SafeFutureImpl.create();
+
+        TCPNIOTransport cTransport =
+                TCPNIOTransportBuilder.newInstance().build();
+        FilterChainBuilder clientChain = FilterChainBuilder.stateless();
+        clientChain.add(new TransportFilter());
+        clientChain.add(new SSLFilter(null, clientSSLEngineConfigurator));
+        clientChain.add(new StringFilter());
+        clientChain.add(new BaseFilter() {
+
+            @Override
+            public NextAction handleRead(FilterChainContext ctx)
+                    throws IOException {
+                echoFuture.result((String) ctx.getMessage());
+                return ctx.getStopAction();
+            }
+        });
+        cTransport.setProcessor(clientChain.build());
+        cTransport.setMemoryManager(manager);
+
+        try {
+            transport.bind(PORT);
+            transport.start();
+
+            cTransport.start();
+
+            Future<Connection> future = cTransport.connect("localhost", PORT);
+            connection = future.get(10, TimeUnit.SECONDS);
+
+            assertNotNull(connection);
+
+            connection.write("message");
+
+            assertEquals("message", echoFuture.get(10, TimeUnit.SECONDS));
+            assertTrue(handshakeFuture.get(10, TimeUnit.SECONDS) > 0);
+            assertTrue(executedCounter.get() > 0);
+        } finally {
+            if (connection != null) {
+                connection.closeSilently();
+            }
+            cTransport.shutdownNow();
+            transport.shutdownNow();
+            handshakeExecutor.shutdownNow();
+        }
+    }
+
+
+    @Test
+    public void testSessionResumption() throws Exception {
+
+        SSLContextConfigurator sslContextConfigurator = createSSLContextConfigurator();
+        SSLEngineConfigurator clientSSLEngineConfigurator = null;
+        SSLEngineConfigurator serverSSLEngineConfigurator = null;
+
+        if (sslContextConfigurator.validateConfiguration(true)) {
+            clientSSLEngineConfigurator =
+                    new SSLEngineConfigurator(sslContextConfigurator.createSSLContext(true));
+            serverSSLEngineConfigurator =
+                    new SSLEngineConfigurator(sslContextConfigurator.createSSLContext(true),
+                    false, false, false)
+                    .setSessionCacheSize(100)
+                    .setSessionTimeout(60);
+        } else {
+            fail("Failed to validate SSLContextConfiguration.");
+        }
+
+        assertEquals(100, serverSSLEngineConfigurator.getSslContext()
+                .getServerSessionContext().getSessionCacheSize());
+        assertEquals(60, serverSSLEngineConfigurator.getSslContext()
+                .getServerSessionContext().getSessionTimeout());
+
+        final AtomicInteger resumedCounter = new AtomicInteger();
+        final SSLFilter serverSSLFilter = new SSLFilter(serverSSLEngineConfigurator, null);
+        serverSSLFilter.getMonitoringConfig().addProbes(new HandshakeProbe.Adapter() {
+
+            @Override
+            public void onSessionResumedEvent(Connection connection) {
+                resumedCounter.incrementAndGet();
+            }
+        });
+
+        FilterChainBuilder filterChainBuilder = FilterChainBuilder.stateless();
+        filterChainBuilder.add(new TransportFilter());
+        filterChainBuilder.add(serverSSLFilter);
+        filterChainBuilder.add(new EchoFilter());
+
+        TCPNIOTransport transport =
+                TCPNIOTransportBuilder.newInstance().build();
+        transport.setProcessor(filterChainBuilder.build());
+        transport.setMemoryManager(manager);
+
+        final Attribute<FutureImpl<String>> echoFutureAttr =
+                Grizzly.DEFAULT_ATTRIBUTE_BUILDER.createAttribute("echo-future");
+
+        TCPNIOTransport cTransport =
+                TCPNIOTransportBuilder.newInstance().build();
+        FilterChainBuilder clientChain = FilterChainBuilder.stateless();
+        clientChain.add(new TransportFilter());
+        clientChain.add(new SSLFilter(null, clientSSLEngineConfigurator));
+        clientChain.add(new StringFilter());
+        clientChain.add(new BaseFilter() {
+
+            @Override
+            public NextAction handleRead(FilterChainContext ctx)
+                    throws IOException {
+                echoFutureAttr.get(ctx.getConnection()).result(
+                        (String) ctx.getMessage());
+                return ctx.getStopAction();
+            }
+        });
+        cTransport.setProcessor(clientChain.build());
+        cTransport.setMemoryManager(manager);
+
+        try {
+            transport.bind(PORT);
+            transport.start();
+
+            cTransport.start();
+
+            for (int i = 0; i < 2; i++) {
+                final Connection connection = cTransport.connect("localhost", PORT)
+                        .get(10, TimeUnit.SECONDS);
+                try {
+                    final FutureImpl<String> echoFuture = SafeFutureImpl.create();
+                    echoFutureAttr.set(connection, echoFuture);
+
+                    connection.write("message" + i);
+                    assertEquals("message" + i, echoFuture.get(10, TimeUnit.SECONDS));
+                } finally {
+                    connection.closeSilently();
+                }
+            }
+
+            assertEquals(1, serverSSLFilter.getFullHandshakesCount());
+            assertEquals(1, serverSSLFilter.getResumedHandshakesCount());
+            assertEquals(1, resumedCounter.get());
+        } finally {
+            cTransport.shutdownNow();
+            transport.shutdownNow();
+        }
+    }
+
+
     // ------------------------------------------------------- Protected Methods
 
 
@@ -49,9 +49,13 @@ import static org.junit.Assert.fail;
 import java.io.IOException;
 import java.lang.reflect.Field;
 import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
 import java.nio.channels.SelectableChannel;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
@@ -69,8 +73,12 @@ import org.glassfish.grizzly.filterchain.NextAction;
 import org.glassfish.grizzly.filterchain.TransportFilter;
 import org.glassfish.grizzly.impl.FutureImpl;
 import org.glassfish.grizzly.impl.SafeFutureImpl;
+import org.glassfish.grizzly.memory.Buffers;
 import org.glassfish.grizzly.memory.ByteBufferWrapper;
+import org.glassfish.grizzly.memory.CompositeBuffer;
+import org.glassfish.grizzly.memory.MemoryManager;
 import org.glassfish.grizzly.nio.AbstractNIOConnectionDistributor;
+import org.glassfish.grizzly.nio.DefaultSelectorHandler;
 import org.glassfish.grizzly.nio.NIOConnection;
 import org.glassfish.grizzly.nio.NIOTransport;
 import org.glassfish.grizzly.nio.RegisterChannelResult;
@@ -82,7 +90,9 @@ import org.glassfish.grizzly.nio.transport.TCPNIOTransportBuilder;
 import org.glassfish.grizzly.strategies.SameThreadIOStrategy;
 import org.glassfish.grizzly.streams.StreamReader;
 import org.glassfish.grizzly.streams.StreamWriter;
+import org.glassfish.grizzly.threadpool.GrizzlyExecutorService;
 import org.glassfish.grizzly.threadpool.ThreadPoolConfig;
+import org.glassfish.grizzly.threadpool.Threads;
 import org.glassfish.grizzly.utils.ClientCheckFilter;
 import org.glassfish.grizzly.utils.DataStructures;
 import org.glassfish.grizzly.utils.EchoFilter;
@@ -201,6 +211,128 @@ public class TCPNIOTransportTest {
         }
     }
 
+    @Test
+    public void testReusePortAcceptors() throws Exception {
+        final TCPNIOTransport transport = TCPNIOTransportBuilder.newInstance()
+                .setReusePortAcceptors(true)
+                .setSelectorRunnersCount(4)
+                .build();
+        
+        final FilterChainBuilder filterChainBuilder = FilterChainBuilder.stateless();
+        filterChainBuilder.add(new TransportFilter());
+        filterChainBuilder.add(new StringFilter());
+        filterChainBuilder.add(new EchoFilter());
+        transport.setProcessor(filterChainBuilder.build());
+        
+        try {
+            final Connection serverConnection = transport.bind(port);
+            transport.start();
+
+            for (int i = 0; i < 16; i++) {
+                final FutureImpl<String> resultFuture = SafeFutureImpl.create();
+                final FilterChainBuilder clientFilterChainBuilder =
+                        FilterChainBuilder.stateless();
+                clientFilterChainBuilder.add(new TransportFilter());
+                clientFilterChainBuilder.add(new StringFilter());
+                clientFilterChainBuilder.add(new BaseFilter() {
+                    @Override
+                    public NextAction handleRead(FilterChainContext ctx)
+                            throws IOException {
+                        resultFuture.result((String) ctx.getMessage());
+                        return ctx.getStopAction();
+                    }
+                });
+                
+                final TCPNIOConnectorHandler connectorHandler =
+                        TCPNIOConnectorHandler.builder(transport)
+                        .processor(clientFilterChainBuilder.build())
+                        .build();
+                
+                final Connection connection = connectorHandler.connect(
+                        new InetSocketAddress("localhost", port))
+                        .get(10, TimeUnit.SECONDS);
+                try {
+                    connection.write("hello" + i);
+                    assertEquals("hello" + i, resultFuture.get(10, TimeUnit.SECONDS));
+                } finally {
+                    connection.closeSilently();
+                }
+            }
+            
+            transport.unbind(serverConnection);
+
+            final Future<Connection> future = transport.connect("localhost", port);
+            try {
+                future.get(10, TimeUnit.SECONDS);
+                fail("Server connection should be closed!");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof IOException);
+            }
+        } finally {
+            transport.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testBusyPollSelectorHandler() throws Exception {
+        final TCPNIOTransport transport = TCPNIOTransportBuilder.newInstance()
+                .setSelectorHandler(new DefaultSelectorHandler(
+                        30, TimeUnit.SECONDS, 100, TimeUnit.MICROSECONDS))
+                .build();
+        
+        final FilterChainBuilder filterChainBuilder = FilterChainBuilder.stateless();
+        filterChainBuilder.add(new TransportFilter());
+        filterChainBuilder.add(new StringFilter());
+        filterChainBuilder.add(new EchoFilter());
+        transport.setProcessor(filterChainBuilder.build());
+        
+        Connection connection = null;
+        try {
+            transport.bind(port);
+            transport.start();
+
+            final BlockingQueue<String> resultQueue =
+                    DataStructures.getLTQInstance(String.class);
+            final FilterChainBuilder clientFilterChainBuilder =
+                    FilterChainBuilder.stateless();
+            clientFilterChainBuilder.add(new TransportFilter());
+            clientFilterChainBuilder.add(new StringFilter());
+            clientFilterChainBuilder.add(new BaseFilter() {
+                @Override
+                public NextAction handleRead(FilterChainContext ctx)
+                        throws IOException {
+                    resultQueue.add((String) ctx.getMessage());
+                    return ctx.getStopAction();
+                }
+            });
+
+            final TCPNIOConnectorHandler connectorHandler =
+                    TCPNIOConnectorHandler.builder(transport)
+                    .processor(clientFilterChainBuilder.build())
+                    .build();
+
+            connection = connectorHandler.connect(
+                    new InetSocketAddress("localhost", port))
+                    .get(10, TimeUnit.SECONDS);
+            
+            for (int i = 0; i < 100; i++) {
+                connection.write("hello" + i);
+                assertEquals("hello" + i, resultQueue.poll(10, TimeUnit.SECONDS));
+                
+                if (i % 10 == 0) {
+                    // let the selectors block
+                    Thread.sleep(5);
+                }
+            }
+        } finally {
+            if (connection != null) {
+                connection.closeSilently();
+            }
+            
+            transport.shutdownNow();
+        }
+    }
+
     @Test
     public void testClose() throws Exception {
         final BlockingQueue<Connection> acceptedQueue = DataStructures.getLTQInstance();
@@ -416,6 +548,146 @@ public class TCPNIOTransportTest {
         doTestParallelWrites(100, 100000, true);
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testBlockingEchoInVirtualThreads() throws Exception {
+        final int clientsCount = 32;
+        final int messageSize = 256 * 1024;
+
+        final FilterChainBuilder filterChainBuilder = FilterChainBuilder.stateless();
+        filterChainBuilder.add(new TransportFilter());
+        filterChainBuilder.add(new EchoFilter());
+
+        final TCPNIOTransport transport = TCPNIOTransportBuilder.newInstance().build();
+        transport.setProcessor(filterChainBuilder.build());
+
+        // falls back to platform threads, if virtual threads are not supported
+        final GrizzlyExecutorService executor = GrizzlyExecutorService.createInstance(
+                ThreadPoolConfig.defaultConfig()
+                .setPoolName("virtual-test")
+                .setVirtualThreads(true));
+
+        try {
+            transport.bind(port);
+            transport.start();
+
+            final List<Future<Boolean>> results = new ArrayList<Future<Boolean>>();
+            for (int i = 0; i < clientsCount; i++) {
+                final byte[] message = new byte[messageSize];
+                Arrays.fill(message, (byte) i);
+
+                results.add(executor.submit(new Callable<Boolean>() {
+
+                    @Override
+                    public Boolean call() throws Exception {
+                        final Connection connection = transport.connect(
+                                "localhost", port).get(10, TimeUnit.SECONDS);
+                        try {
+                            connection.configureStandalone(true);
+                            connection.configureBlocking(true);
+
+                            connection.write(Buffers.wrap(
+                                    transport.getMemoryManager(), message))
+                                    .get(10, TimeUnit.SECONDS);
+
+                            final byte[] echo = new byte[messageSize];
+                            int offset = 0;
+                            while (offset < messageSize) {
+                                final ReadResult<Buffer, ?> readResult =
+                                        (ReadResult<Buffer, ?>) connection.read()
+                                        .get(10, TimeUnit.SECONDS);
+                                final Buffer buffer = readResult.getMessage();
+                                buffer.flip();
+                                final int length = buffer.remaining();
+                                buffer.get(echo, offset, length);
+                                buffer.tryDispose();
+                                offset += length;
+                            }
+
+                            return Arrays.equals(message, echo)
+                                    && Threads.isVirtual(Thread.currentThread())
+                                    == Threads.isVirtualThreadsSupported();
+                        } finally {
+                            connection.closeSilently();
+                        }
+                    }
+                }));
+            }
+
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get(30, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+            transport.shutdownNow();
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testGatheringCompositeWrite() throws Exception {
+        final int headerSize = 200;
+        final int bodySize = 1024 * 1024;
+        final int trailerSize = 300;
+        final int messageSize = headerSize + bodySize + trailerSize;
+
+        final FilterChainBuilder filterChainBuilder = FilterChainBuilder.stateless();
+        filterChainBuilder.add(new TransportFilter());
+        filterChainBuilder.add(new EchoFilter());
+
+        final TCPNIOTransport transport = TCPNIOTransportBuilder.newInstance().build();
+        transport.setProcessor(filterChainBuilder.build());
+
+        Connection connection = null;
+        try {
+            transport.bind(port);
+            transport.start();
+
+            connection = transport.connect("localhost", port).get(10, TimeUnit.SECONDS);
+            connection.configureStandalone(true);
+            connection.configureBlocking(true);
+            // the direct body is much bigger than the write limit, applied to heap bytes
+            connection.setWriteBufferSize(8192);
+
+            final byte[] message = new byte[messageSize];
+            for (int i = 0; i < messageSize; i++) {
+                message[i] = (byte) i;
+            }
+
+            final ByteBuffer body = ByteBuffer.allocateDirect(bodySize);
+            body.put(message, headerSize, bodySize).flip();
+
+            final MemoryManager mm = transport.getMemoryManager();
+            final CompositeBuffer composite = CompositeBuffer.newBuffer(mm);
+            composite.append(Buffers.wrap(mm, message, 0, headerSize));
+            composite.append(Buffers.wrap(mm, body));
+            composite.append(Buffers.wrap(mm, message, headerSize + bodySize, trailerSize));
+
+            connection.write(composite).get(10, TimeUnit.SECONDS);
+
+            final byte[] echo = new byte[messageSize];
+            int offset = 0;
+            while (offset < messageSize) {
+                final ReadResult<Buffer, ?> readResult =
+                        (ReadResult<Buffer, ?>) connection.read()
+                        .get(10, TimeUnit.SECONDS);
+                final Buffer buffer = readResult.getMessage();
+                buffer.flip();
+                final int length = buffer.remaining();
+                buffer.get(echo, offset, length);
+                buffer.tryDispose();
+                offset += length;
+            }
+
+            assertTrue(Arrays.equals(message, echo));
+        } finally {
+            if (connection != null) {
+                connection.closeSilently();
+            }
+            transport.shutdownNow();
+        }
+    }
+
     @Test
     public void testThreadInterruptionDuringAcceptDoesNotMakeServerDeaf() throws Exception {
         // This appears to no longer be an issue when using Java11, skip this test.
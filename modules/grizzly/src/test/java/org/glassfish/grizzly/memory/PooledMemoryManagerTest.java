@@ -44,6 +44,7 @@ import org.junit.Test;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 import java.util.Random;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
@@ -512,6 +513,62 @@ public class PooledMemoryManagerTest {
 
     }
 
+    @Test
+    public void testSlabAllocationAndDispose() throws Exception {
+        final long budget = 1024 * 1024;
+        
+        // 2 pools of 1KiB and 2KiB buffers, 2 slices each,
+        // so every slice gets a 256KiB slab
+        PooledMemoryManager mm = new PooledMemoryManager(1024, 2, 1, 2, budget);
+        assertEquals(budget, mm.getOffHeapBudget());
+        assertEquals(budget, mm.getSlabsSize());
+        
+        final PooledMemoryManager.Pool pool = mm.getPools()[0];
+        for (PooledMemoryManager.PoolSlice slice : pool.getSlices()) {
+            assertEquals(256 * 1024, slice.getSlabSize());
+            assertEquals(256, slice.getMaxElementsCount());
+            assertEquals(256, slice.elementsCount());
+        }
+        
+        final TestProbe probe = new TestProbe();
+        mm.getMonitoringConfig().addProbes(probe);
+
+        // drain both slices of the first pool
+        final List<Buffer> buffers = new ArrayList<Buffer>();
+        for (int i = 0; i < 512; i++) {
+            final Buffer b = mm.allocate(1000);
+            assertTrue(b.isDirect());
+            buffers.add(b);
+        }
+        assertEquals(0, pool.elementsCount());
+        assertEquals(512, probe.bufferAllocatedFromPool.get());
+        assertEquals(0, probe.bufferAllocated.get());
+        
+        // the budget is exhausted, so the buffer comes from the heap
+        final Buffer overBudget = mm.allocate(1000);
+        assertFalse(overBudget.isDirect());
+        assertEquals(1, probe.bufferAllocated.get());
+        
+        for (Buffer b : buffers) {
+            b.tryDispose();
+        }
+        overBudget.tryDispose();
+        
+        // only the slab buffers are back in the pool
+        assertEquals(512, probe.bufferReleasedToPool.get());
+        assertEquals(512, pool.elementsCount());
+        
+        // the budget doesn't fit STRIDE buffers per slice of the largest pool
+        try {
+            new PooledMemoryManager(1024, 2, 1, 2, 64 * 1024);
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+        
+        // heap based pools have no budget
+        assertEquals(-1, new PooledMemoryManager(isDirect).getOffHeapBudget());
+    }
+
     @Test
     public void testSingleBufferComplexDispose() {
         PooledMemoryManager mm =
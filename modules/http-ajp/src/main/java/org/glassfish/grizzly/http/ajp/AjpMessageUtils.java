@@ -436,6 +436,8 @@ final class AjpMessageUtils {
             // Serialize 0 num_headers
             encodedBuffer = putShort(mm, encodedBuffer, 0);
         } else {
+            httpResponsePacket.decodeEncodedHeaders();
+            
             final MimeHeaders headers = httpResponsePacket.getHeaders();
             final String contentType = httpResponsePacket.getContentType();
             if (contentType != null) {
@@ -136,6 +136,30 @@ public class BasicAjpTest extends AjpTestBase {
         Assert.assertEquals("FINE", ajpResponse.getResponseMessage());
     }
     
+    @Test
+    public void testEncodedHeaders() throws Exception {
+        startHttpServer(new HttpHandler() {
+
+            @Override
+            public void service(Request request, Response response)
+                    throws Exception {
+                response.addEncodedHeaders("X-Encoded: value\r\n".getBytes());
+                response.setStatus(200, "FINE");
+            }
+
+        });
+
+        final AjpForwardRequestPacket headersPacket =
+                new AjpForwardRequestPacket("GET", "/myresource", 80, PORT);
+        headersPacket.addHeader("Host", "localhost:80");
+        
+        send(headersPacket.toByteArray());
+        
+        final AjpResponse ajpResponse = Utils.parseResponse(readAjpMessage());
+        Assert.assertEquals(ajpResponse.getResponseMessage(), 200, ajpResponse.getResponseCode());
+        Assert.assertEquals("value", ajpResponse.getHeaders().getHeader("X-Encoded"));
+    }
+    
     /**
      * CVE-2014-0095 Denial of Service related
      * 
@@ -0,0 +1,232 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.grizzly.http.server;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * A satisfiable byte range of a static resource, as requested using the
+ * HTTP <tt>Range</tt> header (RFC 7233).
+ */
+final class ByteRange {
+
+    /**
+     * The maximum number of ranges served for a single request. Requests
+     * asking for more ranges are served the complete resource.
+     */
+    static final int MAX_RANGES = Integer.getInteger(
+            ByteRange.class.getName() + ".max-ranges", 64);
+
+    private static final String BYTES_UNIT = "bytes=";
+
+    private static final Comparator<ByteRange> START_COMPARATOR =
+            new Comparator<ByteRange>() {
+
+        @Override
+        public int compare(final ByteRange r1, final ByteRange r2) {
+            return r1.start < r2.start ? -1 : (r1.start == r2.start ? 0 : 1);
+        }
+    };
+
+    /**
+     * The first byte position, inclusive.
+     */
+    final long start;
+
+    /**
+     * The last byte position, inclusive.
+     */
+    final long end;
+
+    ByteRange(final long start, final long end) {
+        this.start = start;
+        this.end = end;
+    }
+
+    /**
+     * @return the number of bytes in this range.
+     */
+    long length() {
+        return end - start + 1;
+    }
+
+    /**
+     * Parse the value of a <tt>Range</tt> header for a resource of the given
+     * length.
+     *
+     * @param value the <tt>Range</tt> header value.
+     * @param resourceLength the length of the resource.
+     *
+     * @return <tt>null</tt> if the header is syntactically invalid, uses an
+     *         unknown unit or asks for too many ranges, in which case the
+     *         header must be ignored; an empty list if none of the ranges is
+     *         satisfiable; the satisfiable ranges otherwise, ordered and with
+     *         overlapping or adjacent ranges coalesced (RFC 7233, section 4.1),
+     *         so the ranges never add up to more than the resource length.
+     */
+    static List<ByteRange> parse(final String value, final long resourceLength) {
+        if (value == null
+                || !value.regionMatches(true, 0, BYTES_UNIT, 0, BYTES_UNIT.length())) {
+            return null;
+        }
+
+        final List<ByteRange> ranges = new ArrayList<ByteRange>(1);
+        boolean hasSpec = false;
+
+        int offset = BYTES_UNIT.length();
+        final int length = value.length();
+        while (offset <= length) {
+            int comma = value.indexOf(',', offset);
+            if (comma == -1) {
+                comma = length;
+            }
+
+            final String spec = value.substring(offset, comma).trim();
+            offset = comma + 1;
+            if (spec.isEmpty()) {
+                continue;
+            }
+            hasSpec = true;
+
+            final int dash = spec.indexOf('-');
+            if (dash == -1) {
+                return null;
+            }
+
+            final long first = parseLong(spec, 0, dash);
+            final long last = parseLong(spec, dash + 1, spec.length());
+            if (first == -2 || last == -2) {
+                return null;
+            }
+            if (first == -1) {
+                // suffix-byte-range-spec: the last N bytes
+                if (last == -1) {
+                    return null;
+                }
+                if (last > 0 && resourceLength > 0) {
+                    ranges.add(new ByteRange(
+                            Math.max(0, resourceLength - last), resourceLength - 1));
+                }
+            } else {
+                if (last != -1 && last < first) {
+                    return null;
+                }
+                if (first < resourceLength) {
+                    ranges.add(new ByteRange(first, last == -1 || last >= resourceLength
+                            ? resourceLength - 1
+                            : last));
+                }
+            }
+
+            if (ranges.size() > MAX_RANGES) {
+                return null;
+            }
+        }
+
+        if (!hasSpec) {
+            return null;
+        }
+
+        if (ranges.isEmpty()) {
+            return Collections.<ByteRange>emptyList();
+        }
+
+        return ranges.size() == 1 ? ranges : coalesce(ranges);
+    }
+
+    @Override
+    public String toString() {
+        return start + "-" + end;
+    }
+
+    // --------------------------------------------------------- Private Methods
+
+
+    /**
+     * Orders the ranges by their first byte position and merges the
+     * overlapping or adjacent ones, so for example <tt>bytes=0-,0-,0-</tt>
+     * can't be used to amplify the response.
+     */
+    private static List<ByteRange> coalesce(final List<ByteRange> ranges) {
+        Collections.sort(ranges, START_COMPARATOR);
+
+        final List<ByteRange> coalesced = new ArrayList<ByteRange>(ranges.size());
+        ByteRange current = ranges.get(0);
+        for (int i = 1; i < ranges.size(); i++) {
+            final ByteRange next = ranges.get(i);
+            if (next.start <= current.end + 1) {
+                if (next.end > current.end) {
+                    current = new ByteRange(current.start, next.end);
+                }
+            } else {
+                coalesced.add(current);
+                current = next;
+            }
+        }
+        coalesced.add(current);
+
+        return coalesced;
+    }
+
+    /**
+     * @return the non-negative decimal number in <tt>s[start, end)</tt>,
+     *         <tt>-1</tt> if it's empty and <tt>-2</tt> if it's invalid.
+     */
+    private static long parseLong(final String s, final int start, final int end) {
+        if (start == end) {
+            return -1;
+        }
+
+        long result = 0;
+        for (int i = start; i < end; i++) {
+            final char c = s.charAt(i);
+            if (c < '0' || c > '9' || result > (Long.MAX_VALUE - 9) / 10) {
+                return -2;
+            }
+            result = result * 10 + (c - '0');
+        }
+        return result;
+    }
+
+}
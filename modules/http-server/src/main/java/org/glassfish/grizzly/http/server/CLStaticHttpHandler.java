@@ -59,6 +59,7 @@ import org.glassfish.grizzly.filterchain.FilterChainContext;
 import org.glassfish.grizzly.http.Method;
 import org.glassfish.grizzly.http.server.filecache.FileCache;
 import org.glassfish.grizzly.http.io.NIOOutputStream;
+import org.glassfish.grizzly.http.util.FastHttpDateFormat;
 import org.glassfish.grizzly.http.util.Header;
 import org.glassfish.grizzly.http.util.HttpStatus;
 import org.glassfish.grizzly.memory.BufferArray;
@@ -348,7 +349,8 @@ public class CLStaticHttpHandler extends StaticHttpHandlerBase {
             final InputStream input) throws IOException {
         response.setStatus(HttpStatus.OK_200);
 
-        response.addDateHeader(Header.Date, System.currentTimeMillis());
+        FastHttpDateFormat.setCurrentDate(
+                response.getResponse().getHeaders().addValue(Header.Date));
         final int chunkSize = 8192;
         
         response.suspend();
@@ -55,6 +55,15 @@ import java.util.Arrays;
 
 
 public class CompressionEncodingFilter implements EncodingFilter {
+    /**
+     * The {@link HttpResponsePacket} attribute, which, if set to
+     * {@link Boolean#TRUE}, prevents the response from being compressed,
+     * because its representation has been negotiated already, for example
+     * by the {@link org.glassfish.grizzly.http.server.filecache.FileCache}.
+     */
+    public static final String SKIP_COMPRESSION_ATTR =
+            CompressionEncodingFilter.class.getName() + ".skip-compression";
+    
     private final CompressionConfig compressionConfig;
     private final String[] aliases;
 
@@ -172,6 +181,11 @@ public class CompressionEncodingFilter implements EncodingFilter {
             return false;
         }
 
+        if (Boolean.TRUE.equals(
+                response.getAttributes().getAttribute(SKIP_COMPRESSION_ATTR))) {
+            return false;
+        }
+
         final MimeHeaders responseHeaders = response.getHeaders();
         // Check if content is already encoded (no matter which encoding)
         final DataChunk contentEncodingMB =
@@ -37,25 +37,73 @@
  * only if the new code is made subject to such option by the copyright
  * holder.
  */
-
 package org.glassfish.grizzly.http.server;
 
-import java.util.Iterator;
-import java.util.Map;
-import java.util.Random;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Queue;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import org.glassfish.grizzly.http.Cookie;
 import org.glassfish.grizzly.http.server.util.Globals;
 import org.glassfish.grizzly.utils.DataStructures;
 
 /**
  * Default {@link SessionManager} implementation.
+ * 
+ * Sessions are kept in a number of shards, selected by the session id hash.
+ * Session expiration is tracked using a timing wheel: each session is placed
+ * into the wheel bucket, which corresponds to its expiration time, so every
+ * expirer tick checks only the sessions from the bucket, whose time has come.
+ * The sessions, which were accessed in the meantime, are moved to the bucket
+ * corresponding to their new expiration time. The sessions, which got
+ * invalidated or whose timeout got shortened, are rescheduled by the next
+ * expirer tick, so they don't wait for the bucket they were placed into.
+ * Session ids are generated by per-thread {@link SecureRandom}s, so concurrent
+ * session creation doesn't contend on a shared generator.
  */
 public class DefaultSessionManager implements SessionManager {
     
+    private static final int SHARDS_COUNT = roundUpToPowerOf2(
+            Integer.getInteger(DefaultSessionManager.class.getName() + ".shards",
+            Runtime.getRuntime().availableProcessors() * 2));
+    
+    private static final long DEFAULT_TICK_MILLIS =
+            Long.getLong(DefaultSessionManager.class.getName() + ".tick-millis", 1000);
+    
+    /**
+     * The number of the timing wheel buckets, with the default 1 second tick
+     * the wheel covers more than one hour, so sessions with the common timeouts
+     * are checked once, when they actually expire.
+     */
+    private static final int WHEEL_SIZE = 4096;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+
+    private static final SecureRandom SEED_GENERATOR = new SecureRandom();
+
+    private static final ThreadLocal<SecureRandom> ID_GENERATOR =
+            new ThreadLocal<SecureRandom>() {
+                @Override
+                protected SecureRandom initialValue() {
+                    SecureRandom rnd;
+                    try {
+                        rnd = SecureRandom.getInstance("SHA1PRNG");
+                    } catch (NoSuchAlgorithmException e) {
+                        return new SecureRandom();
+                    }
+                    
+                    final byte[] seed = new byte[20];
+                    synchronized (SEED_GENERATOR) {
+                        SEED_GENERATOR.nextBytes(seed);
+                    }
+                    rnd.setSeed(seed);
+                    return rnd;
+                }
+            };
+    
     /**
      * @return <tt>DefaultSessionManager</tt> singleton
      */
@@ -65,22 +113,28 @@ public class DefaultSessionManager implements SessionManager {
     
     // Lazy initialization of DefaultSessionManager
     private static class LazyHolder {
-        private static final DefaultSessionManager INSTANCE = new DefaultSessionManager();
+        private static final DefaultSessionManager INSTANCE =
+                new DefaultSessionManager(DEFAULT_TICK_MILLIS);
     }
     
-    /**
-     * Not Good. We need a better mechanism. TODO: Move Session Management out
-     * of here
-     */
-    private final ConcurrentMap<String, Session> sessions
-            = DataStructures.getConcurrentMap();
-
-    private final Random rnd = new Random();
+    private final Shard[] shards;
 
     private String sessionCookieName = Globals.SESSION_COOKIE_NAME;
 
+    private final long tickMillis;
+    
     /**
-     * Scheduled Thread that clean the cache every XX seconds.
+     * The timing wheel, accessed by the expirer thread only.
+     */
+    private final WheelNode[] wheel = new WheelNode[WHEEL_SIZE];
+    
+    /**
+     * The last processed timing wheel tick.
+     */
+    private long lastTick;
+    
+    /**
+     * Scheduled Thread that expires sessions every tick.
      */
     private final ScheduledThreadPoolExecutor sessionExpirer
             = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
@@ -92,30 +146,23 @@ public class DefaultSessionManager implements SessionManager {
                 }
             });
 
-    {
+    DefaultSessionManager(final long tickMillis) {
+        this.tickMillis = tickMillis;
+        
+        shards = new Shard[SHARDS_COUNT];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new Shard();
+        }
+        
+        lastTick = System.currentTimeMillis() / tickMillis;
+        
         sessionExpirer.scheduleAtFixedRate(new Runnable() {
 
             @Override
             public void run() {
-                long currentTime = System.currentTimeMillis();
-                Iterator<Map.Entry<String, Session>> iterator = sessions.entrySet().iterator();
-                Map.Entry<String, Session> entry;
-                while (iterator.hasNext()) {
-                    entry = iterator.next();
-                    final Session session = entry.getValue();
-
-                    if (!session.isValid()
-                            || (session.getSessionTimeout() > 0
-                            && currentTime - session.getTimestamp() > session.getSessionTimeout())) {
-                        session.setValid(false);
-                        iterator.remove();
-                    }
-                }
+                expire(System.currentTimeMillis());
             }
-        }, 5, 5, TimeUnit.SECONDS);
-    }
-
-    private DefaultSessionManager() {
+        }, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
     }
     
     @Override
@@ -123,9 +170,15 @@ public class DefaultSessionManager implements SessionManager {
             String requestedSessionId) {
 
         if (requestedSessionId != null) {
-            final Session session = sessions.get(requestedSessionId);
-            if (session != null && session.isValid()) {
-                return session;
+            final SessionEntry entry =
+                    shard(requestedSessionId).sessions.get(requestedSessionId);
+            if (entry != null) {
+                if (entry.session.isValid()) {
+                    return entry.session;
+                }
+                
+                // don't wait for the invalidated session's expiration time
+                evict(entry);
             }
         }
         
@@ -135,26 +188,57 @@ public class DefaultSessionManager implements SessionManager {
     
     @Override
     public Session createSession(final Request request) {
-        final Session session = new Session();
+        final ManagedSession session = new ManagedSession();
+        final SessionEntry entry = new SessionEntry(session,
+                request != null ? request.getHttpFilter() : null);
+        session.entry = entry;
         
         String requestedSessionId;
+        Shard shard;
         do {
             requestedSessionId = String.valueOf(generateRandomLong());
             session.setIdInternal(requestedSessionId);
-        } while (sessions.putIfAbsent(requestedSessionId, session) != null);
+            shard = shard(requestedSessionId);
+        } while (shard.sessions.putIfAbsent(requestedSessionId, entry) != null);
 
+        // the session will be put into the wheel by the expirer thread
+        schedule(entry);
+        
+        if (entry.filter != null) {
+            HttpServerProbeNotifier.notifySessionCreate(entry.filter, session);
+        }
+        
         return session;
     }
 
     @Override
     public String changeSessionId(final Request request, final Session session) {
         final String oldSessionId = session.getIdInternal();
-        final String newSessionId = String.valueOf(generateRandomLong());
+        final Shard oldShard = shard(oldSessionId);
+        
+        SessionEntry entry = oldShard.sessions.get(oldSessionId);
+        final boolean isNewEntry = entry == null;
+        if (isNewEntry) {
+            entry = new SessionEntry(session, null);
+        }
+        
+        String newSessionId;
+        Shard newShard;
+        do {
+            newSessionId = String.valueOf(generateRandomLong());
+            newShard = shard(newSessionId);
+        } while (newShard.sessions.putIfAbsent(newSessionId, entry) != null);
 
         session.setIdInternal(newSessionId);
+        oldShard.sessions.remove(oldSessionId, entry);
 
-        sessions.remove(oldSessionId);
-        sessions.put(newSessionId, session);
+        if (isNewEntry) {
+            schedule(entry);
+        } else if (!session.isValid()) {
+            // the session has been evicted, while we were changing the id
+            newShard.sessions.remove(newSessionId, entry);
+        }
+        
         return oldSessionId;
     }
 
@@ -176,9 +260,190 @@ public class DefaultSessionManager implements SessionManager {
     }
 
     /**
-     * Returns pseudorandom positive long value.
+     * @return the number of sessions currently managed by this
+     *          <tt>DefaultSessionManager</tt>, including invalidated sessions,
+     *          which haven't been evicted yet
+     */
+    public int getSessionsCount() {
+        int count = 0;
+        for (Shard shard : shards) {
+            count += shard.sessions.size();
+        }
+        
+        return count;
+    }
+    
+    /**
+     * Processes the timing wheel buckets up to the <tt>currentTime</tt>,
+     * evicting invalid and expired sessions.
      */
-    private long generateRandomLong() {
-        return (rnd.nextLong() & 0x7FFFFFFFFFFFFFFFL);
+    void expire(final long currentTime) {
+        final long currentTick = currentTime / tickMillis;
+        
+        // if we're late for more than a wheel revolution - check every bucket once
+        final long fromTick = Math.max(lastTick + 1, currentTick - WHEEL_MASK);
+        
+        for (long tick = fromTick; tick <= currentTick; tick++) {
+            final int idx = (int) (tick & WHEEL_MASK);
+            WheelNode node = wheel[idx];
+            wheel[idx] = null;
+            
+            while (node != null) {
+                // skip the node, if the session has been rescheduled since
+                if (node.entry.node == node) {
+                    check(node.entry, currentTime, currentTick);
+                }
+                node = node.next;
+            }
+        }
+        
+        lastTick = Math.max(lastTick, currentTick);
+        
+        for (Shard shard : shards) {
+            SessionEntry entry;
+            while ((entry = shard.newSessions.poll()) != null) {
+                entry.isScheduled.set(false);
+                check(entry, currentTime, currentTick);
+            }
+        }
+    }
+
+    void destroy() {
+        sessionExpirer.shutdownNow();
+    }
+    
+    /**
+     * Queues the session to be (re)placed into the timing wheel by the next
+     * expirer tick.
+     */
+    private void schedule(final SessionEntry entry) {
+        if (!entry.isEvicted && entry.isScheduled.compareAndSet(false, true)) {
+            shard(entry.session.getIdInternal()).newSessions.offer(entry);
+        }
+    }
+    
+    private void check(final SessionEntry entry, final long currentTime,
+            final long currentTick) {
+        if (entry.isEvicted) {
+            entry.node = null;
+            return;
+        }
+        
+        final Session session = entry.session;
+        final long timeout = session.getSessionTimeout();
+        
+        if (session.isValid()
+                && (timeout <= 0
+                || currentTime - session.getTimestamp() <= timeout)) {
+            // sessions without timeout are rechecked once per wheel revolution
+            // to evict them, if they got invalidated
+            final long expirationTick = timeout > 0
+                    ? (session.getTimestamp() + timeout) / tickMillis + 1
+                    : currentTick + WHEEL_MASK;
+            
+            final int idx = (int) (Math.min(Math.max(expirationTick, currentTick + 1),
+                    currentTick + WHEEL_MASK) & WHEEL_MASK);
+            final WheelNode node = new WheelNode(entry, wheel[idx]);
+            entry.node = node;
+            wheel[idx] = node;
+            return;
+        }
+        
+        entry.node = null;
+        entry.isEvicted = true;
+        session.setValid(false);
+        evict(entry);
+    }
+    
+    private void evict(final SessionEntry entry) {
+        entry.isEvicted = true;
+        final Session session = entry.session;
+        final String id = session.getIdInternal();
+        if (shard(id).sessions.remove(id, entry) && entry.filter != null) {
+            HttpServerProbeNotifier.notifySessionExpire(entry.filter, session);
+        }
+    }
+    
+    private Shard shard(final String id) {
+        final int h = id.hashCode();
+        return shards[(h ^ (h >>> 16)) & (shards.length - 1)];
+    }
+    
+    /**
+     * Returns random positive long value.
+     */
+    static long generateRandomLong() {
+        return (ID_GENERATOR.get().nextLong() & 0x7FFFFFFFFFFFFFFFL);
+    }
+    
+    private static int roundUpToPowerOf2(final int value) {
+        return value <= 1 ? 1 : Integer.highestOneBit(value - 1) << 1;
+    }
+    
+    private static final class Shard {
+        private final ConcurrentMap<String, SessionEntry> sessions
+                = DataStructures.getConcurrentMap();
+        
+        /**
+         * The sessions, which haven't been put into the timing wheel yet,
+         * or have to be moved to another bucket.
+         */
+        private final Queue<SessionEntry> newSessions
+                = DataStructures.getLTQInstance(SessionEntry.class);
+    }
+    
+    private static final class SessionEntry {
+        private final Session session;
+        private final HttpServerFilter filter;
+        
+        // true, if the entry is queued to be (re)placed into the timing wheel
+        private final AtomicBoolean isScheduled = new AtomicBoolean();
+        private volatile boolean isEvicted;
+        
+        // the timing wheel node the entry is currently placed in,
+        // accessed by the expirer thread only
+        private WheelNode node;
+
+        private SessionEntry(final Session session, final HttpServerFilter filter) {
+            this.session = session;
+            this.filter = filter;
+        }
+    }
+    
+    private static final class WheelNode {
+        private final SessionEntry entry;
+        // the next node in the timing wheel bucket
+        private final WheelNode next;
+
+        private WheelNode(final SessionEntry entry, final WheelNode next) {
+            this.entry = entry;
+            this.next = next;
+        }
+    }
+    
+    /**
+     * {@link Session}, which gets rescheduled, once it's invalidated or its
+     * timeout is shortened.
+     */
+    private final class ManagedSession extends Session {
+        private SessionEntry entry;
+
+        @Override
+        public void setValid(final boolean isValid) {
+            super.setValid(isValid);
+            if (!isValid && entry != null) {
+                schedule(entry);
+            }
+        }
+
+        @Override
+        public void setSessionTimeout(final long sessionTimeout) {
+            final long oldSessionTimeout = getSessionTimeout();
+            super.setSessionTimeout(sessionTimeout);
+            if (entry != null && sessionTimeout > 0
+                    && (oldSessionTimeout <= 0 || sessionTimeout < oldSessionTimeout)) {
+                schedule(entry);
+            }
+        }
     }
 }
@@ -43,6 +43,7 @@ package org.glassfish.grizzly.http.server;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -108,20 +109,24 @@ public class FileCacheFilter extends BaseFilter {
                     return flush(ctx);
                 }
 
-                // check if we can send plain or compressed data back.
-                // depends on client request headers and file cache entry
-                final boolean isServeCompressed =
-                        cacheEntry.canServeCompressed(request);
+                // check which representation, plain or encoded, we can send
+                // back. depends on client request headers and file cache entry
+                final FileCacheEntry.Variant variant =
+                        cacheEntry.getVariant(request);
                 
                 // The client doesn't have this resource cached, so
                 // we have to send entire payload
-                prepareResponseWithPayload(cacheEntry, response,
-                        isServeCompressed);
-
-                if (cacheEntry.type != CacheType.FILE) {
+                prepareResponseWithPayload(cacheEntry, response, variant);
+
+                final ByteBuffer bb = variant != null
+                        ? variant.getByteBuffer()
+                        : cacheEntry.type != CacheType.FILE
+                            ? cacheEntry.getByteBuffer(false)
+                            : null;
+                if (bb != null) {
                     // the payload is available in a ByteBuffer
                     final Buffer buffer = Buffers.wrap(ctx.getMemoryManager(),
-                            cacheEntry.getByteBuffer(isServeCompressed).duplicate());
+                            bb.duplicate());
 
                     ctx.write(HttpContent.builder(response)
                             .content(buffer)
@@ -131,11 +136,15 @@ public class FileCacheFilter extends BaseFilter {
                     return flush(ctx);
                 }
                 
+                final File file = variant != null
+                        ? variant.getFile()
+                        : cacheEntry.getFile(false);
+                final long size = variant != null
+                        ? variant.getFileSize()
+                        : cacheEntry.getFileSize(false);
                 return fileCache.isFileSendEnabled() && !request.isSecure()
-                        ? sendFileZeroCopy(ctx, response, cacheEntry,
-                            isServeCompressed)
-                        : sendFileUsingBuffers(ctx, response, cacheEntry,
-                            isServeCompressed);
+                        ? sendFileZeroCopy(ctx, response, file, size)
+                        : sendFileUsingBuffers(ctx, response, file, size);
             }
         }
 
@@ -157,6 +166,10 @@ public class FileCacheFilter extends BaseFilter {
         if (entry.server != null) {
             response.addHeader(Header.Server, entry.server);
         }
+
+        if (entry.hasVariants()) {
+            response.addHeader(Header.Vary, Header.AcceptEncoding.toString());
+        }
     }
     
     
@@ -164,25 +177,33 @@ public class FileCacheFilter extends BaseFilter {
      * Prepare response with payload headers.
      */
     private void prepareResponseWithPayload(final FileCacheEntry entry,
-            final HttpResponsePacket response, final boolean isServeCompressed)
-            throws IOException {
-        response.addHeader(Header.ETag, entry.Etag);
+            final HttpResponsePacket response,
+            final FileCacheEntry.Variant variant) throws IOException {
         response.addHeader(Header.LastModified, entry.lastModifiedHeader);
 
-        response.setContentLengthLong(entry.getFileSize(isServeCompressed));
-        
-        if (isServeCompressed) {
-            response.addHeader(Header.ContentEncoding, "gzip");
+        if (variant != null) {
+            response.addHeader(Header.ETag, variant.getETag());
+            response.setContentLengthLong(variant.getFileSize());
+            response.addHeader(Header.ContentEncoding, variant.getEncoding());
+        } else {
+            response.addHeader(Header.ETag, entry.Etag);
+            response.setContentLengthLong(entry.getFileSize(false));
+            if (entry.hasVariants()) {
+                // the plain representation has been negotiated,
+                // so don't compress it on the fly
+                response.getAttributes().setAttribute(
+                        CompressionEncodingFilter.SKIP_COMPRESSION_ATTR,
+                        Boolean.TRUE);
+            }
         }
     }
 
     private NextAction sendFileUsingBuffers(final FilterChainContext ctx,
-            final HttpResponsePacket response, final FileCacheEntry cacheEntry,
-            final boolean isServeCompressed) {
+            final HttpResponsePacket response, final File file,
+            final long size) {
         try {
             final FileSendEntry sendEntry = FileSendEntry.create(ctx, response,
-                    cacheEntry.getFile(isServeCompressed),
-                    cacheEntry.getFileSize(isServeCompressed));
+                    file, size);
             
             ctx.suspend();
             sendEntry.send();
@@ -195,21 +216,19 @@ public class FileCacheFilter extends BaseFilter {
     }
     
     private NextAction sendFileZeroCopy(final FilterChainContext ctx,
-            final HttpResponsePacket response, final FileCacheEntry cacheEntry,
-            final boolean isServeCompressed) {
+            final HttpResponsePacket response, final File file,
+            final long size) {
         
         // flush response
         ctx.write(response);
 
         // send-file
-        final FileTransfer f = new FileTransfer(
-                cacheEntry.getFile(isServeCompressed),
-                0, cacheEntry.getFileSize(isServeCompressed));
+        final FileTransfer f = new FileTransfer(file, 0, size);
         ctx.write(f, new EmptyCompletionHandler<WriteResult>() {
             @Override
             public void failed(Throwable throwable) {
-                LOGGER.log(Level.FINE, "Error reported during file-send entry: " +
-                        cacheEntry, throwable);
+                LOGGER.log(Level.FINE, "Error reported during file-send: " +
+                        file, throwable);
             }
         });
 
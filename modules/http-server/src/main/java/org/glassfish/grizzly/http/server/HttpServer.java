@@ -690,6 +690,8 @@ public class HttpServer {
             final FileCacheFilter fileCacheFilter = new FileCacheFilter(fileCache);
             fileCache.getMonitoringConfig().addProbes(
                     serverConfig.getMonitoringConfig().getFileCacheConfig().getProbes());
+            fileCache.getEntryMonitoringConfig().addProbes(
+                    serverConfig.getMonitoringConfig().getFileCacheEntryConfig().getProbes());
             builder.add(fileCacheFilter);
 
             final ServerFilterConfiguration config = new ServerFilterConfiguration(serverConfig);
@@ -723,6 +725,8 @@ public class HttpServer {
             
             httpServerFilter.getMonitoringConfig().addProbes(
                     serverConfig.getMonitoringConfig().getWebServerConfig().getProbes());
+            httpServerFilter.getSessionMonitoringConfig().addProbes(
+                    serverConfig.getMonitoringConfig().getSessionConfig().getProbes());
 
             builder.add(httpServerFilter);
 
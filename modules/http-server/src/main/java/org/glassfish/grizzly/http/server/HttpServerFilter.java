@@ -138,6 +138,12 @@ public class HttpServerFilter extends BaseFilter
 
             };
 
+    /**
+     * Session probes
+     */
+    protected final DefaultMonitoringConfig<SessionProbe> sessionMonitoringConfig =
+            new DefaultMonitoringConfig<SessionProbe>(SessionProbe.class);
+
 
     // ------------------------------------------------------------ Constructors
 
@@ -326,6 +332,14 @@ public class HttpServerFilter extends BaseFilter
         return monitoringConfig;
     }
 
+    /**
+     * @return the monitoring configuration for the {@link Session}s created
+     *  by the requests processed by this filter.
+     */
+    public MonitoringConfig<SessionProbe> getSessionMonitoringConfig() {
+        return sessionMonitoringConfig;
+    }
+
     /**
      * Method, which might be optionally called to prepare the filter for
      * shutdown.
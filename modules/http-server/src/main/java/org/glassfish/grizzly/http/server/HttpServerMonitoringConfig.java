@@ -43,6 +43,7 @@ package org.glassfish.grizzly.http.server;
 import org.glassfish.grizzly.ConnectionProbe;
 import org.glassfish.grizzly.TransportProbe;
 import org.glassfish.grizzly.http.HttpProbe;
+import org.glassfish.grizzly.http.server.filecache.FileCacheEntryProbe;
 import org.glassfish.grizzly.http.server.filecache.FileCacheProbe;
 import org.glassfish.grizzly.memory.MemoryProbe;
 import org.glassfish.grizzly.monitoring.MonitoringConfig;
@@ -70,12 +71,18 @@ public final class HttpServerMonitoringConfig {
     private final DefaultMonitoringConfig<FileCacheProbe> fileCacheConfig =
             new DefaultMonitoringConfig<FileCacheProbe>(FileCacheProbe.class);
 
+    private final DefaultMonitoringConfig<FileCacheEntryProbe> fileCacheEntryConfig =
+            new DefaultMonitoringConfig<FileCacheEntryProbe>(FileCacheEntryProbe.class);
+
     private final DefaultMonitoringConfig<HttpProbe> httpConfig =
             new DefaultMonitoringConfig<HttpProbe>(HttpProbe.class);
 
     private final DefaultMonitoringConfig<HttpServerProbe> webServerConfig =
             new DefaultMonitoringConfig<HttpServerProbe>(HttpServerProbe.class);
 
+    private final DefaultMonitoringConfig<SessionProbe> sessionConfig =
+            new DefaultMonitoringConfig<SessionProbe>(SessionProbe.class);
+
     /**
      * Get the memory monitoring config.
      *
@@ -121,6 +128,15 @@ public final class HttpServerMonitoringConfig {
         return fileCacheConfig;
     }
 
+    /**
+     * Get the file cache entry monitoring config.
+     *
+     * @return the file cache entry monitoring config.
+     */
+    public MonitoringConfig<FileCacheEntryProbe> getFileCacheEntryConfig() {
+        return fileCacheEntryConfig;
+    }
+
     /**
      * Get the http monitoring config.
      *
@@ -138,4 +154,13 @@ public final class HttpServerMonitoringConfig {
     public MonitoringConfig<HttpServerProbe> getWebServerConfig() {
         return webServerConfig;
     }
+
+    /**
+     * Get the session monitoring config.
+     *
+     * @return the session monitoring config.
+     */
+    public MonitoringConfig<SessionProbe> getSessionConfig() {
+        return sessionConfig;
+    }
 }
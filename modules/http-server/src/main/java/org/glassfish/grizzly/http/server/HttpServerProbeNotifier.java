@@ -177,4 +177,38 @@ final class HttpServerProbeNotifier {
             }
         }
     }    
+
+    /**
+     * Notify registered {@link SessionProbe}s about the "session created" event.
+     *
+     * @param filter {@link HttpServerFilter}, the event belongs to.
+     * @param session {@link Session}.
+     */
+    static void notifySessionCreate(final HttpServerFilter filter,
+            final Session session) {
+
+        final SessionProbe[] probes = filter.sessionMonitoringConfig.getProbesUnsafe();
+        if (probes != null) {
+            for (SessionProbe probe : probes) {
+                probe.onSessionCreateEvent(filter, session);
+            }
+        }
+    }
+
+    /**
+     * Notify registered {@link SessionProbe}s about the "session expired" event.
+     *
+     * @param filter {@link HttpServerFilter}, the event belongs to.
+     * @param session {@link Session}.
+     */
+    static void notifySessionExpire(final HttpServerFilter filter,
+            final Session session) {
+
+        final SessionProbe[] probes = filter.sessionMonitoringConfig.getProbesUnsafe();
+        if (probes != null) {
+            for (SessionProbe probe : probes) {
+                probe.onSessionExpireEvent(filter, session);
+            }
+        }
+    }
 }
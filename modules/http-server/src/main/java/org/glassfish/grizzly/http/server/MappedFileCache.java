@@ -0,0 +1,185 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.grizzly.http.server;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.glassfish.grizzly.Grizzly;
+
+/**
+ * Bounded, LRU cache of read-only {@link MappedByteBuffer}s of medium sized
+ * static files, shared by all the connections serving them.
+ *
+ * A mapping is reused as long as the file's length and last modification time
+ * don't change; modifying a mapped file in place while it's being served
+ * is not supported.
+ *
+ * Evicted mappings are not unmapped explicitly: connections may still be
+ * writing the buffers they obtained, and accessing an unmapped buffer crashes
+ * the JVM. An evicted mapping is released only once its buffer is garbage
+ * collected, so the capacity bounds the mappings retained by the cache, but
+ * the process address space used by the mappings may temporarily exceed it.
+ */
+final class MappedFileCache {
+    private static final Logger LOGGER = Grizzly.logger(MappedFileCache.class);
+
+    private final long minFileSize;
+    private final long maxFileSize;
+    private final long capacity;
+
+    /* Guarded by this */
+    private final LinkedHashMap<String, Entry> entries =
+            new LinkedHashMap<String, Entry>(16, 0.75f, true);
+    private long size;
+
+    /**
+     * @param minFileSize the minimum size of the files to map.
+     * @param maxFileSize the maximum size of the files to map.
+     * @param capacity the maximum total size of the mapped files,
+     *                 <tt>0</tt> disables mapping.
+     */
+    MappedFileCache(final long minFileSize, final long maxFileSize,
+            final long capacity) {
+        this.minFileSize = minFileSize;
+        this.maxFileSize = Math.min(maxFileSize, Integer.MAX_VALUE);
+        this.capacity = capacity;
+    }
+
+    /**
+     * @return <tt>true</tt> if files of the given length are mapped.
+     */
+    boolean isMappable(final long length) {
+        return length >= minFileSize && length <= maxFileSize
+                && length <= capacity;
+    }
+
+    /**
+     * Return a read-only {@link ByteBuffer} over the whole content of the
+     * file, mapping it if needed, or <tt>null</tt> if the file can't be mapped.
+     */
+    ByteBuffer get(final File file, final long length, final long lastModified) {
+        if (!isMappable(length)) {
+            return null;
+        }
+
+        final String key = file.getPath();
+        synchronized (this) {
+            final Entry entry = entries.get(key);
+            if (entry != null) {
+                if (entry.length == length && entry.lastModified == lastModified) {
+                    return entry.buffer.duplicate();
+                }
+                remove(key);
+            }
+        }
+
+        final MappedByteBuffer buffer;
+        try {
+            buffer = map(file, length);
+        } catch (IOException e) {
+            LOGGER.log(Level.FINE, "Unable to map " + file, e);
+            return null;
+        }
+
+        synchronized (this) {
+            if (!entries.containsKey(key)) {
+                entries.put(key, new Entry(buffer, length, lastModified));
+                size += length;
+                evict();
+            }
+        }
+        return buffer.duplicate();
+    }
+
+    // --------------------------------------------------------- Private Methods
+
+
+    private static MappedByteBuffer map(final File file, final long length)
+            throws IOException {
+        final RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            // the mapping stays valid after the channel is closed
+            return raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, length);
+        } finally {
+            raf.close();
+        }
+    }
+
+    private void remove(final String key) {
+        final Entry entry = entries.remove(key);
+        if (entry != null) {
+            size -= entry.length;
+        }
+    }
+
+    private void evict() {
+        final Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        while (size > capacity && it.hasNext()) {
+            size -= it.next().getValue().length;
+            it.remove();
+        }
+    }
+
+    // ---------------------------------------------------------- Nested Classes
+
+
+    private static final class Entry {
+        private final ByteBuffer buffer;
+        private final long length;
+        private final long lastModified;
+
+        Entry(final ByteBuffer buffer, final long length, final long lastModified) {
+            this.buffer = buffer;
+            this.length = length;
+            this.lastModified = lastModified;
+        }
+    }
+
+}
@@ -0,0 +1,768 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.grizzly.http.server;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.glassfish.grizzly.Grizzly;
+import org.glassfish.grizzly.http.Cookie;
+import org.glassfish.grizzly.http.server.util.Globals;
+
+/**
+ * {@link SessionManager} implementation, which keeps only a bounded number of
+ * recently used {@link Session}s on heap and stores the rest serialized in an
+ * off-heap arena, either a direct {@link java.nio.ByteBuffer} or a memory-mapped
+ * file. So the heap footprint doesn't depend on the number of sessions, except
+ * for a small id index entry per session.
+ * 
+ * A {@link Session} is serialized into the arena, when it's evicted from the
+ * heap cache, and deserialized back, when it's requested again, so only
+ * {@link Serializable} attributes survive the eviction. The changes made to
+ * an evicted {@link Session} instance, which is still referenced by a request
+ * being processed, are lost, so the cache size has to be bigger than the
+ * number of sessions used concurrently. The heap cache is split into
+ * independently locked stripes and the sessions are (de)serialized outside
+ * of any lock, so only the arena copy itself is serialized between threads.
+ * 
+ * Only the attributes of the {@link #setAllowedAttributeTypes(java.lang.Class[])
+ * allowed types} are stored, the class of every object read back from the
+ * arena is checked against the same list. By default only strings, numbers,
+ * dates, enums and primitive arrays are allowed. Every attribute is
+ * serialized separately, so an attribute, which can't be stored or restored,
+ * is dropped without affecting the rest of the session.
+ * 
+ * If the arena is full, the evicted sessions are kept on heap, until there is
+ * free space in the arena again.
+ * 
+ * When the arena is backed by a file, the sessions survive the process restart,
+ * provided {@link #flush()} or {@link #close()} was called to store the cached
+ * sessions.
+ * 
+ * Note: a memory-mapped arena has to be closed using {@link #close()}, when
+ * it's not needed anymore.
+ */
+public class OffHeapSessionManager implements SessionManager {
+    private static final Logger LOGGER = Grizzly.logger(OffHeapSessionManager.class);
+    
+    private static final long EXPIRER_PERIOD_SECONDS = 5;
+    
+    private static final int MAX_STRIPES = 16;
+    private static final int MIN_STRIPE_SIZE = 64;
+    
+    /**
+     * The max number of arena records checked by the expirer at once,
+     * while holding the arena lock.
+     */
+    private static final int EXPIRE_BATCH_SIZE = 256;
+    
+    private static final Class<?>[] DEFAULT_ALLOWED_TYPES = {
+        String.class, Boolean.class, Character.class, Number.class,
+        BigInteger.class, BigDecimal.class, Date.class, Enum.class
+    };
+    
+    private final SessionArena arena;
+    
+    private final Stripe[] stripes;
+    
+    /**
+     * The sessions evicted from the heap cache, which are not stored in the
+     * arena yet, or couldn't be stored, because the arena is full.
+     */
+    private final ConcurrentHashMap<String, Session> evicted =
+            new ConcurrentHashMap<String, Session>();
+    
+    private volatile Class<?>[] allowedAttributeTypes = DEFAULT_ALLOWED_TYPES;
+    
+    private volatile boolean isArenaFull;
+    private volatile boolean isArenaFullReported;
+    
+    private String sessionCookieName = Globals.SESSION_COOKIE_NAME;
+    
+    /**
+     * Scheduled Thread that expires sessions every 5 seconds.
+     */
+    private final ScheduledThreadPoolExecutor sessionExpirer
+            = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable r) {
+                    final Thread t = new Thread(r, "Grizzly-OffHeapSession-Expirer");
+                    t.setDaemon(true);
+                    return t;
+                }
+            });
+    
+    /**
+     * Creates <tt>OffHeapSessionManager</tt>, which stores sessions in
+     * a direct {@link java.nio.ByteBuffer}.
+     * 
+     * @param cacheSize the max number of sessions kept on heap
+     * @param arenaSize the off-heap arena size in bytes
+     */
+    public OffHeapSessionManager(final int cacheSize, final int arenaSize) {
+        this(cacheSize, new SessionArena(arenaSize));
+    }
+
+    /**
+     * Creates <tt>OffHeapSessionManager</tt>, which stores sessions in
+     * a memory-mapped file. If the file contains sessions stored by another
+     * <tt>OffHeapSessionManager</tt> - the sessions are restored.
+     * 
+     * @param cacheSize the max number of sessions kept on heap
+     * @param file the file to be mapped
+     * @param arenaSize the min arena size in bytes, if the existing file is
+     *                  bigger - the entire file is mapped
+     * @throws IOException if the file couldn't be mapped
+     */
+    public OffHeapSessionManager(final int cacheSize, final File file,
+            final int arenaSize) throws IOException {
+        this(cacheSize, new SessionArena(file, arenaSize));
+    }
+    
+    private OffHeapSessionManager(final int cacheSize, final SessionArena arena) {
+        if (cacheSize <= 0) {
+            throw new IllegalArgumentException("Cache size has to be positive");
+        }
+        
+        this.arena = arena;
+        
+        final int stripesCount = Integer.highestOneBit(
+                Math.max(1, Math.min(MAX_STRIPES, cacheSize / MIN_STRIPE_SIZE)));
+        stripes = new Stripe[stripesCount];
+        for (int i = 0; i < stripesCount; i++) {
+            stripes[i] = new Stripe((cacheSize + stripesCount - 1) / stripesCount);
+        }
+        
+        sessionExpirer.scheduleAtFixedRate(new Runnable() {
+
+            @Override
+            public void run() {
+                expire(System.currentTimeMillis());
+            }
+        }, EXPIRER_PERIOD_SECONDS, EXPIRER_PERIOD_SECONDS, TimeUnit.SECONDS);
+    }
+    
+    /**
+     * @return the session attribute types, which are stored in the arena
+     */
+    public Class<?>[] getAllowedAttributeTypes() {
+        return Arrays.copyOf(allowedAttributeTypes, allowedAttributeTypes.length);
+    }
+
+    /**
+     * Sets the session attribute types, in addition to strings, numbers,
+     * dates, enums and primitive arrays, which are stored in the arena.
+     * The attribute values of other types are dropped, when the session is
+     * evicted from the heap cache. The objects read back from the arena,
+     * including the ones referenced by the attribute values, have to be
+     * of the allowed types or their subtypes, otherwise the attribute is
+     * dropped. The serializable superclasses of the allowed types have to be
+     * allowed as well.
+     * 
+     * @param types the allowed attribute types
+     */
+    public void setAllowedAttributeTypes(final Class<?>... types) {
+        final Class<?>[] allowed = Arrays.copyOf(DEFAULT_ALLOWED_TYPES,
+                DEFAULT_ALLOWED_TYPES.length + types.length);
+        System.arraycopy(types, 0, allowed, DEFAULT_ALLOWED_TYPES.length,
+                types.length);
+        allowedAttributeTypes = allowed;
+    }
+    
+    @Override
+    public Session getSession(final Request request,
+            final String requestedSessionId) {
+        if (requestedSessionId == null) {
+            return null;
+        }
+        
+        final Stripe stripe = stripe(requestedSessionId);
+        Session session;
+        synchronized (stripe) {
+            session = stripe.get(requestedSessionId);
+        }
+        
+        if (session == null) {
+            session = evicted.get(requestedSessionId);
+            if (session == null) {
+                session = load(requestedSessionId);
+                if (session == null) {
+                    return null;
+                }
+            }
+            
+            session = cache(stripe, session);
+        }
+        
+        if (!session.isValid()) {
+            remove(requestedSessionId);
+            return null;
+        }
+        
+        return session;
+    }
+
+    @Override
+    public Session createSession(final Request request) {
+        final Session session = new Session();
+        session.setIdInternal(generateSessionId());
+        cache(stripe(session.getIdInternal()), session);
+        
+        return session;
+    }
+
+    @Override
+    public String changeSessionId(final Request request,
+            final Session session) {
+        final String oldSessionId = session.getIdInternal();
+        remove(oldSessionId);
+        
+        session.setIdInternal(generateSessionId());
+        cache(stripe(session.getIdInternal()), session);
+        
+        return oldSessionId;
+    }
+
+    @Override
+    public void configureSessionCookie(final Request request,
+            final Cookie cookie) {
+    }
+
+    @Override
+    public void setSessionCookieName(final String name) {
+        if (name != null && !name.isEmpty()) {
+            sessionCookieName = name;
+        }
+    }
+
+    @Override
+    public String getSessionCookieName() {
+        return sessionCookieName;
+    }
+    
+    /**
+     * @return the number of sessions currently managed by this
+     *          <tt>OffHeapSessionManager</tt>
+     */
+    public int getSessionsCount() {
+        final Set<String> heapIds = heapSessionIds();
+        synchronized (arena) {
+            int count = arena.size();
+            for (String id : heapIds) {
+                if (!arena.contains(id)) {
+                    count++;
+                }
+            }
+
+            return count;
+        }
+    }
+    
+    /**
+     * Stores all the cached sessions into the arena and, if the arena is
+     * file-backed, flushes it to the file.
+     */
+    public void flush() {
+        for (Session session : heapSessions()) {
+            store(session);
+        }
+        
+        synchronized (arena) {
+            arena.force();
+        }
+    }
+    
+    /**
+     * Flushes the cached sessions and releases the arena. The
+     * <tt>OffHeapSessionManager</tt> can't be used after this call.
+     * 
+     * @throws IOException if the arena file couldn't be closed
+     */
+    public void close() throws IOException {
+        sessionExpirer.shutdownNow();
+        flush();
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                stripe.clear();
+            }
+        }
+        evicted.clear();
+        
+        synchronized (arena) {
+            arena.close();
+        }
+    }
+
+    /**
+     * Evicts invalid and expired sessions.
+     */
+    void expire(final long currentTime) {
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                for (Iterator<Session> it = stripe.values().iterator(); it.hasNext(); ) {
+                    final Session session = it.next();
+                    if (isExpired(session, currentTime)) {
+                        session.setValid(false);
+                        it.remove();
+                        removeFromArena(session.getIdInternal());
+                    }
+                }
+            }
+        }
+        
+        for (Iterator<Session> it = evicted.values().iterator(); it.hasNext(); ) {
+            final Session session = it.next();
+            if (isExpired(session, currentTime)) {
+                session.setValid(false);
+                it.remove();
+                removeFromArena(session.getIdInternal());
+            }
+        }
+        
+        // scan the arena in batches to not block the request threads
+        // for the whole scan
+        final Set<String> heapIds = heapSessionIds();
+        int offset = SessionArena.FIRST_RECORD_OFFSET;
+        int compactionsCount = -1;
+        while (offset != -1) {
+            synchronized (arena) {
+                if (compactionsCount == -1) {
+                    compactionsCount = arena.getCompactionsCount();
+                } else if (compactionsCount != arena.getCompactionsCount()) {
+                    // the records have been moved, the rest of the arena
+                    // will be checked by the next run
+                    break;
+                }
+                
+                offset = arena.expire(currentTime, heapIds, offset,
+                        EXPIRE_BATCH_SIZE);
+            }
+        }
+        
+        if (isArenaFull) {
+            // try to store the sessions, which didn't fit the arena
+            for (Session session : new ArrayList<Session>(evicted.values())) {
+                store(session);
+            }
+        }
+    }
+    
+    private Stripe stripe(final String id) {
+        final int h = id.hashCode();
+        return stripes[(h ^ (h >>> 16)) & (stripes.length - 1)];
+    }
+    
+    /**
+     * Puts the session to the heap cache, unless the cache already contains
+     * another instance of the same session, and stores the evicted session
+     * into the arena.
+     * 
+     * @return the cached session instance
+     */
+    private Session cache(final Stripe stripe, final Session session) {
+        final String id = session.getIdInternal();
+        final Session cached;
+        final Session eldest;
+        synchronized (stripe) {
+            final Session existing = stripe.get(id);
+            if (existing != null) {
+                return existing;
+            }
+            
+            stripe.put(id, session);
+            cached = session;
+            eldest = stripe.eldest;
+            stripe.eldest = null;
+        }
+        
+        evicted.remove(id, session);
+        
+        if (eldest != null) {
+            store(eldest);
+        }
+        
+        return cached;
+    }
+    
+    private void remove(final String id) {
+        final Stripe stripe = stripe(id);
+        synchronized (stripe) {
+            stripe.remove(id);
+        }
+        
+        evicted.remove(id);
+        removeFromArena(id);
+    }
+    
+    private void removeFromArena(final String id) {
+        synchronized (arena) {
+            arena.remove(id);
+        }
+    }
+    
+    private List<Session> heapSessions() {
+        final List<Session> sessions = new ArrayList<Session>();
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                sessions.addAll(stripe.values());
+            }
+        }
+        sessions.addAll(evicted.values());
+        
+        return sessions;
+    }
+    
+    private Set<String> heapSessionIds() {
+        final Set<String> ids = new HashSet<String>();
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                ids.addAll(stripe.keySet());
+            }
+        }
+        ids.addAll(evicted.keySet());
+        
+        return ids;
+    }
+    
+    private String generateSessionId() {
+        String id;
+        do {
+            id = String.valueOf(DefaultSessionManager.generateRandomLong());
+        } while (contains(id));
+        
+        return id;
+    }
+    
+    private boolean contains(final String id) {
+        final Stripe stripe = stripe(id);
+        synchronized (stripe) {
+            if (stripe.containsKey(id)) {
+                return true;
+            }
+        }
+        
+        if (evicted.containsKey(id)) {
+            return true;
+        }
+        
+        synchronized (arena) {
+            return arena.contains(id);
+        }
+    }
+    
+    /**
+     * Serializes the session and copies it into the arena. If the arena is
+     * full, the session is kept in the {@link #evicted} map.
+     * 
+     * The payload is the number of the stored attributes followed by the
+     * attributes, each one is the name and the length-prefixed serialized
+     * value.
+     */
+    private void store(final Session session) {
+        final String id = session.getIdInternal();
+        if (!session.isValid()) {
+            evicted.remove(id, session);
+            removeFromArena(id);
+            return;
+        }
+        
+        final PayloadOutputStream payloadStream = new PayloadOutputStream();
+        try {
+            final Map<String, Object> attributes = session.attributes();
+            final Map<String, byte[]> storable =
+                    new LinkedHashMap<String, byte[]>(attributes.size() * 2);
+            for (Map.Entry<String, Object> entry : attributes.entrySet()) {
+                final Object value = entry.getValue();
+                if (value instanceof Serializable
+                        && isAllowedType(value.getClass())) {
+                    try {
+                        storable.put(entry.getKey(), serialize(value));
+                    } catch (IOException e) {
+                        LOGGER.log(Level.WARNING, "Can not serialize session "
+                                + id + " attribute " + entry.getKey()
+                                + ", it will be lost", e);
+                    }
+                } else {
+                    LOGGER.log(Level.WARNING,
+                            "Session {0} attribute {1} is not serializable"
+                            + " or not of an allowed type and will be lost",
+                            new Object[] {id, entry.getKey()});
+                }
+            }
+            
+            final DataOutputStream dos = new DataOutputStream(payloadStream);
+            dos.writeInt(storable.size());
+            for (Map.Entry<String, byte[]> entry : storable.entrySet()) {
+                dos.writeUTF(entry.getKey());
+                dos.writeInt(entry.getValue().length);
+                dos.write(entry.getValue());
+            }
+            dos.close();
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Can not serialize session " + id, e);
+            evicted.remove(id, session);
+            removeFromArena(id);
+            return;
+        }
+        
+        final boolean isStored;
+        synchronized (arena) {
+            isStored = arena.put(id, session.getCreationTime(),
+                    session.getTimestamp(), session.getSessionTimeout(),
+                    payloadStream.getBuffer(), payloadStream.size());
+        }
+        
+        if (isStored) {
+            evicted.remove(id, session);
+            isArenaFull = false;
+        } else {
+            isArenaFull = true;
+            if (!isArenaFullReported) {
+                isArenaFullReported = true;
+                LOGGER.log(Level.WARNING,
+                        "Session arena is full, evicted sessions are kept on heap");
+            } else if (LOGGER.isLoggable(Level.FINE)) {
+                LOGGER.log(Level.FINE,
+                        "Session arena is full, session {0} is kept on heap", id);
+            }
+        }
+    }
+    
+    private Session load(final String id) {
+        final Session session;
+        final byte[] payload;
+        synchronized (arena) {
+            final int offset = arena.find(id);
+            if (offset == -1) {
+                return null;
+            }
+
+            session = new Session(id, arena.getCreationTime(offset));
+            session.setTimestamp(arena.getTimestamp(offset));
+            session.setSessionTimeout(arena.getTimeout(offset));
+
+            if (isExpired(session, System.currentTimeMillis())) {
+                arena.remove(id);
+                return null;
+            }
+            
+            // copy the payload, the record may be moved by the compaction
+            final ByteBuffer payloadBuffer = arena.getPayload(offset);
+            payload = new byte[payloadBuffer.remaining()];
+            payloadBuffer.get(payload);
+        }
+        
+        try {
+            final DataInputStream dis = new DataInputStream(
+                    new ByteArrayInputStream(payload));
+            for (int i = dis.readInt(); i > 0; i--) {
+                final String name = dis.readUTF();
+                final byte[] value = new byte[dis.readInt()];
+                dis.readFully(value);
+                
+                try {
+                    session.setAttribute(name, deserialize(value));
+                } catch (Exception e) {
+                    LOGGER.log(Level.WARNING, "Can not deserialize session "
+                            + id + " attribute " + name + ", it will be lost", e);
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Can not deserialize session " + id, e);
+            removeFromArena(id);
+            return null;
+        }
+        
+        return session;
+    }
+    
+    private static byte[] serialize(final Object value) throws IOException {
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream(256);
+        final ObjectOutputStream oos = new ObjectOutputStream(baos);
+        oos.writeObject(value);
+        oos.close();
+        
+        return baos.toByteArray();
+    }
+    
+    private Object deserialize(final byte[] value)
+            throws IOException, ClassNotFoundException {
+        final ObjectInputStream ois = new SessionObjectInputStream(
+                new ByteArrayInputStream(value));
+        try {
+            return ois.readObject();
+        } finally {
+            ois.close();
+        }
+    }
+    
+    private boolean isAllowedType(final Class<?> type) {
+        if (type.isArray()) {
+            return isAllowedType(type.getComponentType());
+        }
+        
+        if (type.isPrimitive()) {
+            return true;
+        }
+        
+        for (Class<?> allowedType : allowedAttributeTypes) {
+            if (allowedType.isAssignableFrom(type)) {
+                return true;
+            }
+        }
+        
+        return false;
+    }
+    
+    private static boolean isExpired(final Session session, final long currentTime) {
+        return !session.isValid()
+                || (session.getSessionTimeout() > 0
+                && currentTime - session.getTimestamp() > session.getSessionTimeout());
+    }
+    
+    /**
+     * A heap cache stripe: LRU map, which keeps the last evicted session
+     * to be stored by the caller outside of the lock.
+     */
+    private final class Stripe extends LinkedHashMap<String, Session> {
+        private static final long serialVersionUID = 1L;
+        
+        private final int maxSize;
+        private Session eldest;
+
+        private Stripe(final int maxSize) {
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+        }
+        
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, Session> entry) {
+            if (size() > maxSize) {
+                eldest = entry.getValue();
+                // keep the session reachable, until it's stored
+                evicted.put(entry.getKey(), eldest);
+                return true;
+            }
+            
+            return false;
+        }
+    }
+    
+    private static final class PayloadOutputStream extends ByteArrayOutputStream {
+        private PayloadOutputStream() {
+            super(1024);
+        }
+
+        private byte[] getBuffer() {
+            return buf;
+        }
+    }
+    
+    /**
+     * Resolves the attribute classes using the thread context class loader
+     * first, so application classes can be restored, and rejects the classes,
+     * which are not of the allowed attribute types.
+     */
+    private final class SessionObjectInputStream extends ObjectInputStream {
+
+        private SessionObjectInputStream(final InputStream in) throws IOException {
+            super(in);
+        }
+
+        @Override
+        protected Class<?> resolveClass(final ObjectStreamClass desc)
+                throws IOException, ClassNotFoundException {
+            Class<?> clazz = null;
+            final ClassLoader cl = Thread.currentThread().getContextClassLoader();
+            if (cl != null) {
+                try {
+                    clazz = Class.forName(desc.getName(), false, cl);
+                } catch (ClassNotFoundException ignored) {
+                }
+            }
+            
+            if (clazz == null) {
+                clazz = super.resolveClass(desc);
+            }
+            
+            if (!isAllowedType(clazz)) {
+                throw new InvalidClassException(desc.getName(),
+                        "not an allowed session attribute type");
+            }
+            
+            return clazz;
+        }
+
+        @Override
+        protected Class<?> resolveProxyClass(final String[] interfaces)
+                throws IOException, ClassNotFoundException {
+            throw new InvalidClassException("Proxy classes are not allowed: "
+                    + Arrays.toString(interfaces));
+        }
+    }
+}
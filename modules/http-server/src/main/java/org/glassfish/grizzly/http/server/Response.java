@@ -76,6 +76,7 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import org.glassfish.grizzly.Buffer;
 import org.glassfish.grizzly.CloseListener;
 import org.glassfish.grizzly.CloseType;
 import org.glassfish.grizzly.Closeable;
@@ -1210,6 +1211,34 @@ public class Response {
         response.addHeader(header, value);
     }
 
+    /**
+     * Add the block of pre-encoded header lines, which will be serialized
+     * as it is, see {@link HttpResponsePacket#addEncodedHeaders(byte[])}.
+     *
+     * @param headers the pre-encoded header lines
+     */
+    public void addEncodedHeaders(final byte[] headers) {
+        checkResponse();
+        if (isCommitted())
+            return;
+
+        response.addEncodedHeaders(headers);
+    }
+
+    /**
+     * Add the block of pre-encoded header lines, which will be serialized
+     * as it is, see {@link HttpResponsePacket#addEncodedHeaders(Buffer)}.
+     *
+     * @param headers the pre-encoded header lines
+     */
+    public void addEncodedHeaders(final Buffer headers) {
+        checkResponse();
+        if (isCommitted())
+            return;
+
+        response.addEncodedHeaders(headers);
+    }
+
     /**
      * Add the specified header to the specified value.
      *
@@ -104,6 +104,18 @@ public class Session {
         creationTime = timestamp = System.currentTimeMillis();
     }
 
+    /**
+     * Create a session, which has been restored from a persistent storage.
+     * @param id session identifier
+     * @param creationTime the time the session was originally created
+     */
+    protected Session(String id, long creationTime) {
+        this.id = id;
+        this.creationTime = creationTime;
+        timestamp = System.currentTimeMillis();
+        isNew = false;
+    }
+
 
     /**
      * Is the current Session valid?
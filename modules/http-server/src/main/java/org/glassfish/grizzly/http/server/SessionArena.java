@@ -0,0 +1,382 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.grizzly.http.server;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Append-only storage of serialized {@link Session} records, kept in a
+ * direct or memory-mapped {@link ByteBuffer}.
+ * 
+ * Every record is appended at the end of the arena, the replaced and removed
+ * records are marked dead and their space is reclaimed by compaction, once
+ * the arena gets full. When the arena is backed by a file, the stored records
+ * are recovered, when the arena is opened next time.
+ * 
+ * The arena is not thread-safe.
+ */
+final class SessionArena {
+    private static final int MAGIC = 0x47534131;
+    
+    // magic, write position
+    private static final int HEADER_SIZE = 8;
+    private static final int WRITE_POSITION_OFFSET = 4;
+    
+    // length, state, creation time, timestamp, timeout, id length
+    private static final int RECORD_HEADER_SIZE = 4 + 1 + 8 + 8 + 8 + 2;
+    private static final int STATE_OFFSET = 4;
+    private static final int CREATION_TIME_OFFSET = 5;
+    private static final int TIMESTAMP_OFFSET = 13;
+    private static final int TIMEOUT_OFFSET = 21;
+    private static final int ID_LENGTH_OFFSET = 29;
+    
+    private static final byte DEAD = 0;
+    private static final byte LIVE = 1;
+    
+    /**
+     * The offset of the first record in the arena.
+     */
+    static final int FIRST_RECORD_OFFSET = HEADER_SIZE;
+    
+    private final ByteBuffer buffer;
+    private final FileChannel fileChannel;
+    
+    /**
+     * session id -> record offset.
+     */
+    private final Map<String, Integer> index = new HashMap<String, Integer>();
+    
+    private int writePosition;
+    private int deadBytes;
+    
+    /**
+     * The number of compactions, which moved the records, so far.
+     */
+    private int compactionsCount;
+
+    SessionArena(final int size) {
+        checkSize(size);
+        buffer = ByteBuffer.allocateDirect(size);
+        fileChannel = null;
+        init();
+    }
+    
+    SessionArena(final File file, final int size) throws IOException {
+        checkSize(size);
+        
+        final RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            fileChannel = raf.getChannel();
+            final boolean isExisting = raf.length() >= HEADER_SIZE;
+            buffer = fileChannel.map(FileChannel.MapMode.READ_WRITE, 0,
+                    Math.max(size, isExisting ? raf.length() : 0));
+            
+            if (isExisting && buffer.getInt(0) == MAGIC) {
+                recover();
+            } else {
+                init();
+            }
+        } catch (IOException e) {
+            raf.close();
+            throw e;
+        }
+    }
+
+    int size() {
+        return index.size();
+    }
+    
+    /**
+     * @return the number of compactions so far. The record offsets obtained
+     *          before a compaction are not valid after it.
+     */
+    int getCompactionsCount() {
+        return compactionsCount;
+    }
+    
+    boolean contains(final String id) {
+        return index.containsKey(id);
+    }
+
+    /**
+     * @return the offset of the session record, or <tt>-1</tt> if there is
+     *          no record for the session
+     */
+    int find(final String id) {
+        final Integer offset = index.get(id);
+        return offset != null ? offset : -1;
+    }
+    
+    long getCreationTime(final int offset) {
+        return buffer.getLong(offset + CREATION_TIME_OFFSET);
+    }
+
+    long getTimestamp(final int offset) {
+        return buffer.getLong(offset + TIMESTAMP_OFFSET);
+    }
+
+    long getTimeout(final int offset) {
+        return buffer.getLong(offset + TIMEOUT_OFFSET);
+    }
+    
+    /**
+     * @return read-only {@link ByteBuffer} view of the record payload
+     */
+    ByteBuffer getPayload(final int offset) {
+        final int start = offset + RECORD_HEADER_SIZE
+                + buffer.getShort(offset + ID_LENGTH_OFFSET);
+        final ByteBuffer payload = buffer.asReadOnlyBuffer();
+        payload.limit(offset + buffer.getInt(offset)).position(start);
+        return payload;
+    }
+    
+    /**
+     * Stores the session record, replacing the existing one.
+     * 
+     * @return <tt>false</tt>, if there is not enough space in the arena,
+     *          in this case the existing session record is removed
+     */
+    boolean put(final String id, final long creationTime,
+            final long timestamp, final long timeout,
+            final byte[] payload, final int payloadLength) {
+        remove(id);
+        
+        final int idLength = id.length();
+        final int recordLength = RECORD_HEADER_SIZE + idLength + payloadLength;
+        if (writePosition + recordLength > buffer.capacity()) {
+            if (deadBytes > 0) {
+                compact();
+            }
+            
+            if (writePosition + recordLength > buffer.capacity()) {
+                return false;
+            }
+        }
+        
+        final int offset = writePosition;
+        buffer.putInt(offset, recordLength);
+        buffer.put(offset + STATE_OFFSET, LIVE);
+        buffer.putLong(offset + CREATION_TIME_OFFSET, creationTime);
+        buffer.putLong(offset + TIMESTAMP_OFFSET, timestamp);
+        buffer.putLong(offset + TIMEOUT_OFFSET, timeout);
+        buffer.putShort(offset + ID_LENGTH_OFFSET, (short) idLength);
+        
+        int pos = offset + RECORD_HEADER_SIZE;
+        for (int i = 0; i < idLength; i++) {
+            buffer.put(pos++, (byte) id.charAt(i));
+        }
+        
+        final ByteBuffer dst = buffer.duplicate();
+        dst.position(pos);
+        dst.put(payload, 0, payloadLength);
+        
+        index.put(id, offset);
+        // update the write position, when the record is completely written
+        setWritePosition(offset + recordLength);
+        
+        return true;
+    }
+
+    /**
+     * Removes the session record.
+     * 
+     * @return <tt>true</tt>, if the record has been removed
+     */
+    boolean remove(final String id) {
+        final Integer offset = index.remove(id);
+        if (offset == null) {
+            return false;
+        }
+        
+        buffer.put(offset + STATE_OFFSET, DEAD);
+        deadBytes += buffer.getInt(offset);
+        return true;
+    }
+    
+    /**
+     * Removes the records of the sessions expired by the <tt>currentTime</tt>,
+     * checking at most <tt>maxRecords</tt> records starting from the
+     * <tt>fromOffset</tt>, so the arena could be scanned in batches.
+     * 
+     * @param currentTime the current time
+     * @param excludedIds the ids of the sessions, which shouldn't be checked
+     * @param fromOffset the offset of the first record to check, either
+     *          {@link #FIRST_RECORD_OFFSET} or the value returned by the
+     *          previous call, if there was no compaction since
+     * @param maxRecords the max number of records to check
+     * @return the offset to continue from, or <tt>-1</tt>, if all the records
+     *          have been checked
+     */
+    int expire(final long currentTime, final Collection<String> excludedIds,
+            final int fromOffset, final int maxRecords) {
+        int offset = fromOffset;
+        for (int i = 0; i < maxRecords && offset < writePosition; i++) {
+            if (buffer.get(offset + STATE_OFFSET) == LIVE) {
+                final long timeout = getTimeout(offset);
+                if (timeout > 0 && currentTime - getTimestamp(offset) > timeout) {
+                    final String id = readId(offset);
+                    if (!excludedIds.contains(id)) {
+                        remove(id);
+                    }
+                }
+            }
+            
+            offset += buffer.getInt(offset);
+        }
+        
+        return offset < writePosition ? offset : -1;
+    }
+    
+    /**
+     * Flushes the arena content to the file, if the arena is file-backed.
+     */
+    void force() {
+        if (fileChannel != null) {
+            ((MappedByteBuffer) buffer).force();
+        }
+    }
+    
+    void close() throws IOException {
+        force();
+        if (fileChannel != null) {
+            fileChannel.close();
+        }
+    }
+    
+    private void init() {
+        buffer.putInt(0, MAGIC);
+        setWritePosition(HEADER_SIZE);
+    }
+    
+    private void recover() {
+        final int storedWritePosition = buffer.getInt(WRITE_POSITION_OFFSET);
+        final int limit = storedWritePosition >= HEADER_SIZE
+                && storedWritePosition <= buffer.capacity()
+                ? storedWritePosition
+                : HEADER_SIZE;
+        
+        int offset = HEADER_SIZE;
+        while (offset < limit) {
+            final int recordLength = buffer.getInt(offset);
+            if (recordLength < RECORD_HEADER_SIZE || offset + recordLength > limit) {
+                // broken record - drop it and everything after it
+                break;
+            }
+            
+            if (buffer.get(offset + STATE_OFFSET) == LIVE) {
+                index.put(readId(offset), offset);
+            } else {
+                deadBytes += recordLength;
+            }
+            
+            offset += recordLength;
+        }
+        
+        setWritePosition(offset);
+    }
+    
+    /**
+     * Moves the live records to the beginning of the arena.
+     */
+    private void compact() {
+        byte[] tmp = null;
+        int dstOffset = HEADER_SIZE;
+        
+        for (int offset = HEADER_SIZE; offset < writePosition; ) {
+            final int recordLength = buffer.getInt(offset);
+            
+            if (buffer.get(offset + STATE_OFFSET) == LIVE) {
+                if (dstOffset != offset) {
+                    if (tmp == null || tmp.length < recordLength) {
+                        tmp = new byte[recordLength];
+                    }
+                    
+                    final ByteBuffer src = buffer.duplicate();
+                    src.position(offset);
+                    src.get(tmp, 0, recordLength);
+                    
+                    final ByteBuffer dst = buffer.duplicate();
+                    dst.position(dstOffset);
+                    dst.put(tmp, 0, recordLength);
+                    
+                    index.put(readId(dstOffset), dstOffset);
+                }
+                
+                dstOffset += recordLength;
+            }
+            
+            offset += recordLength;
+        }
+        
+        deadBytes = 0;
+        compactionsCount++;
+        setWritePosition(dstOffset);
+    }
+    
+    private String readId(final int offset) {
+        final int idLength = buffer.getShort(offset + ID_LENGTH_OFFSET);
+        final char[] chars = new char[idLength];
+        final int start = offset + RECORD_HEADER_SIZE;
+        for (int i = 0; i < idLength; i++) {
+            chars[i] = (char) (buffer.get(start + i) & 0xFF);
+        }
+        
+        return new String(chars);
+    }
+    
+    private void setWritePosition(final int writePosition) {
+        this.writePosition = writePosition;
+        buffer.putInt(WRITE_POSITION_OFFSET, writePosition);
+    }
+    
+    private static void checkSize(final int size) {
+        if (size < HEADER_SIZE + RECORD_HEADER_SIZE) {
+            throw new IllegalArgumentException("Arena size is too small: " + size);
+        }
+    }
+}
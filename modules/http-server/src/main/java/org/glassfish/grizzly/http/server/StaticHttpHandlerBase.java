@@ -44,7 +44,10 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.glassfish.grizzly.Buffer;
@@ -57,10 +60,12 @@ import org.glassfish.grizzly.http.server.filecache.FileCache;
 import org.glassfish.grizzly.http.io.NIOOutputStream;
 import org.glassfish.grizzly.http.io.OutputBuffer;
 import org.glassfish.grizzly.http.util.MimeType;
+import org.glassfish.grizzly.http.util.FastHttpDateFormat;
 import org.glassfish.grizzly.http.util.Header;
 import org.glassfish.grizzly.http.util.HttpStatus;
 import org.glassfish.grizzly.memory.Buffers;
 import org.glassfish.grizzly.memory.MemoryManager;
+import org.glassfish.grizzly.utils.Charsets;
 
 /**
  * The basic class for {@link HttpHandler} implementations,
@@ -72,6 +77,26 @@ import org.glassfish.grizzly.memory.MemoryManager;
 public abstract class StaticHttpHandlerBase extends HttpHandler {
     private static final Logger LOGGER = Grizzly.logger(StaticHttpHandlerBase.class);
 
+    /**
+     * The size of the chunks static content is written in, when it isn't
+     * sent using sendfile.
+     */
+    private static final int CHUNK_SIZE = Integer.getInteger(
+            StaticHttpHandlerBase.class.getName() + ".chunk-size", 64 * 1024);
+
+    /**
+     * Shared read-only mappings of medium sized files, used when files can't
+     * be sent using sendfile. The cache size limits the retained mappings,
+     * evicted ones are released by the garbage collector.
+     */
+    private static final MappedFileCache MAPPED_FILES = new MappedFileCache(
+            Long.getLong(StaticHttpHandlerBase.class.getName() + ".mapped-min-size",
+                    64 * 1024),
+            Long.getLong(StaticHttpHandlerBase.class.getName() + ".mapped-max-size",
+                    16 * 1024 * 1024),
+            Long.getLong(StaticHttpHandlerBase.class.getName() + ".mapped-cache-size",
+                    256L * 1024 * 1024));
+
     private volatile int fileCacheFilterIdx = -1;
     
     private volatile boolean isFileCacheEnabled = true;
@@ -113,6 +138,21 @@ public abstract class StaticHttpHandlerBase extends HttpHandler {
         this.isFileCacheEnabled = isFileCacheEnabled;
     }
     
+    /**
+     * Send the given file to the client, honoring the request's <tt>Range</tt>
+     * and <tt>If-Range</tt> headers.
+     *
+     * Over plain connections, with sendfile enabled, the file (or a single
+     * requested range) is transferred using
+     * {@link FileChannel#transferTo(long, long, java.nio.channels.WritableByteChannel)}.
+     * Otherwise, and for multiple ranges, the content is written in chunks
+     * sliced from a shared read-only mapping of the file, if its size is in
+     * the mapped range, or read from the file.
+     *
+     * @param response the {@link Response}
+     * @param file the {@link File} to send
+     * @throws IOException if an error occurs sending the file
+     */
     public static void sendFile(final Response response, final File file)
             throws IOException {
         response.setStatus(HttpStatus.OK_200);
@@ -121,33 +161,139 @@ public abstract class StaticHttpHandlerBase extends HttpHandler {
         pickupContentType(response, file.getPath());
 
         final long length = file.length();
-        response.setContentLengthLong(length);
-        response.addDateHeader(Header.Date, System.currentTimeMillis());
-        if (!response.isSendFileEnabled() || response.getRequest().isSecure()) {
-            sendUsingBuffers(response, file);
+        final long lastModified = file.lastModified();
+        FastHttpDateFormat.setCurrentDate(
+                response.getResponse().getHeaders().addValue(Header.Date));
+        response.setHeader(Header.AcceptRanges, "bytes");
+        if (!response.containsHeader(Header.ETag)) {
+            addCachingHeaders(response, file);
+        }
+
+        final List<ByteRange> ranges = getRanges(response.getRequest(),
+                length, lastModified);
+        if (ranges != null && ranges.isEmpty()) {
+            response.setStatus(HttpStatus.REQUEST_RANGE_NOT_SATISFIABLE_416);
+            response.setHeader(Header.ContentRange, "bytes */" + length);
+            response.setContentLengthLong(0);
+            return;
+        }
+
+        final boolean isZeroCopy = response.isSendFileEnabled()
+                && !response.getRequest().isSecure();
+
+        if (ranges == null) {
+            response.setContentLengthLong(length);
+            if (isZeroCopy) {
+                sendZeroCopy(response, file, 0, length);
+            } else {
+                sendUsingBuffers(response, file, length, lastModified,
+                        length == 0
+                                ? new Object[0]
+                                : new Object[] {new ByteRange(0, length - 1)});
+            }
+        } else if (ranges.size() == 1) {
+            final ByteRange range = ranges.get(0);
+            response.setStatus(HttpStatus.PARTIAL_CONTENT_206);
+            response.setHeader(Header.ContentRange,
+                    "bytes " + range + '/' + length);
+            response.setContentLengthLong(range.length());
+            if (isZeroCopy) {
+                sendZeroCopy(response, file, range.start, range.length());
+            } else {
+                sendUsingBuffers(response, file, length, lastModified,
+                        new Object[] {range});
+            }
         } else {
-            sendZeroCopy(response, file);
+            response.setStatus(HttpStatus.PARTIAL_CONTENT_206);
+            sendUsingBuffers(response, file, length, lastModified,
+                    multipartPieces(response, ranges, length));
         }
     }
 
-    private static void sendUsingBuffers(final Response response, final File file)
-            throws FileNotFoundException, IOException {
-        final int chunkSize = 8192;
-        
+    /**
+     * Returns the ranges requested by the {@link Request}, <tt>null</tt> if the
+     * complete resource has to be sent, or an empty list if none of the
+     * requested ranges is satisfiable.
+     */
+    private static List<ByteRange> getRanges(final Request request,
+            final long length, final long lastModified) {
+        final String range = request.getHeader(Header.Range);
+        if (range == null) {
+            return null;
+        }
+
+        final String ifRange = request.getHeader(Header.IfRange);
+        if (ifRange != null) {
+            if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+                // weak entity tags never match
+                if (!ifRange.equals(getETag(length, lastModified))) {
+                    return null;
+                }
+            } else if (FastHttpDateFormat.parseDate(ifRange, null)
+                    != (lastModified / 1000) * 1000) {
+                return null;
+            }
+        }
+
+        return ByteRange.parse(range, length);
+    }
+
+    /**
+     * Prepares the multipart/byteranges response for the given ranges,
+     * returning the parts headers interleaved with the ranges.
+     */
+    private static Object[] multipartPieces(final Response response,
+            final List<ByteRange> ranges, final long length) {
+        final String boundary = Long.toHexString(
+                ThreadLocalRandom.current().nextLong());
+        final String contentType = response.getContentType();
+
+        final Object[] pieces = new Object[ranges.size() * 2 + 1];
+        long contentLength = 0;
+        int i = 0;
+        for (ByteRange range : ranges) {
+            final StringBuilder sb = new StringBuilder(128);
+            sb.append("\r\n--").append(boundary).append("\r\n");
+            if (contentType != null) {
+                sb.append(Header.ContentType).append(": ")
+                        .append(contentType).append("\r\n");
+            }
+            sb.append(Header.ContentRange).append(": bytes ")
+                    .append(range).append('/').append(length).append("\r\n\r\n");
+
+            final byte[] partHeader = sb.toString().getBytes(Charsets.ASCII_CHARSET);
+            pieces[i++] = partHeader;
+            pieces[i++] = range;
+            contentLength += partHeader.length + range.length();
+        }
+        final byte[] trailer = ("\r\n--" + boundary + "--\r\n")
+                .getBytes(Charsets.ASCII_CHARSET);
+        pieces[i] = trailer;
+        contentLength += trailer.length;
+
+        response.setContentType("multipart/byteranges; boundary=" + boundary);
+        response.setContentLengthLong(contentLength);
+        return pieces;
+    }
+
+    private static void sendUsingBuffers(final Response response,
+            final File file, final long length, final long lastModified,
+            final Object[] pieces) throws IOException {
+
         response.suspend();
         
         final NIOOutputStream outputStream = response.getNIOOutputStream();
         
         outputStream.notifyCanWrite(
                 new NonBlockingDownloadHandler(response, outputStream,
-                        file, chunkSize));
+                        file, length, lastModified, pieces, CHUNK_SIZE));
 
     }
 
-    private static void sendZeroCopy(final Response response, final File file)
-            throws IOException {
+    private static void sendZeroCopy(final Response response, final File file,
+            final long offset, final long length) throws IOException {
         final OutputBuffer outputBuffer = response.getOutputBuffer();
-        outputBuffer.sendfile(file, null);
+        outputBuffer.sendfile(file, offset, length, null);
     }
 
     public final boolean addToFileCache(final Request req,
@@ -290,43 +436,55 @@ public abstract class StaticHttpHandlerBase extends HttpHandler {
 
     protected static void addCachingHeaders(final Response response,
                                           final File file) {
-        final StringBuilder sb = new StringBuilder();
-
         final long fileLength = file.length();
         final long lastModified = file.lastModified();
         if ((fileLength >= 0) || (lastModified >= 0)) {
-            sb.append('"').append(fileLength).append('-').
-                    append(lastModified).append('"');
-            response.setHeader(Header.ETag, sb.toString());
+            response.setHeader(Header.ETag, getETag(fileLength, lastModified));
         }
         response.addDateHeader(Header.LastModified, lastModified);
 
     }
+
+    private static String getETag(final long fileLength, final long lastModified) {
+        return new StringBuilder().append('"').append(fileLength).append('-').
+                append(lastModified).append('"').toString();
+    }
     
     private static class NonBlockingDownloadHandler implements WriteHandler {
-        // keep the remaining size
-        private volatile long size;
-        
         private final Response response;
         private final NIOOutputStream outputStream;
-        private final FileChannel fileChannel;
         private final MemoryManager mm;
         private final int chunkSize;
+
+        // the content source: either a shared mapping of the file, or its channel
+        private final ByteBuffer mappedFile;
+        private final FileChannel fileChannel;
+
+        // byte[] part headers and the ByteRanges to send
+        private final Object[] pieces;
+        private int pieceIdx;
+        // the position of the next byte to send in the current range, or -1
+        private long position = -1;
         
         NonBlockingDownloadHandler(final Response response,
                 final NIOOutputStream outputStream, final File file,
-                final int chunkSize) {
+                final long length, final long lastModified,
+                final Object[] pieces, final int chunkSize) {
             
-            try {
-                fileChannel = new FileInputStream(file).getChannel();
-            } catch (FileNotFoundException e) {
-                throw new IllegalStateException("File should have existed", e);
+            mappedFile = MAPPED_FILES.get(file, length, lastModified);
+            if (mappedFile == null) {
+                try {
+                    fileChannel = new FileInputStream(file).getChannel();
+                } catch (FileNotFoundException e) {
+                    throw new IllegalStateException("File should have existed", e);
+                }
+            } else {
+                fileChannel = null;
             }
             
-            size = file.length();
-            
             this.response = response;
             this.outputStream = outputStream;
+            this.pieces = pieces;
             mm = response.getRequest().getContext().getMemoryManager();
             this.chunkSize = chunkSize;
         }
@@ -351,48 +509,83 @@ public abstract class StaticHttpHandlerBase extends HttpHandler {
         }
 
         /**
-         * Send next CHUNK_SIZE of file
+         * Send the next part header(s) and the next CHUNK_SIZE of the
+         * current range
          */
         private boolean sendChunk() throws IOException {
-            // allocate Buffer
-            final Buffer buffer = mm.allocate(chunkSize);
-            // mark it available for disposal after content is written
-            buffer.allowBufferDispose(true);
-
-            // read file to the Buffer
-            final int justReadBytes = (int) Buffers.readFromFileChannel(
-                    fileChannel, buffer);
-            
-            if (justReadBytes <= 0) {
-                complete(false);
-                return false;
-            }
+            while (pieceIdx < pieces.length) {
+                final Object piece = pieces[pieceIdx];
+                if (piece instanceof byte[]) {
+                    outputStream.write((byte[]) piece);
+                    pieceIdx++;
+                    continue;
+                }
+
+                final ByteRange range = (ByteRange) piece;
+                if (position == -1) {
+                    position = range.start;
+                    if (fileChannel != null) {
+                        fileChannel.position(position);
+                    }
+                }
+
+                final int chunk = (int) Math.min(chunkSize, range.end + 1 - position);
+                final Buffer buffer;
+                if (mappedFile != null) {
+                    // slice the shared mapping, no copy is made
+                    final ByteBuffer slice = mappedFile.duplicate();
+                    slice.limit((int) position + chunk).position((int) position);
+                    buffer = Buffers.wrap(mm, slice.slice());
+                    buffer.allowBufferDispose(false);
+                } else {
+                    // allocate Buffer
+                    buffer = mm.allocate(chunk);
+                    // mark it available for disposal after content is written
+                    buffer.allowBufferDispose(true);
+
+                    // read file to the Buffer
+                    final int justReadBytes = (int) Buffers.readFromFileChannel(
+                            fileChannel, buffer);
+                    if (justReadBytes <= 0) {
+                        buffer.dispose();
+                        complete(false);
+                        return false;
+                    }
+
+                    // prepare buffer to be written
+                    buffer.trim();
+                }
 
-            // prepare buffer to be written
-            buffer.trim();
+                position += buffer.remaining();
+                if (position > range.end) {
+                    pieceIdx++;
+                    position = -1;
+                }
 
-            // write the Buffer
-            outputStream.write(buffer);
-            size -= justReadBytes;
+                // write the Buffer
+                outputStream.write(buffer);
 
-            // check the remaining size here to avoid extra onWritePossible() invocation
-            if (size <= 0) {
-                complete(false);
-                return false;
+                // check the remaining pieces here to avoid extra onWritePossible() invocation
+                if (pieceIdx < pieces.length) {
+                    return true;
+                }
             }
 
-            return true;
+            complete(false);
+            return false;
         }
 
         /**
          * Complete the download
          */
         private void complete(final boolean isError) {
-            try {
-                fileChannel.close();
-            } catch (IOException e) {
-                if (!isError) {
-                    response.setStatus(500, e.getMessage());
+            if (fileChannel != null) {
+                try {
+                    fileChannel.close();
+                } catch (IOException e) {
+                    if (!isError) {
+                        response.setStatus(500, e.getMessage());
+                    }
                 }
             }
 
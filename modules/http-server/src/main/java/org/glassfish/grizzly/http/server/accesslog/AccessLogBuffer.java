@@ -0,0 +1,270 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.grizzly.http.server.accesslog;
+
+import java.util.Arrays;
+
+import org.glassfish.grizzly.Buffer;
+import org.glassfish.grizzly.http.util.BufferChunk;
+import org.glassfish.grizzly.http.util.ByteChunk;
+import org.glassfish.grizzly.http.util.CharChunk;
+import org.glassfish.grizzly.http.util.DataChunk;
+import org.glassfish.grizzly.utils.Charsets;
+
+/**
+ * A growable byte buffer {@linkplain BinaryAccessLogFormat binary formats}
+ * encode access log entries into.
+ *
+ * <p>Characters are encoded as UTF-8, without creating intermediate
+ * {@link String}s or byte arrays, so the same buffer can be reused to encode
+ * any number of entries without allocations.</p>
+ */
+public final class AccessLogBuffer {
+
+    /* The default initial capacity */
+    private static final int DEFAULT_CAPACITY = 512;
+
+    /* Our bytes */
+    private byte[] bytes;
+    /* The number of bytes in the buffer */
+    private int length;
+
+    /**
+     * Create a new {@link AccessLogBuffer} with the default capacity.
+     */
+    public AccessLogBuffer() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Create a new {@link AccessLogBuffer} with the specified initial capacity.
+     */
+    public AccessLogBuffer(int capacity) {
+        if (capacity < 1) throw new IllegalArgumentException("Capacity must be positive");
+        bytes = new byte[capacity];
+    }
+
+    /**
+     * Return the array holding the bytes of this buffer, starting at
+     * offset <code>0</code>.
+     */
+    public byte[] array() {
+        return bytes;
+    }
+
+    /**
+     * Return the number of bytes in this buffer.
+     */
+    public int length() {
+        return length;
+    }
+
+    /**
+     * Discard the content of this buffer.
+     */
+    public AccessLogBuffer reset() {
+        length = 0;
+        return this;
+    }
+
+    /**
+     * Append the specified byte.
+     */
+    public AccessLogBuffer append(byte b) {
+        ensureCapacity(1);
+        bytes[length ++] = b;
+        return this;
+    }
+
+    /**
+     * Append the specified bytes.
+     */
+    public AccessLogBuffer append(byte[] src, int offset, int count) {
+        ensureCapacity(count);
+        System.arraycopy(src, offset, bytes, length, count);
+        length += count;
+        return this;
+    }
+
+    /**
+     * Append the specified character, encoded as UTF-8.
+     */
+    public AccessLogBuffer append(char c) {
+        if (c < 0x80) {
+            ensureCapacity(1);
+            bytes[length ++] = (byte) c;
+        } else if (c < 0x800) {
+            ensureCapacity(2);
+            bytes[length ++] = (byte) (0xC0 | (c >> 6));
+            bytes[length ++] = (byte) (0x80 | (c & 0x3F));
+        } else if (Character.isSurrogate(c)) {
+            /* Unpaired surrogate, pairs are handled by append(CharSequence) */
+            append((byte) '?');
+        } else {
+            ensureCapacity(3);
+            bytes[length ++] = (byte) (0xE0 | (c >> 12));
+            bytes[length ++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+            bytes[length ++] = (byte) (0x80 | (c & 0x3F));
+        }
+        return this;
+    }
+
+    /**
+     * Append the specified {@link CharSequence}, encoded as UTF-8.
+     */
+    public AccessLogBuffer append(CharSequence chars) {
+        return append(chars, 0, chars.length());
+    }
+
+    /**
+     * Append the specified {@link CharSequence} region, encoded as UTF-8.
+     */
+    public AccessLogBuffer append(CharSequence chars, int start, int end) {
+        for (int x = start; x < end; x ++) {
+            final char c = chars.charAt(x);
+            if (Character.isHighSurrogate(c) && (x + 1 < end)
+                    && Character.isLowSurrogate(chars.charAt(x + 1))) {
+                appendCodePoint(Character.toCodePoint(c, chars.charAt(++ x)));
+            } else {
+                append(c);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Append the specified characters, encoded as UTF-8.
+     */
+    public AccessLogBuffer append(char[] chars, int start, int end) {
+        for (int x = start; x < end; x ++) {
+            final char c = chars[x];
+            if (Character.isHighSurrogate(c) && (x + 1 < end)
+                    && Character.isLowSurrogate(chars[x + 1])) {
+                appendCodePoint(Character.toCodePoint(c, chars[++ x]));
+            } else {
+                append(c);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Append the decimal representation of the specified number.
+     */
+    public AccessLogBuffer append(long number) {
+        if (number == Long.MIN_VALUE) return append("-9223372036854775808");
+
+        if (number < 0) {
+            append((byte) '-');
+            number = -number;
+        }
+
+        int digits = 1;
+        for (long n = number; n >= 10; n /= 10) digits ++;
+
+        ensureCapacity(digits);
+        for (int x = length + digits - 1; x >= length; x --) {
+            bytes[x] = (byte) ('0' + (number % 10));
+            number /= 10;
+        }
+        length += digits;
+        return this;
+    }
+
+    /**
+     * Append the content of the specified {@link DataChunk}; bytes are
+     * appended as they are, characters are encoded as UTF-8.
+     */
+    public AccessLogBuffer append(DataChunk chunk) {
+        switch (chunk.getType()) {
+            case Bytes: {
+                final ByteChunk byteChunk = chunk.getByteChunk();
+                return append(byteChunk.getBuffer(), byteChunk.getStart(),
+                        byteChunk.getEnd() - byteChunk.getStart());
+            }
+            case Buffer: {
+                final BufferChunk bufferChunk = chunk.getBufferChunk();
+                final Buffer buffer = bufferChunk.getBuffer();
+                final int count = bufferChunk.getEnd() - bufferChunk.getStart();
+                ensureCapacity(count);
+                final int position = buffer.position();
+                try {
+                    buffer.position(bufferChunk.getStart());
+                    buffer.get(bytes, length, count);
+                } finally {
+                    buffer.position(position);
+                }
+                length += count;
+                return this;
+            }
+            case Chars: {
+                final CharChunk charChunk = chunk.getCharChunk();
+                return append(charChunk.getBuffer(), charChunk.getStart(),
+                        charChunk.getEnd());
+            }
+            case String: {
+                return append(chunk.toString());
+            }
+            default:
+                return this;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return new String(bytes, 0, length, Charsets.UTF8_CHARSET);
+    }
+
+    /* ====================================================================== */
+
+    private void appendCodePoint(int codePoint) {
+        ensureCapacity(4);
+        bytes[length ++] = (byte) (0xF0 | (codePoint >> 18));
+        bytes[length ++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+        bytes[length ++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+        bytes[length ++] = (byte) (0x80 | (codePoint & 0x3F));
+    }
+
+    private void ensureCapacity(int count) {
+        if (length + count > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length << 1, length + count));
+        }
+    }
+}
@@ -72,6 +72,10 @@ public class AccessLogBuilder {
     private String rotationPattern;
     /* Non-synchronous, always use a Queue+Thread */
     private boolean synchronous;
+    /* Ring buffer capacity, zero if we use the String-based pipeline */
+    private int ringBufferCapacity;
+    /* What to do when the ring buffer is full */
+    private RingBufferAppender.OverflowPolicy overflowPolicy;
 
     /* The base file name of the access log */
     private final File file;
@@ -102,6 +106,8 @@ public class AccessLogBuilder {
      * configuration} to provide access logging.
      */
     public AccessLogProbe build() {
+        if (ringBufferCapacity > 0) return buildBinary();
+
         /* Build an appender, plain or rotating */
         AccessLogAppender appender;
         try {
@@ -159,6 +165,28 @@ public class AccessLogBuilder {
         return serverConfiguration;
     }
 
+    /**
+     * Build an {@link AccessLogProbe} writing the binary records of the
+     * {@link BinaryAccessLogFormat} into a {@link RingBufferAppender}.
+     */
+    private AccessLogProbe buildBinary() {
+        if (rotationPattern != null) {
+            throw new IllegalStateException("Rotation is not supported by the ring buffer appender");
+        }
+        if (!(format instanceof BinaryAccessLogFormat)) {
+            throw new IllegalStateException("Binary encoding is not supported by " + format.getClass().getName());
+        }
+
+        final BinaryAccessLogAppender appender;
+        try {
+            appender = new RingBufferAppender(file.getCanonicalFile(), ringBufferCapacity, overflowPolicy);
+        } catch (IOException exception) {
+            throw new IllegalStateException("I/O error creating acces log", exception);
+        }
+
+        return new AccessLogProbe(appender, (BinaryAccessLogFormat) format, statusThreshold);
+    }
+
     /**
      * Set the {@link AccessLogFormat} instance that will be used by the
      * access logs configured by this instance.
@@ -268,4 +296,21 @@ public class AccessLogBuilder {
         this.synchronous = synchronous;
         return this;
     }
+
+    /**
+     * Encode access log entries directly into bytes and write them to the
+     * log file through a bounded {@link RingBufferAppender} of the specified
+     * capacity (in bytes), instead of the default {@link String}-based
+     * pipeline.
+     *
+     * <p>The configured format must be a {@link BinaryAccessLogFormat} (all
+     * {@link ApacheLogFormat}s are), and rotation is not supported.</p>
+     */
+    public AccessLogBuilder ringBuffer(int capacity, RingBufferAppender.OverflowPolicy policy) {
+        if (policy == null) throw new NullPointerException("Null overflow policy");
+        if (capacity < 1) throw new IllegalArgumentException("Capacity must be positive");
+        this.ringBufferCapacity = capacity;
+        this.overflowPolicy = policy;
+        return this;
+    }
 }
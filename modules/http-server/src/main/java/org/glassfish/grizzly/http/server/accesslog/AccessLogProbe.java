@@ -43,6 +43,7 @@ package org.glassfish.grizzly.http.server.accesslog;
 import static java.util.logging.Level.WARNING;
 
 import java.util.Date;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Logger;
 
 import org.glassfish.grizzly.Connection;
@@ -73,12 +74,26 @@ public class AccessLogProbe extends HttpServerProbe.Adapter {
     /* Our logger, for eventualities */
     private static final Logger LOGGER = Grizzly.logger(HttpServer.class);
 
+    /* Per-thread buffers binary entries are encoded into */
+    private static final ThreadLocal<AccessLogBuffer> BUFFERS = new ThreadLocal<AccessLogBuffer>() {
+        @Override
+        protected AccessLogBuffer initialValue() {
+            return new AccessLogBuffer();
+        }
+    };
+
     /* The appender to send formatted data to */
     private final AccessLogAppender appender;
     /* The format to format data to log */
     private final AccessLogFormat format;
+    /* The appender to send binary entries to */
+    private final BinaryAccessLogAppender binaryAppender;
+    /* The format to encode binary entries */
+    private final BinaryAccessLogFormat binaryFormat;
     /* The minimum status threshold */
     private final int statusThreshold;
+    /* The number of dropped binary entries */
+    private final AtomicLong dropped = new AtomicLong();
 
     /**
      * Create a new {@link AccessLogProbe} formatting data with the specified
@@ -103,9 +118,50 @@ public class AccessLogProbe extends HttpServerProbe.Adapter {
         if (format == null) throw new NullPointerException("Null format");
         this.appender = appender;
         this.format = format;
+        this.binaryAppender = null;
+        this.binaryFormat = null;
+        this.statusThreshold = statusThreshold;
+    }
+
+    /**
+     * Create a new {@link AccessLogProbe} encoding data with the specified
+     * {@linkplain BinaryAccessLogFormat binary format} and appending it to
+     * the specified {@linkplain BinaryAccessLogAppender binary appender}.
+     */
+    public AccessLogProbe(BinaryAccessLogAppender appender, BinaryAccessLogFormat format) {
+        this(appender, format, DEFAULT_STATUS_THRESHOLD);
+    }
+
+    /**
+     * Create a new {@link AccessLogProbe} encoding data with the specified
+     * {@linkplain BinaryAccessLogFormat binary format} and appending it to
+     * the specified {@linkplain BinaryAccessLogAppender binary appender}.
+     *
+     * <p>Entries are encoded into a per-thread buffer, so no objects are
+     * allocated per logged request.</p>
+     *
+     * <p>Only responses with <em>status</em> over the specified threshold will
+     * be logged.</p>
+     */
+    public AccessLogProbe(BinaryAccessLogAppender appender, BinaryAccessLogFormat format, int statusThreshold) {
+        if (appender == null) throw new NullPointerException("Null access log appender");
+        if (format == null) throw new NullPointerException("Null format");
+        this.appender = null;
+        this.format = null;
+        this.binaryAppender = appender;
+        this.binaryFormat = format;
         this.statusThreshold = statusThreshold;
     }
 
+    /**
+     * Return the number of access log entries dropped by the
+     * {@linkplain BinaryAccessLogAppender binary appender}, for example because
+     * its buffer was full.
+     */
+    public long getDroppedEntriesCount() {
+        return dropped.get();
+    }
+
     /**
      * Instrument the specified {@link Request} with an attribute marking its
      * <em>received</em> time (in {@linkplain System#nanoTime() nanoseconds}).
@@ -141,6 +197,21 @@ public class AccessLogProbe extends HttpServerProbe.Adapter {
         final long nanoStamp = System.nanoTime();
 
         final long responseNanos = requestNanos == null ? -1 : nanoStamp - requestNanos;
+
+        /* Encode the entry in our thread's buffer and append it */
+        if (binaryAppender != null) {
+            final AccessLogBuffer buffer = BUFFERS.get().reset();
+            try {
+                binaryFormat.format(response, timeStamp - (responseNanos / 1000000L), responseNanos, buffer);
+                if (!binaryAppender.append(buffer.array(), 0, buffer.length())) {
+                    dropped.incrementAndGet();
+                }
+            } catch (Throwable throwable) {
+                LOGGER.log(WARNING, "Exception caught appending to access log", throwable);
+            }
+            return;
+        }
+
         final Date requestMillis = new Date(timeStamp - (responseNanos / 1000000L));
 
         /* Create a formatted log entry string and append it */
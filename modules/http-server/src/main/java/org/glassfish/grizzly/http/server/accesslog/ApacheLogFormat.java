@@ -57,7 +57,9 @@ import org.glassfish.grizzly.http.Protocol;
 import org.glassfish.grizzly.http.server.HttpServer;
 import org.glassfish.grizzly.http.server.Request;
 import org.glassfish.grizzly.http.server.Response;
+import org.glassfish.grizzly.http.util.DataChunk;
 import org.glassfish.grizzly.http.util.MimeHeaders;
+import org.glassfish.grizzly.utils.Charsets;
 
 /**
  * An {@link AccessLogFormat} using a standard vaguely similar and heavily
@@ -135,7 +137,7 @@ import org.glassfish.grizzly.http.util.MimeHeaders;
  * @author <a href="mailto:pier@usrz.com">Pier Fumagalli</a>
  * @author <a href="http://www.usrz.com/">USRZ.com</a>
  */
-public class ApacheLogFormat implements AccessLogFormat {
+public class ApacheLogFormat implements AccessLogFormat, BinaryAccessLogFormat {
 
     /* The UTC time zone */
     private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
@@ -220,6 +222,26 @@ public class ApacheLogFormat implements AccessLogFormat {
         return builder.toString();
     }
 
+    @Override
+    public void format(Response response, long timeStamp, long responseNanos, AccessLogBuffer buffer) {
+        final Request request = response.getRequest();
+        for (Field field: fields) try {
+            field.format(buffer, request, response, timeStamp, responseNanos);
+        } catch (Exception exception) {
+            LOGGER.log(WARNING, "Exception formatting access log entry", exception);
+            buffer.append((byte) '-');
+        }
+    }
+
+    String unsafeEncode(Response response, long timeStamp, long responseNanos) {
+        final AccessLogBuffer buffer = new AccessLogBuffer();
+        final Request request = response.getRequest();
+        for (Field field: fields) {
+            field.format(buffer, request, response, timeStamp, responseNanos);
+        }
+        return buffer.toString();
+    }
+
     String unsafeFormat(Response response, Date timeStamp, long responseNanos) {
         final StringBuilder builder = new StringBuilder();
         final Request request = response.getRequest();
@@ -379,6 +401,13 @@ public class ApacheLogFormat implements AccessLogFormat {
 
         abstract StringBuilder format(StringBuilder builder, Request request, Response response, Date timeStamp, long responseNanos);
 
+        abstract void format(AccessLogBuffer buffer, Request request, Response response, long timeStamp, long responseNanos);
+
+        static void append(AccessLogBuffer buffer, String string) {
+            if (string == null) buffer.append((byte) '-');
+            else buffer.append(string);
+        }
+
         @Override
         public abstract String toString();
 
@@ -422,6 +451,16 @@ public class ApacheLogFormat implements AccessLogFormat {
             while (iterator.hasNext()) builder.append("; ").append(iterator.next());
             return builder;
         }
+
+        void format(AccessLogBuffer buffer, MimeHeaders headers) {
+            boolean first = true;
+            for (int x = 0; x < headers.size(); x ++) {
+                if (!headers.getName(x).equalsIgnoreCase(name)) continue;
+                if (first) first = false;
+                else buffer.append("; ");
+                buffer.append(headers.getValue(x));
+            }
+        }
     }
 
     /* ====================================================================== */
@@ -443,6 +482,11 @@ public class ApacheLogFormat implements AccessLogFormat {
             return builder.append(contents);
         }
 
+        @Override
+        void format(AccessLogBuffer buffer, Request request, Response response, long timeStamp, long responseNanos) {
+            buffer.append(contents);
+        }
+
         @Override
         public String toString() {
             final StringBuilder builder = new StringBuilder();
@@ -474,6 +518,11 @@ public class ApacheLogFormat implements AccessLogFormat {
             final String name = request.getServerName();
             return builder.append(name == null ? "-" : name);
         }
+
+        @Override
+        void format(AccessLogBuffer buffer, Request request, Response response, long timeStamp, long responseNanos) {
+            append(buffer, request.getServerName());
+        }
     }
 
     /* ====================================================================== */
@@ -489,6 +538,11 @@ public class ApacheLogFormat implements AccessLogFormat {
             final String host = request.getLocalName();
             return builder.append(host == null ? "-" : host);
         }
+
+        @Override
+        void format(AccessLogBuffer buffer, Request request, Response response, long timeStamp, long responseNanos) {
+            append(buffer, request.getLocalName());
+        }
     }
 
     /* ====================================================================== */
@@ -504,6 +558,11 @@ public class ApacheLogFormat implements AccessLogFormat {
             final String address = request.getLocalAddr();
             return builder.append(address == null ? "-" : address);
         }
+
+        @Override
+        void format(AccessLogBuffer buffer, Request request, Response response, long timeStamp, long responseNanos) {
+            append(buffer, request.getLocalAddr());
+        }
     }
 
     /* ====================================================================== */
@@ -519,6 +578,13 @@ public class ApacheLogFormat implements AccessLogFormat {
             final int port = request.getLocalPort();
             return builder.append(port < 1 ? "-" : port);
         }
+
+        @Override
+        void format(AccessLogBuffer buffer, Request request, Response response, long timeStamp, long responseNanos) {
+            final int port = request.getLocalPort();
+            if (port < 1) buffer.append((byte) '-');
+            else buffer.append(port);
+        }
     }
 
     /* ====================================================================== */
@@ -534,6 +600,11 @@ public class ApacheLogFormat implements AccessLogFormat {
             final String host = request.getRemoteHost();
             return builder.append(host == null ? "-" : host);
         }
+
+        @Override
+        void format(AccessLogBuffer buffer, Request request, Response response, long timeStamp, long responseNanos) {
+            append(buffer, request.getRemoteHost());
+        }
     }
 
     /* ====================================================================== */
@@ -549,6 +620,11 @@ public class ApacheLogFormat implements AccessLogFormat {
             final String address = request.getRemoteAddr();
             return builder.append(address == null ? "-" : address);
         }
+
+        @Override
+        void format(AccessLogBuffer buffer, Request request, Response response, long timeStamp, long responseNanos) {
+            append(buffer, request.getRemoteAddr());
+        }
     }
 
     /* ====================================================================== */
@@ -564,6 +640,13 @@ public class ApacheLogFormat implements AccessLogFormat {
             final int port = request.getRemotePort();
             return builder.append(port < 1 ? "-" : port);
         }
+
+        @Override
+        void format(AccessLogBuffer buffer, Request request, Response response, long timeStamp, long responseNanos) {
+            final int port = request.getRemotePort();
+            if (port < 1) buffer.append((byte) '-');
+            else buffer.append(port);
+        }
     }
 
     /* ====================================================================== */
@@ -575,6 +658,19 @@ public class ApacheLogFormat implements AccessLogFormat {
         private final TimeZone timeZone;
         private final String pattern;
         private final String format;
+        private final boolean cacheable;
+        /* The last formatted second, per thread */
+        private final ThreadLocal<CachedTime> cachedTime = new ThreadLocal<CachedTime>() {
+            @Override
+            protected CachedTime initialValue() {
+                return new CachedTime();
+            }
+        };
+
+        private static final class CachedTime {
+            private long second;
+            private byte[] bytes;
+        }
 
         RequestTimeField(String format, TimeZone zone) {
             this.format = format;
@@ -604,6 +700,8 @@ public class ApacheLogFormat implements AccessLogFormat {
 
             /* Get our simple date format */
             simpleDateFormat = new SimpleDateFormatThreadLocal(pattern);
+            /* Formatted time can be reused for a second, unless we print millis */
+            cacheable = pattern.indexOf('S') < 0;
         }
 
         @Override
@@ -615,6 +713,24 @@ public class ApacheLogFormat implements AccessLogFormat {
             return builder.append(format.format(timeStamp));
         }
 
+        @Override
+        void format(AccessLogBuffer buffer, Request request, Response response, long timeStamp, long responseNanos) {
+            if (!cacheable) {
+                buffer.append(format(new StringBuilder(), request, response, new Date(timeStamp), responseNanos));
+                return;
+            }
+
+            final CachedTime cached = cachedTime.get();
+            final long second = timeStamp / 1000;
+            if (cached.bytes == null || cached.second != second) {
+                final StringBuilder builder = format(new StringBuilder(),
+                        request, response, new Date(second * 1000), responseNanos);
+                cached.bytes = builder.toString().getBytes(Charsets.UTF8_CHARSET);
+                cached.second = second;
+            }
+            buffer.append(cached.bytes, 0, cached.bytes.length);
+        }
+
         @Override
         public String toString() {
             return format == null ? "%t" : "%{" + format + "}t";
@@ -634,6 +750,12 @@ public class ApacheLogFormat implements AccessLogFormat {
             final Method method = request.getMethod();
             return builder.append(method == null ? "-" : method.toString());
         }
+
+        @Override
+        void format(AccessLogBuffer buffer, Request request, Response response, long timeStamp, long responseNanos) {
+            final Method method = request.getMethod();
+            append(buffer, method == null ? null : method.getMethodString());
+        }
     }
 
     /* ====================================================================== */
@@ -649,6 +771,11 @@ public class ApacheLogFormat implements AccessLogFormat {
             final String user = request.getRemoteUser();
             return builder.append(user == null ? "-" : user);
         }
+
+        @Override
+        void format(AccessLogBuffer buffer, Request request, Response response, long timeStamp, long responseNanos) {
+            append(buffer, request.getRemoteUser());
+        }
     }
 
     /* ====================================================================== */
@@ -664,6 +791,13 @@ public class ApacheLogFormat implements AccessLogFormat {
             final String uri = request.getRequestURI();
             return builder.append(uri == null ? "-" : uri);
         }
+
+        @Override
+        void format(AccessLogBuffer buffer, Request request, Response response, long timeStamp, long responseNanos) {
+            final DataChunk uri = request.getRequest().getRequestURIRef().getRequestURIBC();
+            if (uri.isNull()) buffer.append((byte) '-');
+            else buffer.append(uri);
+        }
     }
 
     /* ====================================================================== */
@@ -680,6 +814,14 @@ public class ApacheLogFormat implements AccessLogFormat {
             if (query != null) builder.append('?').append(query);
             return builder;
         }
+
+        @Override
+        void format(AccessLogBuffer buffer, Request request, Response response, long timeStamp, long responseNanos) {
+            final DataChunk query = request.getRequest().getQueryStringDC();
+            if (!query.isNull() && query.getLength() > 0) {
+                buffer.append((byte) '?').append(query);
+            }
+        }
     }
 
     /* ====================================================================== */
@@ -701,6 +843,20 @@ public class ApacheLogFormat implements AccessLogFormat {
                 default: return builder.append("-");
             }
         }
+
+        @Override
+        void format(AccessLogBuffer buffer, Request request, Response response, long timeStamp, long responseNanos) {
+            final Protocol protocol = request.getProtocol();
+            if (protocol == null) {
+                buffer.append((byte) '-');
+                return;
+            }
+            switch (protocol) {
+                case HTTP_0_9: case HTTP_1_0: case HTTP_1_1:
+                    buffer.append(protocol.getProtocolString()); break;
+                default: buffer.append((byte) '-');
+            }
+        }
     }
 
     /* ====================================================================== */
@@ -715,6 +871,11 @@ public class ApacheLogFormat implements AccessLogFormat {
         StringBuilder format(StringBuilder builder, Request request, Response response, Date timeStamp, long responseNanos) {
             return this.format(builder, request.getRequest().getHeaders());
         }
+
+        @Override
+        void format(AccessLogBuffer buffer, Request request, Response response, long timeStamp, long responseNanos) {
+            this.format(buffer, request.getRequest().getHeaders());
+        }
     }
 
     /* ====================================================================== */
@@ -733,11 +894,23 @@ public class ApacheLogFormat implements AccessLogFormat {
             final Cookie[] cookies = request.getCookies();
             if (cookies != null) for (Cookie cookie: cookies) {
                 if (name.equals(cookie.getName().toLowerCase())) {
-                    return builder.append(cookie.getValue());
+                    final String value = cookie.getValue();
+                    return builder.append(value == null ? "-" : value);
                 }
             }
             return builder;
         }
+
+        @Override
+        void format(AccessLogBuffer buffer, Request request, Response response, long timeStamp, long responseNanos) {
+            final Cookie[] cookies = request.getCookies();
+            if (cookies != null) for (Cookie cookie: cookies) {
+                if (name.equalsIgnoreCase(cookie.getName())) {
+                    append(buffer, cookie.getValue());
+                    return;
+                }
+            }
+        }
     }
 
     /* ====================================================================== */
@@ -755,6 +928,14 @@ public class ApacheLogFormat implements AccessLogFormat {
             if (status < 100) builder.append('0');
             return builder.append(status);
         }
+
+        @Override
+        void format(AccessLogBuffer buffer, Request request, Response response, long timeStamp, long responseNanos) {
+            final int status = response.getStatus();
+            if (status < 10) buffer.append((byte) '0');
+            if (status < 100) buffer.append((byte) '0');
+            buffer.append(status);
+        }
     }
 
     /* ====================================================================== */
@@ -773,6 +954,13 @@ public class ApacheLogFormat implements AccessLogFormat {
             final long size = response.getContentLengthLong();
             return builder.append(size < 1 ? zero : Long.toString(size));
         }
+
+        @Override
+        void format(AccessLogBuffer buffer, Request request, Response response, long timeStamp, long responseNanos) {
+            final long size = response.getContentLengthLong();
+            if (size < 1) buffer.append(zero);
+            else buffer.append(size);
+        }
     }
 
     /* ====================================================================== */
@@ -818,6 +1006,12 @@ public class ApacheLogFormat implements AccessLogFormat {
             return builder.append(responseNanos / scale);
         }
 
+        @Override
+        void format(AccessLogBuffer buffer, Request request, Response response, long timeStamp, long responseNanos) {
+            if (responseNanos < 0) buffer.append((byte) '-');
+            else buffer.append(responseNanos / scale);
+        }
+
         @Override
         public String toString() {
             final StringBuilder string = new StringBuilder().append('%');
@@ -842,5 +1036,10 @@ public class ApacheLogFormat implements AccessLogFormat {
         StringBuilder format(StringBuilder builder, Request request, Response response, Date timeStamp, long responseNanos) {
             return this.format(builder, response.getResponse().getHeaders());
         }
+
+        @Override
+        void format(AccessLogBuffer buffer, Request request, Response response, long timeStamp, long responseNanos) {
+            this.format(buffer, response.getResponse().getHeaders());
+        }
     }
 }
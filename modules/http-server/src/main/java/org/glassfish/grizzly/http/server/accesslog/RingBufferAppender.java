@@ -0,0 +1,282 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.grizzly.http.server.accesslog;
+
+import static java.util.logging.Level.FINE;
+import static java.util.logging.Level.WARNING;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Logger;
+
+import org.glassfish.grizzly.Grizzly;
+import org.glassfish.grizzly.http.server.HttpServer;
+import org.glassfish.grizzly.utils.Charsets;
+
+/**
+ * A {@link BinaryAccessLogAppender appender} copying log entries into a
+ * bounded, off-heap ring buffer, and using a secondary, separate
+ * {@link Thread} to write them in batches to a {@link WritableByteChannel},
+ * normally a {@link java.nio.channels.FileChannel}.
+ *
+ * <p>When the ring buffer is full, for example during disk stalls, new
+ * entries are either dropped or the appending threads are blocked,
+ * depending on the configured {@linkplain OverflowPolicy overflow policy}.</p>
+ */
+public class RingBufferAppender implements BinaryAccessLogAppender {
+
+    /**
+     * The policy applied to new entries, when the ring buffer is full.
+     */
+    public enum OverflowPolicy {
+        /** Drop the new entry. */
+        DROP,
+        /** Block the appending thread, until there is space for the entry. */
+        BLOCK
+    }
+
+    private static final Logger LOGGER = Grizzly.logger(HttpServer.class);
+
+    /* Line separator for entries, respect Windoshhhh */
+    private static final byte[] LINE_SEPARATOR =
+            System.getProperty("line.separator").getBytes(Charsets.ASCII_CHARSET);
+
+    /* Where to write stuff to */
+    private final WritableByteChannel channel;
+    /* What to do when we're full */
+    private final OverflowPolicy policy;
+    /* Our ring, used by appenders */
+    private final ByteBuffer ring;
+    /* The view of our ring, used by the writer thread only */
+    private final ByteBuffer writeView;
+    private final int capacity;
+
+    /* Guards the indexes below */
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private int head;
+    private int size;
+    private boolean closed;
+
+    /* The number of dropped entries */
+    private final AtomicLong dropped = new AtomicLong();
+
+    /* The thread doing the writing */
+    private final Thread thread;
+
+    /**
+     * Create a new {@link RingBufferAppender} appending log entries to the
+     * specified {@link File}.
+     */
+    public RingBufferAppender(File file, int capacity, OverflowPolicy policy)
+    throws IOException {
+        this(new FileOutputStream(file, true).getChannel(), capacity, policy);
+    }
+
+    /**
+     * Create a new {@link RingBufferAppender} writing log entries to the
+     * specified {@link WritableByteChannel}.
+     *
+     * @param channel The channel to write log entries to.
+     * @param capacity The ring buffer capacity in bytes.
+     * @param policy The {@link OverflowPolicy} to apply when the buffer is full.
+     */
+    public RingBufferAppender(WritableByteChannel channel, int capacity, OverflowPolicy policy) {
+        if (channel == null) throw new NullPointerException("Null channel");
+        if (policy == null) throw new NullPointerException("Null overflow policy");
+        if (capacity < 1) throw new IllegalArgumentException("Capacity must be positive");
+        this.channel = channel;
+        this.policy = policy;
+        this.capacity = capacity;
+        ring = ByteBuffer.allocateDirect(capacity);
+        writeView = ring.duplicate();
+
+        thread = new Thread(new Writer());
+        thread.setName(toString());
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public boolean append(byte[] entry, int offset, int length)
+    throws IOException {
+        final int total = length + LINE_SEPARATOR.length;
+        if (total > capacity) {
+            dropped.incrementAndGet();
+            return false;
+        }
+
+        lock.lock();
+        try {
+            while (!closed && (capacity - size < total)) {
+                if (policy == OverflowPolicy.DROP) break;
+                try {
+                    notFull.await();
+                } catch (InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+
+            if (closed || (capacity - size < total)) {
+                dropped.incrementAndGet();
+                return false;
+            }
+
+            final boolean wasEmpty = size == 0;
+            int tail = head + size;
+            if (tail >= capacity) tail -= capacity;
+            tail = put(tail, entry, offset, length);
+            put(tail, LINE_SEPARATOR, 0, LINE_SEPARATOR.length);
+            size += total;
+
+            if (wasEmpty) notEmpty.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Return the number of log entries dropped so far, because the ring buffer
+     * was full or the appender was closed.
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Return the configured {@link OverflowPolicy}.
+     */
+    public OverflowPolicy getOverflowPolicy() {
+        return policy;
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            closed = true;
+            notEmpty.signalAll();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+
+        try {
+            thread.join();
+        } catch (InterruptedException exception) {
+            LOGGER.log(FINE, "Interrupted stopping writer", exception);
+        } finally {
+            channel.close();
+        }
+    }
+
+    /* ====================================================================== */
+
+    /* Copy bytes into the ring at the specified index, wrapping if needed */
+    private int put(int index, byte[] bytes, int offset, int length) {
+        final int first = Math.min(length, capacity - index);
+        ring.position(index);
+        ring.put(bytes, offset, first);
+        if (first < length) {
+            ring.position(0);
+            ring.put(bytes, offset + first, length - first);
+            return length - first;
+        }
+        final int next = index + first;
+        return next == capacity ? 0 : next;
+    }
+
+    /* ====================================================================== */
+    /* OUR WRITER                                                             */
+    /* ====================================================================== */
+
+    private final class Writer implements Runnable {
+        @Override
+        public void run() {
+            while (true) {
+                final int start;
+                final int count;
+
+                lock.lock();
+                try {
+                    while (size == 0 && !closed) {
+                        notEmpty.awaitUninterruptibly();
+                    }
+                    if (size == 0) return; // closed and drained
+
+                    /* Write everything up to the end of the ring in one go */
+                    start = head;
+                    count = Math.min(size, capacity - head);
+                } finally {
+                    lock.unlock();
+                }
+
+                try {
+                    writeView.limit(start + count).position(start);
+                    while (writeView.hasRemaining()) {
+                        channel.write(writeView);
+                    }
+                } catch (Throwable throwable) {
+                    LOGGER.log(WARNING, "Exception caught writing access log entries", throwable);
+                }
+
+                lock.lock();
+                try {
+                    head += count;
+                    if (head == capacity) head = 0;
+                    size -= count;
+                    notFull.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+
+}
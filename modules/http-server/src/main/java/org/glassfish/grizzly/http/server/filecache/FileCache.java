@@ -59,6 +59,9 @@ import java.io.OutputStream;
 import java.nio.ByteBuffer;
 import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.StringTokenizer;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
@@ -89,6 +92,17 @@ public class FileCache implements MonitoringAware<FileCacheProbe> {
     
     final static String[] COMPRESSION_ALIASES = {"gzip"};
 
+    /**
+     * The content-codings of the precompressed files, which are looked up
+     * next to the cached file, in server preference order.
+     */
+    private final static String[] PRECOMPRESSED_ENCODINGS = {"br", "zstd", "gzip"};
+
+    /**
+     * The precompressed file suffixes, matching {@link #PRECOMPRESSED_ENCODINGS}.
+     */
+    private final static String[] PRECOMPRESSED_SUFFIXES = {".br", ".zst", ".gz"};
+
     public enum CacheType {
         HEAP, MAPPED, FILE, TIMESTAMP
     }
@@ -126,6 +140,18 @@ public class FileCache implements MonitoringAware<FileCacheProbe> {
      */
     private volatile int maxCacheEntries = 1024;
 
+    /**
+     * <tt>true</tt>, if entries have to be evicted by the W-TinyLFU policy,
+     * when the cache is full.
+     */
+    private boolean evictionEnabled = true;
+
+    /**
+     * The W-TinyLFU eviction policy.
+     */
+    private final TinyLfuEvictionPolicy evictionPolicy =
+            new TinyLfuEvictionPolicy(maxCacheEntries);
+
     /**
      * The maximum size of a cached resource.
      */
@@ -178,6 +204,12 @@ public class FileCache implements MonitoringAware<FileCacheProbe> {
      * <tt>false</tt> otherwise.
      */
     private boolean fileSendEnabled;
+
+    /**
+     * <tt>true</tt>, if precompressed files found next to the cached files
+     * have to be served to the clients accepting their content-coding.
+     */
+    private boolean precompressedFilesEnabled = true;
     
     /**
      * File cache probes
@@ -192,6 +224,12 @@ public class FileCache implements MonitoringAware<FileCacheProbe> {
 
     };
 
+    /**
+     * File cache entry probes
+     */
+    protected final DefaultMonitoringConfig<FileCacheEntryProbe> entryMonitoringConfig =
+            new DefaultMonitoringConfig<FileCacheEntryProbe>(FileCacheEntryProbe.class);
+
 
     // ---------------------------------------------------- Methods ----------//
 
@@ -242,8 +280,8 @@ public class FileCache implements MonitoringAware<FileCacheProbe> {
         }
 
         final int size = cacheSize.incrementAndGet();
-        // cache is full.
-        if (size > getMaxCacheEntries()) {
+        // cache is full, unless the eviction policy makes room.
+        if (size > getMaxCacheEntries() && !evictionEnabled) {
             cacheSize.decrementAndGet();
             fileCacheMap.remove(key);
             key.recycle();
@@ -257,8 +295,11 @@ public class FileCache implements MonitoringAware<FileCacheProbe> {
         
         final FileCacheEntry entry;
         if (cacheFile != null) { // If we have a file - try to create File-aware cache resource
-            entry = createEntry(cacheFile);
+            entry = createEntry(cacheFile, key.hashCode());
             entry.setCanBeCompressed(canBeCompressed(cacheFile, contentType));
+            if (precompressedFilesEnabled) {
+                entry.variants = createVariants(cacheFile);
+            }
         } else {
             entry = new FileCacheEntry(this);
             entry.type = CacheType.TIMESTAMP;
@@ -276,11 +317,20 @@ public class FileCache implements MonitoringAware<FileCacheProbe> {
         entry.lastModifiedHeader = headers.getHeader(Header.LastModified);
         entry.host = host;
         entry.Etag = headers.getHeader(Header.ETag);
+        for (FileCacheEntry.Variant variant : entry.variants) {
+            variant.Etag = variantETag(entry.Etag, variant.encoding);
+        }
         entry.server = headers.getHeader(Header.Server);
 
         fileCacheMap.put(key, entry);
         
         notifyProbesEntryAdded(this, entry);
+
+        if (evictionEnabled) {
+            final List<FileCacheEntry> evicted = new ArrayList<FileCacheEntry>(1);
+            evictionPolicy.onAdd(entry, evicted);
+            evict(evicted);
+        }
         
         final int secondsMaxAgeLocal = getSecondsMaxAge();
         if (secondsMaxAgeLocal > 0) {
@@ -301,11 +351,20 @@ public class FileCache implements MonitoringAware<FileCacheProbe> {
         // It should be faster than calculating the key hash code
         if (cacheSize.get() == 0) return null;
 
+        // Range requests are served by the static handler
+        if (request.getHeaders().contains(Header.Range)) return null;
+
         final LazyFileCacheKey key = LazyFileCacheKey.create(request);
         final FileCacheEntry entry = fileCacheMap.get(key);
+        final int hashCode = key.hashCode();
         key.recycle();
         try {
             if (entry != null && entry != NULL_CACHE_ENTRY) {
+                if (evictionEnabled) {
+                    evictionPolicy.recordHit(entry);
+                }
+
+
                 // determine if we need to send the cache entry bytes
                 // to the user-agent
                 final HttpStatus httpStatus = checkIfHeaders(entry, request);
@@ -323,6 +382,9 @@ public class FileCache implements MonitoringAware<FileCacheProbe> {
                 return entry;
             }
             
+            if (evictionEnabled) {
+                evictionPolicy.recordMiss(hashCode);
+            }
             notifyProbesEntryMissed(this, request);
         } catch (Exception e) {
             notifyProbesError(this, e);
@@ -336,9 +398,12 @@ public class FileCache implements MonitoringAware<FileCacheProbe> {
     }
 
     protected void remove(final FileCacheEntry entry) {
-        if (fileCacheMap.remove(entry.key) != null) {
-            cacheSize.decrementAndGet();
+        // the entry could have been evicted or replaced already
+        if (!fileCacheMap.remove(entry.key, entry)) {
+            return;
         }
+        cacheSize.decrementAndGet();
+        evictionPolicy.onRemove(entry);
 
         if (entry.type == FileCache.CacheType.MAPPED) {
             subMappedMemorySize(entry.bb.remaining());
@@ -346,9 +411,31 @@ public class FileCache implements MonitoringAware<FileCacheProbe> {
             subHeapSize(entry.bb.remaining());
         }
 
+        for (FileCacheEntry.Variant variant : entry.variants) {
+            if (variant.type == FileCache.CacheType.MAPPED) {
+                subMappedMemorySize(variant.size);
+            } else if (variant.type == FileCache.CacheType.HEAP) {
+                subHeapSize(variant.size);
+            }
+        }
+
         notifyProbesEntryRemoved(this, entry);
     }
 
+    /**
+     * Removes the entries chosen by the eviction policy.
+     */
+    private void evict(final List<FileCacheEntry> evicted) {
+        for (int i = 0; i < evicted.size(); i++) {
+            final FileCacheEntry entry = evicted.get(i);
+            if (delayQueue != null) {
+                delayQueue.remove(entry);
+            }
+            remove(entry);
+            notifyProbesEntryEvicted(this, entry);
+        }
+    }
+
     protected Object createJmxManagementObject() {
         return MonitoringUtils.loadJmxObject(
                 "org.glassfish.grizzly.http.server.filecache.jmx.FileCache",
@@ -358,8 +445,8 @@ public class FileCache implements MonitoringAware<FileCacheProbe> {
     /**
      * Creates {@link FileCacheEntry}.
      */
-    private FileCacheEntry createEntry(final File file) {
-        FileCacheEntry entry = tryMapFileToBuffer(file);
+    private FileCacheEntry createEntry(final File file, final int keyHashCode) {
+        FileCacheEntry entry = tryMapFileToBuffer(file, keyHashCode);
         if (entry == null) {
             entry = new FileCacheEntry(this);
             entry.type = CacheType.FILE;
@@ -375,45 +462,123 @@ public class FileCache implements MonitoringAware<FileCacheProbe> {
      * Map the file to a {@link ByteBuffer}
      * @return the preinitialized {@link FileCacheEntry}
      */
-    private FileCacheEntry tryMapFileToBuffer(final File file) {
+    private FileCacheEntry tryMapFileToBuffer(final File file,
+            final int keyHashCode) {
         
         final long size = file.length();
+        CacheType type = reserveMemory(size);
+        if (type == null && evictionEnabled
+                && makeRoom(size, keyHashCode)) {
+            type = reserveMemory(size);
+        }
+        if (type == null) {
+            return null;
+        }
+
+        final ByteBuffer bb = mapFile(file, size, type);
+        if (bb == null) {
+            return null;
+        }
+
+        final FileCacheEntry entry = new FileCacheEntry(this);
+        entry.type = type;
+        entry.plainFileSize = size;
+        entry.bb = bb;
+
+        return entry;
+    }
+
+    /**
+     * Reserves the heap or mapped cache memory for a file of the given size.
+     *
+     * @return {@link CacheType#HEAP} or {@link CacheType#MAPPED}, or
+     *         <tt>null</tt> if the file can't be cached in memory
+     */
+    private CacheType reserveMemory(final long size) {
         if (size > getMaxEntrySize()) {
             return null;
         }
-        
+
+        if (size > getMinEntrySize()) {
+            if (addMappedMemorySize(size) > getMaxLargeFileCacheSize()) {
+                // Cache full
+                subMappedMemorySize(size);
+                return null;
+            }
+
+            return CacheType.MAPPED;
+        }
+
+        if (addHeapSize(size) > getMaxSmallFileCacheSize()) {
+            // Cache full
+            subHeapSize(size);
+            return null;
+        }
+
+        return CacheType.HEAP;
+    }
+
+    /**
+     * Evicts the entries accessed less frequently than the new entry, if
+     * they hold enough heap or mapped memory to cache the new entry file
+     * of the given size.
+     *
+     * @return <tt>true</tt> if entries have been evicted, or <tt>false</tt>
+     *         otherwise
+     */
+    private boolean makeRoom(final long size, final int keyHashCode) {
+        if (size > getMaxEntrySize()) {
+            return false;
+        }
+
         final CacheType type;
-        final ByteBuffer bb;
+        final long needed;
+        if (size > getMinEntrySize()) {
+            type = CacheType.MAPPED;
+            needed = getMappedCacheSize() + size - getMaxLargeFileCacheSize();
+        } else {
+            type = CacheType.HEAP;
+            needed = getHeapCacheSize() + size - getMaxSmallFileCacheSize();
+        }
+
+        final List<FileCacheEntry> evicted = new ArrayList<FileCacheEntry>(4);
+        if (needed <= 0 || !evictionPolicy.selectVictims(type, needed,
+                keyHashCode, evicted)) {
+            return false;
+        }
+
+        evict(evicted);
+        return true;
+    }
+
+    /**
+     * Maps the file, which memory has been reserved by
+     * {@link #reserveMemory(long)}, to a {@link ByteBuffer}.
+     * The reservation is released, if the file can't be mapped.
+     */
+    private ByteBuffer mapFile(final File file, final long size,
+            final CacheType type) {
         FileChannel fileChannel = null;
         FileInputStream stream = null;
         try {
-            if (size > getMinEntrySize()) {
-                if (addMappedMemorySize(size) > getMaxLargeFileCacheSize()) {
-                    // Cache full
-                    subMappedMemorySize(size);
-                    return null;
-                }
-                
-                type = CacheType.MAPPED;
-            } else {
-                if (addHeapSize(size) > getMaxSmallFileCacheSize()) {
-                    // Cache full
-                    subHeapSize(size);
-                    return null;
-                }
-
-                type = CacheType.HEAP;
-            }
-
             stream = new FileInputStream(file);
             fileChannel = stream.getChannel();
 
-            bb = fileChannel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            final MappedByteBuffer bb =
+                    fileChannel.map(FileChannel.MapMode.READ_ONLY, 0, size);
 
             if (type == CacheType.HEAP) {
-                ((MappedByteBuffer) bb).load();
-            }    
+                bb.load();
+            }
+
+            return bb;
         } catch (Exception e) {
+            if (type == CacheType.MAPPED) {
+                subMappedMemorySize(size);
+            } else {
+                subHeapSize(size);
+            }
+
             notifyProbesError(this, e);
             return null;
         } finally {
@@ -432,13 +597,55 @@ public class FileCache implements MonitoringAware<FileCacheProbe> {
                 }
             }
         }
+    }
 
-        final FileCacheEntry entry = new FileCacheEntry(this);
-        entry.type = type;
-        entry.plainFileSize = size;
-        entry.bb = bb;
+    /**
+     * Looks up the precompressed files (<tt>.br</tt>, <tt>.zst</tt>,
+     * <tt>.gz</tt>) next to the given file, and creates an entry
+     * {@link FileCacheEntry.Variant} for each of them. Precompressed files
+     * older than the plain file are considered stale and ignored.
+     */
+    private FileCacheEntry.Variant[] createVariants(final File file) {
+        FileCacheEntry.Variant[] variants = FileCacheEntry.NO_VARIANTS;
+
+        final String path = file.getPath();
+        final long lastModified = file.lastModified();
+        for (int i = 0; i < PRECOMPRESSED_SUFFIXES.length; i++) {
+            final File variantFile = new File(path + PRECOMPRESSED_SUFFIXES[i]);
+            if (!variantFile.isFile() || variantFile.lastModified() < lastModified) {
+                continue;
+            }
 
-        return entry;
+            final long size = variantFile.length();
+            CacheType type = reserveMemory(size);
+            final ByteBuffer bb = type != null
+                    ? mapFile(variantFile, size, type)
+                    : null;
+            if (bb == null) {
+                type = CacheType.FILE;
+            }
+
+            variants = Arrays.copyOf(variants, variants.length + 1);
+            variants[variants.length - 1] = new FileCacheEntry.Variant(
+                    PRECOMPRESSED_ENCODINGS[i], variantFile, size, type, bb);
+        }
+
+        return variants;
+    }
+
+    /**
+     * Derives the ETag of an encoded representation from the plain one, so
+     * caches never mix up the representations.
+     */
+    static String variantETag(final String etag, final String encoding) {
+        if (etag == null) {
+            return null;
+        }
+
+        final int length = etag.length();
+        return length > 1 && etag.charAt(length - 1) == '"'
+                ? etag.substring(0, length - 1) + '-' + encoding + '"'
+                : etag + '-' + encoding;
     }
 
     /**
@@ -494,6 +701,33 @@ public class FileCache implements MonitoringAware<FileCacheProbe> {
      */
     public void setMaxCacheEntries(int maxCacheEntries) {
         this.maxCacheEntries = maxCacheEntries;
+        evictionPolicy.setMaximum(maxCacheEntries);
+    }
+
+    /**
+     * Returns <tt>true</tt> if, when the cache is full, new entries may
+     * displace less frequently used ones, or <tt>false</tt> if new entries
+     * are refused.
+     *
+     * @see #setEvictionEnabled(boolean)
+     */
+    public boolean isEvictionEnabled() {
+        return evictionEnabled;
+    }
+
+    /**
+     * Configures what happens, when the cache is full. If enabled, which is
+     * the default, the W-TinyLFU policy evicts the entries, which were
+     * accessed less frequently than the new ones, recently added entries
+     * getting a short grace period. The policy respects the maximum number
+     * of entries, as well as the heap and mapped memory budgets. If
+     * disabled, new entries are refused, once the cache is full.
+     * The setting applies to the entries added afterwards.
+     *
+     * @param evictionEnabled <tt>true</tt> to enable the eviction.
+     */
+    public void setEvictionEnabled(boolean evictionEnabled) {
+        this.evictionEnabled = evictionEnabled;
     }
 
 
@@ -656,6 +890,25 @@ public class FileCache implements MonitoringAware<FileCacheProbe> {
     public void setFileSendEnabled(boolean fileSendEnabled) {
         this.fileSendEnabled = fileSendEnabled;
     }
+
+    /**
+     * Returns <tt>true</tt> if the precompressed files (<tt>.br</tt>,
+     * <tt>.zst</tt>, <tt>.gz</tt>) found next to the cached files are served
+     * to the clients accepting their content-coding.
+     */
+    public boolean isPrecompressedFilesEnabled() {
+        return precompressedFilesEnabled;
+    }
+
+    /**
+     * Configures whether the precompressed files (<tt>.br</tt>,
+     * <tt>.zst</tt>, <tt>.gz</tt>) found next to the cached files have to be
+     * served to the clients accepting their content-coding. The setting
+     * applies to the entries added afterwards.
+     */
+    public void setPrecompressedFilesEnabled(boolean precompressedFilesEnabled) {
+        this.precompressedFilesEnabled = precompressedFilesEnabled;
+    }
     
     /**
      * Creates a temporary compressed representation of the given cache entry.
@@ -700,6 +953,7 @@ public class FileCache implements MonitoringAware<FileCacheProbe> {
             }
             
             final long size = tmpCompressedFile.length();
+            ByteBuffer compressedBb = null;
             
             switch (entry.type) {
                 case HEAP:
@@ -710,14 +964,14 @@ public class FileCache implements MonitoringAware<FileCacheProbe> {
                     try {
                         final FileChannel cFileChannel = cFis.getChannel();
 
-                        final MappedByteBuffer compressedBb = cFileChannel.map(
+                        final MappedByteBuffer mappedBb = cFileChannel.map(
                                 FileChannel.MapMode.READ_ONLY, 0, size);
 
                         if (entry.type == CacheType.HEAP) {
-                            compressedBb.load();
+                            mappedBb.load();
                         }
                         
-                        entry.compressedBb = compressedBb;
+                        compressedBb = mappedBb;
                     } finally {
                         cFis.close();
                     }
@@ -731,8 +985,12 @@ public class FileCache implements MonitoringAware<FileCacheProbe> {
                 default: throw new IllegalStateException("The type is not supported: " + entry.type);
             }
             
-            entry.compressedFileSize = size;
-            entry.compressedFile = tmpCompressedFile;
+            final FileCacheEntry.Variant compressed = new FileCacheEntry.Variant(
+                    "gzip", tmpCompressedFile, size,
+                    compressedBb != null ? entry.type : CacheType.FILE,
+                    compressedBb);
+            compressed.Etag = variantETag(entry.Etag, "gzip");
+            entry.compressed = compressed;
         } catch (IOException e) {
             LOGGER.log(Level.FINE, "Can not compress file: " + entry.plainFile, e);
         }
@@ -846,8 +1104,6 @@ public class FileCache implements MonitoringAware<FileCacheProbe> {
 
         String headerValue = request.getHeader(Header.IfNoneMatch);
         if (headerValue != null) {
-            String eTag = entry.Etag;
-
             boolean conditionSatisfied = false;
 
             if (!headerValue.equals("*")) {
@@ -857,7 +1113,7 @@ public class FileCache implements MonitoringAware<FileCacheProbe> {
 
                 while (!conditionSatisfied && commaTokenizer.hasMoreTokens()) {
                     String currentToken = commaTokenizer.nextToken();
-                    if (currentToken.trim().equals(eTag)) {
+                    if (matchesETag(entry, currentToken.trim())) {
                         conditionSatisfied = true;
                     }
                 }
@@ -934,14 +1190,12 @@ public class FileCache implements MonitoringAware<FileCacheProbe> {
         String headerValue = request.getHeader(Header.IfMatch);
         if (headerValue != null) {
             if (headerValue.indexOf('*') == -1) {
-                String eTag = entry.Etag;
-
                 StringTokenizer commaTokenizer = new StringTokenizer(headerValue, ",");
                 boolean conditionSatisfied = false;
 
                 while (!conditionSatisfied && commaTokenizer.hasMoreTokens()) {
                     String currentToken = commaTokenizer.nextToken();
-                    if (currentToken.trim().equals(eTag)) {
+                    if (matchesETag(entry, currentToken.trim())) {
                         conditionSatisfied = true;
                     }
                 }
@@ -958,6 +1212,30 @@ public class FileCache implements MonitoringAware<FileCacheProbe> {
         return null;
     }
 
+    /**
+     * Returns <tt>true</tt> if the ETag matches the plain or any encoded
+     * representation of the entry.
+     */
+    private static boolean matchesETag(final FileCacheEntry entry,
+            final String eTag) {
+        if (eTag.equals(entry.Etag)) {
+            return true;
+        }
+
+        final FileCacheEntry.Variant compressed = entry.compressed;
+        if (compressed != null && eTag.equals(compressed.Etag)) {
+            return true;
+        }
+
+        for (FileCacheEntry.Variant variant : entry.variants) {
+            if (eTag.equals(variant.Etag)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -966,6 +1244,14 @@ public class FileCache implements MonitoringAware<FileCacheProbe> {
         return monitoringConfig;
     }
 
+    /**
+     * @return the monitoring configuration for the {@link FileCacheEntry}
+     *  eviction and variant hit events.
+     */
+    public MonitoringConfig<FileCacheEntryProbe> getEntryMonitoringConfig() {
+        return entryMonitoringConfig;
+    }
+
     /**
      * Notify registered {@link FileCacheProbe}s about the "entry added" event.
      *
@@ -1000,6 +1286,23 @@ public class FileCache implements MonitoringAware<FileCacheProbe> {
         }
     }
 
+    /**
+     * Notify registered {@link FileCacheEntryProbe}s about the "entry evicted" event.
+     *
+     * @param fileCache the <tt>FileCache</tt> event occurred on.
+     * @param entry entry been evicted.
+     */
+    protected static void notifyProbesEntryEvicted(final FileCache fileCache,
+            final FileCacheEntry entry) {
+        final FileCacheEntryProbe[] probes =
+                fileCache.entryMonitoringConfig.getProbesUnsafe();
+        if (probes != null) {
+            for (FileCacheEntryProbe probe : probes) {
+                probe.onEntryEvictedEvent(fileCache, entry);
+            }
+        }
+    }
+
     /**
      * Notify registered {@link FileCacheProbe}s about the "entry hit event.
      *
@@ -1017,6 +1320,24 @@ public class FileCache implements MonitoringAware<FileCacheProbe> {
         }
     }
 
+    /**
+     * Notify registered {@link FileCacheEntryProbe}s about the "entry variant hit" event.
+     *
+     * @param fileCache the <tt>FileCache</tt> event occurred on.
+     * @param entry entry been hit.
+     * @param encoding the content-coding of the representation been served.
+     */
+    protected static void notifyProbesVariantHit(final FileCache fileCache,
+            final FileCacheEntry entry, final String encoding) {
+        final FileCacheEntryProbe[] probes =
+                fileCache.entryMonitoringConfig.getProbesUnsafe();
+        if (probes != null) {
+            for (FileCacheEntryProbe probe : probes) {
+                probe.onEntryVariantHitEvent(fileCache, entry, encoding);
+            }
+        }
+    }
+
     /**
      * Notify registered {@link FileCacheProbe}s about the "entry missed" event.
      *
@@ -42,6 +42,7 @@ package org.glassfish.grizzly.http.server.filecache;
 
 import java.io.File;
 import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -50,6 +51,8 @@ import org.glassfish.grizzly.Grizzly;
 import org.glassfish.grizzly.http.CompressionConfig;
 import org.glassfish.grizzly.http.HttpRequestPacket;
 import org.glassfish.grizzly.http.util.ContentType;
+import org.glassfish.grizzly.http.util.Header;
+import org.glassfish.grizzly.http.util.HttpUtils;
 
 /**
  * The entry value in the file cache map.
@@ -60,6 +63,14 @@ public final class FileCacheEntry implements Runnable {
 
     private static final Logger LOGGER = Grizzly.logger(FileCacheEntry.class);
 
+    static final Variant[] NO_VARIANTS = new Variant[0];
+
+    /**
+     * The content-coding reported to {@link FileCacheProbe}s, when the plain
+     * representation of an entry gets served.
+     */
+    public static final String IDENTITY = "identity";
+
     public FileCacheKey key;
     public String host;
     public String requestURI;
@@ -72,9 +83,10 @@ public final class FileCacheEntry implements Runnable {
     
     private boolean canBeCompressed;
     private AtomicBoolean isCompressed;
-    volatile File compressedFile;
-    ByteBuffer compressedBb;
-    long compressedFileSize = -1;
+    // The gzip representation compressed on the fly
+    volatile Variant compressed;
+    // The precompressed representations found on disk, in server preference order
+    Variant[] variants = NO_VARIANTS;
     
     public String xPoweredBy;
     public FileCache.CacheType type;
@@ -85,6 +97,11 @@ public final class FileCacheEntry implements Runnable {
 
     public volatile long timeoutMillis;
 
+    // The eviction policy bookkeeping, guarded by the policy lock
+    FileCacheEntry policyPrev;
+    FileCacheEntry policyNext;
+    int policyQueue;
+
     private final FileCache fileCache;
 
     public FileCacheEntry(FileCache fileCache) {
@@ -121,11 +138,64 @@ public final class FileCacheEntry implements Runnable {
             fileCache.compressFile(this);
         }
         
-        // compressedFile could be still "null" if the file compression was
+        // compressed could be still "null" if the file compression was
         // initiated by other request and it is still not completed
-        return compressedFile != null;
+        return compressed != null;
     }
-    
+
+    /**
+     * Returns <tt>true</tt> if this entry has several representations, so
+     * the responses have to carry the "Vary: Accept-Encoding" header.
+     */
+    public boolean hasVariants() {
+        return canBeCompressed || variants.length > 0;
+    }
+
+    /**
+     * Negotiates the representation of this entry to be served as response
+     * to the passed {@link HttpRequestPacket}, based on the "Accept-Encoding"
+     * q-values. Precompressed representations found on disk are preferred,
+     * the on the fly gzip compression is used as a fallback.
+     *
+     * @return the encoded {@link Variant} to be served, or <tt>null</tt>,
+     *         if the plain (identity) representation has to be served
+     */
+    public Variant getVariant(final HttpRequestPacket request) {
+        Variant selected = null;
+
+        final String acceptEncoding = variants.length > 0
+                ? request.getHeader(Header.AcceptEncoding)
+                : null;
+        if (acceptEncoding != null
+                && fileCache.getCompressionConfig().checkUserAgent(request)) {
+            final float any = qValue(acceptEncoding, "*");
+            float best = 0;
+            for (Variant variant : variants) {
+                float q = qValue(acceptEncoding, variant.encoding);
+                if (q < 0) {
+                    q = any < 0 ? 0 : any;
+                }
+                if (q > best) {
+                    best = q;
+                    selected = variant;
+                }
+            }
+
+            // the client may explicitly prefer the plain representation
+            if (selected != null && qValue(acceptEncoding, "identity") > best) {
+                selected = null;
+            }
+        }
+
+        if (selected == null && canServeCompressed(request)) {
+            selected = compressed;
+        }
+
+        FileCache.notifyProbesVariantHit(fileCache, this,
+                selected != null ? selected.encoding : IDENTITY);
+        return selected;
+    }
+
     /**
      * Returns the entry file size.
      * @param isCompressed if <tt>true</tt> the compressed file size will be
@@ -133,7 +203,7 @@ public final class FileCacheEntry implements Runnable {
      * @return the entry file size
      */
     public long getFileSize(final boolean isCompressed) {
-        return isCompressed ? compressedFileSize : plainFileSize;
+        return isCompressed ? compressed.size : plainFileSize;
     }
     
     /**
@@ -144,7 +214,7 @@ public final class FileCacheEntry implements Runnable {
      * @return the entry's {@link File} reference
      */
     public File getFile(final boolean isCompressed) {
-        return isCompressed ? compressedFile : plainFile;
+        return isCompressed ? compressed.file : plainFile;
     }
     
     /**
@@ -155,7 +225,7 @@ public final class FileCacheEntry implements Runnable {
      * @return the entry's {@link ByteBuffer} reference
      */
     public ByteBuffer getByteBuffer(final boolean isCompressed) {
-        return isCompressed ? compressedBb : bb;
+        return isCompressed ? compressed.bb : bb;
     }
     
     @Override
@@ -174,7 +244,8 @@ public final class FileCacheEntry implements Runnable {
         sb.append(", type=").append(type);
         sb.append(", plainFileSize=").append(plainFileSize);
         sb.append(", canBeCompressed=").append(canBeCompressed);
-        sb.append(", compressedFileSize=").append(compressedFileSize);
+        sb.append(", compressed=").append(compressed);
+        sb.append(", variants=").append(Arrays.toString(variants));
         sb.append(", timeoutMillis=").append(timeoutMillis);
         sb.append(", fileCache=").append(fileCache);
         sb.append(", server=").append(server);
@@ -184,6 +255,7 @@ public final class FileCacheEntry implements Runnable {
 
     @Override
     protected void finalize() throws Throwable {
+        final File compressedFile = compressed != null ? compressed.file : null;
         if (compressedFile != null) {
             if (!compressedFile.delete()) {
                 if (LOGGER.isLoggable(Level.FINE)) {
@@ -197,4 +269,135 @@ public final class FileCacheEntry implements Runnable {
         
         super.finalize();
     }
+
+    /**
+     * Returns the q-value the "Accept-Encoding" header value assigns to the
+     * given content-coding, or <tt>-1</tt> if the content-coding isn't listed.
+     */
+    static float qValue(final String acceptEncoding, final String coding) {
+        final int length = acceptEncoding.length();
+        int start = 0;
+        while (start < length) {
+            int end = acceptEncoding.indexOf(',', start);
+            if (end == -1) {
+                end = length;
+            }
+
+            int paramsStart = acceptEncoding.indexOf(';', start);
+            if (paramsStart == -1 || paramsStart > end) {
+                paramsStart = end;
+            }
+
+            int nameStart = start;
+            int nameEnd = paramsStart;
+            while (nameStart < nameEnd && acceptEncoding.charAt(nameStart) <= ' ') {
+                nameStart++;
+            }
+            while (nameEnd > nameStart && acceptEncoding.charAt(nameEnd - 1) <= ' ') {
+                nameEnd--;
+            }
+
+            if (nameEnd - nameStart == coding.length()
+                    && acceptEncoding.regionMatches(true, nameStart, coding, 0, nameEnd - nameStart)) {
+                return parseQ(acceptEncoding, paramsStart, end);
+            }
+
+            start = end + 1;
+        }
+
+        return -1;
+    }
+
+    /**
+     * Parses the "q" parameter within the given content-coding parameters,
+     * malformed q-values make the content-coding unacceptable.
+     */
+    private static float parseQ(final String value, final int start, final int end) {
+        int q = value.indexOf("q=", start);
+        if (q == -1 || q >= end) {
+            q = value.indexOf("Q=", start);
+            if (q == -1 || q >= end) {
+                return 1;
+            }
+        }
+
+        int qStart = q + 2;
+        int qEnd = end;
+        while (qStart < qEnd && value.charAt(qStart) <= ' ') {
+            qStart++;
+        }
+        while (qEnd > qStart && value.charAt(qEnd - 1) <= ' ') {
+            qEnd--;
+        }
+
+        try {
+            return HttpUtils.convertQValueToFloat(value, qStart, qEnd);
+        } catch (IllegalArgumentException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * The encoded representation of a {@link FileCacheEntry}.
+     */
+    public static final class Variant {
+        final String encoding;
+        final File file;
+        final long size;
+        final FileCache.CacheType type;
+        final ByteBuffer bb;
+        String Etag;
+
+        Variant(final String encoding, final File file, final long size,
+                final FileCache.CacheType type, final ByteBuffer bb) {
+            this.encoding = encoding;
+            this.file = file;
+            this.size = size;
+            this.type = type;
+            this.bb = bb;
+        }
+
+        /**
+         * Returns the content-coding of this representation, like "gzip" or "br".
+         */
+        public String getEncoding() {
+            return encoding;
+        }
+
+        /**
+         * Returns the {@link File} this representation is stored in.
+         */
+        public File getFile() {
+            return file;
+        }
+
+        /**
+         * Returns the representation size.
+         */
+        public long getFileSize() {
+            return size;
+        }
+
+        /**
+         * Returns the representation's {@link ByteBuffer}, or <tt>null</tt>
+         * if the representation has to be served from the {@link #getFile() file}.
+         */
+        public ByteBuffer getByteBuffer() {
+            return bb;
+        }
+
+        /**
+         * Returns the ETag of this representation, or <tt>null</tt> if the
+         * entry has no ETag.
+         */
+        public String getETag() {
+            return Etag;
+        }
+
+        @Override
+        public String toString() {
+            return "Variant{encoding=" + encoding + ", type=" + type
+                    + ", size=" + size + '}';
+        }
+    }
 }
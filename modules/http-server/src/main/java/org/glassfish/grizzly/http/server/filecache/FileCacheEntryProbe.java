@@ -0,0 +1,106 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.grizzly.http.server.filecache;
+
+/**
+ * Monitoring probe providing callbacks that may be invoked by the
+ * {@link FileCache} for the individual {@link FileCacheEntry}s, in addition to
+ * the {@link FileCacheProbe} events.
+ *
+ * @see FileCache#getEntryMonitoringConfig()
+ */
+public interface FileCacheEntryProbe {
+
+    /**
+     * Method will be called, when file cache entry gets evicted to make room
+     * for more frequently used entries. The
+     * {@link FileCacheProbe#onEntryRemovedEvent(FileCache, FileCacheEntry)}
+     * is called for the entry as well.
+     *
+     * Together with the hit and miss events, the evictions show, whether
+     * the cache is large enough for the workload.
+     *
+     * @param fileCache {@link FileCache}, the event belongs to.
+     * @param entry {@link FileCacheEntry} been evicted.
+     */
+    void onEntryEvictedEvent(FileCache fileCache, FileCacheEntry entry);
+
+    /**
+     * Method will be called, when a representation of the file cache entry
+     * is going to be served.
+     *
+     * @param fileCache {@link FileCache}, the event belongs to.
+     * @param entry {@link FileCacheEntry} been hitted.
+     * @param encoding the content-coding of the served representation, like
+     *        "gzip" or "br", or {@link FileCacheEntry#IDENTITY} for the
+     *        plain one.
+     */
+    void onEntryVariantHitEvent(FileCache fileCache, FileCacheEntry entry,
+            String encoding);
+
+
+    // ---------------------------------------------------------- Nested Classes
+
+    /**
+     * {@link FileCacheEntryProbe} adapter that provides no-op implementations
+     * for all interface methods allowing easy extension by the developer.
+     */
+    @SuppressWarnings("UnusedDeclaration")
+    class Adapter implements FileCacheEntryProbe {
+
+
+        // ------------------------------------ Methods from FileCacheEntryProbe
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void onEntryEvictedEvent(FileCache fileCache, FileCacheEntry entry) {}
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void onEntryVariantHitEvent(FileCache fileCache,
+                FileCacheEntry entry, String encoding) {}
+
+    } // END Adapter
+}
@@ -0,0 +1,154 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.grizzly.http.server.filecache;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A probabilistic count-min sketch estimating the access frequency of the
+ * {@link FileCache} keys, with 4-bit counters, 16 of them packed in a
+ * <tt>long</tt>. Once the number of recorded accesses reaches the sample size,
+ * all the counters are halved, so the history ages and popularity shifts
+ * are noticed.
+ *
+ * The counters are updated with CAS and without locking, so concurrent
+ * accesses could occasionally be lost, which doesn't matter for estimates.
+ */
+final class FrequencySketch {
+    private static final long[] SEEDS = {
+            0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L,
+            0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+    private static final long RESET_MASK = 0x7777777777777777L;
+
+    private volatile AtomicLongArray table;
+    private volatile int sampleSize;
+    private final AtomicInteger additions = new AtomicInteger();
+
+    FrequencySketch(final int maximum) {
+        ensureCapacity(maximum);
+    }
+
+    /**
+     * Resizes the sketch for the given maximum number of cache entries,
+     * the recorded history is lost.
+     */
+    void ensureCapacity(final int maximum) {
+        final int capacity = Math.max(16, Math.min(maximum, 1 << 20));
+        table = new AtomicLongArray(Integer.highestOneBit(capacity - 1) << 1);
+        sampleSize = (int) Math.min(10L * capacity, Integer.MAX_VALUE);
+        additions.set(0);
+    }
+
+    /**
+     * Returns the estimated number of accesses of the key with the given hash,
+     * up to 15.
+     */
+    int frequency(final int hashCode) {
+        final AtomicLongArray t = table;
+        final int hash = spread(hashCode);
+        final int start = (hash & 3) << 2;
+        int frequency = Integer.MAX_VALUE;
+        for (int i = 0; i < 4; i++) {
+            final int index = indexOf(hash, i, t.length());
+            final int count = (int) ((t.get(index) >>> ((start + i) << 2)) & 0xfL);
+            frequency = Math.min(frequency, count);
+        }
+        return frequency;
+    }
+
+    /**
+     * Records an access of the key with the given hash.
+     */
+    void increment(final int hashCode) {
+        final AtomicLongArray t = table;
+        final int hash = spread(hashCode);
+        final int start = (hash & 3) << 2;
+        boolean added = false;
+        for (int i = 0; i < 4; i++) {
+            added |= incrementAt(t, indexOf(hash, i, t.length()), start + i);
+        }
+
+        if (added && additions.incrementAndGet() == sampleSize) {
+            reset(t);
+        }
+    }
+
+    /* Increments the 4-bit counter, unless it's saturated */
+    private static boolean incrementAt(final AtomicLongArray t,
+            final int index, final int counter) {
+        final int offset = counter << 2;
+        final long mask = 0xfL << offset;
+        for (;;) {
+            final long value = t.get(index);
+            if ((value & mask) == mask) {
+                return false;
+            }
+            if (t.compareAndSet(index, value, value + (1L << offset))) {
+                return true;
+            }
+        }
+    }
+
+    /* Halves all the counters */
+    private void reset(final AtomicLongArray t) {
+        for (int i = 0; i < t.length(); i++) {
+            for (;;) {
+                final long value = t.get(i);
+                if (t.compareAndSet(i, value, (value >>> 1) & RESET_MASK)) {
+                    break;
+                }
+            }
+        }
+        additions.addAndGet(-(sampleSize >>> 1));
+    }
+
+    private static int indexOf(final int hash, final int i, final int length) {
+        long h = (hash + SEEDS[i]) * SEEDS[i];
+        h += h >>> 32;
+        return ((int) h) & (length - 1);
+    }
+
+    private static int spread(int x) {
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        return (x >>> 16) ^ x;
+    }
+}
@@ -0,0 +1,340 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.grizzly.http.server.filecache;
+
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * W-TinyLFU eviction policy of the {@link FileCache}.
+ *
+ * New entries are admitted into a small LRU window (1% of the maximum entry
+ * count). Entries leaving the window compete with the least recently used
+ * entry of the main space, the entry with the higher access frequency, as
+ * estimated by a {@link FrequencySketch}, stays. The main space is a segmented
+ * LRU, entries hit in its probation segment get promoted to the protected
+ * segment (80% of the main space).
+ *
+ * The same frequency comparison is used to free heap or mapped memory for a
+ * new entry, when the corresponding cache budget is exhausted.
+ *
+ * Hits don't wait for the policy lock, if the lock is busy only the access
+ * frequency gets recorded.
+ */
+final class TinyLfuEvictionPolicy {
+    static final int NONE = 0;
+    static final int WINDOW = 1;
+    static final int PROBATION = 2;
+    static final int PROTECTED = 3;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final FrequencySketch sketch;
+
+    private final AccessOrder window = new AccessOrder(WINDOW);
+    private final AccessOrder probation = new AccessOrder(PROBATION);
+    private final AccessOrder protect = new AccessOrder(PROTECTED);
+
+    private int maximum;
+    private int windowMaximum;
+    private int protectedMaximum;
+
+    TinyLfuEvictionPolicy(final int maximum) {
+        sketch = new FrequencySketch(maximum);
+        setMaximum0(maximum);
+    }
+
+    /**
+     * Updates the maximum number of entries, the extra entries get evicted
+     * as new entries are added.
+     */
+    void setMaximum(final int maximum) {
+        lock.lock();
+        try {
+            setMaximum0(maximum);
+            sketch.ensureCapacity(maximum);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void setMaximum0(final int maximum) {
+        this.maximum = Math.max(maximum, 0);
+        windowMaximum = Math.min(this.maximum, Math.max(1, this.maximum / 100));
+        protectedMaximum = (int) ((this.maximum - windowMaximum) * 4L / 5);
+    }
+
+    /**
+     * Records an access to a key, which has no entry in the cache.
+     */
+    void recordMiss(final int hashCode) {
+        sketch.increment(hashCode);
+    }
+
+    /**
+     * Records a cache entry hit.
+     */
+    void recordHit(final FileCacheEntry entry) {
+        sketch.increment(entry.key.hashCode());
+
+        if (!lock.tryLock()) {
+            return;
+        }
+        try {
+            switch (entry.policyQueue) {
+                case WINDOW:
+                    window.moveToFirst(entry);
+                    break;
+                case PROBATION:
+                    probation.unlink(entry);
+                    protect.addFirst(entry);
+                    if (protect.size > protectedMaximum) {
+                        probation.addFirst(protect.removeLast());
+                    }
+                    break;
+                case PROTECTED:
+                    protect.moveToFirst(entry);
+                    break;
+                default:
+                    break;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Admits the new entry into the window and collects the entries to be
+     * evicted from the cache, to keep it within the maximum entry count.
+     */
+    void onAdd(final FileCacheEntry entry, final List<FileCacheEntry> evicted) {
+        lock.lock();
+        try {
+            window.addFirst(entry);
+
+            while (window.size > windowMaximum) {
+                final FileCacheEntry candidate = window.removeLast();
+                if (probation.size + protect.size < maximum - windowMaximum) {
+                    probation.addFirst(candidate);
+                    continue;
+                }
+
+                final FileCacheEntry victim = probation.last != null
+                        ? probation.last
+                        : protect.last;
+                if (victim != null && frequency(candidate) > frequency(victim)) {
+                    unlink(victim);
+                    evicted.add(victim);
+                    probation.addFirst(candidate);
+                } else {
+                    evicted.add(candidate);
+                }
+            }
+
+            // the maximum could have been decreased
+            while (window.size + probation.size + protect.size > maximum) {
+                final FileCacheEntry victim = probation.last != null
+                        ? probation.last
+                        : protect.last != null ? protect.last : window.last;
+                unlink(victim);
+                evicted.add(victim);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Forgets the entry, which has been removed from the cache.
+     */
+    void onRemove(final FileCacheEntry entry) {
+        lock.lock();
+        try {
+            unlink(entry);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Collects the entries, which are accessed less frequently than the key
+     * with the given hash and together hold at least the given amount of
+     * cache memory of the given type. The entries are collected only if
+     * enough memory could be freed.
+     *
+     * @return <tt>true</tt> if the victims have been collected, or
+     *         <tt>false</tt> otherwise
+     */
+    boolean selectVictims(final FileCache.CacheType type, final long bytes,
+            final int hashCode, final List<FileCacheEntry> evicted) {
+        lock.lock();
+        try {
+            final int frequency = sketch.frequency(hashCode);
+            final int start = evicted.size();
+            long freed = collect(probation, type, frequency, bytes, evicted);
+            if (freed < bytes) {
+                freed += collect(window, type, frequency, bytes - freed, evicted);
+            }
+            if (freed < bytes) {
+                freed += collect(protect, type, frequency, bytes - freed, evicted);
+            }
+
+            if (freed < bytes) {
+                while (evicted.size() > start) {
+                    evicted.remove(evicted.size() - 1);
+                }
+                return false;
+            }
+
+            for (int i = start; i < evicted.size(); i++) {
+                unlink(evicted.get(i));
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long collect(final AccessOrder order,
+            final FileCache.CacheType type, final int frequency,
+            final long bytes, final List<FileCacheEntry> evicted) {
+        long freed = 0;
+        for (FileCacheEntry e = order.last; e != null && freed < bytes;
+                e = e.policyPrev) {
+            final long size = memorySize(e, type);
+            if (size > 0 && frequency(e) < frequency) {
+                evicted.add(e);
+                freed += size;
+            }
+        }
+        return freed;
+    }
+
+    /* The amount of cache memory of the given type held by the entry */
+    private static long memorySize(final FileCacheEntry entry,
+            final FileCache.CacheType type) {
+        long size = entry.type == type ? entry.plainFileSize : 0;
+        for (FileCacheEntry.Variant variant : entry.variants) {
+            if (variant.type == type) {
+                size += variant.size;
+            }
+        }
+        return size;
+    }
+
+    private int frequency(final FileCacheEntry entry) {
+        return sketch.frequency(entry.key.hashCode());
+    }
+
+    private void unlink(final FileCacheEntry entry) {
+        switch (entry.policyQueue) {
+            case WINDOW:
+                window.unlink(entry);
+                break;
+            case PROBATION:
+                probation.unlink(entry);
+                break;
+            case PROTECTED:
+                protect.unlink(entry);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Intrusive LRU list of {@link FileCacheEntry}s, the most recently used
+     * entry first.
+     */
+    private static final class AccessOrder {
+        private final int queue;
+        FileCacheEntry first;
+        FileCacheEntry last;
+        int size;
+
+        AccessOrder(final int queue) {
+            this.queue = queue;
+        }
+
+        void addFirst(final FileCacheEntry entry) {
+            entry.policyQueue = queue;
+            entry.policyPrev = null;
+            entry.policyNext = first;
+            if (first != null) {
+                first.policyPrev = entry;
+            } else {
+                last = entry;
+            }
+            first = entry;
+            size++;
+        }
+
+        FileCacheEntry removeLast() {
+            final FileCacheEntry entry = last;
+            unlink(entry);
+            return entry;
+        }
+
+        void moveToFirst(final FileCacheEntry entry) {
+            if (entry != first) {
+                unlink(entry);
+                addFirst(entry);
+            }
+        }
+
+        void unlink(final FileCacheEntry entry) {
+            final FileCacheEntry prev = entry.policyPrev;
+            final FileCacheEntry next = entry.policyNext;
+            if (prev != null) {
+                prev.policyNext = next;
+            } else {
+                first = next;
+            }
+            if (next != null) {
+                next.policyPrev = prev;
+            } else {
+                last = prev;
+            }
+            entry.policyPrev = null;
+            entry.policyNext = null;
+            entry.policyQueue = NONE;
+            size--;
+        }
+    }
+}
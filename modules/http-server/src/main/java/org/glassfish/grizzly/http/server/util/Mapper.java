@@ -105,6 +105,13 @@ public class Mapper {
      */
     private static boolean allowReplacement = false;
 
+    /**
+     * The default number of entries in the mapping cache,
+     * <tt>0</tt> disables the cache.
+     */
+    private static final int DEFAULT_CACHE_SIZE =
+            Integer.getInteger(Mapper.class.getName() + ".cache-size", 0);
+
     static {
         try {
             SLASH.append('/');
@@ -143,6 +150,14 @@ public class Mapper {
     private int port = 0;
 
 
+    /**
+     * Results of recent mappings, indexed by host and URI hash, or
+     * <tt>null</tt> if caching is disabled. The array is replaced whenever
+     * the mapper is modified.
+     */
+    private volatile CachedMapping[] cache = newCache(DEFAULT_CACHE_SIZE);
+
+
     // --------------------------------------------------------- Public Methods
 
 
@@ -182,6 +197,29 @@ public class Mapper {
     }
 
 
+    /**
+     * Set the number of recent mapping results to cache. The size is rounded
+     * up to a power of two, <tt>0</tt> disables the cache.
+     * Only mappings, which don't depend on static resources and don't
+     * redirect, are cached.
+     *
+     * @param cacheSize the number of cached mapping results.
+     */
+    public void setCacheSize(final int cacheSize) {
+        cache = newCache(cacheSize);
+    }
+
+
+    /**
+     * @return the number of recent mapping results to cache,
+     *         <tt>0</tt> if the cache is disabled.
+     */
+    public int getCacheSize() {
+        final CachedMapping[] c = cache;
+        return c == null ? 0 : c.length;
+    }
+
+
     /**
      * @return Default host name
      */
@@ -197,6 +235,7 @@ public class Mapper {
      */
     public void setDefaultHostName(String defaultHostName) {
         this.defaultHostName = defaultHostName;
+        invalidateCache();
     }
 
     /**
@@ -246,6 +285,7 @@ public class Mapper {
         if (defaultContextPath != null) {
             newHost.defaultContextPaths[0] = defaultContextPath;
         }
+        invalidateCache();
     }
 
 
@@ -278,6 +318,7 @@ public class Mapper {
         // START GlassFish 1024
         defaultContextPathsMap.remove(name);
         // END GlassFish 1024
+        invalidateCache();
     }
 
     public String[] getHosts() {
@@ -300,6 +341,7 @@ public class Mapper {
         context.name = path;
         context.welcomeResources = welcomeResources;
         context.resources = resources;
+        invalidateCache();
     }
 
 
@@ -366,6 +408,7 @@ public class Mapper {
                 Context oldElem = (Context) insertMap(contexts, newContexts, newContext);
                 if (oldElem == null) {
                     host.contextList.contexts = newContexts;
+                    host.contextList.contextsTrie = SegmentTrie.compile(newContexts);
                     // START GlassFish 1024
                     if (path.equals(host.defaultContextPaths[0])) {
                         host.defaultContexts[0] = newContext;
@@ -377,6 +420,7 @@ public class Mapper {
                     oldElem.resources = resources;
                 }
             }
+            invalidateCache();
         }
     }
 
@@ -404,6 +448,7 @@ public class Mapper {
                 Context[] newContexts = new Context[contexts.length - 1];
                 if (removeMap(contexts, newContexts, path)) {
                     host.contextList.contexts = newContexts;
+                    host.contextList.contextsTrie = SegmentTrie.compile(newContexts);
                     // Recalculate nesting
                     host.contextList.nesting = 0;
                     for (Context newContext : newContexts) {
@@ -414,6 +459,7 @@ public class Mapper {
                     }
                 }
             }
+            invalidateCache();
         }
     }
 
@@ -557,6 +603,7 @@ public class Mapper {
                         insertMap(oldWrappers, newWrappers, newWrapper);
                 if (oldElem == null) {
                     context.wildcardWrappers = newWrappers;
+                    context.wildcardTrie = SegmentTrie.compile(newWrappers);
                     int slashCount = slashCount(newWrapper.name);
                     if (slashCount > context.nesting) {
                         context.nesting = slashCount;
@@ -574,6 +621,7 @@ public class Mapper {
                 Wrapper oldElem = (Wrapper)insertMap(oldWrappers, newWrappers, newWrapper);
                 if (oldElem == null) {
                     context.extensionWrappers = newWrappers;
+                    context.extensionTable = NameTable.compile(newWrappers);
                 } else if (allowReplacement){
                     oldElem.object = wrapper;
                     oldElem.jspWildCard = jspWildCard;
@@ -600,6 +648,7 @@ public class Mapper {
                             newWrappers, newWrapper);
                         if (oldElem == null) {
                             context.exactWrappers = newWrappers;
+                            context.exactTable = NameTable.compile(newWrappers);
                         } else if (allowReplacement){
                             oldElem.object = wrapper;
                             oldElem.jspWildCard = jspWildCard;
@@ -608,6 +657,7 @@ public class Mapper {
                 }
             }
         }
+        invalidateCache();
     }
 
 
@@ -668,6 +718,7 @@ public class Mapper {
                         }
                     }
                     context.wildcardWrappers = newWrappers;
+                    context.wildcardTrie = SegmentTrie.compile(newWrappers);
                 }
             } else if (path.startsWith("*.")) {
                 // Extension wrapper
@@ -677,6 +728,7 @@ public class Mapper {
                     new Wrapper[oldWrappers.length - 1];
                 if (removeMap(oldWrappers, newWrappers, name)) {
                     context.extensionWrappers = newWrappers;
+                    context.extensionTable = NameTable.compile(newWrappers);
                 }
             } else if ("/".equals(path)) {
                 // Default wrapper
@@ -688,9 +740,11 @@ public class Mapper {
                     new Wrapper[oldWrappers.length - 1];
                 if (removeMap(oldWrappers, newWrappers, path)) {
                     context.exactWrappers = newWrappers;
+                    context.exactTable = NameTable.compile(newWrappers);
                 }
             }
         }
+        invalidateCache();
     }
 
     public String getWrappersString( String host, String context ) {
@@ -757,13 +811,17 @@ public class Mapper {
             return;
         }
 
-        hosts[pos].defaultContextPaths[0] = defaultContextPath;
+        try {
+            hosts[pos].defaultContextPaths[0] = defaultContextPath;
 
-        if (defaultContextPath != null) {
-            addDefaultContext(hosts[pos], defaultContextPath);
-        } else {
-            hosts[pos].defaultContexts[0] = null;
-            defaultContextPathsMap.remove(hostName);
+            if (defaultContextPath != null) {
+                addDefaultContext(hosts[pos], defaultContextPath);
+            } else {
+                hosts[pos].defaultContexts[0] = null;
+                defaultContextPathsMap.remove(hostName);
+            }
+        } finally {
+            invalidateCache();
         }
     }
 
@@ -977,9 +1035,27 @@ public class Mapper {
 
         uri.setLimit(-1);
 
+        // Only fresh mapping data can be served from and stored in the cache
+        final CachedMapping[] cache = this.cache;
+        final boolean cacheable = cache != null
+                && mappingData.host == null
+                && mappingData.context == null
+                && mappingData.wrapper == null;
+        int hash = 0;
+        if (cacheable) {
+            hash = CachedMapping.hash(host, uri);
+            final CachedMapping cached = cache[hash & (cache.length - 1)];
+            if (cached != null && cached.matches(hash, host, uri)) {
+                cached.apply(mappingData);
+                return;
+            }
+        }
+        final int uriStart = uri.getStart();
+        final int uriEnd = uri.getEnd();
+
         Context[] contexts = null;
+        SegmentTrie<Context> contextsTrie = null;
         Context ctx = null;
-        int nesting = 0;
 
         int hostPos = -1;
 
@@ -993,7 +1069,7 @@ public class Mapper {
                 mappingData.host = newHosts[pos].object;
                 hostPos = pos;
                 contexts = newHosts[pos].contextList.contexts;
-                nesting = newHosts[pos].contextList.nesting;
+                contextsTrie = newHosts[pos].contextList.contextsTrie;
             } else {
                 if (defaultHostName == null) {
                     return;
@@ -1003,7 +1079,7 @@ public class Mapper {
                     mappingData.host = newHosts[pos].object;
                     hostPos = pos;
                     contexts = newHosts[pos].contextList.contexts;
-                    nesting = newHosts[pos].contextList.nesting;
+                    contextsTrie = newHosts[pos].contextList.contextsTrie;
                 } else {
                     return;
                 }
@@ -1012,73 +1088,24 @@ public class Mapper {
 
         // Context mapping
         if (mappingData.context == null) {
-
-            // START GlassFish 1024
-            boolean found = false;
-            // END GlassFish 1024
-
-            int pos = find(contexts, uri);
-            if (pos == -1) {
+            // The longest context path matching the URI
+            ctx = contextsTrie == null ?
+                    null :
+                    contextsTrie.longestPrefix(uri.getBuffer(), uri.getStart(), uri.getEnd());
+
+            if (ctx == null) {
+                if (contexts != null && contexts.length > 0 && "".equals(contexts[0].name)) {
+                    ctx = contexts[0];
                 // START GlassFish 1024
-                if (hosts[hostPos].defaultContexts[0] == null) {
+                } else if (hosts[hostPos].defaultContexts[0] != null) {
+                    ctx = hosts[hostPos].defaultContexts[0];
+                    mappingData.isDefaultContext = true;
                 // END GlassFish 1024
-                    return;
-                // START GlassFish 1024
                 }
-                ctx = hosts[hostPos].defaultContexts[0];
+            }
+            if (ctx != null) {
                 mappingData.context = ctx.object;
                 mappingData.contextPath.setString(ctx.name);
-                found = true;
-                mappingData.isDefaultContext = true;
-                // END GlassFish 1024
-            }
-
-            // START GlassFish 1024
-            if (!found) {
-            // END GlassFish 1024
-                int lastSlash = -1;
-                int uriEnd = uri.getEnd();
-                int length;
-                /* GlassFish 1024
-                boolean found = false;
-                */
-                while (pos >= 0) {
-                    if (contexts != null && uri.startsWith(contexts[pos].name)) {
-                        length = contexts[pos].name.length();
-                        if (uri.getLength() == length) {
-                            found = true;
-                            break;
-                        } else if (uri.startsWithIgnoreCase("/", length)) {
-                            found = true;
-                            break;
-                        }
-                    }
-                    if (lastSlash == -1) {
-                        lastSlash = nthSlash(uri, nesting + 1);
-                    } else {
-                        lastSlash = lastSlash(uri);
-                    }
-                    uri.setEnd(lastSlash);
-                    pos = find(contexts, uri);
-                }
-                uri.setEnd(uriEnd);
-
-                if (!found) {
-                    if (contexts != null && "".equals(contexts[0].name)) {
-                        ctx = contexts[0];
-                    // START GlassFish 1024
-                    } else if (hosts[hostPos].defaultContexts[0] != null) {
-                        ctx = hosts[hostPos].defaultContexts[0];
-                        mappingData.isDefaultContext = true;
-                    // END GlassFish 1024
-                    }
-                } else {
-                    ctx = contexts[pos];
-                }
-                if (ctx != null) {
-                    mappingData.context = ctx.object;
-                    mappingData.contextPath.setString(ctx.name);
-                }
             }
         }
 
@@ -1087,6 +1114,16 @@ public class Mapper {
             internalMapWrapper(ctx, uri, mappingData);
         }
 
+        // Results depending on static resources or on the URI being
+        // modified (redirects) aren't cached
+        if (cacheable
+                && (ctx == null || ctx.resources == null)
+                && mappingData.redirectPath.isNull()
+                && uri.getStart() == uriStart && uri.getEnd() == uriEnd) {
+            cache[hash & (cache.length - 1)] =
+                    new CachedMapping(hash, host, uri, mappingData);
+        }
+
     }
 
 
@@ -1137,17 +1174,16 @@ public class Mapper {
         }
 
         // Rule 1 -- Exact Match
-        Wrapper[] exactWrappers = context.exactWrappers;
+        NameTable<Wrapper> exactWrappers = context.exactTable;
         if (mappingData.wrapper == null) {
             internalMapExactWrapper(exactWrappers, path, mappingData);
         }
 
         // Rule 2 -- Prefix Match
         boolean checkJspWelcomeFiles = false;
-        Wrapper[] wildcardWrappers = context.wildcardWrappers;
+        SegmentTrie<Wrapper> wildcardWrappers = context.wildcardTrie;
         if (mappingData.wrapper == null) {
-            internalMapWildcardWrapper(wildcardWrappers, context.nesting,
-                                       path, mappingData);
+            internalMapWildcardWrapper(wildcardWrappers, path, mappingData);
             if (mappingData.wrapper != null && mappingData.jspWildCard) {
                 char[] buf = path.getBuffer();
                 if (buf[pathEnd - 1] == '/') {
@@ -1188,7 +1224,7 @@ public class Mapper {
         }
 
         // Rule 3 -- Extension Match
-        Wrapper[] extensionWrappers = context.extensionWrappers;
+        NameTable<Wrapper> extensionWrappers = context.extensionTable;
         if (mappingData.wrapper == null && !checkJspWelcomeFiles) {
             internalMapExtensionWrapper(extensionWrappers, path, mappingData);
         }
@@ -1252,7 +1288,7 @@ public class Mapper {
                             // Rule 4a2 -- prefix match
                             if (mappingData.wrapper == null) {
                                 internalMapWildcardWrapper(wildcardWrappers,
-                                        context.nesting, path, mappingData);
+                                        path, mappingData);
                             }
 
                             // Rule 4a3 -- extension match
@@ -1300,8 +1336,7 @@ public class Mapper {
                         // Rule 4b2 -- Welcome resources processing for prefix match
                         if (mappingData.wrapper == null) {
                             internalMapWildcardWrapper
-                                (wildcardWrappers, context.nesting,
-                                 path, mappingData);
+                                (wildcardWrappers, path, mappingData);
                         }
 
                         // Rule 4b3 -- Welcome resources processing for extension match
@@ -1395,14 +1430,15 @@ public class Mapper {
      * Exact mapping.
      */
     private void internalMapExactWrapper
-        (Wrapper[] wrappers, CharChunk path, MappingData mappingData) {
-        int pos = find(wrappers, path);
-        if (pos != -1 && path.equals(wrappers[pos].name)) {
-            mappingData.requestPath.setString(wrappers[pos].name);
-            mappingData.wrapperPath.setString(wrappers[pos].name);
-            mappingData.wrapper = wrappers[pos].object;
-            mappingData.servletName = wrappers[pos].servletName;
-            mappingData.descriptorPath = wrappers[pos].path;
+        (NameTable<Wrapper> wrappers, CharChunk path, MappingData mappingData) {
+        final Wrapper wrapper =
+                wrappers.get(path.getBuffer(), path.getStart(), path.getEnd());
+        if (wrapper != null) {
+            mappingData.requestPath.setString(wrapper.name);
+            mappingData.wrapperPath.setString(wrapper.name);
+            mappingData.wrapper = wrapper.object;
+            mappingData.servletName = wrapper.servletName;
+            mappingData.descriptorPath = wrapper.path;
             mappingData.matchedPath = path.toString();
             mappingData.mappingType =
                     (("/".equals(mappingData.matchedPath))
@@ -1416,53 +1452,28 @@ public class Mapper {
      * Wildcard mapping.
      */
     private void internalMapWildcardWrapper
-        (Wrapper[] wrappers, int nesting, CharChunk path,
+        (SegmentTrie<Wrapper> wrappers, CharChunk path,
          MappingData mappingData) {
 
-        int pathEnd = path.getEnd();
-
-        int lastSlash = -1;
-        int length = -1;
-        int pos = find(wrappers, path);
-        if (pos != -1) {
-            boolean found = false;
-            while (pos >= 0) {
-                if (path.startsWith(wrappers[pos].name)) {
-                    length = wrappers[pos].name.length();
-                    if (path.getLength() == length) {
-                        found = true;
-                        break;
-                    } else if (path.startsWithIgnoreCase("/", length)) {
-                        found = true;
-                        break;
-                    }
-                }
-                if (lastSlash == -1) {
-                    lastSlash = nthSlash(path, nesting + 1);
-                } else {
-                    lastSlash = lastSlash(path);
-                }
-                path.setEnd(lastSlash);
-                pos = find(wrappers, path);
-            }
-            path.setEnd(pathEnd);
-            if (found) {
-                mappingData.wrapperPath.setString(wrappers[pos].name);
-                if (path.getLength() > length) {
-                    mappingData.pathInfo.setChars
-                        (path.getBuffer(),
-                         path.getStart() + length,
-                         path.getEnd());
-                }
-                mappingData.requestPath.setChars
-                    (path.getBuffer(), path.getStart(), path.getEnd());
-                mappingData.wrapper = wrappers[pos].object;
-                mappingData.servletName = wrappers[pos].servletName;
-                mappingData.jspWildCard = wrappers[pos].jspWildCard;
-                mappingData.mappingType = MappingData.PATH;
-                mappingData.descriptorPath = wrappers[pos].path;
-                mappingData.matchedPath = path.toString();
+        final Wrapper wrapper = wrappers.longestPrefix(
+                path.getBuffer(), path.getStart(), path.getEnd());
+        if (wrapper != null) {
+            final int length = wrapper.name.length();
+            mappingData.wrapperPath.setString(wrapper.name);
+            if (path.getLength() > length) {
+                mappingData.pathInfo.setChars
+                    (path.getBuffer(),
+                     path.getStart() + length,
+                     path.getEnd());
             }
+            mappingData.requestPath.setChars
+                (path.getBuffer(), path.getStart(), path.getEnd());
+            mappingData.wrapper = wrapper.object;
+            mappingData.servletName = wrapper.servletName;
+            mappingData.jspWildCard = wrapper.jspWildCard;
+            mappingData.mappingType = MappingData.PATH;
+            mappingData.descriptorPath = wrapper.path;
+            mappingData.matchedPath = path.toString();
         }
     }
 
@@ -1471,7 +1482,7 @@ public class Mapper {
      * Extension mappings.
      */
     private void internalMapExtensionWrapper
-        (Wrapper[] wrappers, CharChunk path, MappingData mappingData) {
+        (NameTable<Wrapper> wrappers, CharChunk path, MappingData mappingData) {
         char[] buf = path.getBuffer();
         int pathEnd = path.getEnd();
         int servletPath = path.getStart();
@@ -1491,84 +1502,23 @@ public class Mapper {
                 }
             }
             if (period >= 0) {
-                path.setStart(period + 1);
-                path.setEnd(pathEnd);
-                int pos = find(wrappers, path);
-                if (pos != -1
-                    && path.equals(wrappers[pos].name)) {
+                final Wrapper wrapper = wrappers.get(buf, period + 1, pathEnd);
+                if (wrapper != null) {
                     mappingData.wrapperPath.setChars
                         (buf, servletPath, pathEnd);
                     mappingData.requestPath.setChars
                         (buf, servletPath, pathEnd);
-                    mappingData.wrapper = wrappers[pos].object;
-                    mappingData.servletName = wrappers[pos].servletName;
+                    mappingData.wrapper = wrapper.object;
+                    mappingData.servletName = wrapper.servletName;
                     mappingData.mappingType = MappingData.EXTENSION;
-                    mappingData.descriptorPath = wrappers[pos].path;
+                    mappingData.descriptorPath = wrapper.path;
                 }
-                path.setStart(servletPath);
-                path.setEnd(pathEnd);
                 mappingData.matchedPath = path.toString();
             }
         }
     }
 
 
-    /**
-     * Find a map element given its name in a sorted array of map elements.
-     * This will return the index for the closest inferior or equal item in the
-     * given array.
-     */
-    private static int find(MapElement[] map, CharChunk name) {
-        return find(map, name, name.getStart(), name.getEnd());
-    }
-
-
-    /**
-     * Find a map element given its name in a sorted array of map elements.
-     * This will return the index for the closest inferior or equal item in the
-     * given array.
-     */
-    private static int find(MapElement[] map, CharChunk name,
-                                  int start, int end) {
-
-        int a = 0;
-        int b = map.length - 1;
-
-        // Special cases: -1 and 0
-        if (b == -1) {
-            return -1;
-        }
-
-        if (compare(name, start, end, map[0].name) < 0 ) {
-            return -1;
-        }
-        if (b == 0) {
-            return 0;
-        }
-
-        int i;
-        while (true) {
-            i = (b + a) >>> 1;
-            int result = compare(name, start, end, map[i].name);
-            if (result == 1) {
-                a = i;
-            } else if (result == 0) {
-                return i;
-            } else {
-                b = i;
-            }
-            if (b - a == 1) {
-                int result2 = compare(name, start, end, map[b].name);
-                if (result2 < 0) {
-                    return a;
-                } else {
-                    return b;
-                }
-            }
-        }
-    }
-
-
 //    /**
 //     * Find a map element given its name in a sorted array of map elements.
 //     * This will return the index for the closest inferior or equal item in the
@@ -1582,6 +1532,30 @@ public class Mapper {
 //    }
 
 
+    /**
+     * Drop all cached mapping results.
+     */
+    private void invalidateCache() {
+        final CachedMapping[] c = cache;
+        if (c != null) {
+            cache = new CachedMapping[c.length];
+        }
+    }
+
+
+    private static CachedMapping[] newCache(final int size) {
+        if (size <= 0) {
+            return null;
+        }
+
+        int capacity = 1;
+        while (capacity < size) {
+            capacity <<= 1;
+        }
+        return new CachedMapping[capacity];
+    }
+
+
     /**
      * Find a map element given its name in a sorted array of map elements.
      * This will return the index for the closest inferior or equal item in the
@@ -1727,36 +1701,6 @@ public class Mapper {
     }
 
 
-    /**
-     * Compare given char chunk with String.
-     * Return -1, 0 or +1 if inferior, equal, or superior to the String.
-     */
-    private static int compare(CharChunk name, int start, int end,
-                                     String compareTo) {
-        int result = 0;
-        char[] c = name.getBuffer();
-        int len = compareTo.length();
-        if (end - start < len) {
-            len = end - start;
-        }
-        for (int i = 0; i < len && result == 0; i++) {
-            if (c[i + start] > compareTo.charAt(i)) {
-                result = 1;
-            } else if (c[i + start] < compareTo.charAt(i)) {
-                result = -1;
-            }
-        }
-        if (result == 0) {
-            if (compareTo.length() > end - start) {
-                result = -1;
-            } else if (compareTo.length() < end - start) {
-                result = 1;
-            }
-        }
-        return result;
-    }
-
-
     /**
      * Compare given char chunk with String ignoring case.
      * Return -1, 0 or +1 if inferior, equal, or superior to the String.
@@ -1816,49 +1760,6 @@ public class Mapper {
         return result;
     }
 
-    /**
-     * Find the position of the last slash in the given char chunk.
-     */
-    private static int lastSlash(CharChunk name) {
-
-        char[] c = name.getBuffer();
-        int end = name.getEnd();
-        int start = name.getStart();
-        int pos = end;
-
-        while (pos > start) {
-            if (c[--pos] == '/') {
-                break;
-            }
-        }
-
-        return pos;
-
-    }
-
-
-    /**
-     * Find the position of the nth slash, in the given char chunk.
-     */
-    private static int nthSlash(CharChunk name, int n) {
-
-        char[] c = name.getBuffer();
-        int end = name.getEnd();
-        int pos = name.getStart();
-        int count = 0;
-
-        while (pos < end) {
-            if (c[pos++] == '/' && ++count == n) {
-                pos--;
-                break;
-            }
-        }
-
-        return pos;
-
-    }
-
-
     /**
      * Return the slash count in a given string.
      */
@@ -1993,6 +1894,7 @@ public class Mapper {
 
         public Context[] contexts = new Context[0];
         public int nesting = 0;
+        SegmentTrie<Context> contextsTrie = SegmentTrie.empty();
 
     }
 
@@ -2013,6 +1915,9 @@ public class Mapper {
         public Wrapper[] wildcardWrappers = new Wrapper[0];
         public Wrapper[] extensionWrappers = new Wrapper[0];
         public int nesting = 0;
+        NameTable<Wrapper> exactTable = NameTable.empty();
+        SegmentTrie<Wrapper> wildcardTrie = SegmentTrie.empty();
+        NameTable<Wrapper> extensionTable = NameTable.empty();
 
     }
 
@@ -2029,6 +1934,105 @@ public class Mapper {
     }
 
 
+    // ------------------------------------------------ CachedMapping Inner Class
+
+
+    /**
+     * Immutable snapshot of the result of mapping a host and URI.
+     */
+    private static final class CachedMapping {
+
+        private final int hash;
+        private final String hostName;
+        private final String uri;
+
+        private final byte mappingType;
+        private final Object host;
+        private final Object context;
+        private final Object wrapper;
+        private final String servletName;
+        private final String descriptorPath;
+        private final String matchedPath;
+        private final boolean jspWildCard;
+        private final boolean isDefaultContext;
+        private final String contextPath;
+        private final String requestPath;
+        private final String wrapperPath;
+        private final String pathInfo;
+
+        CachedMapping(final int hash, final CharChunk host, final CharChunk uri,
+                      final MappingData mappingData) {
+            this.hash = hash;
+            this.hostName = host == null || host.isNull() ? null : host.toString();
+            this.uri = uri.toString();
+
+            mappingType = mappingData.mappingType;
+            this.host = mappingData.host;
+            context = mappingData.context;
+            wrapper = mappingData.wrapper;
+            servletName = mappingData.servletName;
+            descriptorPath = mappingData.descriptorPath;
+            matchedPath = mappingData.matchedPath;
+            jspWildCard = mappingData.jspWildCard;
+            isDefaultContext = mappingData.isDefaultContext;
+            contextPath = toString(mappingData.contextPath);
+            requestPath = toString(mappingData.requestPath);
+            wrapperPath = toString(mappingData.wrapperPath);
+            pathInfo = toString(mappingData.pathInfo);
+        }
+
+        static int hash(final CharChunk host, final CharChunk uri) {
+            int h = 0;
+            if (host != null && !host.isNull()) {
+                final char[] buf = host.getBuffer();
+                for (int i = host.getStart(), end = host.getEnd(); i < end; i++) {
+                    h = 31 * h + Ascii.toLower(buf[i]);
+                }
+            }
+            h = 31 * h + NameTable.hash(uri.getBuffer(), uri.getStart(), uri.getEnd());
+            return NameTable.spread(h);
+        }
+
+        boolean matches(final int hash, final CharChunk host, final CharChunk uri) {
+            if (this.hash != hash || !uri.equals(this.uri)) {
+                return false;
+            }
+            if (host == null || host.isNull()) {
+                return hostName == null;
+            }
+            return hostName != null && host.equalsIgnoreCase(hostName);
+        }
+
+        void apply(final MappingData mappingData) {
+            mappingData.mappingType = mappingType;
+            mappingData.host = host;
+            mappingData.context = context;
+            mappingData.wrapper = wrapper;
+            mappingData.servletName = servletName;
+            mappingData.descriptorPath = descriptorPath;
+            mappingData.matchedPath = matchedPath;
+            mappingData.jspWildCard = jspWildCard;
+            mappingData.isDefaultContext = isDefaultContext;
+            set(mappingData.contextPath, contextPath);
+            set(mappingData.requestPath, requestPath);
+            set(mappingData.wrapperPath, wrapperPath);
+            set(mappingData.pathInfo, pathInfo);
+        }
+
+        private static String toString(final DataChunk dataChunk) {
+            return dataChunk.isNull() ? null : dataChunk.toString();
+        }
+
+        private static void set(final DataChunk dataChunk, final String value) {
+            if (value == null) {
+                dataChunk.recycle();
+            } else {
+                dataChunk.setString(value);
+            }
+        }
+    }
+
+
     // -------------------------------------------------------- Testing Methods
 
     // FIXME: Externalize this
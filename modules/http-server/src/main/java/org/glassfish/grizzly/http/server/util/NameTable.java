@@ -0,0 +1,150 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.grizzly.http.server.util;
+
+/**
+ * Open-addressing table keyed by (case sensitive) names, which can be looked
+ * up directly from a range of characters without creating a {@link String}.
+ * Tables are populated once, when compiled, and never modified afterwards.
+ */
+final class NameTable<V> {
+
+    @SuppressWarnings("unchecked")
+    private static final NameTable EMPTY = new NameTable(2);
+
+    private final String[] keys;
+    private final Object[] values;
+    private final int mask;
+
+    NameTable(final int capacity) {
+        keys = new String[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+    }
+
+    /**
+     * @return an empty {@link NameTable}.
+     */
+    @SuppressWarnings("unchecked")
+    static <V> NameTable<V> empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Compile the given elements into a new {@link NameTable} keyed by
+     * {@link Mapper.MapElement#name}.
+     */
+    static <E extends Mapper.MapElement> NameTable<E> compile(final E[] elements) {
+        if (elements.length == 0) {
+            return empty();
+        }
+
+        final NameTable<E> table = new NameTable<E>(capacityFor(elements.length));
+        for (E element : elements) {
+            table.put(element.name, element);
+        }
+        return table;
+    }
+
+    /**
+     * Return the element whose name equals the characters
+     * <tt>buf[start, end)</tt>, or <tt>null</tt> if there is none.
+     */
+    @SuppressWarnings("unchecked")
+    V get(final char[] buf, final int start, final int end) {
+        final int length = end - start;
+        int index = spread(hash(buf, start, end)) & mask;
+        String key;
+        while ((key = keys[index]) != null) {
+            if (key.length() == length && regionMatches(key, buf, start)) {
+                return (V) values[index];
+            }
+            index = (index + 1) & mask;
+        }
+        return null;
+    }
+
+    // ------------------------------------------------------- Package Methods
+
+
+    void put(final String key, final V value) {
+        int index = spread(key.hashCode()) & mask;
+        while (keys[index] != null) {
+            if (keys[index].equals(key)) {
+                break;
+            }
+            index = (index + 1) & mask;
+        }
+        keys[index] = key;
+        values[index] = value;
+    }
+
+    static int capacityFor(final int size) {
+        int capacity = 2;
+        while (capacity < size * 2) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    /* Compatible with String.hashCode() */
+    static int hash(final char[] buf, final int start, final int end) {
+        int h = 0;
+        for (int i = start; i < end; i++) {
+            h = 31 * h + buf[i];
+        }
+        return h;
+    }
+
+    static int spread(final int h) {
+        return h ^ (h >>> 16);
+    }
+
+    static boolean regionMatches(final String key, final char[] buf, final int start) {
+        for (int i = 0, len = key.length(); i < len; i++) {
+            if (key.charAt(i) != buf[start + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
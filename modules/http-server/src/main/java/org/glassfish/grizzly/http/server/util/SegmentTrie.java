@@ -0,0 +1,165 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.grizzly.http.server.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Immutable trie of {@link Mapper.MapElement}s keyed by the '/' separated
+ * segments of their names, used to find the longest element name which is a
+ * prefix of a path, ending either at the end of the path or before a '/'.
+ * This is the rule used to match both context paths and wildcard
+ * (<tt>/path/*</tt>) wrappers.
+ */
+final class SegmentTrie<E extends Mapper.MapElement> {
+
+    @SuppressWarnings("unchecked")
+    private static final SegmentTrie EMPTY = new SegmentTrie(null, NameTable.empty());
+
+    /* The element whose name ends at this node, if any */
+    private final E element;
+    private final NameTable<SegmentTrie<E>> children;
+
+    private SegmentTrie(final E element, final NameTable<SegmentTrie<E>> children) {
+        this.element = element;
+        this.children = children;
+    }
+
+    /**
+     * @return an empty {@link SegmentTrie}.
+     */
+    @SuppressWarnings("unchecked")
+    static <E extends Mapper.MapElement> SegmentTrie<E> empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Compile the given elements into a new {@link SegmentTrie}.
+     */
+    static <E extends Mapper.MapElement> SegmentTrie<E> compile(final E[] elements) {
+        if (elements.length == 0) {
+            return empty();
+        }
+
+        final Builder<E> root = new Builder<E>();
+        for (E element : elements) {
+            final String name = element.name;
+            Builder<E> node = root;
+            if (name.length() > 0) {
+                int start = 0;
+                int slash;
+                do {
+                    slash = name.indexOf('/', start);
+                    final String segment = name.substring(start,
+                            slash == -1 ? name.length() : slash);
+                    Builder<E> child = node.children.get(segment);
+                    if (child == null) {
+                        child = new Builder<E>();
+                        node.children.put(segment, child);
+                    }
+                    node = child;
+                    start = slash + 1;
+                } while (slash != -1);
+            }
+            node.element = element;
+        }
+        return root.build();
+    }
+
+    /**
+     * Return the element with the longest name matching the beginning of the
+     * path <tt>buf[start, end)</tt>, or <tt>null</tt> if there is none.
+     */
+    E longestPrefix(final char[] buf, final int start, final int end) {
+        E match = null;
+        if (element != null && (start == end || buf[start] == '/')) {
+            match = element;
+        }
+
+        SegmentTrie<E> node = this;
+        int offset = start;
+        while (true) {
+            int slash = -1;
+            for (int i = offset; i < end; i++) {
+                if (buf[i] == '/') {
+                    slash = i;
+                    break;
+                }
+            }
+
+            node = node.children.get(buf, offset, slash == -1 ? end : slash);
+            if (node == null) {
+                return match;
+            }
+            if (node.element != null) {
+                match = node.element;
+            }
+            if (slash == -1) {
+                return match;
+            }
+            offset = slash + 1;
+        }
+    }
+
+    // ---------------------------------------------------------- Nested Classes
+
+
+    private static final class Builder<E extends Mapper.MapElement> {
+        private E element;
+        private final Map<String, Builder<E>> children =
+                new LinkedHashMap<String, Builder<E>>();
+
+        SegmentTrie<E> build() {
+            if (children.isEmpty()) {
+                return new SegmentTrie<E>(element, NameTable.<SegmentTrie<E>>empty());
+            }
+
+            final NameTable<SegmentTrie<E>> table =
+                    new NameTable<SegmentTrie<E>>(NameTable.capacityFor(children.size()));
+            for (Map.Entry<String, Builder<E>> entry : children.entrySet()) {
+                table.put(entry.getKey(), entry.getValue().build());
+            }
+            return new SegmentTrie<E>(element, table);
+        }
+    }
+
+}
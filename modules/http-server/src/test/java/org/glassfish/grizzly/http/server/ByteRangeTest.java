@@ -0,0 +1,114 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.grizzly.http.server;
+
+import java.util.List;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * {@link ByteRange} parsing tests.
+ */
+public class ByteRangeTest {
+
+    @Test
+    public void testParse() {
+        assertRanges("[0-499]", "bytes=0-499", 10000);
+        assertRanges("[500-999]", "bytes=500-999", 10000);
+        assertRanges("[9500-9999]", "bytes=-500", 10000);
+        assertRanges("[9500-9999]", "bytes=9500-", 10000);
+        assertRanges("[0-0, 9999-9999]", "bytes=0-0,-1", 10000);
+        assertRanges("[500-600, 700-999]", "Bytes= 500-600 , 700-999", 10000);
+        assertRanges("[0-99]", "bytes=0-99999", 100);
+        assertRanges("[0-99]", "bytes=-99999", 100);
+    }
+
+    @Test
+    public void testCoalesce() {
+        // overlapping, adjacent and out of order ranges are merged
+        assertRanges("[500-999]", "bytes=500-600,601-999", 10000);
+        assertRanges("[0-99]", "bytes=0-,0-,0-,0-,0-", 100);
+        assertRanges("[0-99]", "bytes=-100,0-49,50-", 100);
+        assertRanges("[0-9, 20-59]", "bytes=40-59,0-9,20-45,30-30", 100);
+        assertRanges("[0-0, 9999-9999]", "bytes=-1,0-0", 10000);
+
+        // the requested ranges never add up to more than the resource length
+        final StringBuilder sb = new StringBuilder("bytes=0-");
+        for (int i = 1; i < ByteRange.MAX_RANGES; i++) {
+            sb.append(",0-");
+        }
+        final List<ByteRange> ranges = ByteRange.parse(sb.toString(), 1000);
+        assertEquals(1, ranges.size());
+        assertEquals(1000, ranges.get(0).length());
+    }
+
+    @Test
+    public void testUnsatisfiable() {
+        assertTrue(ByteRange.parse("bytes=100-", 100).isEmpty());
+        assertTrue(ByteRange.parse("bytes=-0", 100).isEmpty());
+        assertTrue(ByteRange.parse("bytes=0-10", 0).isEmpty());
+        assertRanges("[0-9]", "bytes=200-300,0-9", 100);
+    }
+
+    @Test
+    public void testIgnored() {
+        assertNull(ByteRange.parse("items=0-10", 100));
+        assertNull(ByteRange.parse("bytes=", 100));
+        assertNull(ByteRange.parse("bytes=10", 100));
+        assertNull(ByteRange.parse("bytes=10-5", 100));
+        assertNull(ByteRange.parse("bytes=a-5", 100));
+        assertNull(ByteRange.parse("bytes=-", 100));
+        assertNull(ByteRange.parse("bytes=0-99999999999999999999", 100));
+
+        final StringBuilder sb = new StringBuilder("bytes=0-0");
+        for (int i = 1; i <= ByteRange.MAX_RANGES; i++) {
+            sb.append(',').append(i).append('-').append(i);
+        }
+        assertNull(ByteRange.parse(sb.toString(), 1000));
+    }
+
+    private static void assertRanges(final String expected, final String value,
+            final long length) {
+        final List<ByteRange> ranges = ByteRange.parse(value, length);
+        assertNotNull(value, ranges);
+        assertEquals(value, expected, ranges.toString());
+    }
+}
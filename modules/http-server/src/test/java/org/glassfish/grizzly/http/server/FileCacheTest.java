@@ -83,12 +83,16 @@ import java.util.Date;
 import java.util.Locale;
 import java.util.Random;
 import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
 import org.glassfish.grizzly.http.CompressionConfig.CompressionMode;
 
+import org.glassfish.grizzly.http.server.filecache.FileCacheEntryProbe;
 import org.glassfish.grizzly.http.server.filecache.FileCacheProbe;
 import org.glassfish.grizzly.http.util.MimeType;
 import org.junit.After;
@@ -570,6 +574,223 @@ public class FileCacheTest {
         }
     }
     
+    @Test
+    public void testPrecompressedVariants() throws Exception {
+        final File file = createTempFile();
+        final String requestPath = "/" + file.getName();
+
+        final File brFile = new File(file.getPath() + ".br");
+        brFile.deleteOnExit();
+        FileOutputStream out = new FileOutputStream(brFile);
+        try {
+            out.write("brotli data".getBytes());
+        } finally {
+            out.close();
+        }
+
+        final File gzFile = new File(file.getPath() + ".gz");
+        gzFile.deleteOnExit();
+        out = new FileOutputStream(gzFile);
+        try {
+            final GZIPOutputStream gzOut = new GZIPOutputStream(out);
+            gzOut.write("precompressed gzip data".getBytes());
+            gzOut.close();
+        } finally {
+            out.close();
+        }
+
+        final StatsCacheProbe probe = new StatsCacheProbe();
+        httpServer.getServerConfiguration().getMonitoringConfig().getFileCacheConfig().addProbes(probe);
+        httpServer.getServerConfiguration().getMonitoringConfig().getFileCacheEntryConfig().addProbes(probe);
+
+        startHttpServer(new StaticHttpHandler(file.getParent()));
+
+        final HttpRequestPacket.Builder builder = HttpRequestPacket.builder()
+                .method("GET")
+                .uri(requestPath)
+                .protocol("HTTP/1.1")
+                .header("Host", "localhost");
+
+        boolean isOk = false;
+        try {
+            final ReusableFuture<HttpContent> responseFuture =
+                    new ReusableFuture<HttpContent>();
+            final Connection c = getConnection("localhost", PORT, responseFuture);
+
+            // the first request is served by the static handler and caches the file
+            c.write(builder.build());
+            final HttpContent response1 = responseFuture.get(10, TimeUnit.SECONDS);
+            assertNull(response1.getHttpHeader().getHeader("Content-Encoding"));
+            final String etag = response1.getHttpHeader().getHeader("ETag");
+
+            responseFuture.reset();
+            c.write(HttpRequestPacket.builder()
+                    .method("GET")
+                    .uri(requestPath)
+                    .protocol("HTTP/1.1")
+                    .header("Host", "localhost")
+                    .header("Accept-Encoding", "gzip;q=0.5, br")
+                    .build());
+            final HttpContent response2 = responseFuture.get(10, TimeUnit.SECONDS);
+            assertEquals(probe.toString(), "br", response2.getHttpHeader().getHeader("Content-Encoding"));
+            assertEquals("Accept-Encoding", response2.getHttpHeader().getHeader("Vary"));
+            assertEquals(etag.substring(0, etag.length() - 1) + "-br\"",
+                    response2.getHttpHeader().getHeader("ETag"));
+            assertEquals("brotli data", response2.getContent().toStringContent());
+
+            responseFuture.reset();
+            c.write(HttpRequestPacket.builder()
+                    .method("GET")
+                    .uri(requestPath)
+                    .protocol("HTTP/1.1")
+                    .header("Host", "localhost")
+                    .header("Accept-Encoding", "gzip, br;q=0")
+                    .build());
+            final HttpContent response3 = responseFuture.get(10, TimeUnit.SECONDS);
+            assertEquals(probe.toString(), "gzip", response3.getHttpHeader().getHeader("Content-Encoding"));
+            assertEquals("precompressed gzip data", response3.getContent().toStringContent());
+
+            responseFuture.reset();
+            c.write(builder.build());
+            final HttpContent response4 = responseFuture.get(10, TimeUnit.SECONDS);
+            assertNull(response4.getHttpHeader().getHeader("Content-Encoding"));
+            assertEquals("Accept-Encoding", response4.getHttpHeader().getHeader("Vary"));
+            assertEquals(etag, response4.getHttpHeader().getHeader("ETag"));
+            assertEquals(file.length(), response4.getContent().remaining());
+
+            // a client holding the brotli representation gets 304
+            responseFuture.reset();
+            c.write(HttpRequestPacket.builder()
+                    .method("GET")
+                    .uri(requestPath)
+                    .protocol("HTTP/1.1")
+                    .header("Host", "localhost")
+                    .header("Accept-Encoding", "br")
+                    .header("If-None-Match", response2.getHttpHeader().getHeader("ETag"))
+                    .build());
+            final HttpContent response5 = responseFuture.get(10, TimeUnit.SECONDS);
+            assertEquals(304, ((HttpResponsePacket) response5.getHttpHeader()).getStatus());
+
+            assertEquals(probe.toString(), 1, probe.getVariantHitCounter("br"));
+            assertEquals(probe.toString(), 1, probe.getVariantHitCounter("gzip"));
+            assertEquals(probe.toString(), 1, probe.getVariantHitCounter(FileCacheEntry.IDENTITY));
+            isOk = true;
+        } finally {
+            if (!isOk) {
+                System.err.println(probe);
+            }
+        }
+    }
+
+    @Test
+    public void testFrequencyBasedEviction() throws Exception {
+        final File fileA = createTempFile();
+        final File fileB = createTempFile();
+        final File fileC = createTempFile();
+
+        final StatsCacheProbe probe = new StatsCacheProbe();
+        httpServer.getServerConfiguration().getMonitoringConfig().getFileCacheConfig().addProbes(probe);
+        httpServer.getServerConfiguration().getMonitoringConfig().getFileCacheEntryConfig().addProbes(probe);
+        httpServer.getListener("grizzly").getFileCache().setMaxCacheEntries(2);
+
+        startHttpServer(new StaticHttpHandler(fileA.getParent()));
+
+        boolean isOk = false;
+        try {
+            final ReusableFuture<HttpContent> responseFuture =
+                    new ReusableFuture<HttpContent>();
+            final Connection c = getConnection("localhost", PORT, responseFuture);
+
+            // A is cached and becomes popular
+            for (int i = 0; i < 3; i++) {
+                responseFuture.reset();
+                c.write(createGet(fileA));
+                responseFuture.get(10, TimeUnit.SECONDS);
+            }
+            assertEquals(probe.toString(), 2, probe.getEntryHitCounter());
+
+            // B and C are requested once, the cache is full
+            responseFuture.reset();
+            c.write(createGet(fileB));
+            responseFuture.get(10, TimeUnit.SECONDS);
+            responseFuture.reset();
+            c.write(createGet(fileC));
+            responseFuture.get(10, TimeUnit.SECONDS);
+
+            // C displaces B, but not the popular A
+            assertEquals(probe.toString(), 3, probe.getEntryAddedCounter());
+            assertEquals(probe.toString(), 1, probe.getEntryEvictedCounter());
+            assertEquals(probe.toString(), 1, probe.getEntryRemovedCounter());
+
+            responseFuture.reset();
+            c.write(createGet(fileA));
+            responseFuture.get(10, TimeUnit.SECONDS);
+            responseFuture.reset();
+            c.write(createGet(fileC));
+            responseFuture.get(10, TimeUnit.SECONDS);
+            assertEquals(probe.toString(), 4, probe.getEntryHitCounter());
+            isOk = true;
+        } finally {
+            if (!isOk) {
+                System.err.println(probe);
+            }
+        }
+    }
+
+    private static HttpRequestPacket createGet(final File file) {
+        return HttpRequestPacket.builder()
+                .method("GET")
+                .uri("/" + file.getName())
+                .protocol("HTTP/1.1")
+                .header("Host", "localhost")
+                .build();
+    }
+
+    @Test
+    public void testNegotiatedIdentityNotCompressed() throws Exception {
+        final File file = createTempFile();
+        final String requestPath = "/" + file.getName();
+
+        final File gzFile = new File(file.getPath() + ".gz");
+        gzFile.deleteOnExit();
+        final FileOutputStream out = new FileOutputStream(gzFile);
+        try {
+            final GZIPOutputStream gzOut = new GZIPOutputStream(out);
+            gzOut.write("precompressed gzip data".getBytes());
+            gzOut.close();
+        } finally {
+            out.close();
+        }
+
+        httpServer.getListener("grizzly").getCompressionConfig().setCompressionMode(CompressionMode.FORCE);
+        startHttpServer(new StaticHttpHandler(file.getParent()));
+
+        final HttpRequestPacket.Builder builder = HttpRequestPacket.builder()
+                .method("GET")
+                .uri(requestPath)
+                .protocol("HTTP/1.1")
+                .header("Host", "localhost")
+                .header("Accept-Encoding", "identity, gzip;q=0.5");
+
+        final ReusableFuture<HttpContent> responseFuture =
+                new ReusableFuture<HttpContent>();
+        final Connection c = getConnection("localhost", PORT, responseFuture, false);
+
+        // the first request is served by the static handler and caches the file
+        c.write(builder.build());
+        responseFuture.get(10, TimeUnit.SECONDS);
+
+        // the file cache picks the plain representation, which must not be
+        // compressed on the fly
+        responseFuture.reset();
+        c.write(builder.build());
+        final HttpContent response = responseFuture.get(10, TimeUnit.SECONDS);
+        assertEquals("Accept-Encoding", response.getHttpHeader().getHeader("Vary"));
+        assertNull(response.getHttpHeader().getHeader("Content-Encoding"));
+        assertEquals(file.length(), response.getHttpHeader().getContentLength());
+        assertEquals(file.length(), response.getContent().remaining());
+    }
+
     @SuppressWarnings("ResultOfMethodCallIgnored")
     @Test
     public void testIfModifiedSince() throws Exception {
@@ -1141,6 +1362,14 @@ public class FileCacheTest {
                                      int port,
                                      FutureImpl<HttpContent> future)
     throws Exception {
+        return getConnection(host, port, future, true);
+    }
+
+    private Connection getConnection(String host,
+                                     int port,
+                                     FutureImpl<HttpContent> future,
+                                     boolean decodeContent)
+    throws Exception {
 
         final FilterChainBuilder builder = FilterChainBuilder.stateless();
         builder.add(new TransportFilter());
@@ -1151,21 +1380,23 @@ public class FileCacheTest {
             builder.add(sslFilter);
         }
 
-        GZipContentEncoding gzipClientContentEncoding =
-                new GZipContentEncoding(512, 512, new EncodingFilter() {
-                    @Override
-                    public boolean applyEncoding(HttpHeader httpPacket) {
-                        return false;
-                    }
-
-                    @Override
-                    public boolean applyDecoding(HttpHeader httpPacket) {
-                        return true;
-                    }
-                });
-
         final HttpClientFilter httpClientFilter = new HttpClientFilter();
-        httpClientFilter.addContentEncoding(gzipClientContentEncoding);
+        if (decodeContent) {
+            GZipContentEncoding gzipClientContentEncoding =
+                    new GZipContentEncoding(512, 512, new EncodingFilter() {
+                        @Override
+                        public boolean applyEncoding(HttpHeader httpPacket) {
+                            return false;
+                        }
+
+                        @Override
+                        public boolean applyDecoding(HttpHeader httpPacket) {
+                            return true;
+                        }
+                    });
+
+            httpClientFilter.addContentEncoding(gzipClientContentEncoding);
+        }
 
         builder.add(httpClientFilter);
         builder.add(new HttpMessageFilter(future));
@@ -1310,13 +1541,17 @@ public class FileCacheTest {
         }
     }
     
-    private static class StatsCacheProbe implements FileCacheProbe {
+    private static class StatsCacheProbe extends FileCacheProbe.Adapter
+            implements FileCacheEntryProbe {
 
         final AtomicInteger entryAddedCounter = new AtomicInteger();
         final AtomicInteger entryRemovedCounter = new AtomicInteger();
+        final AtomicInteger entryEvictedCounter = new AtomicInteger();
         final AtomicInteger entryHitCounter = new AtomicInteger();
         final AtomicInteger entryMissedCounter = new AtomicInteger();
         final AtomicInteger entryErrorCounter = new AtomicInteger();
+        final ConcurrentMap<String, AtomicInteger> variantHitCounters =
+                new ConcurrentHashMap<String, AtomicInteger>();
 
         @Override
         public void onEntryAddedEvent(FileCache fileCache, FileCacheEntry entry) {
@@ -1328,11 +1563,29 @@ public class FileCacheTest {
             entryRemovedCounter.incrementAndGet();
         }
 
+        @Override
+        public void onEntryEvictedEvent(FileCache fileCache, FileCacheEntry entry) {
+            entryEvictedCounter.incrementAndGet();
+        }
+
         @Override
         public void onEntryHitEvent(FileCache fileCache, FileCacheEntry entry) {
             entryHitCounter.incrementAndGet();
         }
 
+        @Override
+        public void onEntryVariantHitEvent(FileCache fileCache, FileCacheEntry entry, String encoding) {
+            AtomicInteger counter = variantHitCounters.get(encoding);
+            if (counter == null) {
+                final AtomicInteger newCounter = new AtomicInteger();
+                counter = variantHitCounters.putIfAbsent(encoding, newCounter);
+                if (counter == null) {
+                    counter = newCounter;
+                }
+            }
+            counter.incrementAndGet();
+        }
+
         @Override
         public void onEntryMissedEvent(FileCache fileCache, String host, String requestURI) {
             entryMissedCounter.incrementAndGet();
@@ -1350,6 +1603,9 @@ public class FileCacheTest {
         public int getEntryRemovedCounter() {
             return entryRemovedCounter.get();
         }
+        public int getEntryEvictedCounter() {
+            return entryEvictedCounter.get();
+        }
         public int getEntryHitCounter() {
             return entryHitCounter.get();
         }
@@ -1359,15 +1615,21 @@ public class FileCacheTest {
         public int getEntryErrorCounter() {
             return entryErrorCounter.get();
         }
+        public int getVariantHitCounter(String encoding) {
+            final AtomicInteger counter = variantHitCounters.get(encoding);
+            return counter != null ? counter.get() : 0;
+        }
 
         @Override
         public String toString() {
             final StringBuilder sb = new StringBuilder("file-cache-stats[added=")
             .append(getEntryAddedCounter())
             .append(", removed=").append(getEntryRemovedCounter())
+            .append(", evicted=").append(getEntryEvictedCounter())
             .append(", hit=").append(getEntryHitCounter())
             .append(", missed=").append(getEntryMissedCounter())
             .append(", error=").append(getEntryErrorCounter())
+            .append(", variants=").append(variantHitCounters)
             .append("]");
 
             return sb.toString();
@@ -50,6 +50,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import junit.framework.TestCase;
@@ -188,6 +189,28 @@ public class HttpSessionTest extends TestCase {
         assertTrue(cookieSessionId.contains(sessionId));
     }
     
+    public void testSessionProbe() throws Exception {
+        final AtomicInteger createdCounter = new AtomicInteger();
+        final HttpServer server = createWebServer(new HttpCreaeteSessionHandler());
+        server.getServerConfiguration().getMonitoringConfig().getSessionConfig()
+                .addProbes(new SessionProbe.Adapter() {
+
+            @Override
+            public void onSessionCreateEvent(final HttpServerFilter filter,
+                    final Session session) {
+                createdCounter.incrementAndGet();
+            }
+        });
+
+        try {
+            server.start();
+            sendRequest(createRequest("/session", null), 10);
+            assertEquals(1, createdCounter.get());
+        } finally {
+            server.shutdownNow();
+        }
+    }
+
     public void testCreateSessionWithInvalidId() throws Exception {
         final HttpHandler httpHandler = new HttpCreaeteSessionHandler();
         final HttpPacket request = createRequest("/session;jsessionid=123456", null);
@@ -274,6 +297,77 @@ public class HttpSessionTest extends TestCase {
         }
     }
     
+    public void testSessionExpiration() throws Exception {
+        final DefaultSessionManager manager = new DefaultSessionManager(10);
+        try {
+            final Session expiring = manager.createSession(null);
+            expiring.setSessionTimeout(50);
+
+            final Session accessed = manager.createSession(null);
+            accessed.setSessionTimeout(200);
+
+            final Session eternal = manager.createSession(null);
+
+            final Session invalidated = manager.createSession(null);
+            invalidated.setSessionTimeout(TimeUnit.HOURS.toMillis(1));
+
+            assertEquals(4, manager.getSessionsCount());
+
+            invalidated.setValid(false);
+            assertNull(manager.getSession(null, invalidated.getIdInternal()));
+            assertEquals(3, manager.getSessionsCount());
+
+            final String oldId = accessed.getIdInternal();
+            assertEquals(oldId, manager.changeSessionId(null, accessed));
+            assertNull(manager.getSession(null, oldId));
+
+            for (int i = 0; i < 20; i++) {
+                accessed.access();
+                Thread.sleep(20);
+            }
+
+            assertFalse(expiring.isValid());
+            assertNull(manager.getSession(null, expiring.getIdInternal()));
+            assertSame(accessed, manager.getSession(null, accessed.getIdInternal()));
+            assertSame(eternal, manager.getSession(null, eternal.getIdInternal()));
+            assertEquals(2, manager.getSessionsCount());
+
+            Thread.sleep(500);
+
+            assertFalse(accessed.isValid());
+            assertNull(manager.getSession(null, accessed.getIdInternal()));
+            assertEquals(1, manager.getSessionsCount());
+        } finally {
+            manager.destroy();
+        }
+    }
+
+    public void testSessionRescheduling() throws Exception {
+        final DefaultSessionManager manager = new DefaultSessionManager(10);
+        try {
+            // placed into the far wheel buckets
+            final Session eternal = manager.createSession(null);
+            final Session longLived = manager.createSession(null);
+            longLived.setSessionTimeout(TimeUnit.HOURS.toMillis(1));
+            Thread.sleep(100);
+            assertEquals(2, manager.getSessionsCount());
+
+            // neither session is accessed, they have to be evicted without
+            // waiting for their initial buckets
+            eternal.setSessionTimeout(50);
+            longLived.setValid(false);
+
+            for (int i = 0; i < 100 && manager.getSessionsCount() > 0; i++) {
+                Thread.sleep(20);
+            }
+
+            assertEquals(0, manager.getSessionsCount());
+            assertFalse(eternal.isValid());
+        } finally {
+            manager.destroy();
+        }
+    }
+
     public void testEncodeURL() throws Exception {
         
         HttpServer server = createWebServer(new HttpEncodeURLHandler());
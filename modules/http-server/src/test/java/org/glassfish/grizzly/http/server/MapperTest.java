@@ -119,4 +119,103 @@ public class MapperTest {
         assertEquals(wrapper21, md.wrapper);
         
     }
+
+    @Test
+    public void testLongestPrefixMapping() throws Exception {
+        final Mapper mapper = new Mapper();
+        mapper.setDefaultHostName("default");
+        mapper.addHost("default", new String[0], "default");
+        mapper.addContext("default", "", "root", null, null);
+        mapper.addContext("default", "/a", "a", null, null);
+        mapper.addContext("default", "/a/b", "ab", null, null);
+
+        mapper.addWrapper("default", "/a", "/", "default");
+        mapper.addWrapper("default", "/a", "/exact", "exact");
+        mapper.addWrapper("default", "/a", "*.jsp", "jsp");
+        for (int i = 0; i < 100; i++) {
+            mapper.addWrapper("default", "/a", "/route" + i + "/*", "route" + i);
+            mapper.addWrapper("default", "/a", "/route" + i + "/sub/*", "sub" + i);
+        }
+
+        MappingData md = map(mapper, "default", "/a/route7/items/42");
+        assertEquals("a", md.context);
+        assertEquals("/a", md.contextPath.toString());
+        assertEquals("route7", md.wrapper);
+        assertEquals("/route7", md.wrapperPath.toString());
+        assertEquals("/items/42", md.pathInfo.toString());
+
+        md = map(mapper, "default", "/a/route7/sub/x");
+        assertEquals("sub7", md.wrapper);
+        assertEquals("/route7/sub", md.wrapperPath.toString());
+        assertEquals("/x", md.pathInfo.toString());
+
+        md = map(mapper, "default", "/a/route7");
+        assertEquals("route7", md.wrapper);
+        assertNull(md.pathInfo.toString());
+
+        // Prefixes only match whole segments
+        md = map(mapper, "default", "/a/route7x/items");
+        assertEquals("default", md.wrapper);
+
+        md = map(mapper, "default", "/a/exact");
+        assertEquals("exact", md.wrapper);
+        assertEquals(MappingData.EXACT, md.mappingType);
+
+        md = map(mapper, "default", "/a/pages/index.jsp");
+        assertEquals("jsp", md.wrapper);
+        assertEquals(MappingData.EXTENSION, md.mappingType);
+
+        md = map(mapper, "default", "/a/b/c");
+        assertEquals("ab", md.context);
+
+        md = map(mapper, "default", "/ab/c");
+        assertEquals("root", md.context);
+
+        mapper.removeWrapper("default", "/a", "/route7/*");
+        md = map(mapper, "default", "/a/route7/items/42");
+        assertEquals("default", md.wrapper);
+        md = map(mapper, "default", "/a/route7/sub/x");
+        assertEquals("sub7", md.wrapper);
+    }
+
+    @Test
+    public void testMappingCache() throws Exception {
+        final Mapper mapper = new Mapper();
+        mapper.setCacheSize(10);
+        assertEquals(16, mapper.getCacheSize());
+
+        mapper.setDefaultHostName("default");
+        mapper.addHost("default", new String[0], "default");
+        mapper.addContext("default", "/a", "a", null, null);
+        mapper.addWrapper("default", "/a", "/", "default");
+        mapper.addWrapper("default", "/a", "/route/*", "route");
+
+        final MappingData first = map(mapper, "default", "/a/route/items");
+        final MappingData second = map(mapper, "DEFAULT", "/a/route/items");
+        assertEquals(first.toString(), second.toString());
+        assertEquals("route", second.wrapper);
+        assertEquals("/items", second.pathInfo.toString());
+
+        // The cache must be invalidated when the mapper is modified
+        mapper.removeWrapper("default", "/a", "/route/*");
+        final MappingData third = map(mapper, "default", "/a/route/items");
+        assertEquals("default", third.wrapper);
+        assertNull(third.pathInfo.toString());
+
+        mapper.setCacheSize(0);
+        assertEquals(0, mapper.getCacheSize());
+        assertEquals("default", map(mapper, "default", "/a/route/items").wrapper);
+    }
+
+    private static MappingData map(final Mapper mapper, final String hostName,
+            final String path) throws Exception {
+        final DataChunk host = DataChunk.newInstance();
+        host.setBytes(hostName.getBytes());
+        final DataChunk uri = DataChunk.newInstance();
+        uri.setBytes(path.getBytes());
+
+        final MappingData md = new MappingData();
+        mapper.map(host, uri, md);
+        return md;
+    }
 }
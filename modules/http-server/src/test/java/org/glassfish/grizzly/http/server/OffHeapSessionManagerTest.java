@@ -0,0 +1,285 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.grizzly.http.server;
+
+import java.io.File;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import junit.framework.TestCase;
+
+/**
+ * {@link OffHeapSessionManager} tests.
+ */
+public class OffHeapSessionManagerTest extends TestCase {
+
+    public void testEvictionAndReload() throws Exception {
+        final OffHeapSessionManager manager = new OffHeapSessionManager(2, 64 * 1024);
+        try {
+            final List<String> ids = createSessions(manager, 10);
+            assertEquals(10, manager.getSessionsCount());
+
+            for (int i = 0; i < ids.size(); i++) {
+                final Session session = manager.getSession(null, ids.get(i));
+                assertNotNull(session);
+                assertEquals(ids.get(i), session.getIdInternal());
+                assertEquals("value-" + i, session.getAttribute("name"));
+                assertEquals(i, session.getAttribute("number"));
+            }
+
+            // not serializable attribute doesn't survive eviction
+            assertNull(manager.getSession(null, ids.get(0)).getAttribute("thread"));
+            assertEquals(10, manager.getSessionsCount());
+        } finally {
+            manager.close();
+        }
+    }
+
+    public void testChangeSessionIdAndInvalidate() throws Exception {
+        final OffHeapSessionManager manager = new OffHeapSessionManager(1, 64 * 1024);
+        try {
+            final List<String> ids = createSessions(manager, 3);
+
+            final Session session = manager.getSession(null, ids.get(0));
+            final String oldId = manager.changeSessionId(null, session);
+            assertEquals(ids.get(0), oldId);
+            assertNull(manager.getSession(null, oldId));
+
+            // evict the session and load it using the new id
+            manager.getSession(null, ids.get(1));
+            assertEquals("value-0",
+                    manager.getSession(null, session.getIdInternal()).getAttribute("name"));
+
+            manager.getSession(null, ids.get(2)).setValid(false);
+            assertNull(manager.getSession(null, ids.get(2)));
+            assertEquals(2, manager.getSessionsCount());
+        } finally {
+            manager.close();
+        }
+    }
+
+    public void testExpiration() throws Exception {
+        final OffHeapSessionManager manager = new OffHeapSessionManager(1, 64 * 1024);
+        try {
+            final List<String> ids = createSessions(manager, 3);
+            manager.getSession(null, ids.get(0)).setSessionTimeout(1);
+            manager.getSession(null, ids.get(1)).setSessionTimeout(1);
+
+            manager.expire(System.currentTimeMillis() + 10);
+
+            assertNull(manager.getSession(null, ids.get(0)));
+            assertNull(manager.getSession(null, ids.get(1)));
+            assertNotNull(manager.getSession(null, ids.get(2)));
+            assertEquals(1, manager.getSessionsCount());
+        } finally {
+            manager.close();
+        }
+    }
+
+    public void testExpirationInBatches() throws Exception {
+        final OffHeapSessionManager manager = new OffHeapSessionManager(1, 1024 * 1024);
+        try {
+            // more arena records, than the expirer checks at once
+            for (int i = 0; i < 1000; i++) {
+                final Session session = manager.createSession(null);
+                session.setAttribute("name", "value-" + i);
+                session.setSessionTimeout(1);
+            }
+            final String id = manager.createSession(null).getIdInternal();
+            manager.createSession(null);
+            assertEquals(1002, manager.getSessionsCount());
+
+            manager.expire(System.currentTimeMillis() + 10);
+
+            assertEquals(2, manager.getSessionsCount());
+            assertNotNull(manager.getSession(null, id));
+        } finally {
+            manager.close();
+        }
+    }
+
+    public void testArenaCompaction() throws Exception {
+        final OffHeapSessionManager manager = new OffHeapSessionManager(1, 4096);
+        try {
+            final List<String> ids = createSessions(manager, 4);
+
+            // every eviction appends a new record, so the arena gets compacted
+            for (int i = 0; i < 200; i++) {
+                final int n = i % ids.size();
+                final Session session = manager.getSession(null, ids.get(n));
+                assertEquals("value-" + n, session.getAttribute("name"));
+            }
+
+            assertEquals(4, manager.getSessionsCount());
+        } finally {
+            manager.close();
+        }
+    }
+
+    public void testMappedFileRestore() throws Exception {
+        final File file = File.createTempFile("grizzly-sessions", ".arena");
+        try {
+            OffHeapSessionManager manager =
+                    new OffHeapSessionManager(2, file, 64 * 1024);
+            final List<String> ids;
+            try {
+                ids = createSessions(manager, 5);
+            } finally {
+                manager.close();
+            }
+
+            manager = new OffHeapSessionManager(2, file, 64 * 1024);
+            try {
+                assertEquals(5, manager.getSessionsCount());
+                for (int i = 0; i < ids.size(); i++) {
+                    final Session session = manager.getSession(null, ids.get(i));
+                    assertNotNull(session);
+                    assertFalse(session.isNew());
+                    assertEquals("value-" + i, session.getAttribute("name"));
+                }
+            } finally {
+                manager.close();
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+    public void testArenaFullKeepsSessionsOnHeap() throws Exception {
+        final OffHeapSessionManager manager = new OffHeapSessionManager(1, 1024);
+        try {
+            final char[] chars = new char[300];
+            Arrays.fill(chars, 'x');
+            final String bigValue = new String(chars);
+
+            final List<String> ids = createSessions(manager, 10);
+            for (String id : ids) {
+                manager.getSession(null, id).setAttribute("big", bigValue);
+            }
+
+            // the arena can't fit all the sessions, none of them is lost
+            for (int round = 0; round < 2; round++) {
+                for (int i = 0; i < ids.size(); i++) {
+                    final Session session = manager.getSession(null, ids.get(i));
+                    assertNotNull(session);
+                    assertEquals("value-" + i, session.getAttribute("name"));
+                    assertEquals(bigValue, session.getAttribute("big"));
+                }
+            }
+            assertEquals(10, manager.getSessionsCount());
+
+            // the sessions kept on heap are expired too
+            for (String id : ids) {
+                manager.getSession(null, id).setSessionTimeout(1);
+            }
+            manager.expire(System.currentTimeMillis() + 10);
+            assertEquals(0, manager.getSessionsCount());
+        } finally {
+            manager.close();
+        }
+    }
+
+    public void testAllowedAttributeTypes() throws Exception {
+        final OffHeapSessionManager manager = new OffHeapSessionManager(1, 64 * 1024);
+        try {
+            final ArrayList<Object> list = new ArrayList<Object>();
+            list.add("element");
+
+            final List<String> ids = createSessions(manager, 2);
+            manager.getSession(null, ids.get(0)).setAttribute("list", list);
+
+            // evict and reload: the list is not of an allowed type
+            manager.getSession(null, ids.get(1));
+            Session session = manager.getSession(null, ids.get(0));
+            assertEquals("value-0", session.getAttribute("name"));
+            assertNull(session.getAttribute("list"));
+
+            manager.setAllowedAttributeTypes(ArrayList.class);
+            session.setAttribute("list", list);
+            manager.getSession(null, ids.get(1));
+            session = manager.getSession(null, ids.get(0));
+            assertEquals(list, session.getAttribute("list"));
+
+            // the objects referenced by the allowed ones are checked too,
+            // only the attribute referencing them is dropped
+            list.add(new StringBuilder("not allowed"));
+            session.setAttribute("list", list);
+            manager.getSession(null, ids.get(1));
+            session = manager.getSession(null, ids.get(0));
+            assertNotNull(session);
+            assertEquals("value-0", session.getAttribute("name"));
+            assertEquals(0, session.getAttribute("number"));
+            assertNull(session.getAttribute("list"));
+
+            // the supertypes of the allowed types are not allowed
+            manager.setAllowedAttributeTypes(DerivedAttribute.class);
+            session.setAttribute("base", new BaseAttribute());
+            manager.getSession(null, ids.get(1));
+            session = manager.getSession(null, ids.get(0));
+            assertEquals("value-0", session.getAttribute("name"));
+            assertNull(session.getAttribute("base"));
+        } finally {
+            manager.close();
+        }
+    }
+
+    private static List<String> createSessions(final SessionManager manager,
+            final int count) {
+        final List<String> ids = new ArrayList<String>(count);
+        for (int i = 0; i < count; i++) {
+            final Session session = manager.createSession(null);
+            session.setAttribute("name", "value-" + i);
+            session.setAttribute("number", i);
+            session.setAttribute("thread", Thread.currentThread());
+            ids.add(session.getIdInternal());
+        }
+
+        return ids;
+    }
+
+    private static class BaseAttribute implements Serializable {
+        private static final long serialVersionUID = 1L;
+    }
+
+    private static final class DerivedAttribute extends BaseAttribute {
+        private static final long serialVersionUID = 1L;
+    }
+}
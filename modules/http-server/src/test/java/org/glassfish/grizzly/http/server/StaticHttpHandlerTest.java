@@ -40,6 +40,7 @@
 
 package org.glassfish.grizzly.http.server;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
@@ -235,6 +236,99 @@ public class StaticHttpHandlerTest {
         }        
     }
     
+    @Test
+    public void testSingleRange() throws Exception {
+        final int fileSize = 1024 * 1024;
+        final File control = generateTempFile(fileSize);
+
+        final File fResult = requestRange(control, "bytes=1000-1999", new ResponseValidator() {
+            @Override
+            public void validate(HttpResponsePacket response) {
+                assertEquals(206, response.getStatus());
+                assertEquals("bytes 1000-1999/" + fileSize, response.getHeader(Header.ContentRange));
+                assertEquals("1000", response.getHeader(Header.ContentLength));
+                assertEquals("bytes", response.getHeader(Header.AcceptRanges));
+            }
+        });
+
+        assertArrayEquals(Arrays.copyOfRange(Files.readAllBytes(control.toPath()), 1000, 2000),
+                Files.readAllBytes(fResult.toPath()));
+    }
+
+    @Test
+    public void testMultipleRanges() throws Exception {
+        final int fileSize = 1024 * 1024;
+        final File control = generateTempFile(fileSize);
+        final String[] contentType = new String[1];
+
+        final File fResult = requestRange(control, "bytes=0-99, -100", new ResponseValidator() {
+            @Override
+            public void validate(HttpResponsePacket response) {
+                assertEquals(206, response.getStatus());
+                assertNull(response.getHeader(Header.ContentRange));
+                contentType[0] = response.getHeader(Header.ContentType);
+            }
+        });
+
+        assertTrue(contentType[0], contentType[0].startsWith("multipart/byteranges; boundary="));
+        final String boundary = contentType[0].substring(contentType[0].indexOf('=') + 1);
+        final byte[] content = Files.readAllBytes(control.toPath());
+
+        final ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        expected.write(("\r\n--" + boundary + "\r\nContent-Type: text/plain\r\n"
+                + "Content-Range: bytes 0-99/" + fileSize + "\r\n\r\n").getBytes("ASCII"));
+        expected.write(content, 0, 100);
+        expected.write(("\r\n--" + boundary + "\r\nContent-Type: text/plain\r\n"
+                + "Content-Range: bytes " + (fileSize - 100) + '-' + (fileSize - 1) + '/' + fileSize
+                + "\r\n\r\n").getBytes("ASCII"));
+        expected.write(content, fileSize - 100, 100);
+        expected.write(("\r\n--" + boundary + "--\r\n").getBytes("ASCII"));
+
+        assertArrayEquals(expected.toByteArray(), Files.readAllBytes(fResult.toPath()));
+    }
+
+    @Test
+    public void testUnsatisfiableRange() throws Exception {
+        final int fileSize = 1024;
+        final File control = generateTempFile(fileSize);
+
+        final File fResult = requestRange(control, "bytes=" + fileSize + "-", new ResponseValidator() {
+            @Override
+            public void validate(HttpResponsePacket response) {
+                assertEquals(416, response.getStatus());
+                assertEquals("bytes */" + fileSize, response.getHeader(Header.ContentRange));
+            }
+        });
+
+        assertEquals(0, fResult.length());
+    }
+
+    @SuppressWarnings("unchecked")
+    private File requestRange(final File control, final String range,
+            final ResponseValidator validator) throws Exception {
+        final FutureImpl<File> result = Futures.createSafeFuture();
+
+        TCPNIOTransport client = createClient(result, validator, isSslEnabled);
+        try {
+            client.start();
+            Connection c = client.connect("localhost", PORT).get(10, TimeUnit.SECONDS);
+
+            HttpRequestPacket request =
+                    HttpRequestPacket.builder().uri("/" + control.getName())
+                        .method(Method.GET)
+                        .protocol(Protocol.HTTP_1_1)
+                        .header("Host", "localhost:" + PORT)
+                        .header("Range", range).build();
+            c.write(request);
+            final File fResult = result.get(20, TimeUnit.SECONDS);
+
+            c.close();
+            return fResult;
+        } finally {
+            client.shutdownNow();
+        }
+    }
+
     private static TCPNIOTransport createClient(final FutureImpl<File> result,
             final ResponseValidator validator,
             final boolean isSslEnabled) throws Exception {
@@ -57,7 +57,9 @@ import org.glassfish.grizzly.http.HttpRequestPacket;
 import org.glassfish.grizzly.http.HttpResponsePacket;
 import org.glassfish.grizzly.http.server.Request;
 import org.glassfish.grizzly.http.server.Response;
+import org.glassfish.grizzly.http.util.DataChunk;
 import org.glassfish.grizzly.http.util.MimeHeaders;
+import org.glassfish.grizzly.http.util.RequestURIRef;
 import org.junit.Test;
 import org.mockito.Mockito;
 import org.mockito.internal.stubbing.answers.ThrowsException;
@@ -92,8 +94,15 @@ public class ApacheLogFormatTest {
         requestHeaders.addValue("multi-request").setString("request-value-1");
         requestHeaders.addValue("multi-request").setString("request-value-2");
 
+        final RequestURIRef requestURIRef = new RequestURIRef();
+        requestURIRef.getRequestURIBC().setString("/test/path");
+        final DataChunk queryString = DataChunk.newInstance();
+        queryString.setString("testing=true");
+
         final HttpRequestPacket requestPacket = Mockito.mock(HttpRequestPacket.class, exception);
         Mockito.doReturn(requestHeaders).when(requestPacket).getHeaders();
+        Mockito.doReturn(requestURIRef).when(requestPacket).getRequestURIRef();
+        Mockito.doReturn(queryString).when(requestPacket).getQueryStringDC();
 
         /* Response fake headers (and HttpResponsePacket) */
         final MimeHeaders responseHeaders = new MimeHeaders();
@@ -105,7 +114,8 @@ public class ApacheLogFormatTest {
         Mockito.doReturn(responseHeaders).when(responsePacket).getHeaders();
 
         /* Fake cookies */
-        final Cookie[] cookies = { new Cookie("Test-Cookie", "Test-Cookie-Value") };
+        final Cookie[] cookies = { new Cookie("Test-Cookie", "Test-Cookie-Value"),
+                                   new Cookie("Null-Cookie", null) };
 
         /* Mock request */
         final Request request = Mockito.mock(Request.class, exception);
@@ -142,6 +152,8 @@ public class ApacheLogFormatTest {
 
         Mockito.doReturn(new MimeHeaders()).when(requestPacket).getHeaders();
         Mockito.doReturn(new MimeHeaders()).when(responsePacket).getHeaders();
+        Mockito.doReturn(new RequestURIRef()).when(requestPacket).getRequestURIRef();
+        Mockito.doReturn(DataChunk.newInstance()).when(requestPacket).getQueryStringDC();
 
         final Request request = Mockito.mock(Request.class);
         final Response response = Mockito.mock(Response.class);
@@ -154,6 +166,34 @@ public class ApacheLogFormatTest {
         return response;
     }
 
+    @Test
+    public void testBinaryFormats() {
+        Locale.setDefault(Locale.US);
+        final String[] formats = {
+                ApacheLogFormat.COMMON_FORMAT, ApacheLogFormat.COMBINED_FORMAT,
+                ApacheLogFormat.VHOST_COMMON_FORMAT, ApacheLogFormat.VHOST_COMBINED_FORMAT,
+                "%%\\t\\b\\n\\r\\f\\%", "%a %A %b %B %{test-cookie}C %{null-cookie}C %D %{local}h %H",
+                "%{Multi-Request}i %m %{Multi-Response}o %p %{remote}p %q %r %s",
+                "%T %{m}T %{n}T %u %U %v", "%{yyyy-MM-dd HH:mm:ss.SSS}t", "%{@Asia/Tokyo}t",
+                "\u00e8 \u4e2d %{x-unicode}i"
+        };
+
+        final Response simple = mockSimpleResponse();
+        final Response empty = mockEmptyResponse();
+        simple.getRequest().getRequest().getHeaders().addValue("x-unicode").setString("\u00e8\ud83d\ude00");
+
+        for (String format : formats) {
+            final ApacheLogFormat apacheFormat = new ApacheLogFormat(TimeZone.getTimeZone("UTC"), format);
+            assertEquals(format, apacheFormat.unsafeFormat(simple, date, nanos),
+                    apacheFormat.unsafeEncode(simple, date.getTime(), nanos));
+            assertEquals(format, apacheFormat.unsafeFormat(empty, date, -1),
+                    apacheFormat.unsafeEncode(empty, date.getTime(), -1));
+            /* Cached time must be reused and refreshed properly */
+            assertEquals(format, apacheFormat.unsafeFormat(simple, new Date(date.getTime() + 1000), nanos),
+                    apacheFormat.unsafeEncode(simple, date.getTime() + 1000, nanos));
+        }
+    }
+
     @Test
     public void testBasicFormats() {
         final Response response = mockSimpleResponse();
@@ -196,6 +236,7 @@ public class ApacheLogFormatTest {
         assertEquals(new ApacheLogFormat("%B").unsafeFormat(response, date, nanos), Long.toString(CONTENT_LENGTH));
 
         assertEquals(new ApacheLogFormat("%{test-cookie}C").unsafeFormat(response, date, nanos), "Test-Cookie-Value");
+        assertEquals(new ApacheLogFormat("%{null-cookie}C").unsafeFormat(response, date, nanos), "-");
 
         assertEquals(new ApacheLogFormat("%D").unsafeFormat(response, date, nanos), Long.toString(MICROSECONDS.convert(nanos, NANOSECONDS)));
 
@@ -0,0 +1,108 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.grizzly.http.server.accesslog;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.channels.Channels;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Test for {@link RingBufferAppender}
+ */
+public class RingBufferAppenderTest {
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    @Test
+    public void testBlockingWrapAround() throws Exception {
+        final File file = File.createTempFile("access", ".log");
+        file.deleteOnExit();
+
+        /* A tiny ring forces entries to wrap around the end of the buffer */
+        final RingBufferAppender appender = new RingBufferAppender(file, 37, RingBufferAppender.OverflowPolicy.BLOCK);
+        try {
+            for (int i = 0; i < 1000; i++) {
+                final byte[] entry = ("entry-" + i).getBytes(UTF8);
+                assertTrue(appender.append(entry, 0, entry.length));
+            }
+        } finally {
+            appender.close();
+        }
+
+        assertEquals(0, appender.getDroppedCount());
+        final List<String> lines = Files.readAllLines(file.toPath(), UTF8);
+        assertEquals(1000, lines.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals("entry-" + i, lines.get(i));
+        }
+    }
+
+    @Test
+    public void testDropPolicy() throws Exception {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final RingBufferAppender appender = new RingBufferAppender(Channels.newChannel(output), 16, RingBufferAppender.OverflowPolicy.DROP);
+
+        final byte[] large = "this entry does not fit in the ring".getBytes(UTF8);
+        assertFalse(appender.append(large, 0, large.length));
+        assertEquals(1, appender.getDroppedCount());
+
+        final byte[] small = "fits".getBytes(UTF8);
+        assertTrue(appender.append(small, 0, small.length));
+        appender.close();
+
+        assertFalse(appender.append(small, 0, small.length));
+        assertEquals(2, appender.getDroppedCount());
+
+        final String separator = System.getProperty("line.separator");
+        assertArrayEquals(("fits" + separator).getBytes(UTF8), output.toByteArray());
+    }
+
+}
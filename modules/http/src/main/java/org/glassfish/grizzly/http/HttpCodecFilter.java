@@ -62,6 +62,7 @@ import org.glassfish.grizzly.http.util.ByteChunk;
 import org.glassfish.grizzly.http.util.CacheableDataChunk;
 import org.glassfish.grizzly.http.util.Constants;
 import org.glassfish.grizzly.http.util.DataChunk;
+import org.glassfish.grizzly.http.util.FastHttpDateFormat;
 import org.glassfish.grizzly.http.util.Header;
 import org.glassfish.grizzly.http.util.HttpStatus;
 import org.glassfish.grizzly.http.util.MimeHeaders;
@@ -948,8 +949,8 @@ public abstract class HttpCodecFilter extends HttpBaseFilter
                 parsingState.headerValueStorage =
                         mimeHeaders.addValue(input, start, offset - start);
                 parsingState.offset = offset + 1 - arrayOffs;
-                finalizeKnownHeaderNames(httpHeader, parsingState, input,
-                        start, offset);
+                finalizeKnownHeaderNames(httpHeader, parsingState,
+                        mimeHeaders.getKnownHeader(mimeHeaders.size() - 1));
 
                 return true;
             } else if ((b >= Constants.A) && (b <= Constants.Z)) {
@@ -1024,30 +1025,27 @@ public abstract class HttpCodecFilter extends HttpBaseFilter
     }
     
     private static void finalizeKnownHeaderNames(final HttpHeader httpHeader,
-            final HeaderParsingState parsingState, final byte[] input,
-            final int start, final int end) {
-        
-        final int size = end - start;
-        if (size == Header.ContentLength.getLowerCaseBytes().length) {
-            if (ByteChunk.equalsIgnoreCaseLowerCase(input, start, end,
-                    Header.ContentLength.getLowerCaseBytes())) {
+            final HeaderParsingState parsingState, final Header header) {
+
+        if (header == null) {
+            return;
+        }
+
+        switch (header) {
+            case ContentLength:
                 parsingState.isContentLengthHeader = true;
-            }
-        } else if (size == Header.TransferEncoding.getLowerCaseBytes().length) {
-            if (ByteChunk.equalsIgnoreCaseLowerCase(input, start, end,
-                    Header.TransferEncoding.getLowerCaseBytes())) {
+                break;
+            case TransferEncoding:
                 parsingState.isTransferEncodingHeader = true;
-            }
-        } else if (size == Header.Upgrade.getLowerCaseBytes().length) {
-            if (ByteChunk.equalsIgnoreCaseLowerCase(input, start, end,
-                    Header.Upgrade.getLowerCaseBytes())) {
+                break;
+            case Upgrade:
                 parsingState.isUpgradeHeader = true;
-            }
-        } else if (size == Header.Expect.getLowerCaseBytes().length) {
-            if (ByteChunk.equalsIgnoreCaseLowerCase(input, start, end,
-                    Header.Expect.getLowerCaseBytes())) {
+                break;
+            case Expect:
                 ((HttpRequestPacket) httpHeader).requiresAcknowledgement(true);
-            }
+                break;
+            default:
+                break;
         }
     }
 
@@ -1227,8 +1225,8 @@ public abstract class HttpCodecFilter extends HttpBaseFilter
                 parsingState.headerValueStorage =
                         mimeHeaders.addValue(input, start, offset - start);
                 parsingState.offset = offset + 1;
-                finalizeKnownHeaderNames(httpHeader, parsingState, input,
-                        start, offset);
+                finalizeKnownHeaderNames(httpHeader, parsingState,
+                        mimeHeaders.getKnownHeader(mimeHeaders.size() - 1));
 
                 return true;
             } else if ((b >= Constants.A) && (b <= Constants.Z)) {
@@ -1298,34 +1296,6 @@ public abstract class HttpCodecFilter extends HttpBaseFilter
         return -1;
     }
 
-    private static void finalizeKnownHeaderNames(final HttpHeader httpHeader,
-            final HeaderParsingState parsingState, final Buffer input,
-            final int start, final int end) {
-        
-        final int size = end - start;
-        if (size == Header.ContentLength.getLowerCaseBytes().length) {
-            if (BufferChunk.equalsIgnoreCaseLowerCase(input, start, end,
-                    Header.ContentLength.getLowerCaseBytes())) {
-                parsingState.isContentLengthHeader = true;
-            }
-        } else if (size == Header.TransferEncoding.getLowerCaseBytes().length) {
-            if (BufferChunk.equalsIgnoreCaseLowerCase(input, start, end,
-                    Header.TransferEncoding.getLowerCaseBytes())) {
-                parsingState.isTransferEncodingHeader = true;
-            }
-        } else if (size == Header.Upgrade.getLowerCaseBytes().length) {
-            if (BufferChunk.equalsIgnoreCaseLowerCase(input, start, end,
-                    Header.Upgrade.getLowerCaseBytes())) {
-                parsingState.isUpgradeHeader = true;
-            }
-        } else if (size == Header.Expect.getLowerCaseBytes().length) {
-            if (BufferChunk.equalsIgnoreCaseLowerCase(input, start, end,
-                    Header.Expect.getLowerCaseBytes())) {
-                ((HttpRequestPacket) httpHeader).requiresAcknowledgement(true);
-            }
-        }
-    }
-
     private static void finalizeKnownHeaderValues(final HttpHeader httpHeader,
             final HeaderParsingState parsingState, final Buffer input,
             final int start, final int end) {
@@ -1659,6 +1629,10 @@ public abstract class HttpCodecFilter extends HttpBaseFilter
             final MimeHeaders mimeHeaders = httpHeader.getHeaders();
             final byte[] tempEncodingBuffer = httpHeader.getTempHeaderEncodingBuffer();
             encodedBuffer = encodeMimeHeaders(memoryManager, encodedBuffer, mimeHeaders, tempEncodingBuffer);
+            if (!httpHeader.isRequest()) {
+                encodedBuffer = encodeEncodedHeaders(memoryManager, encodedBuffer,
+                        ((HttpResponsePacket) httpHeader).getEncodedHeaders());
+            }
             onHttpHeadersEncoded(httpHeader, ctx);
             encodedBuffer = put(memoryManager, encodedBuffer, CRLF_BYTES);
             encodedBuffer.trim();
@@ -1767,6 +1741,16 @@ public abstract class HttpCodecFilter extends HttpBaseFilter
         for (int i = 0; i < mimeHeadersNum; i++) {
             if (!mimeHeaders.setSerialized(i, true)) {
                 final DataChunk value = mimeHeaders.getValue(i);
+                if (mimeHeaders.getKnownHeader(i) == Header.Date) {
+                    // the cached Date header line could be copied at once
+                    final byte[] dateHeader =
+                            FastHttpDateFormat.getDateHeaderLine(value);
+                    if (dateHeader != null) {
+                        buffer = put(memoryManager, buffer, dateHeader);
+                        continue;
+                    }
+                }
+                
                 if (!value.isNull()) {
                     buffer = encodeMimeHeader(memoryManager,
                                               buffer,
@@ -1781,6 +1765,27 @@ public abstract class HttpCodecFilter extends HttpBaseFilter
         return buffer;
     }
 
+    protected static Buffer encodeEncodedHeaders(final MemoryManager memoryManager,
+                                                 Buffer buffer,
+                                                 final List<Object> encodedHeaders) {
+        if (encodedHeaders == null) {
+            return buffer;
+        }
+        
+        for (int i = 0, size = encodedHeaders.size(); i < size; i++) {
+            final Object headers = encodedHeaders.get(i);
+            if (headers instanceof byte[]) {
+                buffer = put(memoryManager, buffer, (byte[]) headers);
+            } else {
+                final Buffer headersBuffer = (Buffer) headers;
+                buffer = put(memoryManager, buffer, headersBuffer,
+                        headersBuffer.position(), headersBuffer.remaining());
+            }
+        }
+
+        return buffer;
+    }
+
     protected static Buffer encodeMimeHeader(final MemoryManager memoryManager,
                                              Buffer buffer,
                                              final DataChunk name,
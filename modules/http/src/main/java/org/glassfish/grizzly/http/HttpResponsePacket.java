@@ -40,8 +40,11 @@
 
 package org.glassfish.grizzly.http;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Locale;
 import org.glassfish.grizzly.Buffer;
+import org.glassfish.grizzly.http.util.Constants;
 import org.glassfish.grizzly.http.util.DataChunk;
 import org.glassfish.grizzly.http.util.HttpStatus;
 import org.glassfish.grizzly.http.util.MimeHeaders;
@@ -101,6 +104,12 @@ public abstract class HttpResponsePacket extends HttpHeader {
      * Do we need to encode HTML sensitive characters in custom reason phrase.
      */
     private boolean isHtmlEncodingCustomReasonPhrase = true;
+
+    /**
+     * Pre-encoded header blocks (<tt>byte[]</tt> or {@link Buffer}), which
+     * will be serialized as they are, after the {@link MimeHeaders}.
+     */
+    private List<Object> encodedHeaders;
     
     /**
      * Returns {@link HttpResponsePacket} builder.
@@ -308,6 +317,9 @@ public abstract class HttpResponsePacket extends HttpHeader {
         locale = null;
         contentLanguage = null;
         request = null;
+        if (encodedHeaders != null) {
+            encodedHeaders.clear();
+        }
 
         super.reset();
     }
@@ -403,6 +415,138 @@ public abstract class HttpResponsePacket extends HttpHeader {
         super.setContentLengthLong(contentLength);
     }
 
+    /**
+     * Adds a block of pre-encoded headers, which will be copied to the
+     * serialized response as it is, right after the {@link MimeHeaders}.
+     * The block is expected to contain one or more complete header lines
+     * (<tt>name: value\r\n</tt>), so the headers which are the same for
+     * many responses (Server, Cache-Control, CORS headers etc.) could be
+     * encoded once and shared, rather than being encoded on every response.
+     * The block headers are not visible via {@link #getHeaders()}, so it's
+     * up to the caller not to duplicate them there. The protocols, which
+     * don't use HTTP/1.x header format, parse the block back into
+     * {@link MimeHeaders}, see {@link #decodeEncodedHeaders()}.
+     *
+     * @param headers the pre-encoded header lines, must not be modified
+     *                while the response is being serialized
+     * @throws IllegalArgumentException if the block doesn't end with CRLF
+     */
+    public void addEncodedHeaders(final byte[] headers) {
+        final int len = headers.length;
+        if (len < 2 || headers[len - 2] != Constants.CR
+                || headers[len - 1] != Constants.LF) {
+            throw new IllegalArgumentException(
+                    "Encoded headers must be terminated by CRLF");
+        }
+        
+        addEncodedHeaders0(headers);
+    }
+
+    /**
+     * Adds a block of pre-encoded headers, represented by the remaining
+     * bytes of the {@link Buffer}, see {@link #addEncodedHeaders(byte[])}.
+     * The {@link Buffer} position and limit are not changed, so the same
+     * (read-only) {@link Buffer} could be shared by many responses.
+     *
+     * @param headers the pre-encoded header lines
+     * @throws IllegalArgumentException if the block doesn't end with CRLF
+     */
+    public void addEncodedHeaders(final Buffer headers) {
+        final int lim = headers.limit();
+        if (headers.remaining() < 2 || headers.get(lim - 2) != Constants.CR
+                || headers.get(lim - 1) != Constants.LF) {
+            throw new IllegalArgumentException(
+                    "Encoded headers must be terminated by CRLF");
+        }
+        
+        // serialization moves the position, so use a private view
+        addEncodedHeaders0(headers.duplicate());
+    }
+    
+    /**
+     * @return the pre-encoded header blocks added to this response,
+     *         or <tt>null</tt> if there are none
+     */
+    List<Object> getEncodedHeaders() {
+        return encodedHeaders;
+    }
+
+    /**
+     * Parses the pre-encoded header blocks, added via
+     * {@link #addEncodedHeaders(byte[])} or {@link #addEncodedHeaders(Buffer)},
+     * into this response {@link MimeHeaders} and removes the blocks.
+     * The method has to be called by the protocol encoders, which don't
+     * serialize the headers in the HTTP/1.x format (SPDY, AJP etc.),
+     * otherwise the encoded headers will be lost.
+     */
+    public void decodeEncodedHeaders() {
+        if (encodedHeaders == null) {
+            return;
+        }
+
+        for (int i = 0, size = encodedHeaders.size(); i < size; i++) {
+            final Object block = encodedHeaders.get(i);
+            final byte[] bytes;
+            if (block instanceof byte[]) {
+                bytes = (byte[]) block;
+            } else {
+                final Buffer buffer = (Buffer) block;
+                final int pos = buffer.position();
+                bytes = new byte[buffer.remaining()];
+                for (int j = 0; j < bytes.length; j++) {
+                    bytes[j] = buffer.get(pos + j);
+                }
+            }
+
+            decodeEncodedHeaders(bytes);
+        }
+
+        encodedHeaders = null;
+    }
+
+    private void decodeEncodedHeaders(final byte[] bytes) {
+        int lineStart = 0;
+        for (int i = 0; i < bytes.length - 1; i++) {
+            if (bytes[i] != Constants.CR || bytes[i + 1] != Constants.LF) {
+                continue;
+            }
+
+            int colon = lineStart;
+            while (colon < i && bytes[colon] != Constants.COLON) {
+                colon++;
+            }
+
+            // skip empty and malformed lines
+            if (colon > lineStart && colon < i) {
+                int valueStart = colon + 1;
+                while (valueStart < i && isWhitespace(bytes[valueStart])) {
+                    valueStart++;
+                }
+                int valueEnd = i;
+                while (valueEnd > valueStart && isWhitespace(bytes[valueEnd - 1])) {
+                    valueEnd--;
+                }
+
+                headers.addValue(bytes, lineStart, colon - lineStart)
+                        .setBytes(bytes, valueStart, valueEnd);
+            }
+
+            lineStart = ++i + 1;
+        }
+    }
+
+    private static boolean isWhitespace(final byte b) {
+        return b == Constants.SP || b == Constants.HT;
+    }
+
+    private void addEncodedHeaders0(final Object headers) {
+        if (encodedHeaders == null) {
+            encodedHeaders = new ArrayList<Object>(2);
+        }
+        
+        encodedHeaders.add(headers);
+    }
+
     // ------------------------------------------------- Package Private Methods
 
 
@@ -971,8 +971,8 @@ public class HttpServerFilter extends HttpCodecFilter {
         }
 
         if (!response.containsHeader(Header.Date)) {
-            response.getHeaders().addValue(Header.Date)
-                    .setBytes(FastHttpDateFormat.getCurrentDateBytes());
+            FastHttpDateFormat.setCurrentDate(
+                    response.getHeaders().addValue(Header.Date));
         }
 
         final ProcessingState state = response.getProcessingState();
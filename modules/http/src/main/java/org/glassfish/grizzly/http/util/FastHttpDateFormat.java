@@ -160,6 +160,14 @@ public final class FastHttpDateFormat {
      */
     private static byte[] currentDateBytes;
 
+    private static final byte[] DATE_HEADER_PREFIX =
+            (Header.Date + ": ").getBytes(Charsets.ASCII_CHARSET);
+
+    /**
+     * Current "Date" header line (<tt>Date: {date}\r\n</tt>) as byte[].
+     */
+    private static volatile byte[] currentDateHeaderBytes;
+
     /**
      * Current formatted date.
      */
@@ -217,6 +225,7 @@ public final class FastHttpDateFormat {
                     currentDateBuffer.setLength(0);
                     FORMATTER.formatTo(now, currentDateBuffer);
                     currentDateBytes = toCheckedByteArray(currentDateBuffer);
+                    currentDateHeaderBytes = toDateHeaderLine(currentDateBytes);
                     nextGeneration = now + 1000;
                 }
                 
@@ -225,6 +234,49 @@ public final class FastHttpDateFormat {
         }
         return currentDateBytes;
     }
+
+    /**
+     * Get the current date in HTTP format as a complete "Date" header line
+     * (<tt>Date: {date}\r\n</tt>), which is regenerated once per second.
+     */
+    public static byte[] getCurrentDateHeaderBytes() {
+        getCurrentDateBytes();
+        return currentDateHeaderBytes;
+    }
+
+    /**
+     * Sets the current date in HTTP format as the value of the passed
+     * {@link DataChunk}, the value will refer to the current "Date" header line
+     * so it could be serialized using {@link #getDateHeaderLine(DataChunk)}.
+     *
+     * @param value the {@link DataChunk} to set the current date to
+     */
+    public static void setCurrentDate(final DataChunk value) {
+        final byte[] dateHeader = getCurrentDateHeaderBytes();
+        value.setBytes(dateHeader, DATE_HEADER_PREFIX.length,
+                dateHeader.length - 2);
+    }
+
+    /**
+     * Returns the complete "Date" header line, whose value is referred by the
+     * passed {@link DataChunk}, if the value has been set by
+     * {@link #setCurrentDate(DataChunk)} and hasn't been regenerated since.
+     *
+     * @param value the "Date" header value
+     * @return the complete "Date" header line, or <tt>null</tt> if the value
+     *         doesn't refer to the current "Date" header line
+     */
+    public static byte[] getDateHeaderLine(final DataChunk value) {
+        if (value.getType() != DataChunk.Type.Bytes) {
+            return null;
+        }
+        
+        final ByteChunk bc = value.getByteChunk();
+        final byte[] dateHeader = currentDateHeaderBytes;
+        return bc.getBuffer() == dateHeader
+                && bc.getStart() == DATE_HEADER_PREFIX.length
+                && bc.getEnd() == dateHeader.length - 2 ? dateHeader : null;
+    }
     
     /**
      * Get the HTTP format of the specified date.<br>
@@ -319,5 +371,14 @@ public final class FastHttpDateFormat {
         parseCache.put(key, value);
     }
 
-
+    private static byte[] toDateHeaderLine(final byte[] date) {
+        final int prefixLength = DATE_HEADER_PREFIX.length;
+        final byte[] line = new byte[prefixLength + date.length + 2];
+        System.arraycopy(DATE_HEADER_PREFIX, 0, line, 0, prefixLength);
+        System.arraycopy(date, 0, line, prefixLength, date.length);
+        line[line.length - 2] = Constants.CR;
+        line[line.length - 1] = Constants.LF;
+        
+        return line;
+    }
 }
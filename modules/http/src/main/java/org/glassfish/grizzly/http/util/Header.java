@@ -41,8 +41,7 @@
 package org.glassfish.grizzly.http.util;
 
 import java.util.Locale;
-import java.util.Map;
-import java.util.TreeMap;
+import org.glassfish.grizzly.Buffer;
 import org.glassfish.grizzly.utils.Charsets;
 
 /**
@@ -109,11 +108,26 @@ public enum Header {
 
     // ----------------------------------------------------------------- Statics
 
-    private static final Map<String,Header> VALUES = new TreeMap<String,Header>(String.CASE_INSENSITIVE_ORDER);
+    // Perfect hash table over the header names: the slot is computed from
+    // the name length and its first, middle and last (lower-cased) characters,
+    // the seed and the table size are picked at class initialization, so no
+    // two headers share a slot.
+    private static final Header[] HASH_TABLE;
+    private static final int HASH_SEED;
     static {
-        for (final Header h : Header.values()) {
-            VALUES.put(h.toString(), h);
+        Header[] table = null;
+        int seed = 0;
+        for (int size = 64; table == null; size <<= 1) {
+            for (seed = 1; seed <= 1024; seed++) {
+                table = buildHashTable(size, seed);
+                if (table != null) {
+                    break;
+                }
+            }
         }
+        
+        HASH_TABLE = table;
+        HASH_SEED = seed;
     }
 
     // --------------------------------------------------------- Per Enum Fields
@@ -230,14 +244,103 @@ public enum Header {
         if (name == null || name.isEmpty()) {
             return null;
         }
-        return VALUES.get(name);
+        
+        final int len = name.length();
+        final Header h = HASH_TABLE[slot(len, name.charAt(0),
+                name.charAt(len >> 1), name.charAt(len - 1))];
+        return h != null && h.headerName.equalsIgnoreCase(name) ? h : null;
 
     }
 
+    /**
+     * <p>
+     * Attempts to find a HTTP header by its name represented by the
+     * <code>byte[]</code> region. Note that this search is case insensitive.
+     * </p>
+     *
+     * @param bytes the <code>byte[]</code> containing the header name
+     * @param start the header name start offset
+     * @param end the header name end offset (exclusive)
+     *
+     * @return the <code>Header</code> for the specified name, or
+     *  <code>null</code> if no <code>Header</code> matches.
+     */
+    public static Header find(final byte[] bytes, final int start,
+            final int end) {
+        final int len = end - start;
+        if (len <= 0) {
+            return null;
+        }
+        
+        final Header h = HASH_TABLE[slot(len, bytes[start],
+                bytes[start + (len >> 1)], bytes[end - 1])];
+        return h != null && ByteChunk.equalsIgnoreCaseLowerCase(bytes,
+                start, end, h.headerNameLowerCaseBytes) ? h : null;
+    }
+
+    /**
+     * <p>
+     * Attempts to find a HTTP header by its name represented by the
+     * {@link Buffer} region. Note that this search is case insensitive.
+     * </p>
+     *
+     * @param buffer the {@link Buffer} containing the header name
+     * @param start the header name start offset
+     * @param end the header name end offset (exclusive)
+     *
+     * @return the <code>Header</code> for the specified name, or
+     *  <code>null</code> if no <code>Header</code> matches.
+     */
+    public static Header find(final Buffer buffer, final int start,
+            final int end) {
+        final int len = end - start;
+        if (len <= 0) {
+            return null;
+        }
+        
+        final Header h = HASH_TABLE[slot(len, buffer.get(start),
+                buffer.get(start + (len >> 1)), buffer.get(end - 1))];
+        return h != null && BufferChunk.equalsIgnoreCaseLowerCase(buffer,
+                start, end, h.headerNameLowerCaseBytes) ? h : null;
+    }
+
 
     // --------------------------------------------------------- Private Methods
 
 
+    private static int slot(final int length, final int first,
+            final int middle, final int last) {
+        return hash(length, first, middle, last, HASH_SEED)
+                & (HASH_TABLE.length - 1);
+    }
+
+    private static int hash(final int length, final int first,
+            final int middle, final int last, final int seed) {
+        int h = length;
+        h = h * seed + Ascii.toLower(first);
+        h = h * seed + Ascii.toLower(last);
+        h = h * seed + Ascii.toLower(middle);
+        return h ^ (h >>> 7);
+    }
+
+    private static Header[] buildHashTable(final int size, final int seed) {
+        final Header[] table = new Header[size];
+        for (final Header h : Header.values()) {
+            final byte[] name = h.headerNameLowerCaseBytes;
+            final int len = name.length;
+            final int slot = hash(len, name[0], name[len >> 1], name[len - 1],
+                    seed) & (size - 1);
+            if (table[slot] != null) {
+                return null;
+            }
+            
+            table[slot] = h;
+        }
+        
+        return table;
+    }
+
+
     private boolean equalsIgnoreCase(final byte[] b) {
 
         final int len = headerNameBytes.length;
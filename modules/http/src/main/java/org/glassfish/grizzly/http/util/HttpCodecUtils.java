@@ -435,6 +435,17 @@ public class HttpCodecUtils {
         return dstBuffer;
     }
 
+    public static Buffer put(final MemoryManager memoryManager,
+                             Buffer dstBuffer, final Buffer buffer,
+                             final int position, final int length) {
+
+        dstBuffer = checkAndResizeIfNeeded(memoryManager, dstBuffer, length);
+
+        dstBuffer.put(buffer, position, length);
+
+        return dstBuffer;
+    }
+
     public static Buffer put(final MemoryManager memoryManager,
                              Buffer dstBuffer, final byte value) {
 
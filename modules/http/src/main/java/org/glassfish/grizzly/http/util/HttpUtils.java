@@ -127,6 +127,12 @@ public class HttpUtils {
                     qvalue = HttpUtils.convertQValueToFloat(bc.getBuffer(), offs + startIdx, offs + stopIdx);
                     break;
                 }
+                case Bytes: {
+                    final ByteChunk bc = dc.getByteChunk();
+                    final int offs = bc.getStart();
+                    qvalue = HttpUtils.convertQValueToFloat(bc.getBytes(), offs + startIdx, offs + stopIdx);
+                    break;
+                }
                 case Chars: {
                     final CharChunk cc = dc.getCharChunk();
                     final int offs = cc.getStart();
@@ -144,145 +150,26 @@ public class HttpUtils {
     public static float convertQValueToFloat(final Buffer buffer, 
                                              final int startIdx, 
                                              final int stopIdx) {
-        float result = 0.0f;
-        boolean firstDigitProcessed = false;
-        int multIdx = -1;
-        for (int i = 0, len = (stopIdx - startIdx); i < len; i++) {
-            final char c = (char) buffer.get(i + startIdx);
-            if (multIdx == -1) {
-                if (firstDigitProcessed && c != '.') {
-                    throw new IllegalArgumentException("Invalid qvalue, "
-                            + buffer.toStringContent(Constants.DEFAULT_HTTP_CHARSET,
-                            startIdx,
-                            stopIdx)
-                            + ", detected");
-                }
-                if (c == '.') {
-                    multIdx = 0;
-                    continue;
-                }
-            }
-            if (Character.isDigit(c)) {
-                if (multIdx == -1) {
-                    result += Character.digit(c, 10);
-                    firstDigitProcessed = true;
-                    if (result > 1) {
-                        throw new IllegalArgumentException("Invalid qvalue, "
-                                + buffer.toStringContent(Constants.DEFAULT_HTTP_CHARSET,
-                                                         startIdx,
-                                                         stopIdx)
-                                + ", detected");
-                    }
-                } else {
-                    if (multIdx >= MULTIPLIERS.length) {
-                        throw new IllegalArgumentException("Invalid qvalue, "
-                                + buffer.toStringContent(Constants.DEFAULT_HTTP_CHARSET,
-                                                         startIdx,
-                                                         stopIdx)
-                                + ", detected");
-                    }
-                    result += Character.digit(c, 10) * MULTIPLIERS[multIdx++];
-                }
-            } else {
-                throw new IllegalArgumentException("Invalid qvalue, "
-                        + buffer.toStringContent(Constants.DEFAULT_HTTP_CHARSET,
-                                                 startIdx,
-                                                 stopIdx)
-                        + ", detected");
-            }
-        }
-        return result;
+        return parseQValue(buffer, startIdx, stopIdx);
     }
 
     public static float convertQValueToFloat(final String string,
                                              final int startIdx,
                                              final int stopIdx) {
-        float result = 0.0f;
-        boolean firstDigitProcessed = false;
-        int multIdx = -1;
-        for (int i = 0, len = (stopIdx - startIdx); i < len; i++) {
-            final char c = string.charAt(i + startIdx);
-            if (multIdx == -1) {
-                if (firstDigitProcessed && c != '.') {
-                    throw new IllegalArgumentException("Invalid qvalue, "
-                            + new String(string.toCharArray(), startIdx, stopIdx)
-                            + ", detected");
-                }
-                if (c == '.') {
-                    multIdx = 0;
-                    continue;
-                }
-            }
-            if (Character.isDigit(c)) {
-                if (multIdx == -1) {
-                    result += Character.digit(c, 10);
-                    firstDigitProcessed = true;
-                    if (result > 1) {
-                        throw new IllegalArgumentException("Invalid qvalue, "
-                                + new String(string.toCharArray(), startIdx, stopIdx)
-                                + ", detected");
-                    }
-                } else {
-                    if (multIdx >= MULTIPLIERS.length) {
-                        throw new IllegalArgumentException("Invalid qvalue, "
-                                + new String(string.toCharArray(), startIdx, stopIdx)
-                                + ", detected");
-                    }
-                    result += Character.digit(c, 10) * MULTIPLIERS[multIdx++];
-                }
-            } else {
-                throw new IllegalArgumentException("Invalid qvalue, "
-                        + new String(string.toCharArray(), startIdx, stopIdx)
-                        + ", detected");
-            }
-        }
-        return result;
+        return parseQValue(string, startIdx, stopIdx);
+    }
+
+    public static float convertQValueToFloat(final byte[] bytes,
+                                             final int startIdx,
+                                             final int stopIdx) {
+        return parseQValue(bytes, startIdx, stopIdx);
     }
 
     public static float convertQValueToFloat(final char[] chars,
-                                                 final int startIdx,
-                                                 final int stopIdx) {
-            float result = 0.0f;
-            boolean firstDigitProcessed = false;
-            int multIdx = -1;
-            for (int i = 0, len = (stopIdx - startIdx); i < len; i++) {
-                final char c = chars[i + startIdx];
-                if (multIdx == -1) {
-                    if (firstDigitProcessed && c != '.') {
-                        throw new IllegalArgumentException("Invalid qvalue, "
-                                + new String(chars, startIdx, stopIdx)
-                                + ", detected");
-                    }
-                    if (c == '.') {
-                        multIdx = 0;
-                        continue;
-                    }
-                }
-                if (Character.isDigit(c)) {
-                    if (multIdx == -1) {
-                        result += Character.digit(c, 10);
-                        firstDigitProcessed = true;
-                        if (result > 1) {
-                            throw new IllegalArgumentException("Invalid qvalue, "
-                                    + new String(chars, startIdx, stopIdx)
-                                    + ", detected");
-                        }
-                    } else {
-                        if (multIdx >= MULTIPLIERS.length) {
-                            throw new IllegalArgumentException("Invalid qvalue, "
-                                    + new String(chars, startIdx, stopIdx)
-                                    + ", detected");
-                        }
-                        result += Character.digit(c, 10) * MULTIPLIERS[multIdx++];
-                    }
-                } else {
-                    throw new IllegalArgumentException("Invalid qvalue, "
-                            + new String(chars, startIdx, stopIdx)
-                            + ", detected");
-                }
-            }
-            return result;
-        }
+                                             final int startIdx,
+                                             final int stopIdx) {
+        return parseQValue(chars, startIdx, stopIdx);
+    }
 
     /**
      * Converts the specified long as a string representation to the provided byte buffer.
@@ -522,5 +409,79 @@ public class HttpUtils {
         return result == null
                 ? message
                 : result.toString();
-    }    
+    }
+
+
+    // --------------------------------------------------------- Private Methods
+
+
+    /**
+     * Parses the qvalue stored in the <tt>String</tt>, <tt>Buffer</tt>,
+     * <tt>byte[]</tt> or <tt>char[]</tt> source.
+     */
+    private static float parseQValue(final Object src, final int startIdx,
+                                     final int stopIdx) {
+        float result = 0.0f;
+        boolean firstDigitProcessed = false;
+        int multIdx = -1;
+        for (int i = startIdx; i < stopIdx; i++) {
+            final char c = charAt(src, i);
+            if (multIdx == -1) {
+                if (firstDigitProcessed && c != '.') {
+                    throw invalidQValue(src, startIdx, stopIdx);
+                }
+                if (c == '.') {
+                    multIdx = 0;
+                    continue;
+                }
+            }
+            if (Character.isDigit(c)) {
+                if (multIdx == -1) {
+                    result += Character.digit(c, 10);
+                    firstDigitProcessed = true;
+                    if (result > 1) {
+                        throw invalidQValue(src, startIdx, stopIdx);
+                    }
+                } else {
+                    if (multIdx >= MULTIPLIERS.length) {
+                        throw invalidQValue(src, startIdx, stopIdx);
+                    }
+                    result += Character.digit(c, 10) * MULTIPLIERS[multIdx++];
+                }
+            } else {
+                throw invalidQValue(src, startIdx, stopIdx);
+            }
+        }
+        return result;
+    }
+
+    private static char charAt(final Object src, final int idx) {
+        if (src instanceof byte[]) {
+            return (char) (((byte[]) src)[idx] & 0xFF);
+        } else if (src instanceof char[]) {
+            return ((char[]) src)[idx];
+        } else if (src instanceof Buffer) {
+            return (char) (((Buffer) src).get(idx) & 0xFF);
+        }
+
+        return ((String) src).charAt(idx);
+    }
+
+    private static IllegalArgumentException invalidQValue(final Object src,
+            final int startIdx, final int stopIdx) {
+        final String qvalue;
+        if (src instanceof byte[]) {
+            qvalue = new String((byte[]) src, startIdx, stopIdx - startIdx,
+                                Charsets.ASCII_CHARSET);
+        } else if (src instanceof char[]) {
+            qvalue = new String((char[]) src, startIdx, stopIdx - startIdx);
+        } else if (src instanceof Buffer) {
+            qvalue = ((Buffer) src).toStringContent(Constants.DEFAULT_HTTP_CHARSET,
+                                                    startIdx, stopIdx);
+        } else {
+            qvalue = ((String) src).substring(startIdx, stopIdx);
+        }
+
+        return new IllegalArgumentException("Invalid qvalue, " + qvalue + ", detected");
+    }
 }
@@ -144,6 +144,14 @@ public class MimeHeaders {
      */
     private int count;
 
+    private static final int KNOWN_HEADERS_COUNT = Header.values().length;
+
+    /**
+     * (index + 1) of the first field of every known {@link Header},
+     * indexed by the {@link Header} ordinal, 0 if there is no such field.
+     */
+    private final int[] knownHeaders = new int[KNOWN_HEADERS_COUNT];
+
     private int maxNumHeaders = MAX_NUM_HEADERS_DEFAULT;
 
     /**
@@ -176,7 +184,11 @@ public class MimeHeaders {
      */
     public void clear() {
         for (int i = 0; i < count; i++) {
-            headers[i].recycle();
+            final MimeHeaderField field = headers[i];
+            if (field.header != null) {
+                knownHeaders[field.header.ordinal()] = 0;
+            }
+            field.recycle();
         }
         count = 0;
     }
@@ -205,6 +217,12 @@ public class MimeHeaders {
             return;
         }
         this.maxNumHeaders = source.maxNumHeaders;
+        for (int i = 0; i < count; i++) {
+            final Header header = headers[i].header;
+            if (header != null) {
+                knownHeaders[header.ordinal()] = 0;
+            }
+        }
         this.count = source.count;
         if (headers.length < count) {
 
@@ -230,6 +248,7 @@ public class MimeHeaders {
             } else {
                 f.valueB.set(sourceField.valueB);
             }
+            tag(f, i, sourceField.header);
         }
 
     }
@@ -273,6 +292,15 @@ public class MimeHeaders {
         return n >= 0 && n < count ? headers[n].getValue() : null;
     }
 
+    /**
+     * Returns the known {@link Header} the Nth header name was recognized as,
+     * or null if the name is not a known {@link Header} or there is no such
+     * header.
+     */
+    public Header getKnownHeader(int n) {
+        return n >= 0 && n < count ? headers[n].header : null;
+    }
+
     /**
      * Get the header's "serialized" flag.
      *
@@ -312,6 +340,11 @@ public class MimeHeaders {
      * Find the index of a header with the given name.
      */
     public int indexOf(String name, int fromIndex) {
+        final Header header = Header.find(name);
+        if (header != null) {
+            return indexOf(header, fromIndex);
+        }
+
         // We can use a hash - but it's not clear how much
         // benefit you can get - there is an  overhead
         // and the number of headers is small (4-5 ?)
@@ -331,16 +364,15 @@ public class MimeHeaders {
      * Find the index of a header with the given name.
      */
     public int indexOf(final Header header, final int fromIndex) {
-        // We can use a hash - but it's not clear how much
-        // benefit you can get - there is an  overhead
-        // and the number of headers is small (4-5 ?)
-        // Another problem is that we'll pay the overhead
-        // of constructing the hashtable
+        // every field is tagged with its known Header when added,
+        // so the first occurrence is a direct lookup
+        final int first = knownHeaders[header.ordinal()] - 1;
+        if (first < 0 || first >= fromIndex) {
+            return first;
+        }
 
-        // A custom search tree may be better
-        final byte[] bytes = header.getLowerCaseBytes();
         for (int i = fromIndex; i < count; i++) {
-            if (headers[i].getName().equalsIgnoreCaseLowerCase(bytes)) {
+            if (headers[i].header == header) {
                 return i;
             }
         }
@@ -349,7 +381,7 @@ public class MimeHeaders {
 
 
     public boolean contains(final Header header) {
-        return (indexOf(header, 0) >= 0);
+        return knownHeaders[header.ordinal()] != 0;
     }
 
     public boolean contains(final String header) {
@@ -415,12 +447,44 @@ public class MimeHeaders {
         return mh;
     }
 
+    /**
+     * Tags the field at the given index with its known {@link Header}.
+     */
+    private void tag(final MimeHeaderField mh, final int idx,
+            final Header header) {
+        mh.header = header;
+        if (header != null) {
+            final int ordinal = header.ordinal();
+            if (knownHeaders[ordinal] == 0 || knownHeaders[ordinal] > idx + 1) {
+                knownHeaders[ordinal] = idx + 1;
+            }
+        }
+    }
+
+    /**
+     * Looks up the first field of the known {@link Header} again,
+     * after the fields have been moved around.
+     */
+    private void reindex(final Header header) {
+        if (header != null) {
+            int first = 0;
+            for (int i = 0; i < count; i++) {
+                if (headers[i].header == header) {
+                    first = i + 1;
+                    break;
+                }
+            }
+            knownHeaders[header.ordinal()] = first;
+        }
+    }
+
     /** Create a new named header , return the MessageBytes
     container for the new value
      */
     public DataChunk addValue(String name) {
         MimeHeaderField mh = createHeader();
         mh.getName().setString(name);
+        tag(mh, count - 1, Header.find(name));
         return mh.getValue();
     }
 
@@ -430,6 +494,7 @@ public class MimeHeaders {
     public DataChunk addValue(final Header header) {
         MimeHeaderField mh = createHeader();
         mh.getName().setBytes(header.toByteArray());
+        tag(mh, count - 1, header);
         return mh.getValue();
     }
 
@@ -441,6 +506,7 @@ public class MimeHeaders {
             final int len) {
         MimeHeaderField mhf = createHeader();
         mhf.getName().setBytes(buffer, startN, startN + len);
+        tag(mhf, count - 1, Header.find(buffer, startN, startN + len));
         return mhf.getValue();
     }
 
@@ -452,6 +518,7 @@ public class MimeHeaders {
             final int len) {
         MimeHeaderField mhf = createHeader();
         mhf.getName().setBuffer(buffer, startN, startN + len);
+        tag(mhf, count - 1, Header.find(buffer, startN, startN + len));
         return mhf.getValue();
     }
 
@@ -462,6 +529,11 @@ public class MimeHeaders {
      * if this .
      */
     public DataChunk setValue(final String name) {
+        final Header header = Header.find(name);
+        if (header != null) {
+            return setValue(header);
+        }
+
         for (int i = 0; i < count; i++) {
             if (headers[i].getName().equalsIgnoreCase(name)) {
                 for (int j = i + 1; j < count; j++) {
@@ -484,19 +556,18 @@ public class MimeHeaders {
      * if this .
      */
     public DataChunk setValue(final Header header) {
-        final byte[] bytes = header.getLowerCaseBytes();
-        for (int i = 0; i < count; i++) {
-            if (headers[i].getName().equalsIgnoreCaseLowerCase(bytes)) {
-                for (int j = i + 1; j < count; j++) {
-                    if (headers[j].getName().equalsIgnoreCaseLowerCase(bytes)) {
-                        removeHeader(j--);
-                    }
+        final int i = knownHeaders[header.ordinal()] - 1;
+        if (i >= 0) {
+            for (int j = i + 1; j < count; j++) {
+                if (headers[j].header == header) {
+                    removeHeader(j--);
                 }
-                return headers[i].getValue();
             }
+            return headers[i].getValue();
         }
         MimeHeaderField mh = createHeader();
         mh.getName().setBytes(header.toByteArray());
+        tag(mh, count - 1, header);
         
         return mh.getValue();
     }
@@ -508,6 +579,11 @@ public class MimeHeaders {
      * in the header, an arbitrary one is returned.
      */
     public DataChunk getValue(String name) {
+        final Header header = Header.find(name);
+        if (header != null) {
+            return getValue(header);
+        }
+
         for (int i = 0; i < count; i++) {
             if (headers[i].getName().equalsIgnoreCase(name)) {
                 return headers[i].getValue();
@@ -522,13 +598,8 @@ public class MimeHeaders {
      * in the header, an arbitrary one is returned.
      */
     public DataChunk getValue(final Header header) {
-        final byte[] bytes = header.getLowerCaseBytes();
-        for (int i = 0; i < count; i++) {
-            if (headers[i].getName().equalsIgnoreCaseLowerCase(bytes)) {
-                return headers[i].getValue();
-            }
-        }
-        return null;
+        final int i = knownHeaders[header.ordinal()] - 1;
+        return i >= 0 ? headers[i].getValue() : null;
     }
 
     // bad shortcut - it'll convert to string ( too early probably,
@@ -562,8 +633,12 @@ public class MimeHeaders {
 
     public void removeHeader(final Header header) {
 
+        if (!contains(header)) {
+            return;
+        }
+
         for (int i = 0; i < count; i++) {
-            if (headers[i].getName().equalsIgnoreCase(header.getBytes())) {
+            if (headers[i].header == header) {
                 removeHeader(i--);
             }
         }
@@ -634,11 +709,18 @@ public class MimeHeaders {
      */
     void removeHeader(int idx) {
         MimeHeaderField mh = headers[idx];
+        final Header removed = mh.header;
+        final Header moved = headers[count - 1].header;
 
         mh.recycle();
         headers[idx] = headers[count - 1];
         headers[count - 1] = mh;
         count--;
+
+        reindex(removed);
+        if (moved != removed) {
+            reindex(moved);
+        }
     }
 
 
@@ -791,6 +873,12 @@ class MimeHeaderField {
     protected final DataChunk valueB = DataChunk.newInstance();
 
     private boolean isSerialized;
+
+    /**
+     * The known {@link Header} the name was recognized as, null if none.
+     */
+    Header header;
+
     /**
      * Creates a new, uninitialized header field.
      */
@@ -799,6 +887,7 @@ class MimeHeaderField {
 
     public void recycle() {
         isSerialized = false;
+        header = null;
         nameB.recycle();
         valueB.recycle();
     }
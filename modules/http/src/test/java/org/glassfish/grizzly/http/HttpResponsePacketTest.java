@@ -42,8 +42,11 @@ package org.glassfish.grizzly.http;
 
 import java.util.Iterator;
 import junit.framework.TestCase;
+import org.glassfish.grizzly.Buffer;
 import org.glassfish.grizzly.http.util.Header;
 import org.glassfish.grizzly.http.util.MimeHeaders;
+import org.glassfish.grizzly.memory.Buffers;
+import org.glassfish.grizzly.memory.MemoryManager;
 
 public class HttpResponsePacketTest extends TestCase {
     
@@ -166,4 +169,29 @@ public class HttpResponsePacketTest extends TestCase {
                 + ")");
     }
     
+    public void testDecodeEncodedHeaders() {
+        response.addHeader("X-Plain", "plain");
+        response.addEncodedHeaders(
+                "Server: test\r\nX-Multi:  a \r\n\r\nmalformed\r\n".getBytes());
+        
+        final Buffer shared = Buffers.wrap(MemoryManager.DEFAULT_MEMORY_MANAGER, "--X-Multi:\tb\r\n");
+        shared.position(2);
+        response.addEncodedHeaders(shared);
+        
+        response.decodeEncodedHeaders();
+        
+        assertNull(response.getEncodedHeaders());
+        assertEquals(2, shared.position());
+        
+        final MimeHeaders headers = response.getHeaders();
+        assertEquals(4, headers.size());
+        assertEquals("plain", headers.getHeader("X-Plain"));
+        assertEquals("test", headers.getHeader(Header.Server));
+        
+        final Iterator<String> values = headers.values("x-multi").iterator();
+        assertEquals("a", values.next());
+        assertEquals("b", values.next());
+        assertFalse(values.hasNext());
+    }
+    
 }
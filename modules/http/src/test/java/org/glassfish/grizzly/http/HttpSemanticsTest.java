@@ -311,6 +311,53 @@ public class HttpSemanticsTest extends TestCase {
         });
     }
 
+    public void testEncodedHeaders() throws Throwable {
+
+        HttpRequestPacket request = HttpRequestPacket.builder()
+                .method("GET")
+                .uri("/path")
+                .header("Host", "localhost:" + PORT)
+                .protocol("HTTP/1.1")
+                .build();
+        ExpectedResult result = new ExpectedResult();
+        result.setProtocol("HTTP/1.1");
+        result.setStatusCode(200);
+        result.addHeader("Server", "test");
+        result.addHeader("X-Frame-Options", "DENY");
+        result.addHeader("Vary", "Accept-Encoding");
+        result.addHeader("Content-Length", "7");
+        result.setStatusMessage("ok");
+        result.appendContent("Content");
+        final Buffer shared = Buffers.wrap(MemoryManager.DEFAULT_MEMORY_MANAGER,
+                "Vary: Accept-Encoding\r\n").asReadOnlyBuffer();
+        doTest(request, result, new BaseFilter() {
+            @Override
+            public NextAction handleRead(FilterChainContext ctx) throws IOException {
+                HttpRequestPacket request =
+                        (HttpRequestPacket)
+                                ((HttpContent) ctx.getMessage()).getHttpHeader();
+                HttpResponsePacket response = request.getResponse();
+                HttpStatus.OK_200.setValues(response);
+                try {
+                    response.addEncodedHeaders("Server: test".getBytes());
+                    fail("Encoded headers must end with CRLF");
+                } catch (IllegalArgumentException expected) {
+                }
+                response.addEncodedHeaders(
+                        "Server: test\r\nX-Frame-Options: DENY\r\n".getBytes());
+                response.addEncodedHeaders(shared);
+                MemoryManager mm = ctx.getMemoryManager();
+                HttpContent content = response.httpContentBuilder().content(Buffers.wrap(mm, "Content")).build();
+                response.setContentLength(content.getContent().remaining());
+                content.setLast(true);
+                ctx.write(content);
+                ctx.flush(new FlushAndCloseHandler());
+                return ctx.getStopAction();
+            }
+        });
+        assertEquals(0, shared.position());
+    }
+
     public void testHeadChunked() throws Throwable {
 
         HttpRequestPacket request = HttpRequestPacket.builder()
@@ -0,0 +1,123 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.grizzly.http;
+
+import junit.framework.TestCase;
+import org.glassfish.grizzly.Buffer;
+import org.glassfish.grizzly.http.util.Header;
+import org.glassfish.grizzly.http.util.MimeHeaders;
+import org.glassfish.grizzly.memory.Buffers;
+import org.glassfish.grizzly.memory.MemoryManager;
+import org.glassfish.grizzly.utils.Charsets;
+
+public class MimeHeadersTest extends TestCase {
+
+    public void testKnownHeaderLookup() {
+        for (Header header : Header.values()) {
+            final String name = header.toString();
+            final byte[] upper = name.toUpperCase().getBytes(Charsets.ASCII_CHARSET);
+            final byte[] padded = new byte[upper.length + 2];
+            System.arraycopy(upper, 0, padded, 1, upper.length);
+            final Buffer buffer = Buffers.wrap(MemoryManager.DEFAULT_MEMORY_MANAGER,
+                    padded);
+
+            assertSame(header, Header.find(name.toLowerCase()));
+            assertSame(header, Header.find(padded, 1, upper.length + 1));
+            assertSame(header, Header.find(buffer, 1, upper.length + 1));
+        }
+
+        assertNull(Header.find("x-custom"));
+        assertNull(Header.find("hosts"));
+        assertNull(Header.find(""));
+        assertNull(Header.find(new byte[] {'h', 'o', 's', 'x'}, 0, 4));
+        assertNull(Header.find(new byte[0], 0, 0));
+    }
+
+    public void testKnownHeaderIndex() {
+        final MimeHeaders headers = new MimeHeaders();
+        final byte[] host = "host".getBytes(Charsets.ASCII_CHARSET);
+
+        headers.addValue(host, 0, host.length).setString("first");
+        headers.addValue("X-Custom").setString("custom");
+        headers.addValue("Content-Type").setString("text/plain");
+        headers.addValue(Header.Host).setString("second");
+
+        assertSame(Header.Host, headers.getKnownHeader(0));
+        assertNull(headers.getKnownHeader(1));
+        assertSame(Header.ContentType, headers.getKnownHeader(2));
+
+        assertTrue(headers.contains(Header.Host));
+        assertTrue(headers.contains("content-type"));
+        assertFalse(headers.contains(Header.ContentLength));
+        assertEquals("first", headers.getHeader(Header.Host));
+        assertEquals("first", headers.getHeader("HOST"));
+        assertEquals("custom", headers.getHeader("x-custom"));
+        assertEquals(3, headers.indexOf(Header.Host, 1));
+        assertEquals(-1, headers.indexOf(Header.Host, 4));
+
+        // the last field is moved in place of the removed one
+        headers.removeHeader("Host", "first");
+        assertEquals("second", headers.getHeader(Header.Host));
+        assertEquals(0, headers.indexOf(Header.Host, 0));
+
+        headers.addValue(Header.Host).setString("third");
+        headers.setValue(Header.Host).setString("only");
+        assertEquals(3, headers.size());
+        assertEquals("only", headers.getHeader(Header.Host));
+        assertEquals(-1, headers.indexOf(Header.Host, 1));
+
+        headers.removeHeader(Header.ContentType);
+        assertFalse(headers.contains(Header.ContentType));
+        assertEquals("only", headers.getHeader(Header.Host));
+
+        final MimeHeaders copy = new MimeHeaders();
+        copy.addValue(Header.Cookie).setString("cookie");
+        copy.copyFrom(headers);
+        assertFalse(copy.contains(Header.Cookie));
+        assertEquals("only", copy.getHeader(Header.Host));
+
+        headers.clear();
+        assertFalse(headers.contains(Header.Host));
+        assertNull(headers.getValue(Header.Host));
+        headers.addValue("X-Custom");
+        assertNull(headers.getKnownHeader(0));
+    }
+}
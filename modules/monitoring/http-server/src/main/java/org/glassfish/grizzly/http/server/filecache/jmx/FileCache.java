@@ -41,6 +41,7 @@
 package org.glassfish.grizzly.http.server.filecache.jmx;
 
 import org.glassfish.grizzly.http.server.filecache.FileCacheEntry;
+import org.glassfish.grizzly.http.server.filecache.FileCacheEntryProbe;
 import org.glassfish.grizzly.http.server.filecache.FileCacheProbe;
 import org.glassfish.grizzly.monitoring.jmx.JmxObject;
 import org.glassfish.gmbal.Description;
@@ -77,11 +78,36 @@ public class FileCache extends JmxObject {
      */
     private final AtomicLong cacheHitCount = new AtomicLong();
 
+    /**
+     * The number of cache hits served with the plain representation.
+     */
+    private final AtomicLong identityHitCount = new AtomicLong();
+
+    /**
+     * The number of cache hits served with the gzip representation.
+     */
+    private final AtomicLong gzipHitCount = new AtomicLong();
+
+    /**
+     * The number of cache hits served with the brotli representation.
+     */
+    private final AtomicLong brotliHitCount = new AtomicLong();
+
+    /**
+     * The number of cache hits served with the zstd representation.
+     */
+    private final AtomicLong zstdHitCount = new AtomicLong();
+
     /**
      * The number of cache misses.
      */
     private final AtomicLong cacheMissCount = new AtomicLong();
 
+    /**
+     * The number of evicted cache entries.
+     */
+    private final AtomicLong cacheEvictionCount = new AtomicLong();
+
     /**
      * The number of cache errors.
      */
@@ -92,6 +118,13 @@ public class FileCache extends JmxObject {
      */
     private final JMXFileCacheProbe fileCacheProbe = new JMXFileCacheProbe();
 
+    /**
+     * The {@link FileCacheEntryProbe} used to track eviction and variant
+     * statistics.
+     */
+    private final JMXFileCacheEntryProbe fileCacheEntryProbe =
+            new JMXFileCacheEntryProbe();
+
 
 
     // ------------------------------------------------------------ Constructors
@@ -126,13 +159,14 @@ public class FileCache extends JmxObject {
      * </p>
      *
      * <p>
-     * When invoked, this method will add a {@link FileCacheProbe} to track
-     * statistics.
+     * When invoked, this method will add a {@link FileCacheProbe} and
+     * a {@link FileCacheEntryProbe} to track statistics.
      * </p>
      */
     @Override
     protected void onRegister(GrizzlyJmxManager mom, GmbalMBean bean) {
         fileCache.getMonitoringConfig().addProbes(fileCacheProbe);
+        fileCache.getEntryMonitoringConfig().addProbes(fileCacheEntryProbe);
     }
 
     /**
@@ -141,7 +175,7 @@ public class FileCache extends JmxObject {
      * </p>
      *
      * <p>
-     * When invoked, this method will remove the {@link FileCacheProbe} added
+     * When invoked, this method will remove the probes added
      * by the {@link #onRegister(org.glassfish.grizzly.monitoring.jmx.GrizzlyJmxManager, org.glassfish.gmbal.GmbalMBean)}
      * call.
      * </p>
@@ -149,6 +183,7 @@ public class FileCache extends JmxObject {
     @Override
     protected void onDeregister(GrizzlyJmxManager mom) {
         fileCache.getMonitoringConfig().removeProbes(fileCacheProbe);
+        fileCache.getEntryMonitoringConfig().removeProbes(fileCacheEntryProbe);
     }
 
 
@@ -237,6 +272,42 @@ public class FileCache extends JmxObject {
         return cacheHitCount.get();
     }
 
+    /**
+     * @return the number of cache hits served with the plain representation.
+     */
+    @ManagedAttribute(id="cache-identity-hit-count")
+    @Description("The number of cache hits served with the plain representation.")
+    public long getIdentityHitCount() {
+        return identityHitCount.get();
+    }
+
+    /**
+     * @return the number of cache hits served with the gzip representation.
+     */
+    @ManagedAttribute(id="cache-gzip-hit-count")
+    @Description("The number of cache hits served with the gzip representation.")
+    public long getGzipHitCount() {
+        return gzipHitCount.get();
+    }
+
+    /**
+     * @return the number of cache hits served with the brotli representation.
+     */
+    @ManagedAttribute(id="cache-br-hit-count")
+    @Description("The number of cache hits served with the precompressed brotli representation.")
+    public long getBrotliHitCount() {
+        return brotliHitCount.get();
+    }
+
+    /**
+     * @return the number of cache hits served with the zstd representation.
+     */
+    @ManagedAttribute(id="cache-zstd-hit-count")
+    @Description("The number of cache hits served with the precompressed zstd representation.")
+    public long getZstdHitCount() {
+        return zstdHitCount.get();
+    }
+
     /**
      * @return the total number of cache misses.
      */
@@ -246,6 +317,26 @@ public class FileCache extends JmxObject {
         return cacheMissCount.get();
     }
 
+    /**
+     * @return the ratio of cache hits to all the cache lookups.
+     */
+    @ManagedAttribute(id="cache-hit-ratio")
+    @Description("The ratio of cache hits to all the cache lookups, between 0 and 1.")
+    public double getCacheHitRatio() {
+        final long hits = cacheHitCount.get();
+        final long lookups = hits + cacheMissCount.get();
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    /**
+     * @return the total number of evicted cache entries.
+     */
+    @ManagedAttribute(id="cache-eviction-count")
+    @Description("The total number of entries evicted to make room for more frequently used ones.")
+    public long getCacheEvictionCount() {
+        return cacheEvictionCount.get();
+    }
+
     /**
      * @return the total number of cache errors.
      */
@@ -280,7 +371,7 @@ public class FileCache extends JmxObject {
     /**
      * JMX statistic gathering {@link FileCacheProbe}.
      */
-    private final class JMXFileCacheProbe implements FileCacheProbe {
+    private final class JMXFileCacheProbe extends FileCacheProbe.Adapter {
 
 
         // ----------------------------------------- Methods from FileCacheProbe
@@ -315,4 +406,34 @@ public class FileCache extends JmxObject {
 
     } // END JMXFileCacheProbe
 
+
+    /**
+     * JMX statistic gathering {@link FileCacheEntryProbe}.
+     */
+    private final class JMXFileCacheEntryProbe extends FileCacheEntryProbe.Adapter {
+
+
+        // ------------------------------------ Methods from FileCacheEntryProbe
+
+
+        @Override
+        public void onEntryEvictedEvent(org.glassfish.grizzly.http.server.filecache.FileCache fileCache, FileCacheEntry entry) {
+            cacheEvictionCount.incrementAndGet();
+        }
+
+        @Override
+        public void onEntryVariantHitEvent(org.glassfish.grizzly.http.server.filecache.FileCache fileCache, FileCacheEntry entry, String encoding) {
+            if ("gzip".equals(encoding)) {
+                gzipHitCount.incrementAndGet();
+            } else if ("br".equals(encoding)) {
+                brotliHitCount.incrementAndGet();
+            } else if ("zstd".equals(encoding)) {
+                zstdHitCount.incrementAndGet();
+            } else {
+                identityHitCount.incrementAndGet();
+            }
+        }
+
+    } // END JMXFileCacheEntryProbe
+
 }
@@ -43,7 +43,9 @@ package org.glassfish.grizzly.http.server.jmx;
 import org.glassfish.grizzly.Connection;
 import org.glassfish.grizzly.http.server.Request;
 import org.glassfish.grizzly.http.server.Response;
+import org.glassfish.grizzly.http.server.Session;
 import org.glassfish.grizzly.http.server.HttpServerProbe;
+import org.glassfish.grizzly.http.server.SessionProbe;
 import org.glassfish.grizzly.monitoring.jmx.JmxObject;
 import org.glassfish.gmbal.Description;
 import org.glassfish.gmbal.GmbalMBean;
@@ -70,8 +72,11 @@ public class HttpServerFilter extends JmxObject {
     private final AtomicInteger suspendCount = new AtomicInteger();
     private final AtomicLong timedOutCount = new AtomicLong();
     private final AtomicLong cancelledCount = new AtomicLong();
+    private final AtomicLong sessionsCreatedCount = new AtomicLong();
+    private final AtomicLong sessionsExpiredCount = new AtomicLong();
 
     private final HttpServerProbe probe = new JmxWebServerProbe();
+    private final SessionProbe sessionProbe = new JmxSessionProbe();
 
     // ------------------------------------------------------------ Constructors
 
@@ -92,11 +97,13 @@ public class HttpServerFilter extends JmxObject {
     @Override
     protected void onRegister(GrizzlyJmxManager mom, GmbalMBean bean) {
         httpServerFilter.getMonitoringConfig().addProbes(probe);
+        httpServerFilter.getSessionMonitoringConfig().addProbes(sessionProbe);
     }
 
     @Override
     protected void onDeregister(GrizzlyJmxManager mom) {
         httpServerFilter.getMonitoringConfig().removeProbes(probe);
+        httpServerFilter.getSessionMonitoringConfig().removeProbes(sessionProbe);
     }
 
 
@@ -156,6 +163,38 @@ public class HttpServerFilter extends JmxObject {
     }
 
 
+    /**
+     * @return the number of sessions created by the requests processed by
+     *  this {@link org.glassfish.grizzly.http.server.HttpServerFilter}.
+     */
+    @ManagedAttribute(id="sessions-created-count")
+    @Description("The total number of sessions created.")
+    public long getSessionsCreatedCount() {
+        return sessionsCreatedCount.get();
+    }
+
+
+    /**
+     * @return the number of expired or invalidated sessions, which have been
+     *  evicted.
+     */
+    @ManagedAttribute(id="sessions-expired-count")
+    @Description("The total number of expired or invalidated sessions, which have been evicted.")
+    public long getSessionsExpiredCount() {
+        return sessionsExpiredCount.get();
+    }
+
+
+    /**
+     * @return the current number of sessions.
+     */
+    @ManagedAttribute(id="current-session-count")
+    @Description("The current number of sessions.")
+    public long getSessionsCount() {
+        return sessionsCreatedCount.get() - sessionsExpiredCount.get();
+    }
+
+
     // ---------------------------------------------------------- Nested Classes
 
 
@@ -204,5 +243,24 @@ public class HttpServerFilter extends JmxObject {
         }
 
     } // END JmxWebServerProbe
+
+
+    private final class JmxSessionProbe extends SessionProbe.Adapter {
+
+
+        // -------------------------------------------- Methods from SessionProbe
+
+
+        @Override
+        public void onSessionCreateEvent(org.glassfish.grizzly.http.server.HttpServerFilter filter, Session session) {
+            sessionsCreatedCount.incrementAndGet();
+        }
+
+        @Override
+        public void onSessionExpireEvent(org.glassfish.grizzly.http.server.HttpServerFilter filter, Session session) {
+            sessionsExpiredCount.incrementAndGet();
+        }
+
+    } // END JmxSessionProbe
     
 }
@@ -81,6 +81,8 @@ class SpdyEncoderUtils {
         final Buffer compressedBuffer = mm.allocate(2048);
         final Buffer plainBuffer = mm.allocate(2048);
         
+        response.decodeEncodedHeaders();
+        
         final MimeHeaders headers = response.getHeaders();
         
         headers.removeHeader(Header.Connection);
@@ -298,6 +300,8 @@ class SpdyEncoderUtils {
         }
         // ---------------------------------------------------------------
 
+        response.decodeEncodedHeaders();
+        
         final MimeHeaders headers = response.getHeaders();
         
         final String hostHeader = headers.getHeader(Header.Host);
@@ -162,6 +162,24 @@ public class HttpLayerSemanticsTest extends AbstractSpdyTest {
         assertEquals("1", responsePacket.getHeader(spdyStreamIdHeader));
     }    
     
+    @Test
+    public void testEncodedHeaders() throws Throwable {
+        final HttpRequestPacket requestPacket =
+                (HttpRequestPacket) createRequest(PORT, "GET", null, null, null);
+        final HttpContent resContent = doTest(requestPacket, 2000, new HttpHandler() {
+
+            @Override
+            public void service(Request request, Response response) throws Exception {
+                response.addEncodedHeaders("X-Encoded: value\r\n".getBytes());
+            }
+        });
+
+        final HttpResponsePacket responsePacket =
+                (HttpResponsePacket) resContent.getHttpHeader();
+
+        assertEquals("value", responsePacket.getHeader("X-Encoded"));
+    }
+    
     // --------------------------------------------------------- Private Methods
     
     private HttpServer createWebServer(final HttpHandler httpHandler) {
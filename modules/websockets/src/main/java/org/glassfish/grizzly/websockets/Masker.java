@@ -40,11 +40,24 @@
 
 package org.glassfish.grizzly.websockets;
 
+import java.nio.BufferUnderflowException;
 import java.security.SecureRandom;
 
 import org.glassfish.grizzly.Buffer;
 
 public class Masker {
+    /**
+     * Per-thread mask source, seeding a new {@link SecureRandom} per frame
+     * costs more than the frame encoding itself.
+     */
+    private static final ThreadLocal<SecureRandom> MASK_RANDOM =
+            new ThreadLocal<SecureRandom>() {
+                @Override
+                protected SecureRandom initialValue() {
+                    return new SecureRandom();
+                }
+            };
+
     private Buffer buffer;
     private byte[] mask;
     private int index = 0;
@@ -69,15 +82,28 @@ public class Masker {
 
     public byte unmask() {
         final byte b = get();
-        return mask == null ? b : (byte) (b ^ mask[index++ % Constants.MASK_SIZE]);
+        return mask == null ? b : (byte) (b ^ mask[index++ & (Constants.MASK_SIZE - 1)]);
     }
 
     public byte[] unmask(int count) {
-        byte[] bytes = get(count);
-        if (mask != null) {
-            for (int i = 0; i < bytes.length; i++) {
-                bytes[i] ^= mask[index++ % Constants.MASK_SIZE];
+        if (mask == null) {
+            return get(count);
+        }
+
+        final byte[] bytes = new byte[count];
+        if (buffer.hasArray()) {
+            // unmask while copying out of the buffer's array
+            if (buffer.remaining() < count) {
+                throw new BufferUnderflowException();
             }
+
+            final int position = buffer.position();
+            mask(buffer.array(), buffer.arrayOffset() + position,
+                    bytes, 0, count);
+            buffer.position(position + count);
+        } else {
+            buffer.get(bytes);
+            mask(bytes, 0, bytes, 0, count);
         }
 
         return bytes;
@@ -85,19 +111,19 @@ public class Masker {
 
     public void generateMask() {
         mask = new byte[Constants.MASK_SIZE];
-        new SecureRandom().nextBytes(mask);
+        MASK_RANDOM.get().nextBytes(mask);
     }
 
     public void mask(byte[] bytes, int location, byte b) {
-        bytes[location] = mask == null ? b : (byte) (b ^ mask[index++ % Constants.MASK_SIZE]);
+        bytes[location] = mask == null ? b : (byte) (b ^ mask[index++ & (Constants.MASK_SIZE - 1)]);
     }
 
     public void mask(byte[] target, int location, byte[] bytes) {
         if(bytes != null && target != null) {
-            for (int i = 0; i < bytes.length; i++) {
-                target[location + i] = mask == null
-                        ? bytes[i]
-                        : (byte) (bytes[i] ^ mask[index++ % Constants.MASK_SIZE]);
+            if (mask == null) {
+                System.arraycopy(bytes, 0, target, location, bytes.length);
+            } else {
+                mask(bytes, 0, target, location, bytes.length);
             }
         }
     }
@@ -121,4 +147,42 @@ public class Masker {
     public void readMask() {
         mask = get(Constants.MASK_SIZE);
     }
+
+    /**
+     * XORs <tt>length</tt> bytes of <tt>src</tt> with the mask, continuing
+     * from the current mask index, and stores them to <tt>dst</tt>, which may
+     * be the same array. The mask bytes are kept in locals and the loop
+     * handles 8 bytes (two mask rounds) per iteration, which saves the
+     * per-byte mask index arithmetic and most of the bounds checks.
+     */
+    private void mask(final byte[] src, final int srcPos,
+            final byte[] dst, final int dstPos, final int length) {
+        final byte m0 = mask[index & 3];
+        final byte m1 = mask[(index + 1) & 3];
+        final byte m2 = mask[(index + 2) & 3];
+        final byte m3 = mask[(index + 3) & 3];
+
+        int s = srcPos;
+        int d = dstPos;
+        final int wordsEnd = srcPos + (length & ~7);
+        while (s < wordsEnd) {
+            dst[d] = (byte) (src[s] ^ m0);
+            dst[d + 1] = (byte) (src[s + 1] ^ m1);
+            dst[d + 2] = (byte) (src[s + 2] ^ m2);
+            dst[d + 3] = (byte) (src[s + 3] ^ m3);
+            dst[d + 4] = (byte) (src[s + 4] ^ m0);
+            dst[d + 5] = (byte) (src[s + 5] ^ m1);
+            dst[d + 6] = (byte) (src[s + 6] ^ m2);
+            dst[d + 7] = (byte) (src[s + 7] ^ m3);
+            s += 8;
+            d += 8;
+        }
+
+        final int end = srcPos + length;
+        for (int i = 0; s < end; i++) {
+            dst[d++] = (byte) (src[s++] ^ mask[(index + i) & 3]);
+        }
+
+        index += length;
+    }
 }
@@ -58,6 +58,7 @@ import org.glassfish.grizzly.http.HttpRequestPacket;
 import org.glassfish.grizzly.http.HttpResponsePacket;
 import org.glassfish.grizzly.impl.FutureImpl;
 import org.glassfish.grizzly.impl.SafeFutureImpl;
+import org.glassfish.grizzly.utils.Charsets;
 import org.glassfish.grizzly.websockets.frametypes.BinaryFrameType;
 import org.glassfish.grizzly.websockets.frametypes.TextFrameType;
 
@@ -321,6 +322,13 @@ public abstract class ProtocolHandler {
     }
 
     protected void utf8Decode(boolean finalFragment, byte[] data, DataFrame dataFrame) {
+            if (remainder == null && Utf8Utils.isAscii(data, 0, data.length)) {
+                // ASCII is valid UTF-8 and re-encodes to the same bytes
+                dataFrame.setPayload(new String(data, Charsets.ASCII_CHARSET));
+                dataFrame.setPayload(data);
+                return;
+            }
+
             final ByteBuffer b = getByteBuffer(data);
             int n = (int) (b.remaining() * currentDecoder.averageCharsPerByte());
             CharBuffer cb = CharBuffer.allocate(n);
@@ -341,7 +349,7 @@ public abstract class ProtocolHandler {
                     cb.flip();
                     String res = cb.toString();
                     dataFrame.setPayload(res);
-                    dataFrame.setPayload(Utf8Utils.encode(new StrictUtf8(), res));
+                    dataFrame.setPayload(Utf8Utils.encode(utf8, res));
                     break;
                 }
                 if (result.isOverflow()) {
@@ -57,6 +57,9 @@ public class Utf8Utils {
             return EMPTY_ARRAY;
         }
 
+        if (charset instanceof StrictUtf8 && isAscii(string)) {
+            return encodeAscii(string);
+        }
 
         CharsetEncoder ce = Charsets.getCharsetEncoder(charset);
 
@@ -110,6 +113,54 @@ public class Utf8Utils {
         os.write(ba, 0, bb.position());
     }
 
+    /**
+     * Checks if the bytes are all 7-bit ASCII, in which case they are valid
+     * UTF-8 and decode to the chars with the same codes. The bytes are tested
+     * 8 at a time, by the sign bit of their bitwise OR.
+     */
+    public static boolean isAscii(final byte[] bytes, final int offset,
+            final int length) {
+        int i = offset;
+        final int wordsEnd = offset + (length & ~7);
+        while (i < wordsEnd) {
+            if ((bytes[i] | bytes[i + 1] | bytes[i + 2] | bytes[i + 3]
+                    | bytes[i + 4] | bytes[i + 5] | bytes[i + 6] | bytes[i + 7]) < 0) {
+                return false;
+            }
+            i += 8;
+        }
+
+        final int end = offset + length;
+        while (i < end) {
+            if (bytes[i++] < 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static boolean isAscii(final String string) {
+        final int length = string.length();
+        for (int i = 0; i < length; i++) {
+            if (string.charAt(i) >= '\u0080') {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static byte[] encodeAscii(final String string) {
+        final int length = string.length();
+        final byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = (byte) string.charAt(i);
+        }
+
+        return bytes;
+    }
+
     private static int scale(int len, float expansionFactor) {
         // We need to perform double, not float, arithmetic; otherwise
         // we lose low order bits when len is larger than 2**24.
@@ -0,0 +1,113 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.grizzly.websockets;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import org.glassfish.grizzly.Buffer;
+import org.glassfish.grizzly.memory.Buffers;
+import org.glassfish.grizzly.memory.HeapMemoryManager;
+import org.glassfish.grizzly.memory.MemoryManager;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class MaskerTest {
+
+    private final MemoryManager mm = new HeapMemoryManager();
+
+    @Test
+    public void testMaskUnmaskHeap() {
+        for (int length = 0; length < 40; length++) {
+            final byte[] payload = payload(length);
+            final Masker masker = new Masker();
+            final byte[] masked = masker.maskAndPrepend(payload);
+            assertArrayEquals(expected(payload, masker.getMask()),
+                    Arrays.copyOfRange(masked, Constants.MASK_SIZE, masked.length));
+
+            final Buffer buffer = Buffers.wrap(mm, masked);
+            final Masker unmasker = new Masker(buffer);
+            unmasker.readMask();
+            assertArrayEquals(payload, unmasker.unmask(length));
+            assertEquals(masked.length, buffer.position());
+        }
+    }
+
+    @Test
+    public void testUnmaskDirectAfterSingleBytes() {
+        final byte[] payload = payload(29);
+        final byte[] mask = {(byte) 0x81, 0x12, (byte) 0xF3, 0x44};
+
+        final ByteBuffer direct = ByteBuffer.allocateDirect(
+                Constants.MASK_SIZE + payload.length);
+        direct.put(mask).put(expected(payload, mask)).flip();
+        final Buffer buffer = Buffers.wrap(mm, direct);
+        final Masker masker = new Masker(buffer);
+        masker.readMask();
+
+        // unmask a few bytes one by one, so the word loop starts mid-mask
+        final byte[] unmasked = new byte[payload.length];
+        for (int i = 0; i < 3; i++) {
+            unmasked[i] = masker.unmask();
+        }
+        System.arraycopy(masker.unmask(payload.length - 3), 0,
+                unmasked, 3, payload.length - 3);
+
+        assertArrayEquals(payload, unmasked);
+    }
+
+    private static byte[] payload(final int length) {
+        final byte[] payload = new byte[length];
+        for (int i = 0; i < length; i++) {
+            payload[i] = (byte) (i * 31 + 7);
+        }
+        return payload;
+    }
+
+    private static byte[] expected(final byte[] payload, final byte[] mask) {
+        final byte[] result = new byte[payload.length];
+        for (int i = 0; i < payload.length; i++) {
+            result[i] = (byte) (payload[i] ^ mask[i % Constants.MASK_SIZE]);
+        }
+        return result;
+    }
+}